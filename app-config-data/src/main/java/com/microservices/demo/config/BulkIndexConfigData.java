@@ -0,0 +1,66 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "bulk-index-config")
+public class BulkIndexConfigData {
+    /**
+     * Documents per bulk request at startup; adapted between min-bulk-size and max-bulk-size from then on.
+     */
+    private Integer initialBulkSize;
+
+    /**
+     * Smallest bulk size, also the step the bulk size grows by after a response faster than target-latency-ms.
+     */
+    private Integer minBulkSize;
+
+    private Integer maxBulkSize;
+
+    /**
+     * Request body size at which a bulk is sent whatever its document count.
+     */
+    private Integer maxBulkBytes;
+
+    /**
+     * Bulk requests in flight at startup; adapted between one and max-concurrency from then on.
+     */
+    private Integer initialConcurrency;
+
+    private Integer maxConcurrency;
+
+    /**
+     * Response latency the bulk size and concurrency are tuned towards.
+     */
+    private Long targetLatencyMs;
+
+    /**
+     * How long a bulk waits for more documents before it is sent.
+     */
+    private Long flushIntervalMs;
+
+    /**
+     * Documents polled but not indexed yet at which the consumer pauses fetching; it resumes once half of them are.
+     */
+    private Integer maxPendingDocuments;
+
+    /**
+     * Attempts for documents the cluster rejected, waiting retry-backoff-ms doubled after each one.
+     */
+    private Integer maxRetries;
+
+    private Long retryBackoffMs;
+
+    private Long pollTimeoutMs;
+
+    private Long commitIntervalMs;
+
+    /**
+     * How long a revoked partition, or the whole consumer on close, waits for its documents to be indexed before
+     * committing what is done.
+     */
+    private Long drainTimeoutMs;
+}
@@ -0,0 +1,50 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "circuit-breaker-config")
+public class CircuitBreakerConfigData {
+    private Boolean enabled;
+
+    /**
+     * Number of most recent calls the failure and slow-call rates are computed over.
+     */
+    private Integer slidingWindowSize;
+
+    private Integer minimumCalls;
+
+    private Integer failureRateThresholdPercent;
+
+    private Long slowCallDurationMs;
+
+    private Integer slowCallRateThresholdPercent;
+
+    private Long openStateDurationMs;
+
+    private Integer halfOpenProbeCalls;
+
+    /**
+     * What a send does while the circuit is open, BLOCK when not set.
+     */
+    private OpenStateAction openStateAction;
+
+    public enum OpenStateAction {
+        /**
+         * Wait on the sending thread until the circuit lets the send through, so the outage holds back the source
+         * instead of losing records.
+         */
+        BLOCK,
+        /**
+         * Reject the send with an exception; the caller decides what happens to the record.
+         */
+        FAIL_FAST,
+        /**
+         * Hand the record to the fallback bean, which discards it unless another one is declared.
+         */
+        FALLBACK
+    }
+}
@@ -0,0 +1,24 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "elastic-config")
+public class ElasticConfigData {
+    private String indexName;
+
+    /**
+     * Base URL of the cluster; bulk requests go to its _bulk endpoint.
+     */
+    private String connectionUrl;
+
+    private Integer connectTimeoutMs;
+
+    /**
+     * How long a bulk request may take before it counts as rejected and is retried.
+     */
+    private Integer socketTimeoutMs;
+}
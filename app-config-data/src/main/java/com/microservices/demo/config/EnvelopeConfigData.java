@@ -0,0 +1,42 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "envelope-config")
+public class EnvelopeConfigData {
+    private Boolean enabled;
+
+    /**
+     * Topic whose records are packed into envelopes; records for any other topic are sent one by one.
+     */
+    private String sourceTopic;
+
+    /**
+     * Topic the envelopes are sent to, consumers unpack them from here.
+     */
+    private String topicName;
+
+    /**
+     * An envelope is sent once it holds this many tweets.
+     */
+    private Integer maxRecords;
+
+    /**
+     * An envelope is sent once the estimated serialized size of its tweets reaches this many bytes.
+     */
+    private Integer maxBytes;
+
+    /**
+     * An envelope is sent at the latest this long after its first tweet was added.
+     */
+    private Long lingerMs;
+
+    /**
+     * compression.type of the envelope producer; unset keeps the one of kafka-producer-config.
+     */
+    private String compressionType;
+}
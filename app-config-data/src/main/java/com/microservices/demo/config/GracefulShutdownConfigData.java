@@ -0,0 +1,14 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "graceful-shutdown-config")
+public class GracefulShutdownConfigData {
+    private Boolean enabled;
+
+    private Long deadlineMs;
+}
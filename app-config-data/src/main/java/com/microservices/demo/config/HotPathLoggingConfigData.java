@@ -0,0 +1,32 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "hot-path-logging-config")
+public class HotPathLoggingConfigData {
+    private Long summaryIntervalMs;
+
+    private Integer asyncQueueSize;
+
+    private Site defaults = new Site();
+
+    private Map<String, Site> sites = new HashMap<>();
+
+    /**
+     * Sampling rules of one log call site. A rule set to 0 is disabled; a line is logged when any
+     * enabled rule fires, and a site with no enabled rule only feeds the summary counters.
+     */
+    @Data
+    public static class Site {
+        private Long sampleEveryN = 0L;
+
+        private Long sampleIntervalMs = 0L;
+    }
+}
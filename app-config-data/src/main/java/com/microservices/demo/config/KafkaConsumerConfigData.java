@@ -0,0 +1,30 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kafka-consumer-config")
+public class KafkaConsumerConfigData {
+    private String keyDeserializer;
+
+    private String valueDeserializer;
+
+    private String consumerGroupId;
+
+    private String autoOffsetReset;
+
+    private String specificAvroReaderKey;
+
+    private String specificAvroReader;
+
+    private Integer maxPollRecords;
+
+    private Integer maxPollIntervalMs;
+
+    private Integer sessionTimeoutMs;
+
+    private Integer heartbeatIntervalMs;
+}
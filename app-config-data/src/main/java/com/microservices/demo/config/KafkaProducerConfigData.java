@@ -4,6 +4,11 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "kafka-producer-config")
@@ -24,5 +29,31 @@ public class KafkaProducerConfigData {
 
     private Integer requestTimeoutMs;
 
+    private Integer maxBlockMs;
+
     private Integer retryCount;
+
+    /**
+     * Named producer settings, each with its own producer; topics listed by no profile use the settings above.
+     */
+    private Map<String, ProducerProfile> profiles = new LinkedHashMap<>();
+
+    /**
+     * Settings left unset fall back to the global ones above.
+     */
+    @Data
+    public static class ProducerProfile {
+        private List<String> topics = new ArrayList<>();
+
+        private String acks;
+
+        private Integer lingerMs;
+
+        /**
+         * Multiplied by batch-size-boost-factor, like the global batch size.
+         */
+        private Integer batchSize;
+
+        private String compressionType;
+    }
 }
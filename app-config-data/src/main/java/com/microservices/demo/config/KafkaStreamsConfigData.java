@@ -0,0 +1,34 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kafka-streams-config")
+public class KafkaStreamsConfigData {
+    private String applicationId;
+
+    private String stateDir;
+
+    private Integer numStreamThreads;
+
+    private Long commitIntervalMs;
+
+    private String tumblingWindowStoreName;
+
+    private Long tumblingWindowSizeMs;
+
+    private String hoppingWindowStoreName;
+
+    private Long hoppingWindowSizeMs;
+
+    private Long hoppingWindowAdvanceMs;
+
+    private Long windowGraceMs;
+
+    private Long windowStoreRetentionMs;
+
+    private String windowStoreType;
+}
@@ -0,0 +1,18 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "latency-tracking-config")
+public class LatencyTrackingConfigData {
+    private Boolean enabled;
+
+    private List<Double> percentiles;
+
+    private List<Long> serviceLevelObjectivesMs;
+}
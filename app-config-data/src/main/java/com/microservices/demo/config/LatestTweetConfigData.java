@@ -0,0 +1,61 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "latest-tweet-config")
+public class LatestTweetConfigData {
+    /**
+     * Whether the latest tweet of every user is published to the compacted topic.
+     */
+    private Boolean enabled;
+
+    private String topicName;
+
+    /**
+     * How long tweets are collected before the latest one per user is sent; 0 sends every tweet right away.
+     */
+    private Long conflateMs;
+
+    /**
+     * Segment roll time of the compacted topic; only closed segments are compacted.
+     */
+    private Long segmentMs;
+
+    private Double minCleanableDirtyRatio;
+
+    /**
+     * How long tombstones stay in the compacted topic for consumers to see the removal.
+     */
+    private Long deleteRetentionMs;
+
+    /**
+     * Whether this service builds the per-user view from the compacted topic and serves it over REST.
+     */
+    private Boolean viewEnabled;
+
+    /**
+     * Keeps the tweets of the view in direct memory instead of one heap array per user.
+     */
+    private Boolean offHeap;
+
+    /**
+     * Users the view is sized for up front, so a restore does not rehash while it loads.
+     */
+    private Integer expectedUsers;
+
+    /**
+     * Size of the direct buffers the off-heap view allocates its tweets from.
+     */
+    private Integer slabBytes;
+
+    /**
+     * Bytes fetched per partition and request, large to restore the view in few round trips.
+     */
+    private Integer restoreFetchBytes;
+
+    private Long pollTimeoutMs;
+}
@@ -0,0 +1,49 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "near-duplicate-config")
+public class NearDuplicateConfigData {
+    private Boolean enabled;
+
+    /**
+     * What happens to near duplicates, TAG when not set.
+     */
+    private Action action;
+
+    /**
+     * Fingerprints that differ in at most this many of their 64 bits are near duplicates, 0 to 7.
+     */
+    private Integer maxHammingDistance;
+
+    /**
+     * How long a tweet is matched against; near duplicates of older tweets are let through.
+     */
+    private Long windowMs;
+
+    /**
+     * Tweets the window holds at most; the oldest are forgotten early when more arrive within window-ms.
+     */
+    private Integer capacity;
+
+    /**
+     * Tweets with fewer terms are not checked, as too few features make unrelated short tweets collide.
+     */
+    private Integer minTokens;
+
+    public enum Action {
+        /**
+         * Near duplicates are not produced. Opt-in only, as tweets that merely share most of their terms are dropped
+         * too.
+         */
+        DROP,
+        /**
+         * Near duplicates are produced with the id of the first tweet of their cluster as nearDuplicateClusterId.
+         */
+        TAG
+    }
+}
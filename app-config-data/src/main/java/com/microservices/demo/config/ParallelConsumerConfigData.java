@@ -0,0 +1,34 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "parallel-consumer-config")
+public class ParallelConsumerConfigData {
+    /**
+     * Threads processing records, independent of the partition count; 0 uses one per available core.
+     */
+    private Integer workerThreads;
+
+    /**
+     * Polled records not yet processed, across all partitions, at which the consumer pauses fetching; it resumes
+     * once half of them are done.
+     */
+    private Integer maxPendingRecords;
+
+    private Long pollTimeoutMs;
+
+    /**
+     * How often the offsets completed so far are committed.
+     */
+    private Long commitIntervalMs;
+
+    /**
+     * How long a revoked partition, or the whole consumer on close, waits for its polled records to be processed
+     * before committing what is done.
+     */
+    private Long drainTimeoutMs;
+}
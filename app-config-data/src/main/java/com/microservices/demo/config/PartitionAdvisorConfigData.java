@@ -0,0 +1,47 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "partition-advisor-config")
+public class PartitionAdvisorConfigData {
+    private Boolean enabled;
+
+    private Long sampleIntervalMs;
+
+    /**
+     * Samples per topic the growth trend is fitted over.
+     */
+    private Integer historySamples;
+
+    /**
+     * Records per second one consumer instance keeps up with on a single partition.
+     */
+    private Long consumerRecordsPerSecondPerPartition;
+
+    /**
+     * Bytes per second one broker accepts, replication traffic included.
+     */
+    private Long brokerBytesPerSecond;
+
+    /**
+     * Share of the capacities above that counts as saturated.
+     */
+    private Integer targetUtilizationPercent;
+
+    /**
+     * How far ahead the trend is projected; an increase is advised when consumers saturate within it.
+     */
+    private Long projectionHorizonMs;
+
+    private Integer maxPartitions;
+
+    /**
+     * Whether advised increases are applied with createPartitions or only logged. Keys hash to different
+     * partitions after an increase, so per-key ordering across the change is lost.
+     */
+    private Boolean applyIncreases;
+}
@@ -0,0 +1,58 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "priority-lane-config")
+public class PriorityLaneConfigData {
+    private Boolean enabled;
+
+    /**
+     * Lane for tweets that match no lane's keywords.
+     */
+    private String defaultLane;
+
+    /**
+     * Lanes in priority order; a tweet goes to the first lane with one of its keywords as a word of its text.
+     */
+    private Map<String, Lane> lanes = new LinkedHashMap<>();
+
+    /**
+     * One priority class with its own queue, sending with the producer of a kafka-producer-config profile.
+     */
+    @Data
+    public static class Lane {
+        private List<String> keywords = new ArrayList<>();
+
+        private Integer queueCapacity = 10000;
+
+        /**
+         * What a send does while the queue of this lane is full.
+         */
+        private OverflowAction overflowAction = OverflowAction.BLOCK;
+
+        /**
+         * Name of a kafka-producer-config profile; unset sends with the default producer.
+         */
+        private String producerProfile;
+    }
+
+    public enum OverflowAction {
+        /**
+         * Wait on the sending thread for room in the queue.
+         */
+        BLOCK,
+        /**
+         * Drop the record and count it as tweet.lane.dropped. Loses data under load; only for lanes that may.
+         */
+        DROP
+    }
+}
@@ -0,0 +1,17 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "reconfiguration-config")
+public class ReconfigurationConfigData {
+    private Boolean enabled;
+
+    /**
+     * Longest time sends may be held back while the producer is swapped; a swap that needs longer is abandoned.
+     */
+    private Long maxPauseMs;
+}
@@ -0,0 +1,33 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "reservoir-sample-config")
+public class ReservoirSampleConfigData {
+    private Boolean enabled;
+
+    private String topicName;
+
+    private Long windowMs;
+
+    /**
+     * Records kept per stratum and window; the sample topic gets at most this many per stratum every window-ms.
+     */
+    private Integer samplesPerStratum;
+
+    /**
+     * Keywords a record is stratified by, the first one it contains wins. The twitter keywords when empty.
+     */
+    private List<String> strata;
+
+    /**
+     * Whether records without any of the keywords are sampled too, in a stratum of their own.
+     */
+    private Boolean sampleUnmatched;
+}
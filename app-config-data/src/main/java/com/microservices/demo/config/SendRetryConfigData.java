@@ -0,0 +1,63 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "send-retry-config")
+public class SendRetryConfigData {
+    private Boolean enabled;
+
+    /**
+     * Topics whose failed sends are retried; failures on other topics are only logged.
+     */
+    private List<String> topics;
+
+    /**
+     * Delay of every retry tier, in order. A record that still fails after the last tier goes to the dead-letter topic.
+     */
+    private List<Long> delaysMs;
+
+    private String retryTopicSuffix;
+
+    private String deadLetterTopicSuffix;
+
+    /**
+     * Failed records waiting to be written to the first retry tier; failures beyond it are counted as lost.
+     */
+    private Integer routerQueueCapacity;
+
+    private String retrierGroupId;
+
+    private Long retrierPollMs;
+
+    /**
+     * @return the topic of retry tier, e.g. twitter-topic-retry-1000 for a 1000 ms tier
+     */
+    public String retryTopic(String topic, int tier) {
+        return topic + retryTopicSuffix + delaysMs.get(tier);
+    }
+
+    public String deadLetterTopic(String topic) {
+        return topic + deadLetterTopicSuffix;
+    }
+
+    /**
+     * @return every retry tier and dead-letter topic of the retried topics
+     */
+    public List<String> retryAndDeadLetterTopics() {
+        List<String> retryAndDeadLetterTopics = new ArrayList<>();
+        for (String topic : topics) {
+            for (int tier = 0; tier < delaysMs.size(); tier++) {
+                retryAndDeadLetterTopics.add(retryTopic(topic, tier));
+            }
+            retryAndDeadLetterTopics.add(deadLetterTopic(topic));
+        }
+        return retryAndDeadLetterTopics;
+    }
+}
@@ -0,0 +1,17 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "tokenization-config")
+public class TokenizationConfigData {
+    private Boolean enabled;
+
+    /**
+     * Cap on the tokens, and separately on the hashtags, written into one record.
+     */
+    private Integer maxTokens;
+}
@@ -0,0 +1,26 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "trending-terms-config")
+public class TrendingTermsConfigData {
+    private Boolean enabled;
+
+    private Integer topK;
+
+    private Integer candidateCapacity;
+
+    private Integer sketchDepth;
+
+    private Integer sketchWidth;
+
+    private Long windowMs;
+
+    private Integer windowBuckets;
+
+    private Integer minTermLength;
+}
@@ -0,0 +1,18 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "tweet-index-config")
+public class TweetIndexConfigData {
+    private Boolean enabled;
+
+    private Long shardDurationMs;
+
+    private Long retentionMs;
+
+    private Integer maxResults;
+}
@@ -21,4 +21,38 @@ public class TwitterToKafkaServiceConfigData {
     private Integer mockMinTweetLength;
 
     private Integer mockMaxTweetLength;
+
+    /**
+     * Number of distinct users mock tweets are spread across; every mock tweet gets a new random user when not set.
+     */
+    private Long mockUserCount;
+
+    /**
+     * Transform every status into a per-thread reused Avro model instead of building a new one.
+     */
+    private Boolean transformerObjectReuse;
+
+    /**
+     * Transform raw stream JSON straight into the Avro model instead of parsing it into a twitter4j Status first.
+     */
+    private Boolean rawJsonTransform;
+
+    /**
+     * Number of stream connections the keywords are split across, each with its own dispatch thread.
+     */
+    private Integer streamShardCount;
+
+    private Integer streamShardQueueCapacity;
+
+    /**
+     * How long the twitter4j dispatcher, shared by every shard, waits for room in a full shard queue before the
+     * message is dropped and counted as twitter.stream.overflow, so one backed-up shard cannot stall the others.
+     */
+    private Long streamShardOfferTimeoutMs;
+
+    private Long streamReconnectInitialBackoffMs;
+
+    private Long streamReconnectMaxBackoffMs;
+
+    private Double streamReconnectBackoffMultiplier;
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "user-enrichment-config")
+public class UserEnrichmentConfigData {
+    private Boolean enabled;
+
+    /**
+     * Where user metadata is looked up: "file" reads file-path once at startup, "simulated" derives it from the
+     * user id after simulated-lookup-delay-ms, standing in for a remote user service with mock tweets only. Any
+     * other value provides none, and enabled then fails at startup.
+     */
+    private String source;
+
+    /**
+     * CSV file with userId,followerTier,accountClass lines; lines starting with '#' are skipped.
+     */
+    private String filePath;
+
+    private Long simulatedLookupDelayMs;
+
+    private Long cacheMaximumSize;
+
+    private Long cacheExpireAfterWriteMs;
+
+    /**
+     * Age after which an entry is reloaded in the background on its next read, while the old value is still served.
+     */
+    private Long cacheRefreshAfterWriteMs;
+
+    /**
+     * How long a record waits for a missing entry before it is produced without user metadata. With 0 a miss
+     * never blocks the ingest thread: the record goes out without metadata and the load fills the cache.
+     */
+    private Long lookupTimeoutMs;
+
+    private Integer loaderThreads;
+}
@@ -0,0 +1,78 @@
+package com.microservices.demo.common.logging;
+
+import com.microservices.demo.config.HotPathLoggingConfigData;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of sampled hot-path log sites.
+ * Replaces per-record log lines with one summary line per site and interval, reporting how many
+ * events the site saw and how many of them were actually logged.
+ */
+@Component
+public class HotPathLogging {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HotPathLogging.class);
+
+    private final HotPathLoggingConfigData hotPathLoggingConfigData;
+
+    private final Map<String, SampledLogSite> sites = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService summaryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hot-path-log-summary");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public HotPathLogging(HotPathLoggingConfigData hotPathLoggingConfigData) {
+        this.hotPathLoggingConfigData = hotPathLoggingConfigData;
+    }
+
+    @PostConstruct
+    public void init() {
+        Long summaryIntervalMs = hotPathLoggingConfigData.getSummaryIntervalMs();
+        if (summaryIntervalMs != null && summaryIntervalMs > 0) {
+            summaryExecutor.scheduleAtFixedRate(this::logSummary, summaryIntervalMs, summaryIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        summaryExecutor.shutdown();
+        logSummary();
+    }
+
+    /**
+     * Returns the log site with the given name, creating it with the sampling rules configured under
+     * hot-path-logging-config.sites, or the defaults when the site has no entry.
+     *
+     * @param name   name of the call site, used for configuration and in the summary line
+     * @param logger logger the sampled lines are written to
+     */
+    public SampledLogSite site(String name, Logger logger) {
+        return sites.computeIfAbsent(name, siteName -> {
+            HotPathLoggingConfigData.Site site = hotPathLoggingConfigData.getSites()
+                    .getOrDefault(siteName, hotPathLoggingConfigData.getDefaults());
+            return new SampledLogSite(siteName, logger, site.getSampleEveryN(), site.getSampleIntervalMs());
+        });
+    }
+
+    void logSummary() {
+        for (SampledLogSite site : sites.values()) {
+            long events = site.drainEvents();
+            long logged = site.drainLogged();
+            if (events > 0) {
+                LOG.info("Hot path [{}]: {} event(s) since last summary, {} logged", site.getName(), events, logged);
+            }
+        }
+    }
+}
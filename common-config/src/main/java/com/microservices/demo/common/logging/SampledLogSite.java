@@ -0,0 +1,103 @@
+package com.microservices.demo.common.logging;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One sampled INFO log call site on a hot path.
+ * Every call is counted for the periodic summary, but a line is only formatted and written when the
+ * site is sampled: every Nth call, or at most once per interval. Fixed-arity overloads avoid the
+ * varargs array, so a call that is not sampled costs a counter increment and no allocation.
+ */
+public class SampledLogSite {
+
+    private final String name;
+
+    private final Logger logger;
+
+    private final long sampleEveryN;
+
+    private final long sampleIntervalNanos;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicLong lastLoggedNanos;
+
+    private final LongAdder events = new LongAdder();
+
+    private final LongAdder logged = new LongAdder();
+
+    SampledLogSite(String name, Logger logger, long sampleEveryN, long sampleIntervalMs) {
+        this.name = name;
+        this.logger = logger;
+        this.sampleEveryN = sampleEveryN;
+        this.sampleIntervalNanos = sampleIntervalMs * 1_000_000L;
+        this.lastLoggedNanos = new AtomicLong(System.nanoTime() - sampleIntervalNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Counts an event without attempting to log it.
+     */
+    public void count() {
+        events.increment();
+    }
+
+    public void info(String format, Object arg) {
+        if (sample()) {
+            logger.info(format, arg);
+        }
+    }
+
+    public void info(String format, Object arg1, Object arg2) {
+        if (sample()) {
+            logger.info(format, arg1, arg2);
+        }
+    }
+
+    public void info(String format, Object arg1, Object arg2, Object arg3) {
+        if (sample()) {
+            logger.info(format, arg1, arg2, arg3);
+        }
+    }
+
+    public void info(String format, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (sample()) {
+            logger.info(format, arg1, arg2, arg3, arg4);
+        }
+    }
+
+    /**
+     * Counts an event and decides whether it should be logged.
+     * Callers that need to build expensive arguments can guard on this instead of using the info overloads.
+     */
+    public boolean sample() {
+        events.increment();
+        if (!logger.isInfoEnabled()) {
+            return false;
+        }
+        boolean sampled = sampleEveryN > 0 && sequence.getAndIncrement() % sampleEveryN == 0;
+        if (!sampled && sampleIntervalNanos > 0) {
+            long now = System.nanoTime();
+            long last = lastLoggedNanos.get();
+            sampled = now - last >= sampleIntervalNanos && lastLoggedNanos.compareAndSet(last, now);
+        }
+        if (sampled) {
+            logged.increment();
+        }
+        return sampled;
+    }
+
+    long drainEvents() {
+        return events.sumThenReset();
+    }
+
+    long drainLogged() {
+        return logged.sumThenReset();
+    }
+}
@@ -0,0 +1,77 @@
+package com.microservices.demo.common.logging;
+
+import com.microservices.demo.config.HotPathLoggingConfigData;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotPathLoggingTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HotPathLoggingTests.class);
+
+    @Test
+    void everyNthEventIsSampledStartingWithTheFirst() {
+        SampledLogSite site = hotPathLogging(10L, 0L).site("every-n", LOG);
+
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            if (site.sample()) {
+                sampled++;
+            }
+        }
+
+        assertThat(sampled).isEqualTo(10);
+        assertThat(site.drainEvents()).isEqualTo(100);
+        assertThat(site.drainLogged()).isEqualTo(10);
+        assertThat(site.drainEvents()).isZero();
+    }
+
+    @Test
+    void intervalSamplingLogsAtMostOncePerInterval() {
+        SampledLogSite site = hotPathLogging(0L, 60_000L).site("interval", LOG);
+
+        assertThat(site.sample()).isTrue();
+        for (int i = 0; i < 1000; i++) {
+            assertThat(site.sample()).isFalse();
+        }
+    }
+
+    @Test
+    void siteWithoutRulesOnlyCounts() {
+        SampledLogSite site = hotPathLogging(0L, 0L).site("silent", LOG);
+
+        site.info("never formatted {}", new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("argument must not be formatted");
+            }
+        });
+        site.count();
+
+        assertThat(site.drainEvents()).isEqualTo(2);
+        assertThat(site.drainLogged()).isZero();
+    }
+
+    @Test
+    void sitesAreConfiguredByNameWithDefaultsAsFallback() {
+        HotPathLoggingConfigData configData = new HotPathLoggingConfigData();
+        configData.getDefaults().setSampleEveryN(0L);
+        HotPathLoggingConfigData.Site configured = new HotPathLoggingConfigData.Site();
+        configured.setSampleEveryN(1L);
+        configData.getSites().put("configured", configured);
+        HotPathLogging hotPathLogging = new HotPathLogging(configData);
+
+        assertThat(hotPathLogging.site("configured", LOG).sample()).isTrue();
+        assertThat(hotPathLogging.site("unconfigured", LOG).sample()).isFalse();
+        assertThat(hotPathLogging.site("configured", LOG)).isSameAs(hotPathLogging.site("configured", LOG));
+    }
+
+    private static HotPathLogging hotPathLogging(long sampleEveryN, long sampleIntervalMs) {
+        HotPathLoggingConfigData configData = new HotPathLoggingConfigData();
+        configData.getDefaults().setSampleEveryN(sampleEveryN);
+        configData.getDefaults().setSampleIntervalMs(sampleIntervalMs);
+        return new HotPathLogging(configData);
+    }
+}
@@ -0,0 +1,65 @@
+package com.microservices.demo.kafka.streams.service.config;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaStreamsConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.streams.StreamsConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.annotation.KafkaStreamsDefaultConfiguration;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.streams.KafkaStreamsInteractiveQueryService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@EnableKafkaStreams
+@Configuration
+public class KafkaStreamsConfig {
+
+    private final KafkaConfigData kafkaConfigData;
+
+    private final KafkaStreamsConfigData kafkaStreamsConfigData;
+
+    public KafkaStreamsConfig(KafkaConfigData kafkaConfigData, KafkaStreamsConfigData kafkaStreamsConfigData) {
+        this.kafkaConfigData = kafkaConfigData;
+        this.kafkaStreamsConfigData = kafkaStreamsConfigData;
+    }
+
+    @Bean(name = KafkaStreamsDefaultConfiguration.DEFAULT_STREAMS_CONFIG_BEAN_NAME)
+    public KafkaStreamsConfiguration kafkaStreamsConfiguration() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, kafkaStreamsConfigData.getApplicationId());
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaConfigData.getBootstrapServers());
+        props.put(StreamsConfig.STATE_DIR_CONFIG, kafkaStreamsConfigData.getStateDir());
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, kafkaStreamsConfigData.getNumStreamThreads());
+        props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, kafkaStreamsConfigData.getCommitIntervalMs());
+        props.put(kafkaConfigData.getSchemaRegistryUrlKey(), kafkaConfigData.getSchemaRegistryUrl());
+        return new KafkaStreamsConfiguration(props);
+    }
+
+    @Bean
+    public Serde<TwitterAvroModel> twitterAvroModelSerde() {
+        SpecificAvroSerde<TwitterAvroModel> serde = new SpecificAvroSerde<>();
+        serde.configure(Map.of(kafkaConfigData.getSchemaRegistryUrlKey(), kafkaConfigData.getSchemaRegistryUrl()), false);
+        return serde;
+    }
+
+    @Bean
+    public Serde<TwitterAvroEnvelope> twitterAvroEnvelopeSerde() {
+        SpecificAvroSerde<TwitterAvroEnvelope> serde = new SpecificAvroSerde<>();
+        serde.configure(Map.of(kafkaConfigData.getSchemaRegistryUrlKey(), kafkaConfigData.getSchemaRegistryUrl()), false);
+        return serde;
+    }
+
+    // Looks up local state stores of the running KafkaStreams instance for the REST layer
+    @Bean
+    public KafkaStreamsInteractiveQueryService kafkaStreamsInteractiveQueryService(StreamsBuilderFactoryBean streamsBuilderFactoryBean) {
+        return new KafkaStreamsInteractiveQueryService(streamsBuilderFactoryBean);
+    }
+}
@@ -0,0 +1,60 @@
+package com.microservices.demo.kafka.streams.service.controller;
+
+import com.microservices.demo.config.KafkaStreamsConfigData;
+import com.microservices.demo.kafka.streams.service.model.KeywordCount;
+import com.microservices.demo.kafka.streams.service.model.WindowType;
+import com.microservices.demo.kafka.streams.service.query.KeywordCountQueryService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/keyword-counts")
+public class KeywordCountController {
+
+    private final KeywordCountQueryService keywordCountQueryService;
+
+    private final KafkaStreamsConfigData kafkaStreamsConfigData;
+
+    public KeywordCountController(KeywordCountQueryService keywordCountQueryService, KafkaStreamsConfigData kafkaStreamsConfigData) {
+        this.keywordCountQueryService = keywordCountQueryService;
+        this.kafkaStreamsConfigData = kafkaStreamsConfigData;
+    }
+
+    /**
+     * Windowed counts of every configured keyword.
+     * Example: GET /keyword-counts?window=HOPPING&amp;from=1700000000000
+     *
+     * @param window TUMBLING or HOPPING
+     * @param from   earliest window start in epoch millis, defaults to the store retention
+     * @param to     latest window start in epoch millis, defaults to now
+     */
+    @GetMapping
+    public List<KeywordCount> getCounts(@RequestParam(defaultValue = "TUMBLING") WindowType window,
+                                        @RequestParam(required = false) Long from,
+                                        @RequestParam(required = false) Long to) {
+        long now = System.currentTimeMillis();
+        return keywordCountQueryService.getCounts(window, fromOrDefault(from, now), to == null ? now : to);
+    }
+
+    /**
+     * Windowed counts of a single keyword.
+     * Example: GET /keyword-counts/Kafka?window=TUMBLING
+     */
+    @GetMapping("/{keyword}")
+    public List<KeywordCount> getCounts(@PathVariable String keyword,
+                                        @RequestParam(defaultValue = "TUMBLING") WindowType window,
+                                        @RequestParam(required = false) Long from,
+                                        @RequestParam(required = false) Long to) {
+        long now = System.currentTimeMillis();
+        return keywordCountQueryService.getCounts(keyword, window, fromOrDefault(from, now), to == null ? now : to);
+    }
+
+    private long fromOrDefault(Long from, long now) {
+        return from == null ? now - kafkaStreamsConfigData.getWindowStoreRetentionMs() : from;
+    }
+}
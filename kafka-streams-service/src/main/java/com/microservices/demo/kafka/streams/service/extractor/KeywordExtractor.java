@@ -0,0 +1,102 @@
+package com.microservices.demo.kafka.streams.service.extractor;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the configured twitter keywords in tweet text.
+ * Matching is case-insensitive and on whole words only, and every keyword is reported at most once per tweet.
+ * Tokens are compared in place against the keywords of the same length, so no substrings are allocated.
+ * Records that carry the producer's precomputed tokens are matched on those instead of scanning the text; as
+ * URLs and mentions are left out of the tokens, keywords that only occur in them are not found then.
+ */
+@Component
+public class KeywordExtractor {
+
+    private final String[][] keywordsByLength;
+
+    public KeywordExtractor(TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData) {
+        this(twitterToKafkaServiceConfigData.getTwitterKeywords());
+    }
+
+    public KeywordExtractor(List<String> keywords) {
+        int maxLength = keywords.stream().mapToInt(String::length).max().orElse(0);
+        List<List<String>> grouped = new ArrayList<>(maxLength + 1);
+        for (int i = 0; i <= maxLength; i++) {
+            grouped.add(new ArrayList<>());
+        }
+        keywords.stream().distinct().forEach(keyword -> grouped.get(keyword.length()).add(keyword));
+        keywordsByLength = grouped.stream().map(group -> group.toArray(new String[0])).toArray(String[][]::new);
+    }
+
+    /**
+     * @return the configured keywords in the record's tokens when it has them, otherwise in its text
+     */
+    public List<String> extract(TwitterAvroModel twitterAvroModel) {
+        List<String> tokens = twitterAvroModel.getTokens();
+        if (tokens == null) {
+            return extract(twitterAvroModel.getText());
+        }
+        List<String> found = null;
+        for (String token : tokens) {
+            String keyword = match(token, 0, token.length());
+            if (keyword != null) {
+                if (found == null) {
+                    found = new ArrayList<>(2);
+                }
+                if (!found.contains(keyword)) {
+                    found.add(keyword);
+                }
+            }
+        }
+        return found == null ? Collections.emptyList() : found;
+    }
+
+    /**
+     * @param text tweet text, may be null
+     * @return the configured keywords found in the text, in the order they first appear
+     */
+    public List<String> extract(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        List<String> found = null;
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String keyword = match(text, start, i - start);
+                if (keyword != null) {
+                    if (found == null) {
+                        found = new ArrayList<>(2);
+                    }
+                    if (!found.contains(keyword)) {
+                        found.add(keyword);
+                    }
+                }
+                start = -1;
+            }
+        }
+        return found == null ? Collections.emptyList() : found;
+    }
+
+    private String match(String text, int offset, int tokenLength) {
+        if (tokenLength >= keywordsByLength.length) {
+            return null;
+        }
+        for (String keyword : keywordsByLength[tokenLength]) {
+            if (text.regionMatches(true, offset, keyword, 0, tokenLength)) {
+                return keyword;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.microservices.demo.kafka.streams.service.model;
+
+/**
+ * Tweet count for one keyword in one window.
+ *
+ * @param keyword       the configured twitter keyword
+ * @param windowStartMs inclusive window start, epoch millis
+ * @param windowEndMs   exclusive window end, epoch millis
+ * @param count         number of tweets mentioning the keyword within the window
+ */
+public record KeywordCount(String keyword, long windowStartMs, long windowEndMs, long count) {
+}
@@ -0,0 +1,6 @@
+package com.microservices.demo.kafka.streams.service.model;
+
+public enum WindowType {
+    TUMBLING,
+    HOPPING
+}
@@ -0,0 +1,81 @@
+package com.microservices.demo.kafka.streams.service.query;
+
+import com.microservices.demo.config.KafkaStreamsConfigData;
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.streams.service.model.KeywordCount;
+import com.microservices.demo.kafka.streams.service.model.WindowType;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.springframework.kafka.streams.KafkaStreamsInteractiveQueryService;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads windowed keyword counts from the local state stores of the keyword count topology.
+ */
+@Service
+public class KeywordCountQueryService {
+
+    private final KafkaStreamsInteractiveQueryService interactiveQueryService;
+
+    private final KafkaStreamsConfigData kafkaStreamsConfigData;
+
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+
+    public KeywordCountQueryService(KafkaStreamsInteractiveQueryService interactiveQueryService,
+                                    KafkaStreamsConfigData kafkaStreamsConfigData,
+                                    TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData) {
+        this.interactiveQueryService = interactiveQueryService;
+        this.kafkaStreamsConfigData = kafkaStreamsConfigData;
+        this.twitterToKafkaServiceConfigData = twitterToKafkaServiceConfigData;
+    }
+
+    /**
+     * @param keyword    the keyword to look up
+     * @param windowType which window store to read
+     * @param fromMs     earliest window start to include, epoch millis
+     * @param toMs       latest window start to include, epoch millis
+     * @return the counts of every window starting within the range, oldest first
+     */
+    public List<KeywordCount> getCounts(String keyword, WindowType windowType, long fromMs, long toMs) {
+        ReadOnlyWindowStore<String, Long> store = interactiveQueryService.retrieveQueryableStore(getStoreName(windowType),
+                QueryableStoreTypes.windowStore());
+        long windowSizeMs = getWindowSizeMs(windowType);
+        List<KeywordCount> counts = new ArrayList<>();
+        try (WindowStoreIterator<Long> iterator = store.fetch(keyword, Instant.ofEpochMilli(fromMs), Instant.ofEpochMilli(toMs))) {
+            while (iterator.hasNext()) {
+                KeyValue<Long, Long> window = iterator.next();
+                counts.add(new KeywordCount(keyword, window.key, window.key + windowSizeMs, window.value));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return the counts of every configured keyword for windows starting within the range
+     */
+    public List<KeywordCount> getCounts(WindowType windowType, long fromMs, long toMs) {
+        List<KeywordCount> counts = new ArrayList<>();
+        for (String keyword : twitterToKafkaServiceConfigData.getTwitterKeywords()) {
+            counts.addAll(getCounts(keyword, windowType, fromMs, toMs));
+        }
+        return counts;
+    }
+
+    private String getStoreName(WindowType windowType) {
+        return windowType == WindowType.TUMBLING
+                ? kafkaStreamsConfigData.getTumblingWindowStoreName()
+                : kafkaStreamsConfigData.getHoppingWindowStoreName();
+    }
+
+    private long getWindowSizeMs(WindowType windowType) {
+        return windowType == WindowType.TUMBLING
+                ? kafkaStreamsConfigData.getTumblingWindowSizeMs()
+                : kafkaStreamsConfigData.getHoppingWindowSizeMs();
+    }
+}
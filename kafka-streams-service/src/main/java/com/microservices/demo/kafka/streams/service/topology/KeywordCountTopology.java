@@ -0,0 +1,126 @@
+package com.microservices.demo.kafka.streams.service.topology;
+
+import com.microservices.demo.config.EnvelopeConfigData;
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaStreamsConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.envelope.TwitterEnvelopes;
+import com.microservices.demo.kafka.streams.service.extractor.KeywordExtractor;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KGroupedStream;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.WindowStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Counts tweets per configured keyword in tumbling and hopping windows.
+ * Each tweet is re-keyed once per keyword it mentions, and both window counts are materialized in
+ * window stores (RocksDB by default) so that they can be served through interactive queries.
+ * <p>
+ * With envelope-config enabled, the tweets packed into envelopes on the envelope topic are unpacked and counted
+ * along with the single records. Unpacked tweets carry the timestamp of their envelope, which is sent at most
+ * envelope-config.linger-ms after its first tweet.
+ */
+@Component
+public class KeywordCountTopology {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeywordCountTopology.class);
+
+    private final KafkaConfigData kafkaConfigData;
+
+    private final KafkaStreamsConfigData kafkaStreamsConfigData;
+
+    private final KeywordExtractor keywordExtractor;
+
+    private final EnvelopeConfigData envelopeConfigData;
+
+    private final Serde<TwitterAvroModel> twitterAvroModelSerde;
+
+    private final Serde<TwitterAvroEnvelope> twitterAvroEnvelopeSerde;
+
+    public KeywordCountTopology(KafkaConfigData kafkaConfigData,
+                                KafkaStreamsConfigData kafkaStreamsConfigData,
+                                KeywordExtractor keywordExtractor,
+                                EnvelopeConfigData envelopeConfigData,
+                                Serde<TwitterAvroModel> twitterAvroModelSerde,
+                                Serde<TwitterAvroEnvelope> twitterAvroEnvelopeSerde) {
+        this.kafkaConfigData = kafkaConfigData;
+        this.kafkaStreamsConfigData = kafkaStreamsConfigData;
+        this.keywordExtractor = keywordExtractor;
+        this.envelopeConfigData = envelopeConfigData;
+        this.twitterAvroModelSerde = twitterAvroModelSerde;
+        this.twitterAvroEnvelopeSerde = twitterAvroEnvelopeSerde;
+    }
+
+    /**
+     * Adds the keyword count pipeline to the given builder.
+     * Called by Spring with the builder of the default StreamsBuilderFactoryBean.
+     *
+     * @param streamsBuilder the builder to add the pipeline to
+     */
+    @Autowired
+    public void buildPipeline(StreamsBuilder streamsBuilder) {
+        KStream<Long, TwitterAvroModel> tweets = streamsBuilder
+                .stream(kafkaConfigData.getTopicName(), Consumed.with(Serdes.Long(), twitterAvroModelSerde));
+        if (Boolean.TRUE.equals(envelopeConfigData.getEnabled())) {
+            tweets = tweets.merge(streamsBuilder
+                    .stream(envelopeConfigData.getTopicName(), Consumed.with(Serdes.Long(), twitterAvroEnvelopeSerde))
+                    .flatMap((partition, envelope) -> unpack(envelope)));
+        }
+        KGroupedStream<String, String> keywordStream = tweets
+                .flatMap((userId, twitterAvroModel) -> keywordExtractor.extract(twitterAvroModel)
+                        .stream()
+                        .map(keyword -> KeyValue.pair(keyword, keyword))
+                        .toList())
+                .groupByKey(Grouped.with("keywords", Serdes.String(), Serdes.String()));
+
+        Duration grace = Duration.ofMillis(kafkaStreamsConfigData.getWindowGraceMs());
+        Duration retention = Duration.ofMillis(kafkaStreamsConfigData.getWindowStoreRetentionMs());
+        Materialized.StoreType storeType = Materialized.StoreType.valueOf(kafkaStreamsConfigData.getWindowStoreType().toUpperCase(Locale.ROOT));
+
+        keywordStream
+                .windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofMillis(kafkaStreamsConfigData.getTumblingWindowSizeMs()), grace))
+                .count(windowStore(kafkaStreamsConfigData.getTumblingWindowStoreName(), retention, storeType));
+
+        keywordStream
+                .windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofMillis(kafkaStreamsConfigData.getHoppingWindowSizeMs()), grace)
+                        .advanceBy(Duration.ofMillis(kafkaStreamsConfigData.getHoppingWindowAdvanceMs())))
+                .count(windowStore(kafkaStreamsConfigData.getHoppingWindowStoreName(), retention, storeType));
+
+        LOG.info("Built keyword count topology on topic {} with stores {} and {}",
+                kafkaConfigData.getTopicName(),
+                kafkaStreamsConfigData.getTumblingWindowStoreName(),
+                kafkaStreamsConfigData.getHoppingWindowStoreName());
+    }
+
+    private static List<KeyValue<Long, TwitterAvroModel>> unpack(TwitterAvroEnvelope envelope) {
+        List<KeyValue<Long, TwitterAvroModel>> tweets = new ArrayList<>(envelope.getTweets().size());
+        TwitterEnvelopes.unpack(envelope, (userId, tweet) -> tweets.add(KeyValue.pair(userId, tweet)));
+        return tweets;
+    }
+
+    private static Materialized<String, Long, WindowStore<Bytes, byte[]>> windowStore(String storeName, Duration retention, Materialized.StoreType storeType) {
+        return Materialized.<String, Long, WindowStore<Bytes, byte[]>>as(storeName)
+                .withStoreType(storeType)
+                .withKeySerde(Serdes.String())
+                .withValueSerde(Serdes.Long())
+                .withRetention(retention);
+    }
+}
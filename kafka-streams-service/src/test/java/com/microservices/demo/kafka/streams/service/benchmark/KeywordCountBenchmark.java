@@ -0,0 +1,155 @@
+package com.microservices.demo.kafka.streams.service.benchmark;
+
+import com.microservices.demo.config.EnvelopeConfigData;
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaStreamsConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.streams.service.extractor.KeywordExtractor;
+import com.microservices.demo.kafka.streams.service.topology.KeywordCountTopology;
+import com.microservices.demo.kafka.streams.service.topology.TwitterAvroModelTestSerde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the keyword extraction step alone and of the full extraction plus windowed
+ * aggregation topology, driven through TopologyTestDriver.
+ * The driver commits after every record, so with ROCKS_DB stores the aggregation score is bounded by
+ * store flushes and checkpoint writes; IN_MEMORY isolates the CPU cost of extraction and aggregation.
+ * Not part of the test suite; run {@link #main} from the test classpath.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class KeywordCountBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final List<String> KEYWORDS = List.of("Java", "Microservices", "Kafka", "Elasticsearch");
+
+    private static final String[] WORDS = {
+            "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit",
+            "sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et",
+            "dolore", "magna", "aliqua"
+    };
+
+    @Param({"in_memory", "rocks_db"})
+    private String windowStoreType;
+
+    private KeywordExtractor keywordExtractor;
+
+    private TwitterAvroModel[] tweets;
+
+    private TopologyTestDriver testDriver;
+
+    private TestInputTopic<Long, TwitterAvroModel> inputTopic;
+
+    private long timestampMs;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(KeywordCountBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        keywordExtractor = new KeywordExtractor(KEYWORDS);
+        SplittableRandom random = new SplittableRandom(42);
+        tweets = new TwitterAvroModel[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            tweets[i] = TwitterAvroModel.newBuilder()
+                    .setId(i)
+                    .setUserId(random.nextLong(Long.MAX_VALUE))
+                    .setText(randomText(random))
+                    .setCreatedAt(null)
+                    .build();
+        }
+
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicName("twitter-topic");
+        KafkaStreamsConfigData kafkaStreamsConfigData = new KafkaStreamsConfigData();
+        kafkaStreamsConfigData.setTumblingWindowStoreName("keyword-counts-tumbling");
+        kafkaStreamsConfigData.setTumblingWindowSizeMs(60_000L);
+        kafkaStreamsConfigData.setHoppingWindowStoreName("keyword-counts-hopping");
+        kafkaStreamsConfigData.setHoppingWindowSizeMs(300_000L);
+        kafkaStreamsConfigData.setHoppingWindowAdvanceMs(60_000L);
+        kafkaStreamsConfigData.setWindowGraceMs(10_000L);
+        kafkaStreamsConfigData.setWindowStoreRetentionMs(3_600_000L);
+        kafkaStreamsConfigData.setWindowStoreType(windowStoreType);
+
+        StreamsBuilder streamsBuilder = new StreamsBuilder();
+        new KeywordCountTopology(kafkaConfigData, kafkaStreamsConfigData, keywordExtractor, new EnvelopeConfigData(),
+                TwitterAvroModelTestSerde.create(), TwitterAvroModelTestSerde.envelope())
+                .buildPipeline(streamsBuilder);
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "keyword-count-benchmark");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, Files.createTempDirectory("keyword-count-benchmark").toString());
+        testDriver = new TopologyTestDriver(streamsBuilder.build(), props);
+        inputTopic = testDriver.createInputTopic("twitter-topic", Serdes.Long().serializer(), TwitterAvroModelTestSerde.create().serializer());
+        timestampMs = 1_700_000_000_000L;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        testDriver.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void extractKeywords(Blackhole blackhole) {
+        for (TwitterAvroModel tweet : tweets) {
+            blackhole.consume(keywordExtractor.extract(tweet.getText()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void extractAndAggregate() {
+        for (TwitterAvroModel tweet : tweets) {
+            // Ten tweets per second of event time, so windows keep rolling over as in production
+            timestampMs += 100;
+            inputTopic.pipeInput(tweet.getUserId(), tweet, timestampMs);
+        }
+    }
+
+    private static String randomText(SplittableRandom random) {
+        int length = random.nextInt(5, 16);
+        StringBuilder tweet = new StringBuilder(length * 8);
+        for (int i = 0; i < length; i++) {
+            tweet.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            if (i == length / 2) {
+                tweet.append(KEYWORDS.get(random.nextInt(KEYWORDS.size()))).append(' ');
+            }
+        }
+        return tweet.toString().trim();
+    }
+}
@@ -0,0 +1,188 @@
+package com.microservices.demo.kafka.streams.service.topology;
+
+import com.microservices.demo.config.EnvelopeConfigData;
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaStreamsConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.streams.service.extractor.KeywordExtractor;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordCountTopologyTests {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final String ENVELOPE_TOPIC = "twitter-envelope-topic";
+
+    private static final long MINUTE_MS = 60_000L;
+
+    private static final long BASE_MS = 1_700_000_000_000L - Math.floorMod(1_700_000_000_000L, 5 * MINUTE_MS);
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyTestDriver testDriver;
+
+    private TestInputTopic<Long, TwitterAvroModel> inputTopic;
+
+    private TestInputTopic<Long, TwitterAvroEnvelope> envelopeTopic;
+
+    private KafkaStreamsConfigData kafkaStreamsConfigData;
+
+    @BeforeEach
+    void setUp() {
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicName(TOPIC);
+        kafkaStreamsConfigData = streamsConfigData();
+        EnvelopeConfigData envelopeConfigData = new EnvelopeConfigData();
+        envelopeConfigData.setEnabled(true);
+        envelopeConfigData.setTopicName(ENVELOPE_TOPIC);
+
+        StreamsBuilder streamsBuilder = new StreamsBuilder();
+        new KeywordCountTopology(kafkaConfigData, kafkaStreamsConfigData,
+                new KeywordExtractor(List.of("Java", "Kafka", "Elasticsearch")),
+                envelopeConfigData, TwitterAvroModelTestSerde.create(), TwitterAvroModelTestSerde.envelope())
+                .buildPipeline(streamsBuilder);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "keyword-count-topology-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        testDriver = new TopologyTestDriver(streamsBuilder.build(), props);
+        inputTopic = testDriver.createInputTopic(TOPIC, Serdes.Long().serializer(), TwitterAvroModelTestSerde.create().serializer());
+        envelopeTopic = testDriver.createInputTopic(ENVELOPE_TOPIC, Serdes.Long().serializer(), TwitterAvroModelTestSerde.envelope().serializer());
+    }
+
+    @AfterEach
+    void tearDown() {
+        testDriver.close();
+    }
+
+    @Test
+    void countsKeywordsPerTumblingWindowCaseInsensitively() {
+        pipe(BASE_MS, "Learning java and KAFKA");
+        pipe(BASE_MS + 10_000, "more kafka, kafka and #Kafka");
+        pipe(BASE_MS + MINUTE_MS + 5_000, "kafka streams");
+        pipe(BASE_MS + MINUTE_MS + 6_000, "nothing interesting here");
+
+        assertThat(fetch(kafkaStreamsConfigData.getTumblingWindowStoreName(), "Kafka"))
+                .containsExactly(KeyValue.pair(BASE_MS, 2L), KeyValue.pair(BASE_MS + MINUTE_MS, 1L));
+        assertThat(fetch(kafkaStreamsConfigData.getTumblingWindowStoreName(), "Java"))
+                .containsExactly(KeyValue.pair(BASE_MS, 1L));
+        assertThat(fetch(kafkaStreamsConfigData.getTumblingWindowStoreName(), "Elasticsearch")).isEmpty();
+    }
+
+    @Test
+    void countsKeywordsInEveryOverlappingHoppingWindow() {
+        pipe(BASE_MS + 30_000, "elasticsearch");
+        pipe(BASE_MS + 2 * MINUTE_MS + 30_000, "elasticsearch");
+
+        // 5 minute windows advancing by 1 minute: the first tweet falls into the windows starting
+        // at BASE - 4m .. BASE, the second into BASE - 2m .. BASE + 2m
+        List<KeyValue<Long, Long>> counts = fetch(kafkaStreamsConfigData.getHoppingWindowStoreName(), "Elasticsearch");
+
+        assertThat(counts).containsExactly(
+                KeyValue.pair(BASE_MS - 4 * MINUTE_MS, 1L),
+                KeyValue.pair(BASE_MS - 3 * MINUTE_MS, 1L),
+                KeyValue.pair(BASE_MS - 2 * MINUTE_MS, 2L),
+                KeyValue.pair(BASE_MS - MINUTE_MS, 2L),
+                KeyValue.pair(BASE_MS, 2L),
+                KeyValue.pair(BASE_MS + MINUTE_MS, 1L),
+                KeyValue.pair(BASE_MS + 2 * MINUTE_MS, 1L));
+    }
+
+    @Test
+    void dropsRecordsArrivingAfterTheGracePeriod() {
+        pipe(BASE_MS, "java");
+        pipe(BASE_MS + 2 * MINUTE_MS, "java");
+        pipe(BASE_MS + 1_000, "java");
+
+        assertThat(fetch(kafkaStreamsConfigData.getTumblingWindowStoreName(), "Java"))
+                .containsExactly(KeyValue.pair(BASE_MS, 1L), KeyValue.pair(BASE_MS + 2 * MINUTE_MS, 1L));
+    }
+
+    @Test
+    void matchesPrecomputedTokensInsteadOfTheText() {
+        pipe(BASE_MS, "Kafka tips from @java https://example.com/elasticsearch", List.of("kafka", "tips", "from"));
+
+        assertThat(fetch(kafkaStreamsConfigData.getTumblingWindowStoreName(), "Kafka"))
+                .containsExactly(KeyValue.pair(BASE_MS, 1L));
+        assertThat(fetch(kafkaStreamsConfigData.getTumblingWindowStoreName(), "Java")).isEmpty();
+        assertThat(fetch(kafkaStreamsConfigData.getTumblingWindowStoreName(), "Elasticsearch")).isEmpty();
+    }
+
+    @Test
+    void countsTweetsUnpackedFromEnvelopesAlongWithSingleRecords() {
+        pipe(BASE_MS, "kafka");
+        envelopeTopic.pipeInput(null, TwitterAvroEnvelope.newBuilder()
+                .setPartition(0)
+                .setOpenedAt(BASE_MS + 1_000)
+                .setTweets(List.of(tweet(BASE_MS + 1_000, "java and kafka", null), tweet(BASE_MS + 1_001, "more kafka", null)))
+                .build(), BASE_MS + 1_050);
+
+        assertThat(fetch(kafkaStreamsConfigData.getTumblingWindowStoreName(), "Kafka"))
+                .containsExactly(KeyValue.pair(BASE_MS, 3L));
+        assertThat(fetch(kafkaStreamsConfigData.getTumblingWindowStoreName(), "Java"))
+                .containsExactly(KeyValue.pair(BASE_MS, 1L));
+    }
+
+    private void pipe(long timestampMs, String text) {
+        pipe(timestampMs, text, null);
+    }
+
+    private void pipe(long timestampMs, String text, List<String> tokens) {
+        TwitterAvroModel twitterAvroModel = tweet(timestampMs, text, tokens);
+        inputTopic.pipeInput(twitterAvroModel.getUserId(), twitterAvroModel, timestampMs);
+    }
+
+    private static TwitterAvroModel tweet(long id, String text, List<String> tokens) {
+        return TwitterAvroModel.newBuilder()
+                .setId(id)
+                .setUserId(1L)
+                .setText(text)
+                .setCreatedAt(null)
+                .setTokens(tokens)
+                .build();
+    }
+
+    private List<KeyValue<Long, Long>> fetch(String storeName, String keyword) {
+        WindowStore<String, Long> store = testDriver.getWindowStore(storeName);
+        List<KeyValue<Long, Long>> counts = new ArrayList<>();
+        try (WindowStoreIterator<Long> iterator = store.fetch(keyword, Instant.ofEpochMilli(0), Instant.ofEpochMilli(Long.MAX_VALUE / 2))) {
+            iterator.forEachRemaining(counts::add);
+        }
+        return counts;
+    }
+
+    static KafkaStreamsConfigData streamsConfigData() {
+        KafkaStreamsConfigData configData = new KafkaStreamsConfigData();
+        configData.setTumblingWindowStoreName("keyword-counts-tumbling");
+        configData.setTumblingWindowSizeMs(MINUTE_MS);
+        configData.setHoppingWindowStoreName("keyword-counts-hopping");
+        configData.setHoppingWindowSizeMs(5 * MINUTE_MS);
+        configData.setHoppingWindowAdvanceMs(MINUTE_MS);
+        configData.setWindowGraceMs(10_000L);
+        configData.setWindowStoreRetentionMs(60 * MINUTE_MS);
+        configData.setWindowStoreType("rocks_db");
+        return configData;
+    }
+}
@@ -0,0 +1,56 @@
+package com.microservices.demo.kafka.streams.service.topology;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Registry-free stand-in for SpecificAvroSerde, using Avro single-object encoding.
+ */
+public final class TwitterAvroModelTestSerde {
+
+    private TwitterAvroModelTestSerde() {
+    }
+
+    public static Serde<TwitterAvroModel> create() {
+        return serde("TwitterAvroModel", TwitterAvroModel::toByteBuffer, TwitterAvroModel::fromByteBuffer);
+    }
+
+    public static Serde<TwitterAvroEnvelope> envelope() {
+        return serde("TwitterAvroEnvelope", TwitterAvroEnvelope::toByteBuffer, TwitterAvroEnvelope::fromByteBuffer);
+    }
+
+    private static <T> Serde<T> serde(String type, Encoder<T> encoder, Decoder<T> decoder) {
+        return Serdes.serdeFrom(
+                (topic, value) -> {
+                    try {
+                        ByteBuffer buffer = encoder.encode(value);
+                        byte[] bytes = new byte[buffer.remaining()];
+                        buffer.get(bytes);
+                        return bytes;
+                    } catch (IOException e) {
+                        throw new SerializationException("Could not serialize " + type, e);
+                    }
+                },
+                (topic, bytes) -> {
+                    try {
+                        return decoder.decode(ByteBuffer.wrap(bytes));
+                    } catch (IOException e) {
+                        throw new SerializationException("Could not deserialize " + type, e);
+                    }
+                });
+    }
+
+    private interface Encoder<T> {
+        ByteBuffer encode(T value) throws IOException;
+    }
+
+    private interface Decoder<T> {
+        T decode(ByteBuffer buffer) throws IOException;
+    }
+}
@@ -0,0 +1,32 @@
+package com.microservices.demo.kafka.to.elastic.service;
+
+import com.microservices.demo.kafka.to.elastic.service.consumer.TwitterKafkaConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ComponentScan;
+
+@SpringBootApplication
+@ComponentScan(basePackages = "com.microservices.demo")
+public class KafkaToElasticServiceApplication implements CommandLineRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KafkaToElasticServiceApplication.class);
+
+    private final TwitterKafkaConsumer twitterKafkaConsumer;
+
+    public KafkaToElasticServiceApplication(TwitterKafkaConsumer twitterKafkaConsumer) {
+        this.twitterKafkaConsumer = twitterKafkaConsumer;
+    }
+
+    public static void main(String[] args) {
+        SpringApplication.run(KafkaToElasticServiceApplication.class, args);
+    }
+
+    @Override
+    public void run(String... args) {
+        LOG.info("Kafka to Elastic Service Application has started successfully.");
+        twitterKafkaConsumer.start();
+    }
+}
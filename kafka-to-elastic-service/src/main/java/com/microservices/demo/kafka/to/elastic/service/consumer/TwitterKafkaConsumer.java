@@ -0,0 +1,222 @@
+package com.microservices.demo.kafka.to.elastic.service.consumer;
+
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.config.BulkIndexConfigData;
+import com.microservices.demo.config.ElasticConfigData;
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.consumer.config.parallel.CommittableOffsets;
+import com.microservices.demo.kafka.consumer.config.parallel.PartitionOffsetTracker;
+import com.microservices.demo.kafka.to.elastic.service.elastic.BulkIndexer;
+import com.microservices.demo.kafka.to.elastic.service.elastic.IBulkIndexClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the tweets of kafka-config.topic-name into the elastic-config.index-name index through a {@link BulkIndexer}.
+ * <p>
+ * Records are polled in batches of up to max-poll-records and added to the open bulk as they come; bulks complete out
+ * of order, so offsets are committed only up to the lowest record of each partition not indexed yet, every
+ * commit-interval-ms and when partitions are revoked. A crash re-indexes what was not committed, which overwrites
+ * the same documents.
+ * <p>
+ * When the index falls behind and max-pending-documents are polled but not indexed, fetching is paused while the poll
+ * loop keeps the consumer in the group, and resumed at half of that; elastic.consumer.paused is 1 meanwhile.
+ */
+@Component
+public class TwitterKafkaConsumer implements Runnable, ConsumerRebalanceListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TwitterKafkaConsumer.class);
+
+    private final String topicName;
+
+    private final Consumer<Long, TwitterAvroModel> consumer;
+
+    private final BulkIndexer<IndexedRecord> indexer;
+
+    private final CommittableOffsets offsets = new CommittableOffsets();
+
+    private final Duration pollTimeout;
+
+    private final long commitIntervalNanos;
+
+    private final long drainTimeoutNanos;
+
+    private final int maxPendingDocuments;
+
+    private final Thread pollThread;
+
+    private volatile boolean running;
+
+    private volatile boolean paused;
+
+    private long lastCommitNanos = System.nanoTime();
+
+    @Autowired
+    public TwitterKafkaConsumer(KafkaConfigData kafkaConfigData,
+                                ElasticConfigData elasticConfigData,
+                                BulkIndexConfigData bulkIndexConfigData,
+                                ConsumerFactory<Long, TwitterAvroModel> consumerFactory,
+                                IBulkIndexClient bulkIndexClient,
+                                HotPathLogging hotPathLogging,
+                                MeterRegistry meterRegistry) {
+        this(kafkaConfigData.getTopicName(), consumerFactory.createConsumer(), elasticConfigData, bulkIndexConfigData,
+                bulkIndexClient, hotPathLogging, meterRegistry);
+    }
+
+    TwitterKafkaConsumer(String topicName,
+                         Consumer<Long, TwitterAvroModel> consumer,
+                         ElasticConfigData elasticConfigData,
+                         BulkIndexConfigData bulkIndexConfigData,
+                         IBulkIndexClient bulkIndexClient,
+                         HotPathLogging hotPathLogging,
+                         MeterRegistry meterRegistry) {
+        this.topicName = topicName;
+        this.consumer = consumer;
+        this.indexer = new BulkIndexer<>(elasticConfigData.getIndexName(), bulkIndexClient,
+                record -> record.tracker().complete(record.offset()), bulkIndexConfigData, hotPathLogging,
+                meterRegistry);
+        this.pollTimeout = Duration.ofMillis(bulkIndexConfigData.getPollTimeoutMs());
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(bulkIndexConfigData.getCommitIntervalMs());
+        this.drainTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(bulkIndexConfigData.getDrainTimeoutMs());
+        this.maxPendingDocuments = bulkIndexConfigData.getMaxPendingDocuments();
+        Gauge.builder("elastic.consumer.paused", this, self -> self.paused ? 1 : 0).register(meterRegistry);
+        this.pollThread = new Thread(this, "elastic-consumer-poll");
+        this.pollThread.setDaemon(true);
+    }
+
+    public void start() {
+        consumer.subscribe(List.of(topicName), this);
+        running = true;
+        indexer.start();
+        pollThread.start();
+        LOG.info("Indexing tweets of topic {}", topicName);
+    }
+
+    /**
+     * Stops polling, gives the polled records drain-timeout-ms to be indexed and commits what is done.
+     */
+    @PreDestroy
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        consumer.wakeup();
+        try {
+            pollThread.join(TimeUnit.NANOSECONDS.toMillis(drainTimeoutNanos) + TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                applyBackpressure();
+                for (ConsumerRecord<Long, TwitterAvroModel> record : consumer.poll(pollTimeout)) {
+                    PartitionOffsetTracker tracker = offsets.register(record);
+                    if (record.value() == null) {
+                        tracker.complete(record.offset());
+                    } else {
+                        indexer.add(new IndexedRecord(tracker, record.offset()), record.value());
+                    }
+                }
+                indexer.flushIfDue();
+                if (System.nanoTime() - lastCommitNanos >= commitIntervalNanos) {
+                    commitAsync();
+                }
+            }
+        } catch (WakeupException e) {
+            // close() woke up the poll
+        } catch (RuntimeException e) {
+            LOG.error("Stopped indexing tweets of topic {}", topicName, e);
+        } finally {
+            indexer.flush();
+            offsets.awaitCompleted(offsets.partitions(), System.nanoTime() + drainTimeoutNanos);
+            commitSync(offsets.partitions());
+            indexer.close();
+            consumer.close();
+            LOG.info("Stopped indexing with {} document(s) not indexed", indexer.pendingDocuments());
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        indexer.flush();
+        offsets.awaitCompleted(partitions, System.nanoTime() + drainTimeoutNanos);
+        commitSync(partitions);
+        offsets.remove(partitions);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        if (paused) {
+            consumer.pause(partitions);
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        offsets.remove(partitions);
+    }
+
+    private void applyBackpressure() {
+        int pending = indexer.pendingDocuments();
+        if (!paused && pending >= maxPendingDocuments) {
+            consumer.pause(consumer.assignment());
+            paused = true;
+            LOG.info("Paused fetching with {} document(s) not indexed", pending);
+        } else if (paused && pending <= maxPendingDocuments / 2) {
+            consumer.resume(consumer.paused());
+            paused = false;
+            LOG.info("Resumed fetching with {} document(s) not indexed", pending);
+        }
+    }
+
+    private void commitAsync() {
+        Map<TopicPartition, OffsetAndMetadata> committable = offsets.advance(offsets.partitions());
+        lastCommitNanos = System.nanoTime();
+        if (!committable.isEmpty()) {
+            consumer.commitAsync(committable, (committed, exception) -> {
+                if (exception != null) {
+                    LOG.warn("Could not commit {}: {}", committed, exception.getMessage());
+                }
+            });
+        }
+    }
+
+    private void commitSync(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> committable = offsets.advance(partitions);
+        if (committable.isEmpty()) {
+            return;
+        }
+        try {
+            consumer.commitSync(committable);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not commit {}: {}", committable, e.getMessage());
+        }
+    }
+
+    private record IndexedRecord(PartitionOffsetTracker tracker, long offset) {
+    }
+}
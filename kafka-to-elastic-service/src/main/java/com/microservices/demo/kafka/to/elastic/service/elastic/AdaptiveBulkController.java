@@ -0,0 +1,96 @@
+package com.microservices.demo.kafka.to.elastic.service.elastic;
+
+import com.microservices.demo.config.BulkIndexConfigData;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tunes the documents per bulk request and the requests in flight from the responses of the cluster, additive
+ * increase and multiplicative decrease like TCP congestion control:
+ * <ul>
+ *     <li>a response within target-latency-ms grows the bulk size by min-bulk-size, and once it is at max-bulk-size
+ *     the concurrency by one</li>
+ *     <li>a slower response shrinks the bulk size by a quarter, and once it is at min-bulk-size the concurrency by
+ *     one</li>
+ *     <li>a rejection halves both, since the cluster's write queues are full rather than the requests too big</li>
+ * </ul>
+ * Also the gate the sender threads pass to keep at most {@link #concurrency()} requests in flight.
+ */
+public class AdaptiveBulkController {
+
+    private final int minBulkSize;
+
+    private final int maxBulkSize;
+
+    private final int maxConcurrency;
+
+    private final long targetLatencyNanos;
+
+    private int bulkSize;
+
+    private int concurrency;
+
+    private int inFlight;
+
+    public AdaptiveBulkController(BulkIndexConfigData bulkIndexConfigData) {
+        this.minBulkSize = bulkIndexConfigData.getMinBulkSize();
+        this.maxBulkSize = bulkIndexConfigData.getMaxBulkSize();
+        this.maxConcurrency = bulkIndexConfigData.getMaxConcurrency();
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(bulkIndexConfigData.getTargetLatencyMs());
+        this.bulkSize = clamp(bulkIndexConfigData.getInitialBulkSize(), minBulkSize, maxBulkSize);
+        this.concurrency = clamp(bulkIndexConfigData.getInitialConcurrency(), 1, maxConcurrency);
+    }
+
+    public synchronized int bulkSize() {
+        return bulkSize;
+    }
+
+    public synchronized int concurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Waits until fewer than {@link #concurrency()} requests are in flight and counts one more.
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= concurrency) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    public synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * A request was executed and none of its documents were rejected.
+     */
+    public synchronized void onExecuted(long latencyNanos) {
+        if (latencyNanos <= targetLatencyNanos) {
+            if (bulkSize < maxBulkSize) {
+                bulkSize = Math.min(maxBulkSize, bulkSize + minBulkSize);
+            } else if (concurrency < maxConcurrency) {
+                concurrency++;
+                notifyAll();
+            }
+        } else if (bulkSize > minBulkSize) {
+            bulkSize = Math.max(minBulkSize, bulkSize - bulkSize / 4);
+        } else {
+            concurrency = Math.max(1, concurrency - 1);
+        }
+    }
+
+    /**
+     * The request, or some of its documents, were rejected, or no response came in time.
+     */
+    public synchronized void onRejected() {
+        bulkSize = Math.max(minBulkSize, bulkSize / 2);
+        concurrency = Math.max(1, concurrency / 2);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
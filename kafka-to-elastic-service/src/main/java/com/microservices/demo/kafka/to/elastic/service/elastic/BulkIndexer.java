@@ -0,0 +1,267 @@
+package com.microservices.demo.kafka.to.elastic.service.elastic;
+
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.common.logging.SampledLogSite;
+import com.microservices.demo.config.BulkIndexConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.to.elastic.service.transformer.TwitterIndexDocumentWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Indexes tweets with bulk requests sized and run concurrently as its {@link AdaptiveBulkController} decides, and
+ * hands the item of every document back once it is indexed or given up on.
+ * <p>
+ * {@link #add}, {@link #flushIfDue} and {@link #flush} are called by one thread, which builds the bulks with a reused
+ * {@link TwitterIndexDocumentWriter}; a bulk is sent when it holds the current bulk size, max-bulk-bytes or has waited
+ * flush-interval-ms. max-concurrency sender threads send them, at most the current concurrency at a time. Documents
+ * the cluster rejected, and whole bulks without a response, are sent again up to max-retries times after a doubling
+ * retry-backoff-ms; documents it refused for good are counted as failed.
+ * <p>
+ * Publishes elastic.bulk.latency, elastic.bulk.rejected, elastic.bulk.size, elastic.bulk.concurrency and
+ * elastic.documents.indexed, .failed, .retried and .pending.
+ */
+public class BulkIndexer<T> implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkIndexer.class);
+
+    private final IBulkIndexClient client;
+
+    private final AdaptiveBulkController controller;
+
+    private final Consumer<T> onCompleted;
+
+    private final TwitterIndexDocumentWriter writer;
+
+    private final int maxBulkBytes;
+
+    private final long flushIntervalNanos;
+
+    private final int maxRetries;
+
+    private final long retryBackoffMs;
+
+    private final BlockingDeque<BulkRequest<T>> ready = new LinkedBlockingDeque<>();
+
+    private final List<Thread> senders = new ArrayList<>();
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Timer latency;
+
+    private final Counter rejected;
+
+    private final Counter indexed;
+
+    private final Counter failed;
+
+    private final Counter retried;
+
+    private final SampledLogSite rejectedLog;
+
+    private final SampledLogSite failedLog;
+
+    private final int[] openItemEnds;
+
+    private List<T> openItems = new ArrayList<>();
+
+    private long openedNanos;
+
+    /**
+     * @param onCompleted called on a sender thread with the item of every document indexed or given up on
+     */
+    public BulkIndexer(String indexName,
+                       IBulkIndexClient client,
+                       Consumer<T> onCompleted,
+                       BulkIndexConfigData bulkIndexConfigData,
+                       HotPathLogging hotPathLogging,
+                       MeterRegistry meterRegistry) {
+        this.client = client;
+        this.controller = new AdaptiveBulkController(bulkIndexConfigData);
+        this.onCompleted = onCompleted;
+        this.maxBulkBytes = bulkIndexConfigData.getMaxBulkBytes();
+        this.writer = new TwitterIndexDocumentWriter(indexName, maxBulkBytes);
+        this.openItemEnds = new int[bulkIndexConfigData.getMaxBulkSize()];
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(bulkIndexConfigData.getFlushIntervalMs());
+        this.maxRetries = bulkIndexConfigData.getMaxRetries();
+        this.retryBackoffMs = bulkIndexConfigData.getRetryBackoffMs();
+        this.latency = Timer.builder("elastic.bulk.latency").register(meterRegistry);
+        this.rejected = Counter.builder("elastic.bulk.rejected").register(meterRegistry);
+        this.indexed = Counter.builder("elastic.documents.indexed").register(meterRegistry);
+        this.failed = Counter.builder("elastic.documents.failed").register(meterRegistry);
+        this.retried = Counter.builder("elastic.documents.retried").register(meterRegistry);
+        Gauge.builder("elastic.documents.pending", pending, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("elastic.bulk.size", controller, AdaptiveBulkController::bulkSize).register(meterRegistry);
+        Gauge.builder("elastic.bulk.concurrency", controller, AdaptiveBulkController::concurrency)
+                .register(meterRegistry);
+        this.rejectedLog = hotPathLogging.site("elastic-bulk-rejected", LOG);
+        this.failedLog = hotPathLogging.site("elastic-document-failed", LOG);
+        for (int i = 0; i < bulkIndexConfigData.getMaxConcurrency(); i++) {
+            Thread sender = new Thread(this::send, "elastic-bulk-sender-" + i);
+            sender.setDaemon(true);
+            senders.add(sender);
+        }
+    }
+
+    public void start() {
+        senders.forEach(Thread::start);
+    }
+
+    public void add(T item, TwitterAvroModel model) {
+        if (openItems.isEmpty()) {
+            openedNanos = System.nanoTime();
+        }
+        writer.write(model);
+        openItemEnds[openItems.size()] = writer.size();
+        openItems.add(item);
+        pending.incrementAndGet();
+        if (openItems.size() >= controller.bulkSize() || writer.size() >= maxBulkBytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the open bulk if it has waited flush-interval-ms.
+     */
+    public void flushIfDue() {
+        if (!openItems.isEmpty() && System.nanoTime() - openedNanos >= flushIntervalNanos) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        if (openItems.isEmpty()) {
+            return;
+        }
+        ready.add(new BulkRequest<>(openItems, writer.toByteArray(), Arrays.copyOf(openItemEnds, openItems.size()), 0));
+        openItems = new ArrayList<>(controller.bulkSize());
+        writer.reset();
+    }
+
+    /**
+     * @return documents added and not indexed or given up on yet
+     */
+    public int pendingDocuments() {
+        return pending.get();
+    }
+
+    AdaptiveBulkController controller() {
+        return controller;
+    }
+
+    /**
+     * Stops the senders; documents not sent by then are never handed back.
+     */
+    @Override
+    public void close() {
+        senders.forEach(Thread::interrupt);
+    }
+
+    private void send() {
+        try {
+            while (true) {
+                BulkRequest<T> bulk = ready.take();
+                BulkResponse response = null;
+                IOException failure = null;
+                controller.acquire();
+                long start = System.nanoTime();
+                try {
+                    response = client.bulk(bulk);
+                } catch (IOException e) {
+                    failure = e;
+                } finally {
+                    controller.release();
+                }
+                long latencyNanos = System.nanoTime() - start;
+                if (failure != null || response.isRejected()) {
+                    rejected.increment();
+                    controller.onRejected();
+                    rejectedLog.info("Bulk of {} document(s) rejected: {}", bulk.size(),
+                            failure != null ? failure.toString() : response.firstError());
+                    retry(bulk, allIndexes(bulk));
+                } else {
+                    latency.record(latencyNanos, TimeUnit.NANOSECONDS);
+                    complete(bulk, response, latencyNanos);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void complete(BulkRequest<T> bulk, BulkResponse response, long latencyNanos) throws InterruptedException {
+        if (!response.isExecuted()) {
+            for (int i = 0; i < bulk.size(); i++) {
+                fail(bulk.items().get(i), response.firstError());
+            }
+            return;
+        }
+        List<Integer> rejectedIndexes = new ArrayList<>();
+        for (int i = 0; i < bulk.size(); i++) {
+            int itemStatus = response.itemStatus(i);
+            if (itemStatus < 300) {
+                indexed.increment();
+                done(bulk.items().get(i));
+            } else if (BulkResponse.isRetryable(itemStatus)) {
+                rejectedIndexes.add(i);
+            } else {
+                fail(bulk.items().get(i), response.firstError());
+            }
+        }
+        if (rejectedIndexes.isEmpty()) {
+            controller.onExecuted(latencyNanos);
+        } else {
+            rejected.increment();
+            controller.onRejected();
+            rejectedLog.info("{} of {} document(s) rejected: {}", rejectedIndexes.size(), bulk.size(),
+                    response.firstError());
+            retry(bulk, rejectedIndexes);
+        }
+    }
+
+    private void retry(BulkRequest<T> bulk, List<Integer> indexes) throws InterruptedException {
+        if (bulk.attempt() >= maxRetries) {
+            for (int index : indexes) {
+                fail(bulk.items().get(index), "rejected " + (bulk.attempt() + 1) + " time(s)");
+            }
+            return;
+        }
+        retried.increment(indexes.size());
+        // Backs off on this sender only, the others keep the cluster busy at the reduced concurrency
+        TimeUnit.MILLISECONDS.sleep(retryBackoffMs << bulk.attempt());
+        ready.addFirst(bulk.retry(indexes));
+    }
+
+    private void fail(T item, String reason) {
+        failed.increment();
+        failedLog.info("Document not indexed: {}", reason);
+        done(item);
+    }
+
+    private void done(T item) {
+        pending.decrementAndGet();
+        onCompleted.accept(item);
+    }
+
+    private static List<Integer> allIndexes(BulkRequest<?> bulk) {
+        List<Integer> indexes = new ArrayList<>(bulk.size());
+        for (int i = 0; i < bulk.size(); i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,50 @@
+package com.microservices.demo.kafka.to.elastic.service.elastic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One bulk request: the NDJSON body and, per document, the item handed back once it is done with.
+ *
+ * @param items    one per document, in body order
+ * @param body     action and document line of every document
+ * @param itemEnds end of every document's lines in the body
+ * @param attempt  zero for the first attempt, counting up with every retry
+ */
+public record BulkRequest<T>(List<T> items, byte[] body, int[] itemEnds, int attempt) {
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * @param indexes documents of this request to send again, ascending
+     * @return a request with only those documents, for the next attempt
+     */
+    public BulkRequest<T> retry(List<Integer> indexes) {
+        if (indexes.size() == items.size()) {
+            return new BulkRequest<>(items, body, itemEnds, attempt + 1);
+        }
+        List<T> retryItems = new ArrayList<>(indexes.size());
+        int[] retryEnds = new int[indexes.size()];
+        int length = 0;
+        for (int index : indexes) {
+            length += itemEnds[index] - start(index);
+        }
+        byte[] retryBody = new byte[length];
+        int position = 0;
+        for (int i = 0; i < indexes.size(); i++) {
+            int index = indexes.get(i);
+            int start = start(index);
+            System.arraycopy(body, start, retryBody, position, itemEnds[index] - start);
+            position += itemEnds[index] - start;
+            retryItems.add(items.get(index));
+            retryEnds[i] = position;
+        }
+        return new BulkRequest<>(retryItems, retryBody, retryEnds, attempt + 1);
+    }
+
+    private int start(int index) {
+        return index == 0 ? 0 : itemEnds[index - 1];
+    }
+}
@@ -0,0 +1,31 @@
+package com.microservices.demo.kafka.to.elastic.service.elastic;
+
+/**
+ * @param status       HTTP status of the bulk request
+ * @param itemStatuses status of every document in request order when the request was executed, otherwise empty
+ * @param firstError   type and reason of the first failure, null when nothing failed
+ */
+public record BulkResponse(int status, int[] itemStatuses, String firstError) {
+
+    /**
+     * @return true when the cluster had no capacity for the request, which is worth sending again later
+     */
+    public boolean isRejected() {
+        return isRetryable(status);
+    }
+
+    public boolean isExecuted() {
+        return status >= 200 && status < 300;
+    }
+
+    public int itemStatus(int index) {
+        return itemStatuses[index];
+    }
+
+    /**
+     * Too many requests from a full write queue, or an unavailable shard.
+     */
+    public static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+}
@@ -0,0 +1,11 @@
+package com.microservices.demo.kafka.to.elastic.service.elastic;
+
+import java.io.IOException;
+
+public interface IBulkIndexClient {
+
+    /**
+     * @throws IOException when no response arrives in time; the documents may or may not have been indexed
+     */
+    BulkResponse bulk(BulkRequest<?> request) throws IOException, InterruptedException;
+}
@@ -0,0 +1,127 @@
+package com.microservices.demo.kafka.to.elastic.service.elastic.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.microservices.demo.config.ElasticConfigData;
+import com.microservices.demo.kafka.to.elastic.service.elastic.BulkRequest;
+import com.microservices.demo.kafka.to.elastic.service.elastic.BulkResponse;
+import com.microservices.demo.kafka.to.elastic.service.elastic.IBulkIndexClient;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Posts bulk requests to the _bulk endpoint of elastic-config.connection-url over HTTP/1.1 and reads only the item
+ * statuses and the first error of the response, without building a tree of it.
+ */
+@Service
+public class HttpBulkIndexClient implements IBulkIndexClient {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final HttpClient httpClient;
+
+    private final URI bulkUri;
+
+    private final Duration requestTimeout;
+
+    public HttpBulkIndexClient(ElasticConfigData elasticConfigData) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(elasticConfigData.getConnectTimeoutMs()))
+                .build();
+        this.bulkUri = URI.create(elasticConfigData.getConnectionUrl().replaceAll("/+$", "") + "/_bulk");
+        this.requestTimeout = Duration.ofMillis(elasticConfigData.getSocketTimeoutMs());
+    }
+
+    @Override
+    public BulkResponse bulk(BulkRequest<?> request) throws IOException, InterruptedException {
+        HttpRequest httpRequest = HttpRequest.newBuilder(bulkUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(request.body()))
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            return new BulkResponse(response.statusCode(), new int[0], "HTTP " + response.statusCode());
+        }
+        return parse(response.statusCode(), response.body(), request.size());
+    }
+
+    static BulkResponse parse(int status, byte[] body, int expectedItems) throws IOException {
+        // Items the response does not account for are retried like a shard that was not available
+        int[] itemStatuses = new int[expectedItems];
+        Arrays.fill(itemStatuses, 503);
+        String firstError = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (!"items".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                expect(parser.currentToken(), JsonToken.START_ARRAY);
+                int index = 0;
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    // {"index": {"_id": ..., "status": 201, "error": {"type": ..., "reason": ...}}}
+                    expect(parser.nextToken(), JsonToken.FIELD_NAME);
+                    expect(parser.nextToken(), JsonToken.START_OBJECT);
+                    int itemStatus = 503;
+                    String error = null;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String itemField = parser.currentName();
+                        JsonToken value = parser.nextToken();
+                        if ("status".equals(itemField)) {
+                            itemStatus = parser.getIntValue();
+                        } else if ("error".equals(itemField) && value == JsonToken.START_OBJECT) {
+                            error = readError(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    expect(parser.nextToken(), JsonToken.END_OBJECT);
+                    if (index < expectedItems) {
+                        itemStatuses[index] = itemStatus;
+                    }
+                    if (firstError == null && error != null) {
+                        firstError = error;
+                    }
+                    index++;
+                }
+            }
+        }
+        return new BulkResponse(status, itemStatuses, firstError);
+    }
+
+    private static String readError(JsonParser parser) throws IOException {
+        String type = null;
+        String reason = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("type".equals(field)) {
+                type = parser.getText();
+            } else if ("reason".equals(field)) {
+                reason = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return type + ": " + reason;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected bulk response, found " + actual + " instead of " + expected);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.microservices.demo.kafka.to.elastic.service.transformer;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes tweets as the action and document lines of a bulk request, UTF-8 encoded straight into one growable buffer
+ * that is reused from bulk to bulk, so indexing a tweet allocates no intermediate model, JSON tree or string.
+ * <p>
+ * Documents are indexed with the tweet id as _id, so a tweet delivered again overwrites itself. Null fields are left
+ * out. Not thread safe: one writer belongs to the thread building the bulks.
+ */
+public final class TwitterIndexDocumentWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] ACTION_END = ascii("\"}}\n{\"user_id\":");
+
+    private static final byte[] ID = ascii(",\"id\":");
+
+    private static final byte[] TEXT = ascii(",\"text\":");
+
+    private static final byte[] CREATED_AT = ascii(",\"created_at\":");
+
+    private static final byte[] TOKENS = ascii(",\"tokens\":");
+
+    private static final byte[] HASHTAGS = ascii(",\"hashtags\":");
+
+    private static final byte[] FOLLOWER_TIER = ascii(",\"follower_tier\":");
+
+    private static final byte[] ACCOUNT_CLASS = ascii(",\"account_class\":");
+
+    private static final byte[] DOCUMENT_END = ascii("}\n");
+
+    private final byte[] actionStart;
+
+    private final byte[] digits = new byte[20];
+
+    private byte[] buffer;
+
+    private int size;
+
+    public TwitterIndexDocumentWriter(String indexName, int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+        appendString(indexName);
+        this.actionStart = concat(ascii("{\"index\":{\"_index\":"), toByteArray(), ascii(",\"_id\":\""));
+        reset();
+    }
+
+    public void write(TwitterAvroModel model) {
+        append(actionStart);
+        appendLong(model.getId());
+        append(ACTION_END);
+        appendLong(model.getUserId());
+        append(ID);
+        appendLong(model.getId());
+        appendStringField(TEXT, model.getText());
+        appendStringField(CREATED_AT, model.getCreatedAt());
+        appendArrayField(TOKENS, model.getTokens());
+        appendArrayField(HASHTAGS, model.getHashtags());
+        appendStringField(FOLLOWER_TIER, model.getFollowerTier());
+        appendStringField(ACCOUNT_CLASS, model.getAccountClass());
+        append(DOCUMENT_END);
+    }
+
+    /**
+     * @return bytes written since the last {@link #reset()}
+     */
+    public int size() {
+        return size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Starts the next bulk, keeping the buffer.
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    private void appendStringField(byte[] name, String value) {
+        if (value != null) {
+            append(name);
+            appendString(value);
+        }
+    }
+
+    private void appendArrayField(byte[] name, List<String> values) {
+        if (values == null) {
+            return;
+        }
+        append(name);
+        ensureCapacity(1);
+        buffer[size++] = '[';
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                ensureCapacity(1);
+                buffer[size++] = ',';
+            }
+            appendString(values.get(i));
+        }
+        ensureCapacity(1);
+        buffer[size++] = ']';
+    }
+
+    private void appendString(String value) {
+        int length = value.length();
+        // An escaped control character takes six bytes, the most of any char; surrogate pairs take four for two
+        ensureCapacity(length * 6 + 2);
+        byte[] out = buffer;
+        int position = size;
+        out[position++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    out[position++] = '\\';
+                    out[position++] = (byte) c;
+                } else if (c >= 0x20) {
+                    out[position++] = (byte) c;
+                } else if (c == '\n') {
+                    out[position++] = '\\';
+                    out[position++] = 'n';
+                } else if (c == '\r') {
+                    out[position++] = '\\';
+                    out[position++] = 'r';
+                } else if (c == '\t') {
+                    out[position++] = '\\';
+                    out[position++] = 't';
+                } else {
+                    out[position++] = '\\';
+                    out[position++] = 'u';
+                    out[position++] = '0';
+                    out[position++] = '0';
+                    out[position++] = HEX[c >> 4];
+                    out[position++] = HEX[c & 0xF];
+                }
+            } else if (c < 0x800) {
+                out[position++] = (byte) (0xC0 | (c >> 6));
+                out[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out[position++] = (byte) (0xF0 | (codePoint >> 18));
+                out[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                // A lone surrogate has no UTF-8 encoding, it becomes U+FFFD like String.getBytes does
+                char encoded = Character.isSurrogate(c) ? '\uFFFD' : c;
+                out[position++] = (byte) (0xE0 | (encoded >> 12));
+                out[position++] = (byte) (0x80 | ((encoded >> 6) & 0x3F));
+                out[position++] = (byte) (0x80 | (encoded & 0x3F));
+            }
+        }
+        out[position++] = '"';
+        size = position;
+    }
+
+    private void appendLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            append(ascii(Long.toString(value)));
+            return;
+        }
+        ensureCapacity(digits.length);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        int count = digits.length - start;
+        System.arraycopy(digits, start, buffer, size, count);
+        size += count;
+    }
+
+    private void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] result = new byte[length];
+        int position = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, result, position, part.length);
+            position += part.length;
+        }
+        return result;
+    }
+}
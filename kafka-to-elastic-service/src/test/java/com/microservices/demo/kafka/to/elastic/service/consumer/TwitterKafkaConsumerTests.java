@@ -0,0 +1,144 @@
+package com.microservices.demo.kafka.to.elastic.service.consumer;
+
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.config.BulkIndexConfigData;
+import com.microservices.demo.config.ElasticConfigData;
+import com.microservices.demo.config.HotPathLoggingConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.to.elastic.service.elastic.ElasticBulkStandIn;
+import com.microservices.demo.kafka.to.elastic.service.elastic.impl.HttpBulkIndexClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwitterKafkaConsumerTests {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final List<TopicPartition> PARTITIONS = IntStream.range(0, 3)
+            .mapToObj(partition -> new TopicPartition(TOPIC, partition))
+            .toList();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MockConsumer<Long, TwitterAvroModel> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+    private ElasticBulkStandIn standIn;
+
+    private TwitterKafkaConsumer twitterKafkaConsumer;
+
+    @BeforeEach
+    void startStandIn() throws IOException {
+        standIn = new ElasticBulkStandIn();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (twitterKafkaConsumer != null) {
+            twitterKafkaConsumer.close();
+        }
+        standIn.close();
+    }
+
+    @Test
+    void indexesEveryTweetAndCommitsOnceItIsIndexed() {
+        standIn.setLatency(2_000, 0);
+        start(10_000);
+
+        addTweets(1_000);
+
+        awaitUntil(() -> standIn.documents().size() == 3_000);
+        awaitUntil(() -> committed().values().stream().allMatch(offset -> offset == 1_000));
+        assertThat(standIn.documents().get("2999").path("text").asText()).isEqualTo("tweet 2999");
+    }
+
+    @Test
+    void pausesFetchingWhileTheIndexFallsBehind() {
+        standIn.setLatency(100_000, 0);
+        start(500);
+
+        addTweets(1_000);
+
+        AtomicBoolean paused = new AtomicBoolean();
+        awaitUntil(() -> {
+            paused.compareAndSet(false, !consumer.paused().isEmpty());
+            return paused.get();
+        });
+        assertThat(meterRegistry.get("elastic.consumer.paused").gauge().value()).isEqualTo(1);
+
+        awaitUntil(() -> standIn.documents().size() == 3_000 && consumer.paused().isEmpty());
+        awaitUntil(() -> committed().values().stream().allMatch(offset -> offset == 1_000));
+    }
+
+    private void start(int maxPendingDocuments) {
+        BulkIndexConfigData config = new BulkIndexConfigData();
+        config.setInitialBulkSize(100);
+        config.setMinBulkSize(50);
+        config.setMaxBulkSize(1_000);
+        config.setMaxBulkBytes(5 * 1024 * 1024);
+        config.setInitialConcurrency(2);
+        config.setMaxConcurrency(4);
+        config.setTargetLatencyMs(200L);
+        config.setFlushIntervalMs(20L);
+        config.setMaxPendingDocuments(maxPendingDocuments);
+        config.setMaxRetries(5);
+        config.setRetryBackoffMs(5L);
+        config.setPollTimeoutMs(10L);
+        config.setCommitIntervalMs(10L);
+        config.setDrainTimeoutMs(5_000L);
+        ElasticConfigData elasticConfigData = new ElasticConfigData();
+        elasticConfigData.setIndexName("twitter-index");
+        elasticConfigData.setConnectionUrl(standIn.url());
+        elasticConfigData.setConnectTimeoutMs(1_000);
+        elasticConfigData.setSocketTimeoutMs(10_000);
+        twitterKafkaConsumer = new TwitterKafkaConsumer(TOPIC, consumer, elasticConfigData, config,
+                new HttpBulkIndexClient(elasticConfigData), new HotPathLogging(new HotPathLoggingConfigData()),
+                meterRegistry);
+        consumer.updateBeginningOffsets(PARTITIONS.stream().collect(Collectors.toMap(partition -> partition, partition -> 0L)));
+        twitterKafkaConsumer.start();
+        consumer.rebalance(PARTITIONS);
+    }
+
+    private void addTweets(int perPartition) {
+        long id = 0;
+        for (long offset = 0; offset < perPartition; offset++) {
+            for (TopicPartition partition : PARTITIONS) {
+                TwitterAvroModel tweet = TwitterAvroModel.newBuilder().setId(id).setUserId(id % 50)
+                        .setText("tweet " + id).setCreatedAt(null).build();
+                consumer.addRecord(new ConsumerRecord<>(TOPIC, partition.partition(), offset, tweet.getUserId(), tweet));
+                id++;
+            }
+        }
+    }
+
+    private Map<TopicPartition, Long> committed() {
+        return consumer.committed(Set.copyOf(PARTITIONS)).entrySet().stream()
+                .filter(entry -> entry.getValue() != null)
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().offset()));
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within 30 s").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
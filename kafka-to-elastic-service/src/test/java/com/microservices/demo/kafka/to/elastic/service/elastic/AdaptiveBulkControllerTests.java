@@ -0,0 +1,84 @@
+package com.microservices.demo.kafka.to.elastic.service.elastic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveBulkControllerTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(300);
+
+    @Test
+    void growsTheBulkSizeFirstAndTheConcurrencyOnceItIsAtMaximum() {
+        AdaptiveBulkController controller = new AdaptiveBulkController(BulkIndexerTests.config(100, 100, 300, 1, 3, 200));
+
+        controller.onExecuted(FAST);
+        assertThat(controller.bulkSize()).isEqualTo(200);
+        controller.onExecuted(FAST);
+        assertThat(controller.bulkSize()).isEqualTo(300);
+        assertThat(controller.concurrency()).isEqualTo(1);
+
+        controller.onExecuted(FAST);
+        controller.onExecuted(FAST);
+        controller.onExecuted(FAST);
+        assertThat(controller.bulkSize()).isEqualTo(300);
+        assertThat(controller.concurrency()).isEqualTo(3);
+    }
+
+    @Test
+    void shrinksTheBulkSizeOnSlowResponsesAndTheConcurrencyOnceItIsAtMinimum() {
+        AdaptiveBulkController controller = new AdaptiveBulkController(BulkIndexerTests.config(400, 100, 1_000, 2, 4, 200));
+
+        controller.onExecuted(SLOW);
+        assertThat(controller.bulkSize()).isEqualTo(300);
+        controller.onExecuted(SLOW);
+        controller.onExecuted(SLOW);
+        controller.onExecuted(SLOW);
+        controller.onExecuted(SLOW);
+        assertThat(controller.bulkSize()).isEqualTo(100);
+        assertThat(controller.concurrency()).isEqualTo(2);
+
+        controller.onExecuted(SLOW);
+        controller.onExecuted(SLOW);
+        assertThat(controller.concurrency()).isEqualTo(1);
+    }
+
+    @Test
+    void halvesBothOnRejection() {
+        AdaptiveBulkController controller = new AdaptiveBulkController(BulkIndexerTests.config(800, 100, 1_000, 4, 4, 200));
+
+        controller.onRejected();
+        assertThat(controller.bulkSize()).isEqualTo(400);
+        assertThat(controller.concurrency()).isEqualTo(2);
+        controller.onRejected();
+        controller.onRejected();
+        controller.onRejected();
+        assertThat(controller.bulkSize()).isEqualTo(100);
+        assertThat(controller.concurrency()).isEqualTo(1);
+    }
+
+    @Test
+    void letsAtMostConcurrencyRequestsInFlight() throws InterruptedException {
+        AdaptiveBulkController controller = new AdaptiveBulkController(BulkIndexerTests.config(300, 100, 300, 1, 2, 200));
+        controller.acquire();
+
+        Thread second = new Thread(() -> {
+            try {
+                controller.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        second.start();
+        second.join(100);
+        assertThat(second.isAlive()).isTrue();
+
+        controller.onExecuted(FAST);
+        second.join(1_000);
+        assertThat(second.isAlive()).isFalse();
+    }
+}
@@ -0,0 +1,165 @@
+package com.microservices.demo.kafka.to.elastic.service.elastic;
+
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.config.BulkIndexConfigData;
+import com.microservices.demo.config.ElasticConfigData;
+import com.microservices.demo.config.HotPathLoggingConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.to.elastic.service.elastic.impl.HttpBulkIndexClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkIndexerTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Set<Long> completed = ConcurrentHashMap.newKeySet();
+
+    private ElasticBulkStandIn standIn;
+
+    private BulkIndexer<Long> indexer;
+
+    @BeforeEach
+    void startStandIn() throws IOException {
+        standIn = new ElasticBulkStandIn();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (indexer != null) {
+            indexer.close();
+        }
+        standIn.close();
+    }
+
+    @Test
+    void growsBulksThenConcurrencyWhileTheIndexKeepsUp() {
+        standIn.setLatency(1_000, 0);
+        start(config(100, 50, 1_000, 1, 4, 200));
+
+        addPaced(20_000, 2_000);
+
+        awaitUntil(() -> completed.size() == 20_000);
+        assertThat(standIn.documents()).hasSize(20_000);
+        assertThat(indexer.controller().bulkSize()).isEqualTo(1_000);
+        assertThat(indexer.controller().concurrency()).isGreaterThan(1);
+        assertThat(standIn.bulkSizes()).contains(1_000);
+        assertThat(meterRegistry.get("elastic.documents.failed").counter().count()).isZero();
+    }
+
+    @Test
+    void shrinksBulksWhenResponsesAreSlowerThanTarget() {
+        // 20 ms of target latency fit 200 documents at 100 us each
+        standIn.setLatency(0, 100);
+        start(config(2_000, 50, 2_000, 1, 1, 20));
+
+        addPaced(10_000, 2_000);
+
+        awaitUntil(() -> completed.size() == 10_000);
+        assertThat(indexer.controller().bulkSize()).isBetween(50, 400);
+        assertThat(standIn.bulkSizes().get(standIn.bulkSizes().size() - 1)).isLessThan(400);
+    }
+
+    @Test
+    void halvesConcurrencyAndRetriesDocumentsTheIndexRejects() {
+        standIn.setLatency(10_000, 0);
+        standIn.setCapacity(1);
+        start(config(200, 50, 10_000, 4, 4, 200));
+
+        addPaced(2_000, 2_000);
+
+        awaitUntil(() -> completed.size() == 2_000);
+        assertThat(standIn.documents()).hasSize(2_000);
+        assertThat(standIn.rejectedDocuments()).isPositive();
+        assertThat(indexer.controller().concurrency()).isEqualTo(1);
+        assertThat(meterRegistry.get("elastic.bulk.rejected").counter().count()).isPositive();
+        assertThat(meterRegistry.get("elastic.documents.retried").counter().count()).isPositive();
+        assertThat(meterRegistry.get("elastic.documents.failed").counter().count()).isZero();
+    }
+
+    @Test
+    void handsBackDocumentsTheIndexRefusesWithoutRetrying() {
+        standIn.setRefusedIds(Set.of("3", "7"));
+        start(config(100, 50, 1_000, 1, 1, 200));
+
+        addPaced(10, 10);
+        indexer.flush();
+
+        awaitUntil(() -> completed.size() == 10);
+        assertThat(standIn.documents()).hasSize(8).doesNotContainKeys("3", "7");
+        assertThat(meterRegistry.get("elastic.documents.failed").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("elastic.documents.retried").counter().count()).isZero();
+        assertThat(indexer.pendingDocuments()).isZero();
+    }
+
+    private void start(BulkIndexConfigData config) {
+        ElasticConfigData elasticConfigData = new ElasticConfigData();
+        elasticConfigData.setConnectionUrl(standIn.url());
+        elasticConfigData.setConnectTimeoutMs(1_000);
+        elasticConfigData.setSocketTimeoutMs(10_000);
+        indexer = new BulkIndexer<>("twitter-index", new HttpBulkIndexClient(elasticConfigData), completed::add, config,
+                new HotPathLogging(new HotPathLoggingConfigData()), meterRegistry);
+        indexer.start();
+    }
+
+    /**
+     * Adds documents while fewer than maxPending are in flight, like the consumer pausing its fetches.
+     */
+    private void addPaced(int documents, int maxPending) {
+        for (long id = 0; id < documents; id++) {
+            while (indexer.pendingDocuments() >= maxPending) {
+                indexer.flushIfDue();
+                Thread.onSpinWait();
+            }
+            indexer.add(id, tweet(id));
+        }
+        indexer.flush();
+    }
+
+    static BulkIndexConfigData config(int initialBulkSize, int minBulkSize, int maxBulkSize,
+                                      int initialConcurrency, int maxConcurrency, long targetLatencyMs) {
+        BulkIndexConfigData config = new BulkIndexConfigData();
+        config.setInitialBulkSize(initialBulkSize);
+        config.setMinBulkSize(minBulkSize);
+        config.setMaxBulkSize(maxBulkSize);
+        config.setMaxBulkBytes(5 * 1024 * 1024);
+        config.setInitialConcurrency(initialConcurrency);
+        config.setMaxConcurrency(maxConcurrency);
+        config.setTargetLatencyMs(targetLatencyMs);
+        config.setFlushIntervalMs(20L);
+        config.setMaxPendingDocuments(2_000);
+        config.setMaxRetries(10);
+        config.setRetryBackoffMs(5L);
+        config.setPollTimeoutMs(10L);
+        config.setCommitIntervalMs(10L);
+        config.setDrainTimeoutMs(5_000L);
+        return config;
+    }
+
+    static TwitterAvroModel tweet(long id) {
+        return TwitterAvroModel.newBuilder()
+                .setId(id)
+                .setUserId(id % 100)
+                .setText("tweet " + id + " about #kafka and \"elasticsearch\"")
+                .setCreatedAt("Mon Oct 19 10:00:00 +0000 2026")
+                .build();
+    }
+
+    static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within 30 s").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
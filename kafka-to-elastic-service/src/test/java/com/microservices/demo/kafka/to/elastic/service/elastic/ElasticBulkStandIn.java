@@ -0,0 +1,159 @@
+package com.microservices.demo.kafka.to.elastic.service.elastic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stands in for the _bulk endpoint of a cluster on a local port. A bulk takes a fixed latency plus one per document,
+ * and while more than {@link #setCapacity capacity} bulks are executing every document of the next one is rejected
+ * with 429, like a full write queue. Documents are kept by _id.
+ */
+public class ElasticBulkStandIn implements AutoCloseable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final Map<String, JsonNode> documents = new ConcurrentHashMap<>();
+
+    private final List<Integer> bulkSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger executing = new AtomicInteger();
+
+    private final AtomicInteger maxExecuting = new AtomicInteger();
+
+    private final AtomicInteger rejectedDocuments = new AtomicInteger();
+
+    private volatile long fixedLatencyMicros;
+
+    private volatile long latencyMicrosPerDocument;
+
+    private volatile int capacity = Integer.MAX_VALUE;
+
+    private volatile Set<String> refusedIds = Set.of();
+
+    public ElasticBulkStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/_bulk", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void setLatency(long fixedMicros, long microsPerDocument) {
+        this.fixedLatencyMicros = fixedMicros;
+        this.latencyMicrosPerDocument = microsPerDocument;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Documents with these ids fail with 400 as if they did not match the mapping.
+     */
+    public void setRefusedIds(Set<String> refusedIds) {
+        this.refusedIds = refusedIds;
+    }
+
+    public Map<String, JsonNode> documents() {
+        return documents;
+    }
+
+    public List<Integer> bulkSizes() {
+        synchronized (bulkSizes) {
+            return new ArrayList<>(bulkSizes);
+        }
+    }
+
+    public int maxExecuting() {
+        return maxExecuting.get();
+    }
+
+    public int rejectedDocuments() {
+        return rejectedDocuments.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String[] lines = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8).split("\n");
+        int running = executing.incrementAndGet();
+        maxExecuting.accumulateAndGet(running, Math::max);
+        try {
+            boolean rejected = running > capacity;
+            if (!rejected) {
+                bulkSizes.add(lines.length / 2);
+                TimeUnit.MICROSECONDS.sleep(fixedLatencyMicros + latencyMicrosPerDocument * (lines.length / 2));
+            }
+            StringBuilder items = new StringBuilder();
+            boolean errors = false;
+            for (int i = 0; i + 1 < lines.length; i += 2) {
+                String id = OBJECT_MAPPER.readTree(lines[i]).path("index").path("_id").asText();
+                JsonNode document = OBJECT_MAPPER.readTree(lines[i + 1]);
+                int status = rejected ? 429 : refusedIds.contains(id) ? 400 : 201;
+                if (status == 201) {
+                    documents.put(id, document);
+                } else {
+                    errors = true;
+                }
+                if (status == 429) {
+                    rejectedDocuments.incrementAndGet();
+                }
+                items.append(items.length() == 0 ? "" : ",").append(item(id, status));
+            }
+            respond(exchange, 200, "{\"took\":1,\"errors\":" + errors + ",\"items\":[" + items + "]}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "{}");
+        } catch (IOException e) {
+            respond(exchange, 400, "{\"error\":{\"type\":\"parse_exception\",\"reason\":\"" + e.getClass() + "\"}}");
+        } finally {
+            executing.decrementAndGet();
+        }
+    }
+
+    private static String item(String id, int status) {
+        String error = switch (status) {
+            case 429 -> ",\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"write queue full\"}";
+            case 400 -> ",\"error\":{\"type\":\"mapper_parsing_exception\",\"reason\":\"failed to parse\"}";
+            default -> "";
+        };
+        return "{\"index\":{\"_index\":\"twitter-index\",\"_id\":\"" + id + "\",\"status\":" + status + error + "}}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.microservices.demo.kafka.to.elastic.service.transformer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwitterIndexDocumentWriterTests {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void writesTheActionAndDocumentLineOfEveryTweet() throws IOException {
+        TwitterIndexDocumentWriter writer = new TwitterIndexDocumentWriter("twitter-index", 16);
+        String text = "Quote \" backslash \\ tab\t newline\n bell\u0007 é ü € 🚀 lone ";
+        writer.write(TwitterAvroModel.newBuilder()
+                .setId(-42L)
+                .setUserId(Long.MAX_VALUE)
+                .setText(text + "\uD83D end")
+                .setCreatedAt("Mon Oct 19 10:00:00 +0000 2026")
+                .setTokens(List.of("quote", "é"))
+                .setHashtags(List.of())
+                .setFollowerTier("large")
+                .build());
+        writer.write(TwitterAvroModel.newBuilder().setId(Long.MIN_VALUE).setUserId(0L).setText(null)
+                .setCreatedAt(null).build());
+
+        String[] lines = new String(writer.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+        assertThat(lines).hasSize(5);
+        assertThat(lines[4]).isEmpty();
+
+        JsonNode action = OBJECT_MAPPER.readTree(lines[0]);
+        assertThat(action.path("index").path("_index").asText()).isEqualTo("twitter-index");
+        assertThat(action.path("index").path("_id").asText()).isEqualTo("-42");
+        JsonNode document = OBJECT_MAPPER.readTree(lines[1]);
+        assertThat(document.path("id").asLong()).isEqualTo(-42L);
+        assertThat(document.path("user_id").asLong()).isEqualTo(Long.MAX_VALUE);
+        assertThat(document.path("text").asText()).isEqualTo(text + "\uFFFD end");
+        assertThat(document.path("created_at").asText()).isEqualTo("Mon Oct 19 10:00:00 +0000 2026");
+        assertThat(document.path("tokens")).hasSize(2);
+        assertThat(document.path("hashtags").isArray()).isTrue();
+        assertThat(document.path("follower_tier").asText()).isEqualTo("large");
+        assertThat(document.has("account_class")).isFalse();
+
+        assertThat(OBJECT_MAPPER.readTree(lines[2]).path("index").path("_id").asText())
+                .isEqualTo(Long.toString(Long.MIN_VALUE));
+        JsonNode sparse = OBJECT_MAPPER.readTree(lines[3]);
+        assertThat(sparse.has("text")).isFalse();
+        assertThat(sparse.has("tokens")).isFalse();
+    }
+
+    @Test
+    void startsOverAfterReset() {
+        TwitterIndexDocumentWriter writer = new TwitterIndexDocumentWriter("twitter-index", 1024);
+        TwitterAvroModel tweet = TwitterAvroModel.newBuilder().setId(1L).setUserId(2L).setText("text")
+                .setCreatedAt(null).build();
+        writer.write(tweet);
+        byte[] first = writer.toByteArray();
+
+        writer.reset();
+        assertThat(writer.size()).isZero();
+        writer.write(tweet);
+        assertThat(writer.toByteArray()).isEqualTo(first);
+    }
+}
@@ -0,0 +1,26 @@
+package com.microservices.demo.kafka.admin.advisor;
+
+/**
+ * Partition advice for one topic. Saturation times are {@link Double#POSITIVE_INFINITY} when the trend never
+ * reaches the capacity, and 0 when it is already reached.
+ *
+ * @param recordsPerSecond                 produce rate over the last sample interval, all partitions
+ * @param hottestPartitionRecordsPerSecond produce rate of the busiest partition over the same interval
+ * @param growthRecordsPerSecondPerHour    slope of the produce rate fitted over the sample history
+ * @param brokerBytesPerSecond             ingress per broker, replication included
+ * @param recommendedPartitions            the current count when no increase is needed within the horizon
+ */
+public record PartitionAdvice(String topic,
+                              int currentPartitions,
+                              int recommendedPartitions,
+                              double recordsPerSecond,
+                              double hottestPartitionRecordsPerSecond,
+                              double growthRecordsPerSecondPerHour,
+                              double brokerBytesPerSecond,
+                              double secondsToConsumerSaturation,
+                              double secondsToBrokerSaturation) {
+
+    public boolean increaseRecommended() {
+        return recommendedPartitions > currentPartitions;
+    }
+}
@@ -0,0 +1,230 @@
+package com.microservices.demo.kafka.admin.advisor;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.PartitionAdvisorConfigData;
+import com.microservices.demo.kafka.admin.client.KafkaAdminClient;
+import com.microservices.demo.kafka.admin.client.TopicLoadSample;
+import com.microservices.demo.kafka.admin.exception.KafkaClientException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the produce rate of the configured topics and advises partition increases before the topic becomes the
+ * scaling ceiling.
+ * <p>
+ * Every interval the end offsets and log sizes of each partition are sampled. The rate between the last two
+ * samples gives the current load and the busiest partition, a least-squares fit over the sample history gives the
+ * growth. Consumers saturate when the busiest partition reaches what one consumer handles; brokers saturate when
+ * their ingress, replication included, reaches their capacity. When consumers are projected to saturate within
+ * the horizon, enough partitions are advised for the projected rate with the current skew, and applied with
+ * createPartitions if partition-advisor-config.apply-increases is set. Broker saturation is only reported, as more
+ * partitions do not add broker capacity.
+ */
+@Component
+@ConditionalOnProperty(name = "partition-advisor-config.enabled", havingValue = "true")
+public class PartitionExpansionAdvisor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionExpansionAdvisor.class);
+
+    private final KafkaAdminClient kafkaAdminClient;
+
+    private final KafkaConfigData kafkaConfigData;
+
+    private final PartitionAdvisorConfigData partitionAdvisorConfigData;
+
+    private final Map<String, Deque<TopicLoadSample>> histories = new HashMap<>();
+
+    private final Map<String, PartitionAdvice> latestAdvice = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService sampleExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "partition-advisor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PartitionExpansionAdvisor(KafkaAdminClient kafkaAdminClient,
+                                     KafkaConfigData kafkaConfigData,
+                                     PartitionAdvisorConfigData partitionAdvisorConfigData) {
+        this.kafkaAdminClient = kafkaAdminClient;
+        this.kafkaConfigData = kafkaConfigData;
+        this.partitionAdvisorConfigData = partitionAdvisorConfigData;
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMs = partitionAdvisorConfigData.getSampleIntervalMs();
+        sampleExecutor.scheduleWithFixedDelay(this::sampleAndAdvise, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        sampleExecutor.shutdownNow();
+    }
+
+    /**
+     * @return the advice from the last sample of each topic that has at least two samples
+     */
+    public Map<String, PartitionAdvice> getLatestAdvice() {
+        return Map.copyOf(latestAdvice);
+    }
+
+    synchronized void sampleAndAdvise() {
+        for (String topicName : kafkaConfigData.getTopicNamesToCreate()) {
+            String topic = topicName.trim();
+            TopicLoadSample sample;
+            try {
+                sample = kafkaAdminClient.sampleTopicLoad(topic);
+            } catch (KafkaClientException e) {
+                LOG.warn("Could not sample load of kafka topic {}: {}", topic, e.getMessage());
+                continue;
+            }
+            Deque<TopicLoadSample> history = histories.computeIfAbsent(topic, key -> new ArrayDeque<>());
+            if (!history.isEmpty() && history.peekLast().partitions().size() != sample.partitions().size()) {
+                history.clear();
+            }
+            history.addLast(sample);
+            while (history.size() > Math.max(2, partitionAdvisorConfigData.getHistorySamples())) {
+                history.removeFirst();
+            }
+            if (history.size() < 2) {
+                continue;
+            }
+            PartitionAdvice advice = advise(new ArrayList<>(history));
+            latestAdvice.put(topic, advice);
+            act(advice);
+        }
+    }
+
+    /**
+     * @param history samples of one topic with the same partition count, oldest first, at least two
+     */
+    PartitionAdvice advise(List<TopicLoadSample> history) {
+        TopicLoadSample last = history.get(history.size() - 1);
+        TopicLoadSample previous = history.get(history.size() - 2);
+        double intervalSeconds = Math.max(1, last.timestampMs() - previous.timestampMs()) / 1000.0;
+        int partitions = last.partitions().size();
+        double recordsPerSecond = 0;
+        double hottestPartitionRecordsPerSecond = 0;
+        for (int i = 0; i < partitions; i++) {
+            double partitionRate = Math.max(0, last.partitions().get(i).endOffset()
+                    - previous.partitions().get(i).endOffset()) / intervalSeconds;
+            recordsPerSecond += partitionRate;
+            hottestPartitionRecordsPerSecond = Math.max(hottestPartitionRecordsPerSecond, partitionRate);
+        }
+        double growthPerSecond = Math.max(0, rateSlope(history));
+        double hottestShare = recordsPerSecond > 0 ? hottestPartitionRecordsPerSecond / recordsPerSecond
+                : 1.0 / partitions;
+
+        double utilization = partitionAdvisorConfigData.getTargetUtilizationPercent() / 100.0;
+        double partitionCapacity = partitionAdvisorConfigData.getConsumerRecordsPerSecondPerPartition() * utilization;
+        double secondsToConsumerSaturation = secondsToReach(partitionCapacity, hottestPartitionRecordsPerSecond,
+                growthPerSecond * hottestShare);
+
+        double bytesPerRecord = last.retainedRecords() > 0 ? (double) last.retainedBytes() / last.retainedRecords() : 0;
+        double brokerShare = bytesPerRecord * last.replicationFactor() / Math.max(1, last.brokerCount());
+        double brokerBytesPerSecond = recordsPerSecond * brokerShare;
+        double secondsToBrokerSaturation = secondsToReach(
+                partitionAdvisorConfigData.getBrokerBytesPerSecond() * utilization, brokerBytesPerSecond,
+                growthPerSecond * brokerShare);
+
+        double horizonSeconds = partitionAdvisorConfigData.getProjectionHorizonMs() / 1000.0;
+        int recommendedPartitions = partitions;
+        if (secondsToConsumerSaturation <= horizonSeconds) {
+            double projectedRecordsPerSecond = recordsPerSecond + growthPerSecond * horizonSeconds;
+            double skew = hottestShare * partitions;
+            int needed = (int) Math.ceil(projectedRecordsPerSecond * skew / partitionCapacity);
+            recommendedPartitions = Math.max(partitions, Math.min(needed, partitionAdvisorConfigData.getMaxPartitions()));
+        }
+        return new PartitionAdvice(last.topic(), partitions, recommendedPartitions, recordsPerSecond,
+                hottestPartitionRecordsPerSecond, growthPerSecond * 3600, brokerBytesPerSecond,
+                secondsToConsumerSaturation, secondsToBrokerSaturation);
+    }
+
+    private void act(PartitionAdvice advice) {
+        LOG.info("Topic {}: {} partition(s), {} records/s, busiest partition {} records/s, growth {} records/s per hour,"
+                        + " consumers saturate in {}, brokers in {}",
+                advice.topic(), advice.currentPartitions(), format(advice.recordsPerSecond()),
+                format(advice.hottestPartitionRecordsPerSecond()), format(advice.growthRecordsPerSecondPerHour()),
+                duration(advice.secondsToConsumerSaturation()), duration(advice.secondsToBrokerSaturation()));
+        double horizonSeconds = partitionAdvisorConfigData.getProjectionHorizonMs() / 1000.0;
+        if (advice.secondsToBrokerSaturation() <= horizonSeconds) {
+            LOG.warn("Brokers are projected to saturate on topic {} in {}; more partitions will not help, add brokers",
+                    advice.topic(), duration(advice.secondsToBrokerSaturation()));
+        }
+        if (!advice.increaseRecommended()) {
+            return;
+        }
+        if (Boolean.TRUE.equals(partitionAdvisorConfigData.getApplyIncreases())) {
+            kafkaAdminClient.increasePartitions(advice.topic(), advice.recommendedPartitions());
+            histories.remove(advice.topic());
+        } else {
+            LOG.warn("Recommend increasing partitions of topic {} from {} to {}; keys will hash to different partitions,"
+                            + " so per-key ordering is not kept across the change",
+                    advice.topic(), advice.currentPartitions(), advice.recommendedPartitions());
+        }
+    }
+
+    /**
+     * Least-squares slope of the produce rate of each interval against the interval midpoint, in records/s per second.
+     */
+    private static double rateSlope(List<TopicLoadSample> history) {
+        int points = history.size() - 1;
+        if (points < 2) {
+            return 0;
+        }
+        double[] times = new double[points];
+        double[] rates = new double[points];
+        double meanTime = 0;
+        double meanRate = 0;
+        for (int i = 0; i < points; i++) {
+            TopicLoadSample from = history.get(i);
+            TopicLoadSample to = history.get(i + 1);
+            double seconds = Math.max(1, to.timestampMs() - from.timestampMs()) / 1000.0;
+            times[i] = (from.timestampMs() + to.timestampMs()) / 2000.0;
+            rates[i] = Math.max(0, endOffsets(to) - endOffsets(from)) / seconds;
+            meanTime += times[i] / points;
+            meanRate += rates[i] / points;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < points; i++) {
+            covariance += (times[i] - meanTime) * (rates[i] - meanRate);
+            variance += (times[i] - meanTime) * (times[i] - meanTime);
+        }
+        return variance > 0 ? covariance / variance : 0;
+    }
+
+    private static long endOffsets(TopicLoadSample sample) {
+        return sample.partitions().stream().mapToLong(TopicLoadSample.PartitionLoad::endOffset).sum();
+    }
+
+    private static double secondsToReach(double capacity, double current, double growthPerSecond) {
+        if (current >= capacity) {
+            return 0;
+        }
+        return growthPerSecond > 0 ? (capacity - current) / growthPerSecond : Double.POSITIVE_INFINITY;
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+
+    private static String duration(double seconds) {
+        return Double.isInfinite(seconds) ? "never" : String.format("%.0f s", seconds);
+    }
+}
@@ -1,12 +1,22 @@
 package com.microservices.demo.kafka.admin.client;
 
 import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.LatestTweetConfigData;
 import com.microservices.demo.config.RetryConfigData;
+import com.microservices.demo.config.SendRetryConfigData;
 import com.microservices.demo.kafka.admin.exception.KafkaClientException;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.CreateTopicsResult;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.NewPartitions;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
 import org.apache.kafka.clients.admin.TopicListing;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.config.TopicConfig;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.retry.RetryContext;
@@ -17,8 +27,11 @@ import org.slf4j.Logger;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 @Component
@@ -30,22 +43,29 @@ public class KafkaAdminClient {
 
     private final RetryConfigData retryConfigData;
 
+    private final SendRetryConfigData sendRetryConfigData;
+
+    private final LatestTweetConfigData latestTweetConfigData;
+
     private final AdminClient adminClient;
 
     private final RetryTemplate retryTemplate;
 
     private final WebClient webClient;
 
-    public KafkaAdminClient(KafkaConfigData kafkaConfigData, RetryConfigData retryConfigData, AdminClient adminClient, RetryTemplate retryTemplate, WebClient webClient) {
+    public KafkaAdminClient(KafkaConfigData kafkaConfigData, RetryConfigData retryConfigData, SendRetryConfigData sendRetryConfigData, LatestTweetConfigData latestTweetConfigData, AdminClient adminClient, RetryTemplate retryTemplate, WebClient webClient) {
         this.kafkaConfigData = kafkaConfigData;
         this.retryConfigData = retryConfigData;
+        this.sendRetryConfigData = sendRetryConfigData;
+        this.latestTweetConfigData = latestTweetConfigData;
         this.adminClient = adminClient;
         this.retryTemplate = retryTemplate;
         this.webClient = webClient;
     }
 
     /**
-     * Creates Kafka topics based on the configuration provided.
+     * Creates Kafka topics based on the configuration provided, along with the retry tier and dead-letter topics
+     * of send-retry-config when send retries are enabled, and the compacted latest tweet topic when it is enabled.
      * It retries the creation of topics until successful or until the maximum number of retries is reached.
      *
      * @throws KafkaClientException if the maximum number of retries is exceeded or if an error occurs during topic creation.
@@ -76,7 +96,7 @@ public class KafkaAdminClient {
         /*
          * Wait until topics created or max retry reached, increasing wait time exponentially
          * */
-        for (String topic : kafkaConfigData.getTopicNamesToCreate()) {
+        for (String topic : topicNamesToCreate()) {
             while (!isTopicCreated(topics, topic)) {
                 checkMaxRetry(retryCount++, maxRetry);
                 sleep(sleepTimeMs);
@@ -98,6 +118,78 @@ public class KafkaAdminClient {
         }
     }
 
+    /**
+     * Reads the log start and end offsets of every partition of the topic, and the partition sizes from the
+     * brokers' log dirs.
+     *
+     * @param topic The name of the topic to sample.
+     * @return the offsets and sizes, stamped with the time they were read.
+     * @throws KafkaClientException if the topic cannot be described or the offsets cannot be read.
+     */
+    public TopicLoadSample sampleTopicLoad(String topic) {
+        try {
+            TopicDescription description = adminClient.describeTopics(List.of(topic)).allTopicNames().get().get(topic);
+            Collection<Node> brokers = adminClient.describeCluster().nodes().get();
+            long timestampMs = System.currentTimeMillis();
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+            for (TopicPartitionInfo partitionInfo : description.partitions()) {
+                TopicPartition topicPartition = new TopicPartition(topic, partitionInfo.partition());
+                latest.put(topicPartition, OffsetSpec.latest());
+                earliest.put(topicPartition, OffsetSpec.earliest());
+            }
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets =
+                    adminClient.listOffsets(latest).all().get();
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> startOffsets =
+                    adminClient.listOffsets(earliest).all().get();
+            Map<TopicPartition, Long> sizes = new HashMap<>();
+            adminClient.describeLogDirs(brokers.stream().map(Node::id).toList()).allDescriptions().get()
+                    .values().forEach(logDirs -> logDirs.values().forEach(logDir ->
+                            logDir.replicaInfos().forEach((topicPartition, replicaInfo) -> {
+                                if (topicPartition.topic().equals(topic)) {
+                                    sizes.merge(topicPartition, replicaInfo.size(), Math::max);
+                                }
+                            })));
+            List<TopicLoadSample.PartitionLoad> partitions = latest.keySet().stream()
+                    .sorted((left, right) -> Integer.compare(left.partition(), right.partition()))
+                    .map(topicPartition -> new TopicLoadSample.PartitionLoad(topicPartition.partition(),
+                            startOffsets.get(topicPartition).offset(),
+                            endOffsets.get(topicPartition).offset(),
+                            sizes.getOrDefault(topicPartition, 0L)))
+                    .toList();
+            return new TopicLoadSample(topic, timestampMs, description.partitions().get(0).replicas().size(),
+                    brokers.size(), partitions);
+        } catch (ExecutionException e) {
+            throw new KafkaClientException("Error while sampling load of kafka topic " + topic, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaClientException("Thread was interrupted while sampling load of kafka topic " + topic, e);
+        }
+    }
+
+    /**
+     * Increases the partition count of the topic. Keys are hashed over the new partition count afterwards, so
+     * records of one key produced before and after the increase may land in different partitions and lose their
+     * relative order for consumers.
+     *
+     * @param topic          The name of the topic.
+     * @param partitionCount The new total number of partitions, greater than the current one.
+     * @throws KafkaClientException if the brokers reject the increase.
+     */
+    public void increasePartitions(String topic, int partitionCount) {
+        LOG.warn("Increasing partitions of kafka topic {} to {}: ordering per key is not kept across the change",
+                topic, partitionCount);
+        try {
+            adminClient.createPartitions(Map.of(topic, NewPartitions.increaseTo(partitionCount))).all().get();
+        } catch (ExecutionException e) {
+            throw new KafkaClientException("Error while increasing partitions of kafka topic " + topic, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaClientException("Thread was interrupted while increasing partitions of kafka topic "
+                    + topic, e);
+        }
+    }
+
     /**
      * Retrieves the status of the Schema Registry by making a GET request to the configured URL.
      * If the request fails or times out, it returns HttpStatus.SERVICE_UNAVAILABLE.
@@ -166,13 +258,42 @@ public class KafkaAdminClient {
      * @return CreateTopicsResult containing the result of the topic creation operation.
      */
     private CreateTopicsResult doCreateTopics(RetryContext retryContext) {
-        List<String> topicNames = kafkaConfigData.getTopicNamesToCreate();
+        List<String> topicNames = topicNamesToCreate();
         LOG.info("Creating {} topic(s), attempt: {}", topicNames.size(), retryContext.getRetryCount());
-        List<NewTopic> kafkaTopics = topicNames.stream().map(topic -> new NewTopic(topic.trim(), kafkaConfigData.getNumOfPartitions(), kafkaConfigData.getReplicationFactor())).toList();
+        List<NewTopic> kafkaTopics = topicNames.stream().map(topic -> newTopic(topic.trim())).toList();
 
         return adminClient.createTopics(kafkaTopics);
     }
 
+    private List<String> topicNamesToCreate() {
+        List<String> topicNames = new ArrayList<>(kafkaConfigData.getTopicNamesToCreate());
+        if (Boolean.TRUE.equals(sendRetryConfigData.getEnabled())) {
+            topicNames.addAll(sendRetryConfigData.retryAndDeadLetterTopics());
+        }
+        if (Boolean.TRUE.equals(latestTweetConfigData.getEnabled())
+                && !topicNames.contains(latestTweetConfigData.getTopicName())) {
+            topicNames.add(latestTweetConfigData.getTopicName());
+        }
+        return topicNames;
+    }
+
+    /**
+     * The latest tweet topic keeps only the last record per userId key: compaction drops older tweets of a user and,
+     * after delete-retention-ms, the tombstones, so the view restores from one record per user.
+     */
+    private NewTopic newTopic(String topic) {
+        NewTopic newTopic = new NewTopic(topic, kafkaConfigData.getNumOfPartitions(), kafkaConfigData.getReplicationFactor());
+        if (Boolean.TRUE.equals(latestTweetConfigData.getEnabled()) && topic.equals(latestTweetConfigData.getTopicName())) {
+            newTopic.configs(Map.of(
+                    TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT,
+                    TopicConfig.SEGMENT_MS_CONFIG, String.valueOf(latestTweetConfigData.getSegmentMs()),
+                    TopicConfig.MIN_CLEANABLE_DIRTY_RATIO_CONFIG,
+                    String.valueOf(latestTweetConfigData.getMinCleanableDirtyRatio()),
+                    TopicConfig.DELETE_RETENTION_MS_CONFIG, String.valueOf(latestTweetConfigData.getDeleteRetentionMs())));
+        }
+        return newTopic;
+    }
+
     /**
      * Retrieves the list of topics currently available in the Kafka cluster.
      * This method is retried until successful or until the maximum number of retries is reached.
@@ -0,0 +1,28 @@
+package com.microservices.demo.kafka.admin.client;
+
+import java.util.List;
+
+/**
+ * Point-in-time offsets and on-disk sizes of every partition of a topic.
+ *
+ * @param timestampMs       when the offsets were read
+ * @param replicationFactor replicas per partition
+ * @param brokerCount       brokers in the cluster
+ */
+public record TopicLoadSample(String topic, long timestampMs, int replicationFactor, int brokerCount,
+                              List<PartitionLoad> partitions) {
+
+    /**
+     * @param sizeBytes size of the largest replica of the partition
+     */
+    public record PartitionLoad(int partition, long logStartOffset, long endOffset, long sizeBytes) {
+    }
+
+    public long retainedRecords() {
+        return partitions.stream().mapToLong(load -> load.endOffset() - load.logStartOffset()).sum();
+    }
+
+    public long retainedBytes() {
+        return partitions.stream().mapToLong(PartitionLoad::sizeBytes).sum();
+    }
+}
@@ -0,0 +1,130 @@
+package com.microservices.demo.kafka.admin.advisor;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.LatestTweetConfigData;
+import com.microservices.demo.config.PartitionAdvisorConfigData;
+import com.microservices.demo.config.RetryConfigData;
+import com.microservices.demo.config.SendRetryConfigData;
+import com.microservices.demo.kafka.admin.client.KafkaAdminClient;
+import com.microservices.demo.kafka.admin.client.TopicLoadSample;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+class PartitionExpansionAdvisorTests {
+
+    private final PartitionAdvisorConfigData partitionAdvisorConfigData = new PartitionAdvisorConfigData();
+
+    private final KafkaConfigData kafkaConfigData = new KafkaConfigData();
+
+    @BeforeEach
+    void setUp() {
+        partitionAdvisorConfigData.setHistorySamples(30);
+        partitionAdvisorConfigData.setConsumerRecordsPerSecondPerPartition(1000L);
+        partitionAdvisorConfigData.setBrokerBytesPerSecond(100_000L);
+        partitionAdvisorConfigData.setTargetUtilizationPercent(100);
+        partitionAdvisorConfigData.setProjectionHorizonMs(3_600_000L);
+        partitionAdvisorConfigData.setMaxPartitions(48);
+        partitionAdvisorConfigData.setApplyIncreases(false);
+    }
+
+    @Test
+    void growingLoadIsProjectedToSaturation() {
+        PartitionExpansionAdvisor advisor = new PartitionExpansionAdvisor(mock(KafkaAdminClient.class),
+                kafkaConfigData, partitionAdvisorConfigData);
+
+        // 300, 600 and 900 records/s spread evenly over 3 partitions in three 60 s intervals: +5 records/s per second
+        PartitionAdvice advice = advisor.advise(List.of(
+                sample(0, 0), sample(60_000, 6_000), sample(120_000, 18_000), sample(180_000, 36_000)));
+
+        assertThat(advice.recordsPerSecond()).isCloseTo(900, within(0.01));
+        assertThat(advice.hottestPartitionRecordsPerSecond()).isCloseTo(300, within(0.01));
+        assertThat(advice.growthRecordsPerSecondPerHour()).isCloseTo(18_000, within(0.01));
+        // (1000 - 300) / (5 / 3)
+        assertThat(advice.secondsToConsumerSaturation()).isCloseTo(420, within(0.01));
+        // 100 bytes per record, 3 replicas over 3 brokers: 90 000 B/s now, +500 B/s per second
+        assertThat(advice.brokerBytesPerSecond()).isCloseTo(90_000, within(0.01));
+        assertThat(advice.secondsToBrokerSaturation()).isCloseTo(20, within(0.01));
+        // 900 + 5 * 3600 records/s at the horizon
+        assertThat(advice.recommendedPartitions()).isEqualTo(19);
+    }
+
+    @Test
+    void steadyLoadBelowCapacityKeepsThePartitionCount() {
+        PartitionExpansionAdvisor advisor = new PartitionExpansionAdvisor(mock(KafkaAdminClient.class),
+                kafkaConfigData, partitionAdvisorConfigData);
+
+        PartitionAdvice advice = advisor.advise(List.of(
+                sample(0, 0), sample(60_000, 6_000), sample(120_000, 12_000)));
+
+        assertThat(advice.secondsToConsumerSaturation()).isInfinite();
+        assertThat(advice.increaseRecommended()).isFalse();
+        assertThat(advice.recommendedPartitions()).isEqualTo(3);
+    }
+
+    @Test
+    void saturatedTopicOnAnEmbeddedBrokerGetsMorePartitions() throws Exception {
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 1, "advisor-topic");
+        broker.afterPropertiesSet();
+        try (AdminClient adminClient = AdminClient.create(Map.of("bootstrap.servers", broker.getBrokersAsString()))) {
+            kafkaConfigData.setTopicNamesToCreate(List.of("advisor-topic"));
+            partitionAdvisorConfigData.setConsumerRecordsPerSecondPerPartition(10L);
+            partitionAdvisorConfigData.setMaxPartitions(4);
+            partitionAdvisorConfigData.setApplyIncreases(true);
+            KafkaAdminClient kafkaAdminClient = new KafkaAdminClient(kafkaConfigData, new RetryConfigData(), new SendRetryConfigData(),
+                    new LatestTweetConfigData(),
+                    adminClient, new RetryTemplate(), null);
+            PartitionExpansionAdvisor advisor = new PartitionExpansionAdvisor(kafkaAdminClient, kafkaConfigData,
+                    partitionAdvisorConfigData);
+
+            advisor.sampleAndAdvise();
+            produce(broker.getBrokersAsString(), 200);
+            advisor.sampleAndAdvise();
+
+            assertThat(advisor.getLatestAdvice().get("advisor-topic").recommendedPartitions()).isEqualTo(4);
+            TopicLoadSample after = kafkaAdminClient.sampleTopicLoad("advisor-topic");
+            assertThat(after.partitions()).hasSize(4);
+            assertThat(after.retainedRecords()).isEqualTo(200);
+            assertThat(after.retainedBytes()).isPositive();
+            advisor.close();
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private static void produce(String bootstrapServers, int records) {
+        try (KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class))) {
+            for (int i = 0; i < records; i++) {
+                producer.send(new ProducerRecord<>("advisor-topic", new byte[64]));
+            }
+            producer.flush();
+        }
+    }
+
+    /**
+     * Three partitions with the same end offset, 3 replicas on 3 brokers and 100 bytes per retained record.
+     */
+    private static TopicLoadSample sample(long timestampMs, long endOffsetPerPartition) {
+        return new TopicLoadSample("twitter-topic", timestampMs, 3, 3, IntStream.range(0, 3)
+                .mapToObj(partition -> new TopicLoadSample.PartitionLoad(partition, 0, endOffsetPerPartition,
+                        endOffsetPerPartition * 100))
+                .toList());
+    }
+}
@@ -0,0 +1,63 @@
+package com.microservices.demo.kafka.admin.client;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.LatestTweetConfigData;
+import com.microservices.demo.config.RetryConfigData;
+import com.microservices.demo.config.SendRetryConfigData;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.config.TopicConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaAdminClientTests {
+
+    @Test
+    void createsTheLatestTweetTopicCompactedAlongsideTheConfiguredTopics() throws Exception {
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 1);
+        broker.afterPropertiesSet();
+        try (AdminClient adminClient = AdminClient.create(Map.of("bootstrap.servers", broker.getBrokersAsString()))) {
+            KafkaConfigData kafkaConfigData = new KafkaConfigData();
+            kafkaConfigData.setTopicNamesToCreate(List.of("twitter-topic", "twitter-latest-topic"));
+            kafkaConfigData.setNumOfPartitions(2);
+            kafkaConfigData.setReplicationFactor((short) 1);
+            RetryConfigData retryConfigData = new RetryConfigData();
+            retryConfigData.setMaxAttempts(3);
+            retryConfigData.setMultiplier(2.0);
+            retryConfigData.setSleepTimeMs(100L);
+            LatestTweetConfigData latestTweetConfigData = new LatestTweetConfigData();
+            latestTweetConfigData.setEnabled(true);
+            latestTweetConfigData.setTopicName("twitter-latest-topic");
+            latestTweetConfigData.setSegmentMs(600_000L);
+            latestTweetConfigData.setMinCleanableDirtyRatio(0.1);
+            latestTweetConfigData.setDeleteRetentionMs(60_000L);
+            KafkaAdminClient kafkaAdminClient = new KafkaAdminClient(kafkaConfigData, retryConfigData,
+                    new SendRetryConfigData(), latestTweetConfigData, adminClient, new RetryTemplate(), null);
+
+            kafkaAdminClient.createTopics();
+
+            assertThat(adminClient.listTopics().names().get()).contains("twitter-topic", "twitter-latest-topic");
+            Config latest = config(adminClient, "twitter-latest-topic");
+            assertThat(latest.get(TopicConfig.CLEANUP_POLICY_CONFIG).value()).isEqualTo(TopicConfig.CLEANUP_POLICY_COMPACT);
+            assertThat(latest.get(TopicConfig.SEGMENT_MS_CONFIG).value()).isEqualTo("600000");
+            assertThat(latest.get(TopicConfig.MIN_CLEANABLE_DIRTY_RATIO_CONFIG).value()).isEqualTo("0.1");
+            assertThat(latest.get(TopicConfig.DELETE_RETENTION_MS_CONFIG).value()).isEqualTo("60000");
+            assertThat(config(adminClient, "twitter-topic").get(TopicConfig.CLEANUP_POLICY_CONFIG).value())
+                    .isEqualTo(TopicConfig.CLEANUP_POLICY_DELETE);
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private static Config config(AdminClient adminClient, String topic) throws Exception {
+        ConfigResource resource = new ConfigResource(ConfigResource.Type.TOPIC, topic);
+        return adminClient.describeConfigs(List.of(resource)).all().get().get(resource);
+    }
+}
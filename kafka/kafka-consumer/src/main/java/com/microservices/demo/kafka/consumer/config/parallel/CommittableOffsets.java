@@ -0,0 +1,78 @@
+package com.microservices.demo.kafka.consumer.config.parallel;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@link PartitionOffsetTracker}s of a consumer that completes records out of order, keyed by partition.
+ * <p>
+ * Records are registered by the poll thread, which also collects the offsets to commit and drops the trackers of
+ * revoked partitions; records still in flight keep a reference to their tracker, so completing them afterwards does
+ * not affect a tracker created when the partition comes back.
+ */
+public final class CommittableOffsets {
+
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final Map<TopicPartition, PartitionOffsetTracker> trackers = new ConcurrentHashMap<>();
+
+    /**
+     * @return the tracker to complete the record's offset on once it is processed
+     */
+    public PartitionOffsetTracker register(ConsumerRecord<?, ?> record) {
+        PartitionOffsetTracker tracker = trackers.computeIfAbsent(
+                new TopicPartition(record.topic(), record.partition()), partition -> new PartitionOffsetTracker());
+        tracker.register(record.offset());
+        return tracker;
+    }
+
+    public Set<TopicPartition> partitions() {
+        return trackers.keySet();
+    }
+
+    /**
+     * @return the offsets of the partitions that moved since they were last returned
+     */
+    public Map<TopicPartition, OffsetAndMetadata> advance(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            PartitionOffsetTracker tracker = trackers.get(partition);
+            long offset = tracker == null ? -1 : tracker.advance();
+            if (offset >= 0) {
+                offsets.put(partition, new OffsetAndMetadata(offset));
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Waits until every registered record of the partitions is completed, or the deadline passes.
+     */
+    public void awaitCompleted(Collection<TopicPartition> partitions, long deadlineNanos) {
+        List<PartitionOffsetTracker> awaited = new ArrayList<>();
+        for (TopicPartition partition : partitions) {
+            PartitionOffsetTracker tracker = trackers.get(partition);
+            if (tracker != null) {
+                awaited.add(tracker);
+            }
+        }
+        while (System.nanoTime() - deadlineNanos < 0 && !awaited.stream().allMatch(PartitionOffsetTracker::isDone)) {
+            LockSupport.parkNanos(DRAIN_POLL_NANOS);
+        }
+    }
+
+    public void remove(Collection<TopicPartition> partitions) {
+        partitions.forEach(trackers::remove);
+    }
+}
@@ -0,0 +1,284 @@
+package com.microservices.demo.kafka.consumer.config.parallel;
+
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.common.logging.SampledLogSite;
+import com.microservices.demo.config.ParallelConsumerConfigData;
+import com.microservices.demo.kafka.consumer.config.service.IRecordProcessor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes the records of a consumer on a pool of worker threads sized independently of the partition count, so
+ * expensive per-record work scales past one thread per partition.
+ * <p>
+ * The poll thread hands every record to the worker its key hashes to, and each worker processes its queue in order,
+ * so records with the same key are processed one at a time in offset order. Records with different keys, even from
+ * the same partition, run in parallel and finish out of order; per partition, a {@link PartitionOffsetTracker} keeps
+ * the offsets not processed yet, and only offsets below the lowest of them are committed, every commit-interval-ms.
+ * A crash therefore re-delivers every record that was not processed, and may repeat some that were.
+ * <p>
+ * When max-pending-records are polled but not processed, fetching is paused while the poll loop keeps the consumer
+ * in the group, and resumed at half of that. Revoked partitions are given drain-timeout-ms to finish and commit.
+ * <p>
+ * Publishes kafka.consumer.parallel.pending, .processed, .failed and .paused, tagged with the consumer name.
+ */
+public class KeyOrderedParallelConsumer<K, V> implements Runnable, ConsumerRebalanceListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeyOrderedParallelConsumer.class);
+
+    private final String name;
+
+    private final Collection<String> topics;
+
+    private final Consumer<K, V> consumer;
+
+    private final IRecordProcessor<K, V> processor;
+
+    private final Duration pollTimeout;
+
+    private final long commitIntervalNanos;
+
+    private final long drainTimeoutNanos;
+
+    private final int maxPendingRecords;
+
+    private final List<Worker> workers;
+
+    private final CommittableOffsets offsets = new CommittableOffsets();
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Counter processed;
+
+    private final Counter failed;
+
+    private final SampledLogSite failedLog;
+
+    private final Thread pollThread;
+
+    private volatile boolean running;
+
+    private volatile boolean paused;
+
+    private long lastCommitNanos = System.nanoTime();
+
+    /**
+     * @param consumer a consumer with auto commit off, used only by the poll thread from here on
+     */
+    public KeyOrderedParallelConsumer(String name,
+                                      Collection<String> topics,
+                                      Consumer<K, V> consumer,
+                                      IRecordProcessor<K, V> processor,
+                                      ParallelConsumerConfigData parallelConsumerConfigData,
+                                      HotPathLogging hotPathLogging,
+                                      MeterRegistry meterRegistry) {
+        this.name = name;
+        this.topics = topics;
+        this.consumer = consumer;
+        this.processor = processor;
+        this.pollTimeout = Duration.ofMillis(parallelConsumerConfigData.getPollTimeoutMs());
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(parallelConsumerConfigData.getCommitIntervalMs());
+        this.drainTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(parallelConsumerConfigData.getDrainTimeoutMs());
+        this.maxPendingRecords = parallelConsumerConfigData.getMaxPendingRecords();
+        int workerThreads = parallelConsumerConfigData.getWorkerThreads() > 0
+                ? parallelConsumerConfigData.getWorkerThreads()
+                : Runtime.getRuntime().availableProcessors();
+        this.workers = new ArrayList<>(workerThreads);
+        for (int i = 0; i < workerThreads; i++) {
+            workers.add(new Worker(name + "-worker-" + i));
+        }
+        this.processed = Counter.builder("kafka.consumer.parallel.processed").tag("consumer", name)
+                .register(meterRegistry);
+        this.failed = Counter.builder("kafka.consumer.parallel.failed").tag("consumer", name)
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.parallel.pending", pending, AtomicInteger::get).tag("consumer", name)
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.parallel.paused", this, self -> self.paused ? 1 : 0)
+                .tag("consumer", name)
+                .register(meterRegistry);
+        this.failedLog = hotPathLogging.site("kafka-consumer-record-failed", LOG);
+        this.pollThread = new Thread(this, name + "-poll");
+        this.pollThread.setDaemon(true);
+    }
+
+    public void start() {
+        consumer.subscribe(topics, this);
+        running = true;
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+        pollThread.start();
+        LOG.info("Consumer {} processing {} on {} worker thread(s)", name, topics, workers.size());
+    }
+
+    /**
+     * Stops polling, gives the polled records drain-timeout-ms to be processed and commits what is done.
+     */
+    public void close() {
+        running = false;
+        consumer.wakeup();
+        try {
+            pollThread.join(TimeUnit.NANOSECONDS.toMillis(drainTimeoutNanos) + TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Worker worker : workers) {
+            worker.thread.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                applyBackpressure();
+                ConsumerRecords<K, V> records = consumer.poll(pollTimeout);
+                for (ConsumerRecord<K, V> record : records) {
+                    dispatch(record);
+                }
+                if (System.nanoTime() - lastCommitNanos >= commitIntervalNanos) {
+                    commitAsync();
+                }
+            }
+        } catch (WakeupException e) {
+            // close() woke up the poll
+        } catch (RuntimeException e) {
+            LOG.error("Consumer {} stopped polling", name, e);
+        } finally {
+            offsets.awaitCompleted(offsets.partitions(), System.nanoTime() + drainTimeoutNanos);
+            commitSync(offsets.partitions());
+            consumer.close();
+            LOG.info("Consumer {} closed with {} record(s) unprocessed", name, pending.get());
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        offsets.awaitCompleted(partitions, System.nanoTime() + drainTimeoutNanos);
+        commitSync(partitions);
+        // Records of these partitions still queued are processed against the removed trackers
+        offsets.remove(partitions);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        if (paused) {
+            consumer.pause(partitions);
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        offsets.remove(partitions);
+    }
+
+    private void dispatch(ConsumerRecord<K, V> record) {
+        PartitionOffsetTracker tracker = offsets.register(record);
+        pending.incrementAndGet();
+        workers.get(workerIndex(record)).queue.add(new Work<>(record, tracker));
+    }
+
+    private int workerIndex(ConsumerRecord<K, V> record) {
+        if (record.key() == null) {
+            return (int) Math.floorMod(record.offset(), (long) workers.size());
+        }
+        int hash = record.key().hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), workers.size());
+    }
+
+    private void applyBackpressure() {
+        int current = pending.get();
+        if (!paused && current >= maxPendingRecords) {
+            consumer.pause(consumer.assignment());
+            paused = true;
+        } else if (paused && current <= maxPendingRecords / 2) {
+            consumer.resume(consumer.paused());
+            paused = false;
+        }
+    }
+
+    private void commitAsync() {
+        Map<TopicPartition, OffsetAndMetadata> committable = offsets.advance(offsets.partitions());
+        lastCommitNanos = System.nanoTime();
+        if (!committable.isEmpty()) {
+            consumer.commitAsync(committable, (committed, exception) -> {
+                if (exception != null) {
+                    LOG.warn("Consumer {} could not commit {}: {}", name, committed, exception.getMessage());
+                }
+            });
+        }
+    }
+
+    private void commitSync(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> committable = offsets.advance(partitions);
+        if (committable.isEmpty()) {
+            return;
+        }
+        try {
+            consumer.commitSync(committable);
+        } catch (RuntimeException e) {
+            LOG.warn("Consumer {} could not commit {}: {}", name, committable, e.getMessage());
+        }
+    }
+
+    private void process(Work<K, V> work) {
+        try {
+            processor.process(work.record());
+            processed.increment();
+        } catch (Exception e) {
+            failed.increment();
+            failedLog.info("Consumer {} could not process record at {}@{}: {}", name,
+                    new TopicPartition(work.record().topic(), work.record().partition()), work.record().offset(),
+                    e.getMessage());
+        } finally {
+            work.tracker().complete(work.record().offset());
+            pending.decrementAndGet();
+        }
+    }
+
+    private record Work<K, V>(ConsumerRecord<K, V> record, PartitionOffsetTracker tracker) {
+    }
+
+    private final class Worker implements Runnable {
+
+        private final BlockingQueue<Work<K, V>> queue = new LinkedBlockingQueue<>();
+
+        private final Thread thread;
+
+        private Worker(String threadName) {
+            this.thread = new Thread(this, threadName);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    process(queue.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
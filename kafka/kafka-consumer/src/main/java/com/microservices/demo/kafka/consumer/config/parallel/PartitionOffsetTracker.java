@@ -0,0 +1,57 @@
+package com.microservices.demo.kafka.consumer.config.parallel;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Offsets of one partition handed to the workers and not processed yet. Records of a partition finish out of order
+ * when their keys go to different workers, so only the offsets below the lowest unfinished one are safe to commit.
+ * <p>
+ * {@link #register} and {@link #committableOffset} are called by the poll thread, {@link #complete} by the workers.
+ */
+public final class PartitionOffsetTracker {
+
+    private final ConcurrentSkipListSet<Long> unfinished = new ConcurrentSkipListSet<>();
+
+    private long nextOffset = -1;
+
+    private long committedOffset = -1;
+
+    void register(long offset) {
+        unfinished.add(offset);
+        nextOffset = offset + 1;
+    }
+
+    public void complete(long offset) {
+        unfinished.remove(offset);
+    }
+
+    /**
+     * @return the offset to commit: the lowest unfinished one, or the one after the last registered when all are
+     * done; -1 before anything was registered
+     */
+    long committableOffset() {
+        Iterator<Long> lowest = unfinished.iterator();
+        return lowest.hasNext() ? lowest.next() : nextOffset;
+    }
+
+    /**
+     * @return the committable offset if it moved since the last call that returned one, otherwise -1
+     */
+    long advance() {
+        long committable = committableOffset();
+        if (committable > committedOffset) {
+            committedOffset = committable;
+            return committable;
+        }
+        return -1;
+    }
+
+    boolean isDone() {
+        return unfinished.isEmpty();
+    }
+
+    int unfinishedCount() {
+        return unfinished.size();
+    }
+}
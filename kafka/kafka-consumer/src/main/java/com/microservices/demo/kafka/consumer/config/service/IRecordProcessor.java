@@ -0,0 +1,11 @@
+package com.microservices.demo.kafka.consumer.config.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+public interface IRecordProcessor<K, V> {
+    /**
+     * Called on a worker thread, never concurrently for two records with the same key. The record's offset counts
+     * as processed once this returns or throws.
+     */
+    void process(ConsumerRecord<K, V> record) throws Exception;
+}
@@ -0,0 +1,148 @@
+package com.microservices.demo.kafka.consumer.config.parallel;
+
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.config.HotPathLoggingConfigData;
+import com.microservices.demo.config.ParallelConsumerConfigData;
+import com.microservices.demo.kafka.consumer.config.service.IRecordProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyOrderedParallelConsumerTests {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final List<TopicPartition> PARTITIONS = IntStream.range(0, 3)
+            .mapToObj(partition -> new TopicPartition(TOPIC, partition))
+            .toList();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MockConsumer<Long, String> consumer;
+
+    private KeyOrderedParallelConsumer<Long, String> parallelConsumer;
+
+    @AfterEach
+    void tearDown() {
+        if (parallelConsumer != null) {
+            parallelConsumer.close();
+        }
+    }
+
+    @Test
+    void processesRecordsOfEveryKeyInOffsetOrderAcrossMoreWorkersThanPartitions() {
+        Map<Long, List<Long>> offsetsByKey = new ConcurrentHashMap<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        start(8, 10_000, record -> {
+            threads.add(Thread.currentThread().getName());
+            offsetsByKey.computeIfAbsent(record.key(), key -> new ArrayList<>()).add(record.offset());
+            TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextInt(200));
+        });
+
+        int perPartition = 300;
+        for (TopicPartition partition : PARTITIONS) {
+            for (long offset = 0; offset < perPartition; offset++) {
+                // Keys map to one partition each, as with the default partitioner
+                consumer.addRecord(record(partition, offset, partition.partition() * 100L + offset % 20));
+            }
+        }
+
+        awaitUntil(() -> offsetsByKey.values().stream().mapToInt(List::size).sum() == 3 * perPartition);
+        assertThat(threads).hasSizeGreaterThan(PARTITIONS.size());
+        offsetsByKey.values().forEach(offsets -> assertThat(offsets).isSorted());
+        awaitUntil(() -> committed().values().stream().allMatch(offset -> offset == perPartition));
+    }
+
+    @Test
+    void commitsOnlyUpToTheLowestUnfinishedRecordOfEachPartition() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger processed = new AtomicInteger();
+        start(4, 10_000, record -> {
+            if (record.partition() == 0 && record.offset() == 5) {
+                release.await();
+            }
+            processed.incrementAndGet();
+        });
+
+        // Even keys go to the even workers, away from the odd key 5 blocking worker 1
+        for (long offset = 0; offset < 20; offset++) {
+            consumer.addRecord(record(PARTITIONS.get(0), offset, offset == 5 ? 5 : 2 * offset));
+            consumer.addRecord(record(PARTITIONS.get(1), offset, 2 * offset));
+        }
+
+        awaitUntil(() -> processed.get() == 39 && committed().getOrDefault(PARTITIONS.get(1), -1L) == 20);
+        Thread.sleep(100);
+        assertThat(committed().get(PARTITIONS.get(0))).isEqualTo(5);
+
+        release.countDown();
+        awaitUntil(() -> committed().getOrDefault(PARTITIONS.get(0), -1L) == 20);
+    }
+
+    @Test
+    void pausesFetchingWhileTooManyRecordsArePending() {
+        CountDownLatch release = new CountDownLatch(1);
+        start(2, 10, record -> release.await());
+
+        for (long offset = 0; offset < 10; offset++) {
+            consumer.addRecord(record(PARTITIONS.get(offset % 2 == 0 ? 0 : 1), offset, offset));
+        }
+
+        awaitUntil(() -> consumer.paused().containsAll(Set.of(PARTITIONS.get(0), PARTITIONS.get(1))));
+        assertThat(meterRegistry.get("kafka.consumer.parallel.paused").gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        awaitUntil(() -> consumer.paused().isEmpty());
+    }
+
+    private void start(int workerThreads, int maxPendingRecords, IRecordProcessor<Long, String> processor) {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        ParallelConsumerConfigData config = new ParallelConsumerConfigData();
+        config.setWorkerThreads(workerThreads);
+        config.setMaxPendingRecords(maxPendingRecords);
+        config.setPollTimeoutMs(10L);
+        config.setCommitIntervalMs(10L);
+        config.setDrainTimeoutMs(1_000L);
+        parallelConsumer = new KeyOrderedParallelConsumer<>("test", List.of(TOPIC), consumer, processor, config,
+                new HotPathLogging(new HotPathLoggingConfigData()), meterRegistry);
+        consumer.updateBeginningOffsets(PARTITIONS.stream().collect(Collectors.toMap(partition -> partition, partition -> 0L)));
+        parallelConsumer.start();
+        consumer.rebalance(PARTITIONS);
+    }
+
+    private Map<TopicPartition, Long> committed() {
+        return consumer.committed(Set.copyOf(PARTITIONS)).entrySet().stream()
+                .filter(entry -> entry.getValue() != null)
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().offset()));
+    }
+
+    private static ConsumerRecord<Long, String> record(TopicPartition partition, long offset, long key) {
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset, key, "tweet " + offset);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within 10 s").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.microservices.demo.kafka.consumer.config.parallel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionOffsetTrackerTests {
+
+    @Test
+    void commitsUpToTheLowestUnfinishedOffset() {
+        PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+        assertThat(tracker.advance()).isEqualTo(-1);
+        for (long offset = 10; offset < 15; offset++) {
+            tracker.register(offset);
+        }
+
+        tracker.complete(10);
+        tracker.complete(12);
+        tracker.complete(13);
+        assertThat(tracker.advance()).isEqualTo(11);
+        assertThat(tracker.advance()).isEqualTo(-1);
+
+        tracker.complete(11);
+        assertThat(tracker.advance()).isEqualTo(14);
+
+        tracker.complete(14);
+        assertThat(tracker.isDone()).isTrue();
+        assertThat(tracker.advance()).isEqualTo(15);
+    }
+}
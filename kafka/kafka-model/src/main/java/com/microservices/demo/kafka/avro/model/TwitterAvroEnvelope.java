@@ -0,0 +1,542 @@
+/**
+ * Autogenerated by Avro
+ *
+ * DO NOT EDIT DIRECTLY
+ */
+package com.microservices.demo.kafka.avro.model;
+
+import org.apache.avro.generic.GenericArray;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.util.Utf8;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.SchemaStore;
+
+/** Tweets whose keys map to the same partition, packed into one record to spread the per-record overhead */
+@org.apache.avro.specific.AvroGenerated
+public class TwitterAvroEnvelope extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
+  private static final long serialVersionUID = -2642899613503815013L;
+
+
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"TwitterAvroEnvelope\",\"namespace\":\"com.microservices.demo.kafka.avro.model\",\"doc\":\"Tweets whose keys map to the same partition, packed into one record to spread the per-record overhead\",\"fields\":[{\"name\":\"partition\",\"type\":\"int\",\"doc\":\"Partition of the envelope topic that the key of every tweet in the envelope maps to\"},{\"name\":\"openedAt\",\"type\":\"long\",\"doc\":\"Epoch milliseconds when the first tweet was added to the envelope\"},{\"name\":\"tweets\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"TwitterAvroModel\",\"fields\":[{\"name\":\"userId\",\"type\":\"long\"},{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"text\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}]},{\"name\":\"createdAt\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"logicalType\":[\"null\",\"date\"]},{\"name\":\"tokens\",\"type\":[\"null\",{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"doc\":\"Distinct lower-cased, NFKC-normalized terms of the text without URLs and mentions, in order of first appearance\",\"default\":null},{\"name\":\"hashtags\",\"type\":[\"null\",{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"doc\":\"Distinct lower-cased hashtags of the text, without the leading #\",\"default\":null},{\"name\":\"followerTier\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"doc\":\"Follower tier of the author from the user metadata source, null when unknown\",\"default\":null},{\"name\":\"accountClass\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"doc\":\"Account class of the author from the user metadata source, null when unknown\",\"default\":null},{\"name\":\"sampleWeight\",\"type\":[\"null\",\"double\"],\"doc\":\"Number of stream records of the same stratum and window this record stands for; set only on the sample topic\",\"default\":null},{\"name\":\"nearDuplicateClusterId\",\"type\":[\"null\",\"long\"],\"doc\":\"Id of the first tweet of the near-duplicate cluster this tweet belongs to; null when it is not a near duplicate of an earlier tweet\",\"default\":null}]}},\"doc\":\"Tweets in the order they were sent, keyed by their userId\"}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+
+  private static final SpecificData MODEL$ = new SpecificData();
+
+  private static final BinaryMessageEncoder<TwitterAvroEnvelope> ENCODER =
+      new BinaryMessageEncoder<>(MODEL$, SCHEMA$);
+
+  private static final BinaryMessageDecoder<TwitterAvroEnvelope> DECODER =
+      new BinaryMessageDecoder<>(MODEL$, SCHEMA$);
+
+  /**
+   * Return the BinaryMessageEncoder instance used by this class.
+   * @return the message encoder used by this class
+   */
+  public static BinaryMessageEncoder<TwitterAvroEnvelope> getEncoder() {
+    return ENCODER;
+  }
+
+  /**
+   * Return the BinaryMessageDecoder instance used by this class.
+   * @return the message decoder used by this class
+   */
+  public static BinaryMessageDecoder<TwitterAvroEnvelope> getDecoder() {
+    return DECODER;
+  }
+
+  /**
+   * Create a new BinaryMessageDecoder instance for this class that uses the specified {@link SchemaStore}.
+   * @param resolver a {@link SchemaStore} used to find schemas by fingerprint
+   * @return a BinaryMessageDecoder instance for this class backed by the given SchemaStore
+   */
+  public static BinaryMessageDecoder<TwitterAvroEnvelope> createDecoder(SchemaStore resolver) {
+    return new BinaryMessageDecoder<>(MODEL$, SCHEMA$, resolver);
+  }
+
+  /**
+   * Serializes this TwitterAvroEnvelope to a ByteBuffer.
+   * @return a buffer holding the serialized data for this instance
+   * @throws java.io.IOException if this instance could not be serialized
+   */
+  public java.nio.ByteBuffer toByteBuffer() throws java.io.IOException {
+    return ENCODER.encode(this);
+  }
+
+  /**
+   * Deserializes a TwitterAvroEnvelope from a ByteBuffer.
+   * @param b a byte buffer holding serialized data for an instance of this class
+   * @return a TwitterAvroEnvelope instance decoded from the given buffer
+   * @throws java.io.IOException if the given bytes could not be deserialized into an instance of this class
+   */
+  public static TwitterAvroEnvelope fromByteBuffer(
+      java.nio.ByteBuffer b) throws java.io.IOException {
+    return DECODER.decode(b);
+  }
+
+  /** Partition of the envelope topic that the key of every tweet in the envelope maps to */
+  private int partition;
+  /** Epoch milliseconds when the first tweet was added to the envelope */
+  private long openedAt;
+  /** Tweets in the order they were sent, keyed by their userId */
+  private java.util.List<com.microservices.demo.kafka.avro.model.TwitterAvroModel> tweets;
+
+  /**
+   * Default constructor.  Note that this does not initialize fields
+   * to their default values from the schema.  If that is desired then
+   * one should use <code>newBuilder()</code>.
+   */
+  public TwitterAvroEnvelope() {}
+
+  /**
+   * All-args constructor.
+   * @param partition Partition of the envelope topic that the key of every tweet in the envelope maps to
+   * @param openedAt Epoch milliseconds when the first tweet was added to the envelope
+   * @param tweets Tweets in the order they were sent, keyed by their userId
+   */
+  public TwitterAvroEnvelope(java.lang.Integer partition, java.lang.Long openedAt, java.util.List<com.microservices.demo.kafka.avro.model.TwitterAvroModel> tweets) {
+    this.partition = partition;
+    this.openedAt = openedAt;
+    this.tweets = tweets;
+  }
+
+  @Override
+  public org.apache.avro.specific.SpecificData getSpecificData() { return MODEL$; }
+
+  @Override
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+
+  // Used by DatumWriter.  Applications should not call.
+  @Override
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return partition;
+    case 1: return openedAt;
+    case 2: return tweets;
+    default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
+    }
+  }
+
+  // Used by DatumReader.  Applications should not call.
+  @Override
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: partition = (java.lang.Integer)value$; break;
+    case 1: openedAt = (java.lang.Long)value$; break;
+    case 2: tweets = (java.util.List<com.microservices.demo.kafka.avro.model.TwitterAvroModel>)value$; break;
+    default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
+    }
+  }
+
+  /**
+   * Gets the value of the 'partition' field.
+   * @return Partition of the envelope topic that the key of every tweet in the envelope maps to
+   */
+  public int getPartition() {
+    return partition;
+  }
+
+
+  /**
+   * Sets the value of the 'partition' field.
+   * Partition of the envelope topic that the key of every tweet in the envelope maps to
+   * @param value the value to set.
+   */
+  public void setPartition(int value) {
+    this.partition = value;
+  }
+
+  /**
+   * Gets the value of the 'openedAt' field.
+   * @return Epoch milliseconds when the first tweet was added to the envelope
+   */
+  public long getOpenedAt() {
+    return openedAt;
+  }
+
+
+  /**
+   * Sets the value of the 'openedAt' field.
+   * Epoch milliseconds when the first tweet was added to the envelope
+   * @param value the value to set.
+   */
+  public void setOpenedAt(long value) {
+    this.openedAt = value;
+  }
+
+  /**
+   * Gets the value of the 'tweets' field.
+   * @return Tweets in the order they were sent, keyed by their userId
+   */
+  public java.util.List<com.microservices.demo.kafka.avro.model.TwitterAvroModel> getTweets() {
+    return tweets;
+  }
+
+
+  /**
+   * Sets the value of the 'tweets' field.
+   * Tweets in the order they were sent, keyed by their userId
+   * @param value the value to set.
+   */
+  public void setTweets(java.util.List<com.microservices.demo.kafka.avro.model.TwitterAvroModel> value) {
+    this.tweets = value;
+  }
+
+  /**
+   * Creates a new TwitterAvroEnvelope RecordBuilder.
+   * @return A new TwitterAvroEnvelope RecordBuilder
+   */
+  public static com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder newBuilder() {
+    return new com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder();
+  }
+
+  /**
+   * Creates a new TwitterAvroEnvelope RecordBuilder by copying an existing Builder.
+   * @param other The existing builder to copy.
+   * @return A new TwitterAvroEnvelope RecordBuilder
+   */
+  public static com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder newBuilder(com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder other) {
+    if (other == null) {
+      return new com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder();
+    } else {
+      return new com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder(other);
+    }
+  }
+
+  /**
+   * Creates a new TwitterAvroEnvelope RecordBuilder by copying an existing TwitterAvroEnvelope instance.
+   * @param other The existing instance to copy.
+   * @return A new TwitterAvroEnvelope RecordBuilder
+   */
+  public static com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder newBuilder(com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope other) {
+    if (other == null) {
+      return new com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder();
+    } else {
+      return new com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder(other);
+    }
+  }
+
+  /**
+   * RecordBuilder for TwitterAvroEnvelope instances.
+   */
+  @org.apache.avro.specific.AvroGenerated
+  public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<TwitterAvroEnvelope>
+    implements org.apache.avro.data.RecordBuilder<TwitterAvroEnvelope> {
+
+    /** Partition of the envelope topic that the key of every tweet in the envelope maps to */
+    private int partition;
+    /** Epoch milliseconds when the first tweet was added to the envelope */
+    private long openedAt;
+    /** Tweets in the order they were sent, keyed by their userId */
+    private java.util.List<com.microservices.demo.kafka.avro.model.TwitterAvroModel> tweets;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(SCHEMA$, MODEL$);
+    }
+
+    /**
+     * Creates a Builder by copying an existing Builder.
+     * @param other The existing Builder to copy.
+     */
+    private Builder(com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.partition)) {
+        this.partition = data().deepCopy(fields()[0].schema(), other.partition);
+        fieldSetFlags()[0] = other.fieldSetFlags()[0];
+      }
+      if (isValidValue(fields()[1], other.openedAt)) {
+        this.openedAt = data().deepCopy(fields()[1].schema(), other.openedAt);
+        fieldSetFlags()[1] = other.fieldSetFlags()[1];
+      }
+      if (isValidValue(fields()[2], other.tweets)) {
+        this.tweets = data().deepCopy(fields()[2].schema(), other.tweets);
+        fieldSetFlags()[2] = other.fieldSetFlags()[2];
+      }
+    }
+
+    /**
+     * Creates a Builder by copying an existing TwitterAvroEnvelope instance
+     * @param other The existing instance to copy.
+     */
+    private Builder(com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope other) {
+      super(SCHEMA$, MODEL$);
+      if (isValidValue(fields()[0], other.partition)) {
+        this.partition = data().deepCopy(fields()[0].schema(), other.partition);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.openedAt)) {
+        this.openedAt = data().deepCopy(fields()[1].schema(), other.openedAt);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.tweets)) {
+        this.tweets = data().deepCopy(fields()[2].schema(), other.tweets);
+        fieldSetFlags()[2] = true;
+      }
+    }
+
+    /**
+      * Gets the value of the 'partition' field.
+      * Partition of the envelope topic that the key of every tweet in the envelope maps to
+      * @return The value.
+      */
+    public int getPartition() {
+      return partition;
+    }
+
+
+    /**
+      * Sets the value of the 'partition' field.
+      * Partition of the envelope topic that the key of every tweet in the envelope maps to
+      * @param value The value of 'partition'.
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder setPartition(int value) {
+      validate(fields()[0], value);
+      this.partition = value;
+      fieldSetFlags()[0] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'partition' field has been set.
+      * Partition of the envelope topic that the key of every tweet in the envelope maps to
+      * @return True if the 'partition' field has been set, false otherwise.
+      */
+    public boolean hasPartition() {
+      return fieldSetFlags()[0];
+    }
+
+
+    /**
+      * Clears the value of the 'partition' field.
+      * Partition of the envelope topic that the key of every tweet in the envelope maps to
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder clearPartition() {
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    /**
+      * Gets the value of the 'openedAt' field.
+      * Epoch milliseconds when the first tweet was added to the envelope
+      * @return The value.
+      */
+    public long getOpenedAt() {
+      return openedAt;
+    }
+
+
+    /**
+      * Sets the value of the 'openedAt' field.
+      * Epoch milliseconds when the first tweet was added to the envelope
+      * @param value The value of 'openedAt'.
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder setOpenedAt(long value) {
+      validate(fields()[1], value);
+      this.openedAt = value;
+      fieldSetFlags()[1] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'openedAt' field has been set.
+      * Epoch milliseconds when the first tweet was added to the envelope
+      * @return True if the 'openedAt' field has been set, false otherwise.
+      */
+    public boolean hasOpenedAt() {
+      return fieldSetFlags()[1];
+    }
+
+
+    /**
+      * Clears the value of the 'openedAt' field.
+      * Epoch milliseconds when the first tweet was added to the envelope
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder clearOpenedAt() {
+      fieldSetFlags()[1] = false;
+      return this;
+    }
+
+    /**
+      * Gets the value of the 'tweets' field.
+      * Tweets in the order they were sent, keyed by their userId
+      * @return The value.
+      */
+    public java.util.List<com.microservices.demo.kafka.avro.model.TwitterAvroModel> getTweets() {
+      return tweets;
+    }
+
+
+    /**
+      * Sets the value of the 'tweets' field.
+      * Tweets in the order they were sent, keyed by their userId
+      * @param value The value of 'tweets'.
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder setTweets(java.util.List<com.microservices.demo.kafka.avro.model.TwitterAvroModel> value) {
+      validate(fields()[2], value);
+      this.tweets = value;
+      fieldSetFlags()[2] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'tweets' field has been set.
+      * Tweets in the order they were sent, keyed by their userId
+      * @return True if the 'tweets' field has been set, false otherwise.
+      */
+    public boolean hasTweets() {
+      return fieldSetFlags()[2];
+    }
+
+
+    /**
+      * Clears the value of the 'tweets' field.
+      * Tweets in the order they were sent, keyed by their userId
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope.Builder clearTweets() {
+      tweets = null;
+      fieldSetFlags()[2] = false;
+      return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TwitterAvroEnvelope build() {
+      try {
+        TwitterAvroEnvelope record = new TwitterAvroEnvelope();
+        record.partition = fieldSetFlags()[0] ? this.partition : (java.lang.Integer) defaultValue(fields()[0]);
+        record.openedAt = fieldSetFlags()[1] ? this.openedAt : (java.lang.Long) defaultValue(fields()[1]);
+        record.tweets = fieldSetFlags()[2] ? this.tweets : (java.util.List<com.microservices.demo.kafka.avro.model.TwitterAvroModel>) defaultValue(fields()[2]);
+        return record;
+      } catch (org.apache.avro.AvroMissingFieldException e) {
+        throw e;
+      } catch (java.lang.Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static final org.apache.avro.io.DatumWriter<TwitterAvroEnvelope>
+    WRITER$ = (org.apache.avro.io.DatumWriter<TwitterAvroEnvelope>)MODEL$.createDatumWriter(SCHEMA$);
+
+  @Override public void writeExternal(java.io.ObjectOutput out)
+    throws java.io.IOException {
+    WRITER$.write(this, SpecificData.getEncoder(out));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static final org.apache.avro.io.DatumReader<TwitterAvroEnvelope>
+    READER$ = (org.apache.avro.io.DatumReader<TwitterAvroEnvelope>)MODEL$.createDatumReader(SCHEMA$);
+
+  @Override public void readExternal(java.io.ObjectInput in)
+    throws java.io.IOException {
+    READER$.read(this, SpecificData.getDecoder(in));
+  }
+
+  @Override protected boolean hasCustomCoders() { return true; }
+
+  @Override public void customEncode(org.apache.avro.io.Encoder out)
+    throws java.io.IOException
+  {
+    out.writeInt(this.partition);
+
+    out.writeLong(this.openedAt);
+
+    long size0 = this.tweets.size();
+    out.writeArrayStart();
+    out.setItemCount(size0);
+    long actualSize0 = 0;
+    for (com.microservices.demo.kafka.avro.model.TwitterAvroModel e0: this.tweets) {
+      actualSize0++;
+      out.startItem();
+      e0.customEncode(out);
+    }
+    out.writeArrayEnd();
+    if (actualSize0 != size0)
+      throw new java.util.ConcurrentModificationException("Array-size written was " + size0 + ", but element count was " + actualSize0 + ".");
+
+  }
+
+  @Override public void customDecode(org.apache.avro.io.ResolvingDecoder in)
+    throws java.io.IOException
+  {
+    org.apache.avro.Schema.Field[] fieldOrder = in.readFieldOrderIfDiff();
+    if (fieldOrder == null) {
+      this.partition = in.readInt();
+
+      this.openedAt = in.readLong();
+
+      long size0 = in.readArrayStart();
+      java.util.List<com.microservices.demo.kafka.avro.model.TwitterAvroModel> a0 = this.tweets;
+      if (a0 == null) {
+        a0 = new SpecificData.Array<com.microservices.demo.kafka.avro.model.TwitterAvroModel>((int)size0, SCHEMA$.getField("tweets").schema());
+        this.tweets = a0;
+      } else a0.clear();
+      SpecificData.Array<com.microservices.demo.kafka.avro.model.TwitterAvroModel> ga0 = (a0 instanceof SpecificData.Array ? (SpecificData.Array<com.microservices.demo.kafka.avro.model.TwitterAvroModel>)a0 : null);
+      for ( ; 0 < size0; size0 = in.arrayNext()) {
+        for ( ; size0 != 0; size0--) {
+          com.microservices.demo.kafka.avro.model.TwitterAvroModel e0 = (ga0 != null ? ga0.peek() : null);
+          if (e0 == null) {
+            e0 = new com.microservices.demo.kafka.avro.model.TwitterAvroModel();
+          }
+          e0.customDecode(in);
+          a0.add(e0);
+        }
+      }
+
+    } else {
+      for (int i = 0; i < 3; i++) {
+        switch (fieldOrder[i].pos()) {
+        case 0:
+          this.partition = in.readInt();
+          break;
+
+        case 1:
+          this.openedAt = in.readLong();
+          break;
+
+        case 2:
+          long size0 = in.readArrayStart();
+          java.util.List<com.microservices.demo.kafka.avro.model.TwitterAvroModel> a0 = this.tweets;
+          if (a0 == null) {
+            a0 = new SpecificData.Array<com.microservices.demo.kafka.avro.model.TwitterAvroModel>((int)size0, SCHEMA$.getField("tweets").schema());
+            this.tweets = a0;
+          } else a0.clear();
+          SpecificData.Array<com.microservices.demo.kafka.avro.model.TwitterAvroModel> ga0 = (a0 instanceof SpecificData.Array ? (SpecificData.Array<com.microservices.demo.kafka.avro.model.TwitterAvroModel>)a0 : null);
+          for ( ; 0 < size0; size0 = in.arrayNext()) {
+            for ( ; size0 != 0; size0--) {
+              com.microservices.demo.kafka.avro.model.TwitterAvroModel e0 = (ga0 != null ? ga0.peek() : null);
+              if (e0 == null) {
+                e0 = new com.microservices.demo.kafka.avro.model.TwitterAvroModel();
+              }
+              e0.customDecode(in);
+              a0.add(e0);
+            }
+          }
+          break;
+
+        default:
+          throw new java.io.IOException("Corrupt ResolvingDecoder.");
+        }
+      }
+    }
+  }
+}
+
+
+
+
+
+
+
+
+
+
@@ -14,10 +14,10 @@ import org.apache.avro.message.SchemaStore;
 
 @org.apache.avro.specific.AvroGenerated
 public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  private static final long serialVersionUID = -8486552345850557412L;
+  private static final long serialVersionUID = -695773866576641183L;
 
 
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"TwitterAvroModel\",\"namespace\":\"com.microservices.demo.kafka.avro.model\",\"fields\":[{\"name\":\"userId\",\"type\":\"long\"},{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"text\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}]},{\"name\":\"createdAt\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"logicalType\":[\"null\",\"date\"]}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"TwitterAvroModel\",\"namespace\":\"com.microservices.demo.kafka.avro.model\",\"fields\":[{\"name\":\"userId\",\"type\":\"long\"},{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"text\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}]},{\"name\":\"createdAt\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"logicalType\":[\"null\",\"date\"]},{\"name\":\"tokens\",\"type\":[\"null\",{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"doc\":\"Distinct lower-cased, NFKC-normalized terms of the text without URLs and mentions, in order of first appearance\",\"default\":null},{\"name\":\"hashtags\",\"type\":[\"null\",{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"doc\":\"Distinct lower-cased hashtags of the text, without the leading #\",\"default\":null},{\"name\":\"followerTier\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"doc\":\"Follower tier of the author from the user metadata source, null when unknown\",\"default\":null},{\"name\":\"accountClass\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"doc\":\"Account class of the author from the user metadata source, null when unknown\",\"default\":null},{\"name\":\"sampleWeight\",\"type\":[\"null\",\"double\"],\"doc\":\"Number of stream records of the same stratum and window this record stands for; set only on the sample topic\",\"default\":null},{\"name\":\"nearDuplicateClusterId\",\"type\":[\"null\",\"long\"],\"doc\":\"Id of the first tweet of the near-duplicate cluster this tweet belongs to; null when it is not a near duplicate of an earlier tweet\",\"default\":null}]}");
   public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
 
   private static final SpecificData MODEL$ = new SpecificData();
@@ -77,6 +77,18 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
   private long id;
   private java.lang.String text;
   private java.lang.String createdAt;
+  /** Distinct lower-cased, NFKC-normalized terms of the text without URLs and mentions, in order of first appearance */
+  private java.util.List<java.lang.String> tokens;
+  /** Distinct lower-cased hashtags of the text, without the leading # */
+  private java.util.List<java.lang.String> hashtags;
+  /** Follower tier of the author from the user metadata source, null when unknown */
+  private java.lang.String followerTier;
+  /** Account class of the author from the user metadata source, null when unknown */
+  private java.lang.String accountClass;
+  /** Number of stream records of the same stratum and window this record stands for; set only on the sample topic */
+  private java.lang.Double sampleWeight;
+  /** Id of the first tweet of the near-duplicate cluster this tweet belongs to; null when it is not a near duplicate of an earlier tweet */
+  private java.lang.Long nearDuplicateClusterId;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -91,12 +103,24 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
    * @param id The new value for id
    * @param text The new value for text
    * @param createdAt The new value for createdAt
+   * @param tokens Distinct lower-cased, NFKC-normalized terms of the text without URLs and mentions, in order of first appearance
+   * @param hashtags Distinct lower-cased hashtags of the text, without the leading #
+   * @param followerTier Follower tier of the author from the user metadata source, null when unknown
+   * @param accountClass Account class of the author from the user metadata source, null when unknown
+   * @param sampleWeight Number of stream records of the same stratum and window this record stands for; set only on the sample topic
+   * @param nearDuplicateClusterId Id of the first tweet of the near-duplicate cluster this tweet belongs to; null when it is not a near duplicate of an earlier tweet
    */
-  public TwitterAvroModel(java.lang.Long userId, java.lang.Long id, java.lang.String text, java.lang.String createdAt) {
+  public TwitterAvroModel(java.lang.Long userId, java.lang.Long id, java.lang.String text, java.lang.String createdAt, java.util.List<java.lang.String> tokens, java.util.List<java.lang.String> hashtags, java.lang.String followerTier, java.lang.String accountClass, java.lang.Double sampleWeight, java.lang.Long nearDuplicateClusterId) {
     this.userId = userId;
     this.id = id;
     this.text = text;
     this.createdAt = createdAt;
+    this.tokens = tokens;
+    this.hashtags = hashtags;
+    this.followerTier = followerTier;
+    this.accountClass = accountClass;
+    this.sampleWeight = sampleWeight;
+    this.nearDuplicateClusterId = nearDuplicateClusterId;
   }
 
   @Override
@@ -113,6 +137,12 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
     case 1: return id;
     case 2: return text;
     case 3: return createdAt;
+    case 4: return tokens;
+    case 5: return hashtags;
+    case 6: return followerTier;
+    case 7: return accountClass;
+    case 8: return sampleWeight;
+    case 9: return nearDuplicateClusterId;
     default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
     }
   }
@@ -126,6 +156,12 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
     case 1: id = (java.lang.Long)value$; break;
     case 2: text = value$ != null ? value$.toString() : null; break;
     case 3: createdAt = value$ != null ? value$.toString() : null; break;
+    case 4: tokens = (java.util.List<java.lang.String>)value$; break;
+    case 5: hashtags = (java.util.List<java.lang.String>)value$; break;
+    case 6: followerTier = value$ != null ? value$.toString() : null; break;
+    case 7: accountClass = value$ != null ? value$.toString() : null; break;
+    case 8: sampleWeight = (java.lang.Double)value$; break;
+    case 9: nearDuplicateClusterId = (java.lang.Long)value$; break;
     default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
     }
   }
@@ -198,6 +234,114 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
     this.createdAt = value;
   }
 
+  /**
+   * Gets the value of the 'tokens' field.
+   * @return Distinct lower-cased, NFKC-normalized terms of the text without URLs and mentions, in order of first appearance
+   */
+  public java.util.List<java.lang.String> getTokens() {
+    return tokens;
+  }
+
+
+  /**
+   * Sets the value of the 'tokens' field.
+   * Distinct lower-cased, NFKC-normalized terms of the text without URLs and mentions, in order of first appearance
+   * @param value the value to set.
+   */
+  public void setTokens(java.util.List<java.lang.String> value) {
+    this.tokens = value;
+  }
+
+  /**
+   * Gets the value of the 'hashtags' field.
+   * @return Distinct lower-cased hashtags of the text, without the leading #
+   */
+  public java.util.List<java.lang.String> getHashtags() {
+    return hashtags;
+  }
+
+
+  /**
+   * Sets the value of the 'hashtags' field.
+   * Distinct lower-cased hashtags of the text, without the leading #
+   * @param value the value to set.
+   */
+  public void setHashtags(java.util.List<java.lang.String> value) {
+    this.hashtags = value;
+  }
+
+  /**
+   * Gets the value of the 'followerTier' field.
+   * @return Follower tier of the author from the user metadata source, null when unknown
+   */
+  public java.lang.String getFollowerTier() {
+    return followerTier;
+  }
+
+
+  /**
+   * Sets the value of the 'followerTier' field.
+   * Follower tier of the author from the user metadata source, null when unknown
+   * @param value the value to set.
+   */
+  public void setFollowerTier(java.lang.String value) {
+    this.followerTier = value;
+  }
+
+  /**
+   * Gets the value of the 'accountClass' field.
+   * @return Account class of the author from the user metadata source, null when unknown
+   */
+  public java.lang.String getAccountClass() {
+    return accountClass;
+  }
+
+
+  /**
+   * Sets the value of the 'accountClass' field.
+   * Account class of the author from the user metadata source, null when unknown
+   * @param value the value to set.
+   */
+  public void setAccountClass(java.lang.String value) {
+    this.accountClass = value;
+  }
+
+  /**
+   * Gets the value of the 'sampleWeight' field.
+   * @return Number of stream records of the same stratum and window this record stands for; set only on the sample topic
+   */
+  public java.lang.Double getSampleWeight() {
+    return sampleWeight;
+  }
+
+
+  /**
+   * Sets the value of the 'sampleWeight' field.
+   * Number of stream records of the same stratum and window this record stands for; set only on the sample topic
+   * @param value the value to set.
+   */
+  public void setSampleWeight(java.lang.Double value) {
+    this.sampleWeight = value;
+  }
+
+  /**
+   * Gets the value of the 'nearDuplicateClusterId' field.
+   * @return Id of the first tweet of the near-duplicate cluster this tweet belongs to; null when it is not a near duplicate of an earlier tweet
+   */
+  public java.lang.Long getNearDuplicateClusterId() {
+    return nearDuplicateClusterId;
+  }
+
+
+  /**
+   * Sets the value of the 'nearDuplicateClusterId' field.
+   * Id of the first tweet of the near-duplicate cluster this tweet belongs to; null when it is not a near duplicate of an earlier tweet
+   * @param value the value to set.
+   */
+  public void setNearDuplicateClusterId(java.lang.Long value) {
+    this.nearDuplicateClusterId = value;
+  }
+
   /**
    * Creates a new TwitterAvroModel RecordBuilder.
    * @return A new TwitterAvroModel RecordBuilder
@@ -243,6 +387,18 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
     private long id;
     private java.lang.String text;
     private java.lang.String createdAt;
+    /** Distinct lower-cased, NFKC-normalized terms of the text without URLs and mentions, in order of first appearance */
+    private java.util.List<java.lang.String> tokens;
+    /** Distinct lower-cased hashtags of the text, without the leading # */
+    private java.util.List<java.lang.String> hashtags;
+    /** Follower tier of the author from the user metadata source, null when unknown */
+    private java.lang.String followerTier;
+    /** Account class of the author from the user metadata source, null when unknown */
+    private java.lang.String accountClass;
+    /** Number of stream records of the same stratum and window this record stands for; set only on the sample topic */
+    private java.lang.Double sampleWeight;
+    /** Id of the first tweet of the near-duplicate cluster this tweet belongs to; null when it is not a near duplicate of an earlier tweet */
+    private java.lang.Long nearDuplicateClusterId;
 
     /** Creates a new Builder */
     private Builder() {
@@ -271,6 +427,30 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
         this.createdAt = data().deepCopy(fields()[3].schema(), other.createdAt);
         fieldSetFlags()[3] = other.fieldSetFlags()[3];
       }
+      if (isValidValue(fields()[4], other.tokens)) {
+        this.tokens = data().deepCopy(fields()[4].schema(), other.tokens);
+        fieldSetFlags()[4] = other.fieldSetFlags()[4];
+      }
+      if (isValidValue(fields()[5], other.hashtags)) {
+        this.hashtags = data().deepCopy(fields()[5].schema(), other.hashtags);
+        fieldSetFlags()[5] = other.fieldSetFlags()[5];
+      }
+      if (isValidValue(fields()[6], other.followerTier)) {
+        this.followerTier = data().deepCopy(fields()[6].schema(), other.followerTier);
+        fieldSetFlags()[6] = other.fieldSetFlags()[6];
+      }
+      if (isValidValue(fields()[7], other.accountClass)) {
+        this.accountClass = data().deepCopy(fields()[7].schema(), other.accountClass);
+        fieldSetFlags()[7] = other.fieldSetFlags()[7];
+      }
+      if (isValidValue(fields()[8], other.sampleWeight)) {
+        this.sampleWeight = data().deepCopy(fields()[8].schema(), other.sampleWeight);
+        fieldSetFlags()[8] = other.fieldSetFlags()[8];
+      }
+      if (isValidValue(fields()[9], other.nearDuplicateClusterId)) {
+        this.nearDuplicateClusterId = data().deepCopy(fields()[9].schema(), other.nearDuplicateClusterId);
+        fieldSetFlags()[9] = other.fieldSetFlags()[9];
+      }
     }
 
     /**
@@ -295,6 +475,30 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
         this.createdAt = data().deepCopy(fields()[3].schema(), other.createdAt);
         fieldSetFlags()[3] = true;
       }
+      if (isValidValue(fields()[4], other.tokens)) {
+        this.tokens = data().deepCopy(fields()[4].schema(), other.tokens);
+        fieldSetFlags()[4] = true;
+      }
+      if (isValidValue(fields()[5], other.hashtags)) {
+        this.hashtags = data().deepCopy(fields()[5].schema(), other.hashtags);
+        fieldSetFlags()[5] = true;
+      }
+      if (isValidValue(fields()[6], other.followerTier)) {
+        this.followerTier = data().deepCopy(fields()[6].schema(), other.followerTier);
+        fieldSetFlags()[6] = true;
+      }
+      if (isValidValue(fields()[7], other.accountClass)) {
+        this.accountClass = data().deepCopy(fields()[7].schema(), other.accountClass);
+        fieldSetFlags()[7] = true;
+      }
+      if (isValidValue(fields()[8], other.sampleWeight)) {
+        this.sampleWeight = data().deepCopy(fields()[8].schema(), other.sampleWeight);
+        fieldSetFlags()[8] = true;
+      }
+      if (isValidValue(fields()[9], other.nearDuplicateClusterId)) {
+        this.nearDuplicateClusterId = data().deepCopy(fields()[9].schema(), other.nearDuplicateClusterId);
+        fieldSetFlags()[9] = true;
+      }
     }
 
     /**
@@ -455,6 +659,270 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
       return this;
     }
 
+    /**
+      * Gets the value of the 'tokens' field.
+      * Distinct lower-cased, NFKC-normalized terms of the text without URLs and mentions, in order of first appearance
+      * @return The value.
+      */
+    public java.util.List<java.lang.String> getTokens() {
+      return tokens;
+    }
+
+
+    /**
+      * Sets the value of the 'tokens' field.
+      * Distinct lower-cased, NFKC-normalized terms of the text without URLs and mentions, in order of first appearance
+      * @param value The value of 'tokens'.
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder setTokens(java.util.List<java.lang.String> value) {
+      validate(fields()[4], value);
+      this.tokens = value;
+      fieldSetFlags()[4] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'tokens' field has been set.
+      * Distinct lower-cased, NFKC-normalized terms of the text without URLs and mentions, in order of first appearance
+      * @return True if the 'tokens' field has been set, false otherwise.
+      */
+    public boolean hasTokens() {
+      return fieldSetFlags()[4];
+    }
+
+
+    /**
+      * Clears the value of the 'tokens' field.
+      * Distinct lower-cased, NFKC-normalized terms of the text without URLs and mentions, in order of first appearance
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder clearTokens() {
+      tokens = null;
+      fieldSetFlags()[4] = false;
+      return this;
+    }
+
+    /**
+      * Gets the value of the 'hashtags' field.
+      * Distinct lower-cased hashtags of the text, without the leading #
+      * @return The value.
+      */
+    public java.util.List<java.lang.String> getHashtags() {
+      return hashtags;
+    }
+
+
+    /**
+      * Sets the value of the 'hashtags' field.
+      * Distinct lower-cased hashtags of the text, without the leading #
+      * @param value The value of 'hashtags'.
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder setHashtags(java.util.List<java.lang.String> value) {
+      validate(fields()[5], value);
+      this.hashtags = value;
+      fieldSetFlags()[5] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'hashtags' field has been set.
+      * Distinct lower-cased hashtags of the text, without the leading #
+      * @return True if the 'hashtags' field has been set, false otherwise.
+      */
+    public boolean hasHashtags() {
+      return fieldSetFlags()[5];
+    }
+
+
+    /**
+      * Clears the value of the 'hashtags' field.
+      * Distinct lower-cased hashtags of the text, without the leading #
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder clearHashtags() {
+      hashtags = null;
+      fieldSetFlags()[5] = false;
+      return this;
+    }
+
+    /**
+      * Gets the value of the 'followerTier' field.
+      * Follower tier of the author from the user metadata source, null when unknown
+      * @return The value.
+      */
+    public java.lang.String getFollowerTier() {
+      return followerTier;
+    }
+
+
+    /**
+      * Sets the value of the 'followerTier' field.
+      * Follower tier of the author from the user metadata source, null when unknown
+      * @param value The value of 'followerTier'.
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder setFollowerTier(java.lang.String value) {
+      validate(fields()[6], value);
+      this.followerTier = value;
+      fieldSetFlags()[6] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'followerTier' field has been set.
+      * Follower tier of the author from the user metadata source, null when unknown
+      * @return True if the 'followerTier' field has been set, false otherwise.
+      */
+    public boolean hasFollowerTier() {
+      return fieldSetFlags()[6];
+    }
+
+
+    /**
+      * Clears the value of the 'followerTier' field.
+      * Follower tier of the author from the user metadata source, null when unknown
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder clearFollowerTier() {
+      followerTier = null;
+      fieldSetFlags()[6] = false;
+      return this;
+    }
+
+    /**
+      * Gets the value of the 'accountClass' field.
+      * Account class of the author from the user metadata source, null when unknown
+      * @return The value.
+      */
+    public java.lang.String getAccountClass() {
+      return accountClass;
+    }
+
+
+    /**
+      * Sets the value of the 'accountClass' field.
+      * Account class of the author from the user metadata source, null when unknown
+      * @param value The value of 'accountClass'.
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder setAccountClass(java.lang.String value) {
+      validate(fields()[7], value);
+      this.accountClass = value;
+      fieldSetFlags()[7] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'accountClass' field has been set.
+      * Account class of the author from the user metadata source, null when unknown
+      * @return True if the 'accountClass' field has been set, false otherwise.
+      */
+    public boolean hasAccountClass() {
+      return fieldSetFlags()[7];
+    }
+
+
+    /**
+      * Clears the value of the 'accountClass' field.
+      * Account class of the author from the user metadata source, null when unknown
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder clearAccountClass() {
+      accountClass = null;
+      fieldSetFlags()[7] = false;
+      return this;
+    }
+
+    /**
+      * Gets the value of the 'sampleWeight' field.
+      * Number of stream records of the same stratum and window this record stands for; set only on the sample topic
+      * @return The value.
+      */
+    public java.lang.Double getSampleWeight() {
+      return sampleWeight;
+    }
+
+
+    /**
+      * Sets the value of the 'sampleWeight' field.
+      * Number of stream records of the same stratum and window this record stands for; set only on the sample topic
+      * @param value The value of 'sampleWeight'.
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder setSampleWeight(java.lang.Double value) {
+      validate(fields()[8], value);
+      this.sampleWeight = value;
+      fieldSetFlags()[8] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'sampleWeight' field has been set.
+      * Number of stream records of the same stratum and window this record stands for; set only on the sample topic
+      * @return True if the 'sampleWeight' field has been set, false otherwise.
+      */
+    public boolean hasSampleWeight() {
+      return fieldSetFlags()[8];
+    }
+
+
+    /**
+      * Clears the value of the 'sampleWeight' field.
+      * Number of stream records of the same stratum and window this record stands for; set only on the sample topic
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder clearSampleWeight() {
+      sampleWeight = null;
+      fieldSetFlags()[8] = false;
+      return this;
+    }
+
+    /**
+      * Gets the value of the 'nearDuplicateClusterId' field.
+      * Id of the first tweet of the near-duplicate cluster this tweet belongs to; null when it is not a near duplicate of an earlier tweet
+      * @return The value.
+      */
+    public java.lang.Long getNearDuplicateClusterId() {
+      return nearDuplicateClusterId;
+    }
+
+
+    /**
+      * Sets the value of the 'nearDuplicateClusterId' field.
+      * Id of the first tweet of the near-duplicate cluster this tweet belongs to; null when it is not a near duplicate of an earlier tweet
+      * @param value The value of 'nearDuplicateClusterId'.
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder setNearDuplicateClusterId(java.lang.Long value) {
+      validate(fields()[9], value);
+      this.nearDuplicateClusterId = value;
+      fieldSetFlags()[9] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'nearDuplicateClusterId' field has been set.
+      * Id of the first tweet of the near-duplicate cluster this tweet belongs to; null when it is not a near duplicate of an earlier tweet
+      * @return True if the 'nearDuplicateClusterId' field has been set, false otherwise.
+      */
+    public boolean hasNearDuplicateClusterId() {
+      return fieldSetFlags()[9];
+    }
+
+
+    /**
+      * Clears the value of the 'nearDuplicateClusterId' field.
+      * Id of the first tweet of the near-duplicate cluster this tweet belongs to; null when it is not a near duplicate of an earlier tweet
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder clearNearDuplicateClusterId() {
+      nearDuplicateClusterId = null;
+      fieldSetFlags()[9] = false;
+      return this;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public TwitterAvroModel build() {
@@ -464,6 +932,12 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
         record.id = fieldSetFlags()[1] ? this.id : (java.lang.Long) defaultValue(fields()[1]);
         record.text = fieldSetFlags()[2] ? this.text : (java.lang.String) defaultValue(fields()[2]);
         record.createdAt = fieldSetFlags()[3] ? this.createdAt : (java.lang.String) defaultValue(fields()[3]);
+        record.tokens = fieldSetFlags()[4] ? this.tokens : (java.util.List<java.lang.String>) defaultValue(fields()[4]);
+        record.hashtags = fieldSetFlags()[5] ? this.hashtags : (java.util.List<java.lang.String>) defaultValue(fields()[5]);
+        record.followerTier = fieldSetFlags()[6] ? this.followerTier : (java.lang.String) defaultValue(fields()[6]);
+        record.accountClass = fieldSetFlags()[7] ? this.accountClass : (java.lang.String) defaultValue(fields()[7]);
+        record.sampleWeight = fieldSetFlags()[8] ? this.sampleWeight : (java.lang.Double) defaultValue(fields()[8]);
+        record.nearDuplicateClusterId = fieldSetFlags()[9] ? this.nearDuplicateClusterId : (java.lang.Long) defaultValue(fields()[9]);
         return record;
       } catch (org.apache.avro.AvroMissingFieldException e) {
         throw e;
@@ -516,6 +990,76 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
       out.writeString(this.createdAt);
     }
 
+    if (this.tokens == null) {
+      out.writeIndex(0);
+      out.writeNull();
+    } else {
+      out.writeIndex(1);
+      long size0 = this.tokens.size();
+      out.writeArrayStart();
+      out.setItemCount(size0);
+      long actualSize0 = 0;
+      for (java.lang.String e0: this.tokens) {
+        actualSize0++;
+        out.startItem();
+        out.writeString(e0);
+      }
+      out.writeArrayEnd();
+      if (actualSize0 != size0)
+        throw new java.util.ConcurrentModificationException("Array-size written was " + size0 + ", but element count was " + actualSize0 + ".");
+    }
+
+    if (this.hashtags == null) {
+      out.writeIndex(0);
+      out.writeNull();
+    } else {
+      out.writeIndex(1);
+      long size1 = this.hashtags.size();
+      out.writeArrayStart();
+      out.setItemCount(size1);
+      long actualSize1 = 0;
+      for (java.lang.String e1: this.hashtags) {
+        actualSize1++;
+        out.startItem();
+        out.writeString(e1);
+      }
+      out.writeArrayEnd();
+      if (actualSize1 != size1)
+        throw new java.util.ConcurrentModificationException("Array-size written was " + size1 + ", but element count was " + actualSize1 + ".");
+    }
+
+    if (this.followerTier == null) {
+      out.writeIndex(0);
+      out.writeNull();
+    } else {
+      out.writeIndex(1);
+      out.writeString(this.followerTier);
+    }
+
+    if (this.accountClass == null) {
+      out.writeIndex(0);
+      out.writeNull();
+    } else {
+      out.writeIndex(1);
+      out.writeString(this.accountClass);
+    }
+
+    if (this.sampleWeight == null) {
+      out.writeIndex(0);
+      out.writeNull();
+    } else {
+      out.writeIndex(1);
+      out.writeDouble(this.sampleWeight);
+    }
+
+    if (this.nearDuplicateClusterId == null) {
+      out.writeIndex(0);
+      out.writeNull();
+    } else {
+      out.writeIndex(1);
+      out.writeLong(this.nearDuplicateClusterId);
+    }
+
   }
 
   @Override public void customDecode(org.apache.avro.io.ResolvingDecoder in)
@@ -541,8 +1085,76 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
         this.createdAt = in.readString();
       }
 
+      if (in.readIndex() != 1) {
+        in.readNull();
+        this.tokens = null;
+      } else {
+        long size0 = in.readArrayStart();
+        java.util.List<java.lang.String> a0 = this.tokens;
+        if (a0 == null) {
+          a0 = new SpecificData.Array<java.lang.String>((int)size0, SCHEMA$.getField("tokens").schema().getTypes().get(1));
+          this.tokens = a0;
+        } else a0.clear();
+        SpecificData.Array<java.lang.String> ga0 = (a0 instanceof SpecificData.Array ? (SpecificData.Array<java.lang.String>)a0 : null);
+        for ( ; 0 < size0; size0 = in.arrayNext()) {
+          for ( ; size0 != 0; size0--) {
+            java.lang.String e0 = (ga0 != null ? ga0.peek() : null);
+            e0 = in.readString();
+            a0.add(e0);
+          }
+        }
+      }
+
+      if (in.readIndex() != 1) {
+        in.readNull();
+        this.hashtags = null;
+      } else {
+        long size1 = in.readArrayStart();
+        java.util.List<java.lang.String> a1 = this.hashtags;
+        if (a1 == null) {
+          a1 = new SpecificData.Array<java.lang.String>((int)size1, SCHEMA$.getField("hashtags").schema().getTypes().get(1));
+          this.hashtags = a1;
+        } else a1.clear();
+        SpecificData.Array<java.lang.String> ga1 = (a1 instanceof SpecificData.Array ? (SpecificData.Array<java.lang.String>)a1 : null);
+        for ( ; 0 < size1; size1 = in.arrayNext()) {
+          for ( ; size1 != 0; size1--) {
+            java.lang.String e1 = (ga1 != null ? ga1.peek() : null);
+            e1 = in.readString();
+            a1.add(e1);
+          }
+        }
+      }
+
+      if (in.readIndex() != 1) {
+        in.readNull();
+        this.followerTier = null;
+      } else {
+        this.followerTier = in.readString();
+      }
+
+      if (in.readIndex() != 1) {
+        in.readNull();
+        this.accountClass = null;
+      } else {
+        this.accountClass = in.readString();
+      }
+
+      if (in.readIndex() != 1) {
+        in.readNull();
+        this.sampleWeight = null;
+      } else {
+        this.sampleWeight = in.readDouble();
+      }
+
+      if (in.readIndex() != 1) {
+        in.readNull();
+        this.nearDuplicateClusterId = null;
+      } else {
+        this.nearDuplicateClusterId = in.readLong();
+      }
+
     } else {
-      for (int i = 0; i < 4; i++) {
+      for (int i = 0; i < 10; i++) {
         switch (fieldOrder[i].pos()) {
         case 0:
           this.userId = in.readLong();
@@ -570,6 +1182,86 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
           }
           break;
 
+        case 4:
+          if (in.readIndex() != 1) {
+            in.readNull();
+            this.tokens = null;
+          } else {
+            long size0 = in.readArrayStart();
+            java.util.List<java.lang.String> a0 = this.tokens;
+            if (a0 == null) {
+              a0 = new SpecificData.Array<java.lang.String>((int)size0, SCHEMA$.getField("tokens").schema().getTypes().get(1));
+              this.tokens = a0;
+            } else a0.clear();
+            SpecificData.Array<java.lang.String> ga0 = (a0 instanceof SpecificData.Array ? (SpecificData.Array<java.lang.String>)a0 : null);
+            for ( ; 0 < size0; size0 = in.arrayNext()) {
+              for ( ; size0 != 0; size0--) {
+                java.lang.String e0 = (ga0 != null ? ga0.peek() : null);
+                e0 = in.readString();
+                a0.add(e0);
+              }
+            }
+          }
+          break;
+
+        case 5:
+          if (in.readIndex() != 1) {
+            in.readNull();
+            this.hashtags = null;
+          } else {
+            long size1 = in.readArrayStart();
+            java.util.List<java.lang.String> a1 = this.hashtags;
+            if (a1 == null) {
+              a1 = new SpecificData.Array<java.lang.String>((int)size1, SCHEMA$.getField("hashtags").schema().getTypes().get(1));
+              this.hashtags = a1;
+            } else a1.clear();
+            SpecificData.Array<java.lang.String> ga1 = (a1 instanceof SpecificData.Array ? (SpecificData.Array<java.lang.String>)a1 : null);
+            for ( ; 0 < size1; size1 = in.arrayNext()) {
+              for ( ; size1 != 0; size1--) {
+                java.lang.String e1 = (ga1 != null ? ga1.peek() : null);
+                e1 = in.readString();
+                a1.add(e1);
+              }
+            }
+          }
+          break;
+
+        case 6:
+          if (in.readIndex() != 1) {
+            in.readNull();
+            this.followerTier = null;
+          } else {
+            this.followerTier = in.readString();
+          }
+          break;
+
+        case 7:
+          if (in.readIndex() != 1) {
+            in.readNull();
+            this.accountClass = null;
+          } else {
+            this.accountClass = in.readString();
+          }
+          break;
+
+        case 8:
+          if (in.readIndex() != 1) {
+            in.readNull();
+            this.sampleWeight = null;
+          } else {
+            this.sampleWeight = in.readDouble();
+          }
+          break;
+
+        case 9:
+          if (in.readIndex() != 1) {
+            in.readNull();
+            this.nearDuplicateClusterId = null;
+          } else {
+            this.nearDuplicateClusterId = in.readLong();
+          }
+          break;
+
         default:
           throw new java.io.IOException("Corrupt ResolvingDecoder.");
         }
@@ -0,0 +1,51 @@
+package com.microservices.demo.kafka.envelope;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Packing rules shared by the envelope producer and the consumers that unpack {@link TwitterAvroEnvelope}s.
+ * <p>
+ * An envelope only holds tweets whose keys map to its partition, so a consumer of the envelope topic sees the tweets
+ * of a key in the order they were sent, on the same partition a single-record producer would have used.
+ */
+public final class TwitterEnvelopes {
+
+    private TwitterEnvelopes() {
+    }
+
+    /**
+     * Partition the default Kafka partitioner picks for a key serialized by the LongSerializer.
+     *
+     * @param key           record key, null keys all go to partition 0
+     * @param numPartitions partitions of the envelope topic
+     */
+    public static int partitionFor(Long key, int numPartitions) {
+        if (key == null) {
+            return 0;
+        }
+        byte[] keyBytes = ByteBuffer.allocate(Long.BYTES).putLong(key).array();
+        return Utils.toPositive(Utils.murmur2(keyBytes)) % numPartitions;
+    }
+
+    /**
+     * Hands every tweet of the envelope to the consumer with its record key, the userId, in the order they were sent.
+     *
+     * @return the number of tweets unpacked
+     */
+    public static int unpack(TwitterAvroEnvelope envelope, BiConsumer<Long, TwitterAvroModel> tweetConsumer) {
+        List<TwitterAvroModel> tweets = envelope.getTweets();
+        if (tweets == null) {
+            return 0;
+        }
+        for (TwitterAvroModel tweet : tweets) {
+            tweetConsumer.accept(tweet.getUserId(), tweet);
+        }
+        return tweets.size();
+    }
+}
@@ -0,0 +1,64 @@
+package com.microservices.demo.kafka.latency;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * Consumer-side view of the latency of one record, computed from its {@link LatencyTrace} header.
+ * Durations that span processes rely on the producer and consumer clocks being in sync.
+ */
+public final class EndToEndLatency {
+
+    private final LatencyTrace trace;
+
+    private final long consumedAtUs;
+
+    private EndToEndLatency(LatencyTrace trace, long consumedAtUs) {
+        this.trace = trace;
+        this.consumedAtUs = consumedAtUs;
+    }
+
+    /**
+     * @return the latency of the record as of now, or null when the record carries no trace header
+     */
+    public static EndToEndLatency of(ConsumerRecord<?, ?> record) {
+        return of(record, EpochMicros.now());
+    }
+
+    public static EndToEndLatency of(ConsumerRecord<?, ?> record, long consumedAtUs) {
+        LatencyTrace trace = LatencyTrace.fromHeaders(record.headers());
+        return trace == null ? null : new EndToEndLatency(trace, consumedAtUs);
+    }
+
+    public LatencyTrace getTrace() {
+        return trace;
+    }
+
+    /**
+     * Event-time latency: from tweet creation to consumption.
+     */
+    public long getEventTimeLatencyMs() {
+        return consumedAtUs / 1_000L - trace.getCreatedAtMs();
+    }
+
+    /**
+     * Processing-time latency: from source receive to consumption.
+     */
+    public long getProcessingLatencyUs() {
+        return consumedAtUs - trace.getReceivedAtUs();
+    }
+
+    public long getReceiveToTransformUs() {
+        return trace.getTransformedAtUs() - trace.getReceivedAtUs();
+    }
+
+    public long getTransformToSendUs() {
+        return trace.getSentAtUs() - trace.getTransformedAtUs();
+    }
+
+    /**
+     * From the producer send call to consumption, covering batching, the broker and the consumer poll.
+     */
+    public long getSendToConsumeUs() {
+        return consumedAtUs - trace.getSentAtUs();
+    }
+}
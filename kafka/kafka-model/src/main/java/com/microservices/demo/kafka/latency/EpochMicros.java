@@ -0,0 +1,20 @@
+package com.microservices.demo.kafka.latency;
+
+/**
+ * Wall-clock time in microseconds since the epoch.
+ * Anchored to the system clock once and advanced with System.nanoTime, so reading it does not allocate
+ * and stamps taken within one process never go backwards.
+ */
+public final class EpochMicros {
+
+    private static final long BASE_EPOCH_MICROS = System.currentTimeMillis() * 1_000L;
+
+    private static final long BASE_NANOS = System.nanoTime();
+
+    private EpochMicros() {
+    }
+
+    public static long now() {
+        return BASE_EPOCH_MICROS + (System.nanoTime() - BASE_NANOS) / 1_000L;
+    }
+}
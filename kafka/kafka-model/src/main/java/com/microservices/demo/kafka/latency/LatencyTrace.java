@@ -0,0 +1,152 @@
+package com.microservices.demo.kafka.latency;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Pipeline timestamps of one tweet, carried in a single compact binary Kafka record header.
+ * <p>
+ * Layout of the {@value #HEADER_NAME} header, version 1:
+ * <pre>
+ * byte    version
+ * long    receivedAtUs                  big-endian epoch micros, source receive
+ * varlong receivedAtMs - createdAtMs    zig-zag, tweet creation (event time)
+ * varlong transformedAtUs - receivedAtUs
+ * varlong sentAtUs - transformedAtUs
+ * </pre>
+ * A typical header is 13 to 16 bytes.
+ */
+public final class LatencyTrace {
+
+    public static final String HEADER_NAME = "e2e-latency";
+
+    private static final byte VERSION = 1;
+
+    private static final int MAX_ENCODED_SIZE = 1 + Long.BYTES + 3 * 10;
+
+    private final long createdAtMs;
+
+    private final long receivedAtUs;
+
+    private long transformedAtUs;
+
+    private long sentAtUs;
+
+    private LatencyTrace(long createdAtMs, long receivedAtUs, long transformedAtUs, long sentAtUs) {
+        this.createdAtMs = createdAtMs;
+        this.receivedAtUs = receivedAtUs;
+        this.transformedAtUs = transformedAtUs;
+        this.sentAtUs = sentAtUs;
+    }
+
+    /**
+     * Starts a trace at source receive.
+     *
+     * @param createdAtMs creation time of the tweet, epoch millis
+     */
+    public static LatencyTrace received(long createdAtMs) {
+        return received(createdAtMs, EpochMicros.now());
+    }
+
+    /**
+     * Starts a trace for a tweet whose creation time is only known after it was received.
+     *
+     * @param receivedAtUs {@link EpochMicros#now()} taken at source receive
+     */
+    public static LatencyTrace received(long createdAtMs, long receivedAtUs) {
+        return new LatencyTrace(createdAtMs, receivedAtUs, receivedAtUs, receivedAtUs);
+    }
+
+    public void markTransformed() {
+        transformedAtUs = EpochMicros.now();
+    }
+
+    public void markSent() {
+        sentAtUs = EpochMicros.now();
+    }
+
+    public long getCreatedAtMs() {
+        return createdAtMs;
+    }
+
+    public long getReceivedAtUs() {
+        return receivedAtUs;
+    }
+
+    public long getTransformedAtUs() {
+        return transformedAtUs;
+    }
+
+    public long getSentAtUs() {
+        return sentAtUs;
+    }
+
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_ENCODED_SIZE);
+        buffer.put(VERSION);
+        buffer.putLong(receivedAtUs);
+        putVarLong(buffer, zigZag(receivedAtUs / 1_000L - createdAtMs));
+        putVarLong(buffer, zigZag(transformedAtUs - receivedAtUs));
+        putVarLong(buffer, zigZag(sentAtUs - transformedAtUs));
+        byte[] encoded = new byte[buffer.position()];
+        buffer.flip().get(encoded);
+        return encoded;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a supported trace header
+     */
+    public static LatencyTrace decode(byte[] encoded) {
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported latency trace version: " + version);
+        }
+        long receivedAtUs = buffer.getLong();
+        long createdAtMs = receivedAtUs / 1_000L - unZigZag(getVarLong(buffer));
+        long transformedAtUs = receivedAtUs + unZigZag(getVarLong(buffer));
+        long sentAtUs = transformedAtUs + unZigZag(getVarLong(buffer));
+        return new LatencyTrace(createdAtMs, receivedAtUs, transformedAtUs, sentAtUs);
+    }
+
+    /**
+     * @return the trace carried by the headers, or null when the record was not stamped
+     */
+    public static LatencyTrace fromHeaders(Headers headers) {
+        Header header = headers.lastHeader(HEADER_NAME);
+        return header == null ? null : decode(header.value());
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IllegalArgumentException("Malformed latency trace varint");
+            }
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,53 @@
+package com.microservices.demo.kafka.envelope;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.apache.kafka.clients.producer.internals.BuiltInPartitioner;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwitterEnvelopesTests {
+
+    @Test
+    void partitionsKeysLikeTheDefaultPartitioner() {
+        LongSerializer serializer = new LongSerializer();
+        for (long key = -1_000L; key < 1_000L; key += 7) {
+            assertThat(TwitterEnvelopes.partitionFor(key, 12))
+                    .isEqualTo(BuiltInPartitioner.partitionForKey(serializer.serialize("topic", key), 12));
+        }
+        assertThat(TwitterEnvelopes.partitionFor(null, 12)).isZero();
+    }
+
+    @Test
+    void unpacksSerializedEnvelopeInSendOrderKeyedByUserId() throws IOException {
+        TwitterAvroEnvelope envelope = TwitterAvroEnvelope.newBuilder()
+                .setPartition(3)
+                .setOpenedAt(1_700_000_000_000L)
+                .setTweets(Arrays.asList(tweet(7L, 1L, "first"), tweet(9L, 2L, "second"), tweet(7L, 3L, "third")))
+                .build();
+
+        TwitterAvroEnvelope decoded = TwitterAvroEnvelope.fromByteBuffer(envelope.toByteBuffer());
+        List<String> unpacked = new ArrayList<>();
+        int count = TwitterEnvelopes.unpack(decoded, (key, tweet) -> unpacked.add(key + ":" + tweet.getText()));
+
+        assertThat(count).isEqualTo(3);
+        assertThat(unpacked).containsExactly("7:first", "9:second", "7:third");
+        assertThat(decoded.getPartition()).isEqualTo(3);
+    }
+
+    private static TwitterAvroModel tweet(long userId, long id, String text) {
+        return TwitterAvroModel.newBuilder()
+                .setUserId(userId)
+                .setId(id)
+                .setText(text)
+                .setCreatedAt(null)
+                .build();
+    }
+}
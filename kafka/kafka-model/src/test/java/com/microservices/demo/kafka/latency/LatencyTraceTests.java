@@ -0,0 +1,61 @@
+package com.microservices.demo.kafka.latency;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LatencyTraceTests {
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        long createdAtMs = System.currentTimeMillis() - 1_500L;
+        LatencyTrace trace = LatencyTrace.received(createdAtMs);
+        trace.markTransformed();
+        trace.markSent();
+
+        byte[] encoded = trace.encode();
+        LatencyTrace decoded = LatencyTrace.decode(encoded);
+
+        assertThat(encoded.length).isLessThanOrEqualTo(20);
+        assertThat(decoded.getCreatedAtMs()).isEqualTo(createdAtMs);
+        assertThat(decoded.getReceivedAtUs()).isEqualTo(trace.getReceivedAtUs());
+        assertThat(decoded.getTransformedAtUs()).isEqualTo(trace.getTransformedAtUs());
+        assertThat(decoded.getSentAtUs()).isEqualTo(trace.getSentAtUs());
+    }
+
+    @Test
+    void createdAfterReceiveSurvivesClockSkew() {
+        long createdAtMs = System.currentTimeMillis() + 60_000L;
+        LatencyTrace decoded = LatencyTrace.decode(LatencyTrace.received(createdAtMs).encode());
+
+        assertThat(decoded.getCreatedAtMs()).isEqualTo(createdAtMs);
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        assertThatThrownBy(() -> LatencyTrace.decode(new byte[]{9, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void endToEndLatencyFromHeaders() {
+        LatencyTrace trace = LatencyTrace.received(System.currentTimeMillis() - 200L);
+        trace.markTransformed();
+        trace.markSent();
+        ConsumerRecord<Long, String> record = new ConsumerRecord<>("twitter-topic", 0, 0L, 1L, "text");
+        record.headers().add(LatencyTrace.HEADER_NAME, trace.encode());
+
+        EndToEndLatency latency = EndToEndLatency.of(record, trace.getSentAtUs() + 3_000L);
+
+        assertThat(latency.getSendToConsumeUs()).isEqualTo(3_000L);
+        assertThat(latency.getProcessingLatencyUs()).isEqualTo(trace.getSentAtUs() + 3_000L - trace.getReceivedAtUs());
+        assertThat(latency.getEventTimeLatencyMs()).isGreaterThanOrEqualTo(200L);
+    }
+
+    @Test
+    void recordWithoutHeaderHasNoLatency() {
+        assertThat(EndToEndLatency.of(new ConsumerRecord<>("twitter-topic", 0, 0L, 1L, "text"))).isNull();
+    }
+}
@@ -2,6 +2,7 @@ package com.microservices.demo.kafka.producer.config;
 
 import com.microservices.demo.config.KafkaConfigData;
 import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.config.profile.ProducerProfiles;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.springframework.context.annotation.Bean;
@@ -38,6 +39,7 @@ public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecor
         props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, kafkaProducerConfigData.getCompressionType());
         props.put(ProducerConfig.ACKS_CONFIG, kafkaProducerConfigData.getAcks());
         props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, kafkaProducerConfigData.getRequestTimeoutMs());
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, kafkaProducerConfigData.getMaxBlockMs());
         props.put(ProducerConfig.RETRIES_CONFIG, kafkaProducerConfigData.getRetryCount());
         return props;
     }
@@ -47,6 +49,12 @@ public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecor
         return new DefaultKafkaProducerFactory<>(producerConfig());
     }
 
+    @Bean
+    public ProducerProfiles<K, V> producerProfiles(KafkaTemplate<K, V> kafkaTemplate) {
+        return new ProducerProfiles<>(kafkaTemplate, kafkaProducerConfigData, overrides ->
+                new KafkaTemplate<>(kafkaTemplate.getProducerFactory().copyWithConfigurationOverride(overrides)));
+    }
+
     public KafkaTemplate<K, V> kafkaTemplate(){
         return new KafkaTemplate<>(producerFactory());
     }
@@ -0,0 +1,7 @@
+package com.microservices.demo.kafka.producer.config.circuit;
+
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
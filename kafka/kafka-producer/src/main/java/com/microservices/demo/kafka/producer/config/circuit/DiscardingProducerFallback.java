@@ -0,0 +1,38 @@
+package com.microservices.demo.kafka.producer.config.circuit;
+
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.common.logging.SampledLogSite;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default fallback: drops the record and counts it in kafka.producer.fallback.discarded.
+ * Declare a {@code @Primary} {@link IProducerFallback} bean to divert records elsewhere.
+ */
+@Component
+public class DiscardingProducerFallback implements IProducerFallback {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiscardingProducerFallback.class);
+
+    private final Counter discarded;
+
+    private final SampledLogSite fallbackLog;
+
+    public DiscardingProducerFallback(MeterRegistry meterRegistry, HotPathLogging hotPathLogging) {
+        this.discarded = Counter.builder("kafka.producer.fallback.discarded").register(meterRegistry);
+        this.fallbackLog = hotPathLogging.site("kafka-fallback", LOG);
+    }
+
+    @Override
+    public void divert(ProducerRecord<?, ?> producerRecord) {
+        discarded.increment();
+        fallbackLog.info("Producer circuit is open, discarding record for topic: {} with key: {}",
+                producerRecord.topic(),
+                producerRecord.key()
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package com.microservices.demo.kafka.producer.config.circuit;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+
+/**
+ * Receives the records rejected while the producer circuit is open and
+ * circuit-breaker-config.open-state-action is FALLBACK. Called on the sending thread, so it must not block.
+ * The record value may be reused by the caller once divert returns; copy it to keep it.
+ */
+public interface IProducerFallback {
+    void divert(ProducerRecord<?, ?> producerRecord);
+}
@@ -0,0 +1,268 @@
+package com.microservices.demo.kafka.producer.config.circuit;
+
+import com.microservices.demo.config.CircuitBreakerConfigData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for the producer path.
+ * <p>
+ * CLOSED: every send is permitted; the outcomes of the last sliding-window-size sends are kept, and the circuit
+ * opens once at least minimum-calls are recorded and either the failure rate or the slow-call rate reaches its
+ * threshold. A send is slow when its ack takes longer than slow-call-duration-ms.
+ * <p>
+ * OPEN: sends are rejected without touching the cluster for open-state-duration-ms.
+ * <p>
+ * HALF_OPEN: up to half-open-probe-calls sends are let through; the circuit closes when all of them succeed
+ * and opens again on the first failed or slow probe.
+ * <p>
+ * Senders that must not lose records wait for permission with {@link #awaitPermission}, timed as
+ * kafka.producer.circuit.blocked. Permission checks in the closed state are a single volatile read. Outcomes are recorded under the breaker
+ * lock, which is only contended by the producer's ack callbacks.
+ */
+@Component
+public class ProducerCircuitBreaker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProducerCircuitBreaker.class);
+
+    private static final byte SUCCESS = 0;
+
+    private static final byte FAILURE = 1;
+
+    private static final byte SLOW = 2;
+
+    private static final String[] OUTCOMES = {"success", "failure", "slow", "rejected"};
+
+    private static final int REJECTED = 3;
+
+    private static final long BLOCK_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final CircuitBreakerConfigData circuitBreakerConfigData;
+
+    private final LongSupplier nanoClock;
+
+    private final long slowCallNanos;
+
+    private final long openStateNanos;
+
+    private final byte[] window;
+
+    private final Counter[][] calls;
+
+    private final Counter[] transitions;
+
+    private final Timer blocked;
+
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+
+    private volatile CircuitState state = CircuitState.CLOSED;
+
+    private volatile long openUntilNanos;
+
+    private int windowNext;
+
+    private int windowSize;
+
+    private int windowFailures;
+
+    private int windowSlow;
+
+    private int halfOpenSuccesses;
+
+    @Autowired
+    public ProducerCircuitBreaker(CircuitBreakerConfigData circuitBreakerConfigData, MeterRegistry meterRegistry) {
+        this(circuitBreakerConfigData, meterRegistry, System::nanoTime);
+    }
+
+    ProducerCircuitBreaker(CircuitBreakerConfigData circuitBreakerConfigData, MeterRegistry meterRegistry,
+                           LongSupplier nanoClock) {
+        this.circuitBreakerConfigData = circuitBreakerConfigData;
+        this.nanoClock = nanoClock;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(circuitBreakerConfigData.getSlowCallDurationMs());
+        this.openStateNanos = TimeUnit.MILLISECONDS.toNanos(circuitBreakerConfigData.getOpenStateDurationMs());
+        this.window = new byte[circuitBreakerConfigData.getSlidingWindowSize()];
+
+        CircuitState[] states = CircuitState.values();
+        this.calls = new Counter[states.length][OUTCOMES.length];
+        this.transitions = new Counter[states.length];
+        for (CircuitState circuitState : states) {
+            String stateTag = circuitState.name().toLowerCase();
+            for (int outcome = 0; outcome < OUTCOMES.length; outcome++) {
+                calls[circuitState.ordinal()][outcome] = Counter.builder("kafka.producer.circuit.calls")
+                        .tag("state", stateTag)
+                        .tag("outcome", OUTCOMES[outcome])
+                        .register(meterRegistry);
+            }
+            transitions[circuitState.ordinal()] = Counter.builder("kafka.producer.circuit.transitions")
+                    .tag("to", stateTag)
+                    .register(meterRegistry);
+        }
+        this.blocked = Timer.builder("kafka.producer.circuit.blocked").register(meterRegistry);
+        Gauge.builder("kafka.producer.circuit.state", this, breaker -> breaker.state.ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether a send may go to the cluster; a rejected send must not report an outcome
+     */
+    public boolean tryAcquirePermission() {
+        return acquire(true);
+    }
+
+    /**
+     * Waits on the calling thread, while the circuit is open or its probes are taken, until a send may go to the
+     * cluster. The wait is not counted as a rejection.
+     *
+     * @return false when the thread was interrupted while waiting; its interrupt flag is set again
+     */
+    public boolean awaitPermission() {
+        if (acquire(false)) {
+            return true;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            while (!acquire(false)) {
+                LockSupport.parkNanos(BLOCK_POLL_NANOS);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            blocked.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean acquire(boolean countRejection) {
+        if (!circuitBreakerConfigData.getEnabled()) {
+            return true;
+        }
+        CircuitState current = state;
+        if (current == CircuitState.CLOSED) {
+            return true;
+        }
+        if (current == CircuitState.OPEN) {
+            if (nanoClock.getAsLong() - openUntilNanos < 0) {
+                if (countRejection) {
+                    calls[CircuitState.OPEN.ordinal()][REJECTED].increment();
+                }
+                return false;
+            }
+            halfOpen();
+        }
+        if (halfOpenPermits.getAndDecrement() > 0) {
+            return true;
+        }
+        if (countRejection) {
+            calls[state.ordinal()][REJECTED].increment();
+        }
+        return false;
+    }
+
+    /**
+     * Records the outcome of a permitted send.
+     *
+     * @param durationNanos time from the send call to its completion
+     */
+    public void onComplete(long durationNanos, boolean success) {
+        if (!circuitBreakerConfigData.getEnabled()) {
+            return;
+        }
+        byte outcome = !success ? FAILURE : durationNanos > slowCallNanos ? SLOW : SUCCESS;
+        synchronized (this) {
+            CircuitState current = state;
+            calls[current.ordinal()][outcome].increment();
+            switch (current) {
+                case CLOSED -> recordClosed(outcome);
+                case HALF_OPEN -> recordHalfOpen(outcome);
+                // Sends permitted before the circuit opened carry no information about the open period
+                case OPEN -> { }
+            }
+        }
+    }
+
+    public CircuitState getState() {
+        return state;
+    }
+
+    private void recordClosed(byte outcome) {
+        if (windowSize == window.length) {
+            byte evicted = window[windowNext];
+            if (evicted == FAILURE) {
+                windowFailures--;
+            } else if (evicted == SLOW) {
+                windowSlow--;
+            }
+        } else {
+            windowSize++;
+        }
+        window[windowNext] = outcome;
+        windowNext = (windowNext + 1) % window.length;
+        if (outcome == FAILURE) {
+            windowFailures++;
+        } else if (outcome == SLOW) {
+            windowSlow++;
+        }
+
+        if (windowSize < circuitBreakerConfigData.getMinimumCalls()) {
+            return;
+        }
+        int failureRate = windowFailures * 100 / windowSize;
+        int slowCallRate = windowSlow * 100 / windowSize;
+        if (failureRate >= circuitBreakerConfigData.getFailureRateThresholdPercent()
+                || slowCallRate >= circuitBreakerConfigData.getSlowCallRateThresholdPercent()) {
+            open(String.format("failure rate %d%%, slow call rate %d%% over the last %d sends",
+                    failureRate, slowCallRate, windowSize));
+        }
+    }
+
+    private void recordHalfOpen(byte outcome) {
+        if (outcome != SUCCESS) {
+            open(outcome == FAILURE ? "probe send failed" : "probe send was slow");
+        } else if (++halfOpenSuccesses >= circuitBreakerConfigData.getHalfOpenProbeCalls()) {
+            close();
+        }
+    }
+
+    private void open(String reason) {
+        openUntilNanos = nanoClock.getAsLong() + openStateNanos;
+        transitionTo(CircuitState.OPEN);
+        LOG.warn("Producer circuit opened for {} ms: {}", circuitBreakerConfigData.getOpenStateDurationMs(), reason);
+    }
+
+    private synchronized void halfOpen() {
+        if (state == CircuitState.OPEN) {
+            halfOpenSuccesses = 0;
+            halfOpenPermits.set(circuitBreakerConfigData.getHalfOpenProbeCalls());
+            transitionTo(CircuitState.HALF_OPEN);
+            LOG.info("Producer circuit half-open, probing with {} send(s)", circuitBreakerConfigData.getHalfOpenProbeCalls());
+        }
+    }
+
+    private void close() {
+        windowNext = 0;
+        windowSize = 0;
+        windowFailures = 0;
+        windowSlow = 0;
+        transitionTo(CircuitState.CLOSED);
+        LOG.info("Producer circuit closed");
+    }
+
+    private void transitionTo(CircuitState target) {
+        state = target;
+        transitions[target.ordinal()].increment();
+    }
+}
@@ -0,0 +1,415 @@
+package com.microservices.demo.kafka.producer.config.envelope;
+
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.common.logging.SampledLogSite;
+import com.microservices.demo.config.EnvelopeConfigData;
+import com.microservices.demo.config.GracefulShutdownConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.envelope.TwitterEnvelopes;
+import com.microservices.demo.kafka.latency.LatencyTrace;
+import com.microservices.demo.kafka.producer.config.latency.PipelineLatencyRecorder;
+import com.microservices.demo.kafka.producer.config.service.DrainResult;
+import com.microservices.demo.kafka.producer.config.service.IKafkaProducer;
+import com.microservices.demo.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Packs the tweets for envelope-config.source-topic into {@link TwitterAvroEnvelope}s on envelope-config.topic-name,
+ * so the Kafka record overhead, the schema-ID prefix and the consumer dispatch are paid once per envelope instead of
+ * once per tweet. Records for every other topic go out one by one through the {@link TwitterKafkaProducer}.
+ * <p>
+ * There is one open envelope per partition of the envelope topic, and a tweet joins the one its key maps to, see
+ * {@link TwitterEnvelopes#partitionFor}. An envelope is sent when it reaches max-records or max-bytes on the sending
+ * thread, or linger-ms after its first tweet from the linger thread.
+ * <p>
+ * Envelopes are sent with a producer of their own, bypassing the circuit breaker and the send retry topics; a failed
+ * envelope is counted in kafka.producer.envelope.failed with all its tweets. Latency traces are not sent as headers,
+ * they are recorded for every tweet when its envelope is acknowledged.
+ */
+@Primary
+@Service
+@ConditionalOnProperty(name = "envelope-config.enabled", havingValue = "true")
+public class EnvelopeKafkaProducer implements IKafkaProducer<Long, TwitterAvroModel> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EnvelopeKafkaProducer.class);
+
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /**
+     * Ids, timestamps, union branches and array lengths of a tweet, on top of its strings.
+     */
+    private static final int FIXED_TWEET_BYTES = 32;
+
+    private final TwitterKafkaProducer recordProducer;
+
+    private final KafkaTemplate<Long, TwitterAvroEnvelope> envelopeTemplate;
+
+    private final PipelineLatencyRecorder pipelineLatencyRecorder;
+
+    private final GracefulShutdownConfigData gracefulShutdownConfigData;
+
+    private final String sourceTopic;
+
+    private final String topicName;
+
+    private final int maxRecords;
+
+    private final int maxBytes;
+
+    private final long lingerNanos;
+
+    /**
+     * Tweets in envelopes handed to the template whose ack or failure has not been seen yet.
+     */
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private final ScheduledExecutorService lingerExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "envelope-linger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final DistributionSummary envelopeSize;
+
+    private final Counter sizeFlushes;
+
+    private final Counter lingerFlushes;
+
+    private final Counter drainFlushes;
+
+    private final Counter failedTweets;
+
+    private final SampledLogSite envelopeFailedLog;
+
+    private volatile Buffer[] buffers;
+
+    @Autowired
+    public EnvelopeKafkaProducer(EnvelopeConfigData envelopeConfigData,
+                                 TwitterKafkaProducer recordProducer,
+                                 ProducerFactory<Long, TwitterAvroModel> producerFactory,
+                                 PipelineLatencyRecorder pipelineLatencyRecorder,
+                                 GracefulShutdownConfigData gracefulShutdownConfigData,
+                                 HotPathLogging hotPathLogging,
+                                 MeterRegistry meterRegistry) {
+        this(envelopeConfigData, recordProducer, envelopeTemplate(envelopeConfigData, producerFactory),
+                pipelineLatencyRecorder, gracefulShutdownConfigData, hotPathLogging, meterRegistry);
+    }
+
+    EnvelopeKafkaProducer(EnvelopeConfigData envelopeConfigData,
+                          TwitterKafkaProducer recordProducer,
+                          KafkaTemplate<Long, TwitterAvroEnvelope> envelopeTemplate,
+                          PipelineLatencyRecorder pipelineLatencyRecorder,
+                          GracefulShutdownConfigData gracefulShutdownConfigData,
+                          HotPathLogging hotPathLogging,
+                          MeterRegistry meterRegistry) {
+        this.recordProducer = recordProducer;
+        this.envelopeTemplate = envelopeTemplate;
+        this.pipelineLatencyRecorder = pipelineLatencyRecorder;
+        this.gracefulShutdownConfigData = gracefulShutdownConfigData;
+        this.sourceTopic = envelopeConfigData.getSourceTopic();
+        this.topicName = envelopeConfigData.getTopicName();
+        this.maxRecords = envelopeConfigData.getMaxRecords();
+        this.maxBytes = envelopeConfigData.getMaxBytes();
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(envelopeConfigData.getLingerMs());
+        this.envelopeSize = DistributionSummary.builder("kafka.producer.envelope.size")
+                .description("Tweets per envelope sent")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.sizeFlushes = flushCounter("size", meterRegistry);
+        this.lingerFlushes = flushCounter("linger", meterRegistry);
+        this.drainFlushes = flushCounter("drain", meterRegistry);
+        this.failedTweets = Counter.builder("kafka.producer.envelope.failed")
+                .description("Tweets lost with envelopes that could not be sent")
+                .register(meterRegistry);
+        this.envelopeFailedLog = hotPathLogging.site("kafka-envelope-failed", LOG);
+        long checkIntervalMs = Math.max(1, envelopeConfigData.getLingerMs() / 4);
+        lingerExecutor.scheduleWithFixedDelay(this::flushLingering, checkIntervalMs, checkIntervalMs,
+                TimeUnit.MILLISECONDS);
+        LOG.info("Packing records for {} into envelopes on {} of up to {} tweets, {} bytes or {} ms; priority lanes"
+                + " are not used in envelope mode", sourceTopic, topicName, maxRecords, maxBytes,
+                envelopeConfigData.getLingerMs());
+    }
+
+    /**
+     * Adds a copy of the message to the open envelope of its partition, since callers may reuse theirs once send
+     * returns, and sends that envelope right away if it is full.
+     */
+    @Override
+    public void send(String topicName, Long key, TwitterAvroModel message, LatencyTrace latencyTrace) {
+        if (!sourceTopic.equals(topicName)) {
+            recordProducer.send(topicName, key, message, latencyTrace);
+            return;
+        }
+        if (latencyTrace != null) {
+            latencyTrace.markSent();
+        }
+        Buffer[] current = buffers();
+        Buffer buffer = current[TwitterEnvelopes.partitionFor(key, current.length)];
+        TwitterAvroModel copy = TwitterAvroModel.newBuilder(message).build();
+        Envelope full = null;
+        synchronized (buffer) {
+            buffer.add(copy, estimatedSize(copy), latencyTrace);
+            if (buffer.tweets.size() >= maxRecords || buffer.bytes >= maxBytes) {
+                full = buffer.take();
+            }
+        }
+        if (full != null) {
+            sizeFlushes.increment();
+            publish(full);
+        }
+    }
+
+    /**
+     * Sends every open envelope, then waits for their acks and drains the record producer in the remaining time.
+     * Counts are in tweets.
+     */
+    @Override
+    public DrainResult drain(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        flushAll();
+        long pending = inFlight.get();
+        long drained = 0;
+        long abandoned = 0;
+        if (pending > 0) {
+            // flush() blocks until every buffered envelope completes, which may outlive the deadline
+            CompletableFuture.runAsync(envelopeTemplate::flush);
+            while (inFlight.get() > 0 && System.nanoTime() - deadline < 0) {
+                LockSupport.parkNanos(DRAIN_POLL_NANOS);
+            }
+            abandoned = Math.min(inFlight.get(), pending);
+            drained = pending - abandoned;
+        }
+        DrainResult recordResult = recordProducer.drain(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+        return new DrainResult(drained + recordResult.drained(), abandoned + recordResult.abandoned());
+    }
+
+    /**
+     * Envelopes are sent by a producer of their own; tune it through envelope-config instead.
+     */
+    @Override
+    public boolean reconfigure(Map<String, Object> configOverrides, Duration maxPause) {
+        LOG.warn("Producer reconfiguration is not supported in envelope mode, ignored: {}", configOverrides);
+        return false;
+    }
+
+    @PreDestroy
+    public void close() {
+        lingerExecutor.shutdownNow();
+        DrainResult drainResult = drain(Duration.ofMillis(gracefulShutdownConfigData.getDeadlineMs()));
+        LOG.info("Drained envelope producer: {} tweet(s) acknowledged, {} abandoned",
+                drainResult.drained(), drainResult.abandoned());
+        envelopeTemplate.destroy();
+    }
+
+    /**
+     * Sends the envelopes whose first tweet was added linger-ms ago or earlier.
+     */
+    void flushLingering() {
+        Buffer[] current = buffers;
+        if (current == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Buffer buffer : current) {
+            Envelope expired = null;
+            synchronized (buffer) {
+                if (!buffer.tweets.isEmpty() && now - buffer.openedAtNanos >= lingerNanos) {
+                    expired = buffer.take();
+                }
+            }
+            if (expired != null) {
+                lingerFlushes.increment();
+                publish(expired);
+            }
+        }
+    }
+
+    private void flushAll() {
+        Buffer[] current = buffers;
+        if (current == null) {
+            return;
+        }
+        for (Buffer buffer : current) {
+            Envelope open;
+            synchronized (buffer) {
+                open = buffer.tweets.isEmpty() ? null : buffer.take();
+            }
+            if (open != null) {
+                drainFlushes.increment();
+                publish(open);
+            }
+        }
+    }
+
+    /**
+     * Failures are counted and logged rather than thrown, as envelopes are also sent from the linger thread and the
+     * tweets of the sending thread are only part of one.
+     */
+    private void publish(Envelope envelope) {
+        int count = envelope.tweets.size();
+        ProducerRecord<Long, TwitterAvroEnvelope> producerRecord = new ProducerRecord<>(topicName,
+                envelope.partition, null, TwitterAvroEnvelope.newBuilder()
+                .setPartition(envelope.partition)
+                .setOpenedAt(envelope.openedAtMs)
+                .setTweets(envelope.tweets)
+                .build());
+        envelopeSize.record(count);
+        inFlight.addAndGet(count);
+        CompletableFuture<SendResult<Long, TwitterAvroEnvelope>> future;
+        try {
+            future = envelopeTemplate.send(producerRecord);
+        } catch (RuntimeException e) {
+            inFlight.addAndGet(-count);
+            onFailure(envelope, e);
+            return;
+        }
+        future.whenComplete((result, throwable) -> {
+            inFlight.addAndGet(-count);
+            if (throwable != null) {
+                onFailure(envelope, throwable);
+                return;
+            }
+            for (LatencyTrace latencyTrace : envelope.latencyTraces) {
+                pipelineLatencyRecorder.recordAck(latencyTrace);
+            }
+        });
+    }
+
+    private void onFailure(Envelope envelope, Throwable throwable) {
+        failedTweets.increment(envelope.tweets.size());
+        envelopeFailedLog.info("Could not send envelope of {} tweet(s) to {} partition {}: {}",
+                envelope.tweets.size(), topicName, envelope.partition, throwable.getMessage());
+    }
+
+    /**
+     * One buffer per partition of the envelope topic; the partition count is looked up on the first send.
+     */
+    private Buffer[] buffers() {
+        Buffer[] current = buffers;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (buffers == null) {
+                int partitions = envelopeTemplate.partitionsFor(topicName).size();
+                Buffer[] created = new Buffer[partitions];
+                for (int i = 0; i < partitions; i++) {
+                    created[i] = new Buffer(i, maxRecords);
+                }
+                buffers = created;
+            }
+            return buffers;
+        }
+    }
+
+    static int estimatedSize(TwitterAvroModel tweet) {
+        int size = FIXED_TWEET_BYTES + length(tweet.getText()) + length(tweet.getCreatedAt())
+                + length(tweet.getFollowerTier()) + length(tweet.getAccountClass());
+        if (tweet.getTokens() != null) {
+            for (String token : tweet.getTokens()) {
+                size += token.length() + 1;
+            }
+        }
+        if (tweet.getHashtags() != null) {
+            for (String hashtag : tweet.getHashtags()) {
+                size += hashtag.length() + 1;
+            }
+        }
+        return size;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static Counter flushCounter(String trigger, MeterRegistry meterRegistry) {
+        return Counter.builder("kafka.producer.envelope.flushes")
+                .description("Envelopes sent, by what triggered the send")
+                .tag("trigger", trigger)
+                .register(meterRegistry);
+    }
+
+    private static KafkaTemplate<Long, TwitterAvroEnvelope> envelopeTemplate(
+            EnvelopeConfigData envelopeConfigData, ProducerFactory<Long, TwitterAvroModel> producerFactory) {
+        Map<String, Object> props = new HashMap<>(producerFactory.getConfigurationProperties());
+        if (envelopeConfigData.getCompressionType() != null) {
+            props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, envelopeConfigData.getCompressionType());
+        }
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    private record Envelope(int partition, long openedAtMs, List<TwitterAvroModel> tweets,
+                            List<LatencyTrace> latencyTraces) {
+    }
+
+    private static final class Buffer {
+
+        private final int partition;
+
+        private final int capacity;
+
+        private List<TwitterAvroModel> tweets;
+
+        private List<LatencyTrace> latencyTraces = new ArrayList<>();
+
+        private int bytes;
+
+        private long openedAtNanos;
+
+        private long openedAtMs;
+
+        private Buffer(int partition, int capacity) {
+            this.partition = partition;
+            this.capacity = capacity;
+            this.tweets = new ArrayList<>(capacity);
+        }
+
+        private void add(TwitterAvroModel tweet, int size, LatencyTrace latencyTrace) {
+            if (tweets.isEmpty()) {
+                openedAtNanos = System.nanoTime();
+                openedAtMs = System.currentTimeMillis();
+            }
+            tweets.add(tweet);
+            bytes += size;
+            if (latencyTrace != null) {
+                latencyTraces.add(latencyTrace);
+            }
+        }
+
+        private Envelope take() {
+            Envelope envelope = new Envelope(partition, openedAtMs, tweets, latencyTraces);
+            tweets = new ArrayList<>(capacity);
+            latencyTraces = new ArrayList<>();
+            bytes = 0;
+            return envelope;
+        }
+    }
+}
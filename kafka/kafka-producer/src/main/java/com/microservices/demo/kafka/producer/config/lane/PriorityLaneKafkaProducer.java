@@ -0,0 +1,320 @@
+package com.microservices.demo.kafka.producer.config.lane;
+
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.common.logging.SampledLogSite;
+import com.microservices.demo.config.CircuitBreakerConfigData;
+import com.microservices.demo.config.GracefulShutdownConfigData;
+import com.microservices.demo.config.LatencyTrackingConfigData;
+import com.microservices.demo.config.PriorityLaneConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.latency.LatencyTrace;
+import com.microservices.demo.kafka.producer.config.circuit.IProducerFallback;
+import com.microservices.demo.kafka.producer.config.circuit.ProducerCircuitBreaker;
+import com.microservices.demo.kafka.producer.config.latency.PipelineLatencyRecorder;
+import com.microservices.demo.kafka.producer.config.profile.ProducerProfiles;
+import com.microservices.demo.kafka.producer.config.retry.FailedSendRouter;
+import com.microservices.demo.kafka.producer.config.service.DrainResult;
+import com.microservices.demo.kafka.producer.config.service.IKafkaProducer;
+import com.microservices.demo.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Routes tweets into priority lanes, each with its own bounded queue and the producer of its kafka-producer-config
+ * profile, so bulk traffic cannot hold latency-sensitive records behind its batches or acks.
+ * <p>
+ * The lane is picked on the sending thread from the keywords in the tweet text, matched ignoring case as whole words,
+ * so Kafka matches #kafka but not Kafkaesque. Every lane has a dispatcher thread of
+ * its own that sends its queue in order, so a lane producer blocking for up to max.block.ms, waiting for metadata or
+ * buffer space, holds back no other lane. When a lane queue is full the send waits for room with overflow-action
+ * block, and drops the record with drop. On close the dispatchers get until the graceful-shutdown-config deadline to
+ * hand their queues to the lane producers; records still queued then are abandoned and logged.
+ * <p>
+ * Per lane, {@value PipelineLatencyRecorder#LANE_LATENCY} times the pipeline stages, tweet.lane.queue.wait the time
+ * spent queued, tweet.lane.queue.size gauges the backlog and tweet.lane.dropped counts records dropped on overflow.
+ * <p>
+ * Not created in envelope mode, where records are packed per partition instead of queued per lane.
+ */
+@Primary
+@Service
+@ConditionalOnExpression("'${priority-lane-config.enabled:false}' == 'true' and '${envelope-config.enabled:false}' != 'true'")
+public class PriorityLaneKafkaProducer implements IKafkaProducer<Long, TwitterAvroModel> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriorityLaneKafkaProducer.class);
+
+    private static final long DISPATCH_POLL_MS = 100;
+
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final List<Lane> lanes = new ArrayList<>();
+
+    private final Lane defaultLane;
+
+    private final SampledLogSite dispatchFailedLog;
+
+    private final SampledLogSite droppedLog;
+
+    private final long closeTimeoutMs;
+
+    private volatile boolean running = true;
+
+    public PriorityLaneKafkaProducer(PriorityLaneConfigData priorityLaneConfigData,
+                                     ProducerProfiles<Long, TwitterAvroModel> producerProfiles,
+                                     LatencyTrackingConfigData latencyTrackingConfigData,
+                                     PipelineLatencyRecorder pipelineLatencyRecorder,
+                                     GracefulShutdownConfigData gracefulShutdownConfigData,
+                                     ProducerCircuitBreaker producerCircuitBreaker,
+                                     CircuitBreakerConfigData circuitBreakerConfigData,
+                                     IProducerFallback producerFallback,
+                                     FailedSendRouter failedSendRouter,
+                                     HotPathLogging hotPathLogging,
+                                     MeterRegistry meterRegistry) {
+        priorityLaneConfigData.getLanes().forEach((name, laneConfig) -> {
+            TwitterKafkaProducer producer = new TwitterKafkaProducer(
+                    ProducerProfiles.single(producerProfiles.forProfile(laneConfig.getProducerProfile())),
+                    PipelineLatencyRecorder.forLane(name, pipelineLatencyRecorder, latencyTrackingConfigData, meterRegistry),
+                    gracefulShutdownConfigData,
+                    producerCircuitBreaker,
+                    circuitBreakerConfigData,
+                    producerFallback,
+                    failedSendRouter,
+                    hotPathLogging);
+            lanes.add(new Lane(name, laneConfig, producer, meterRegistry));
+        });
+        this.defaultLane = lanes.stream()
+                .filter(lane -> lane.name.equals(priorityLaneConfigData.getDefaultLane()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("priority-lane-config.default-lane "
+                        + priorityLaneConfigData.getDefaultLane() + " is not one of the lanes "
+                        + priorityLaneConfigData.getLanes().keySet()));
+        this.dispatchFailedLog = hotPathLogging.site("kafka-lane-dispatch-failed", LOG);
+        this.droppedLog = hotPathLogging.site("kafka-lane-dropped", LOG);
+        this.closeTimeoutMs = gracefulShutdownConfigData.getDeadlineMs();
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Lane lane : lanes) {
+            lane.dispatcher.start();
+            LOG.info("Priority lane {}: keywords {}, on overflow {}", lane.name, lane.keywords, lane.overflowAction);
+        }
+    }
+
+    /**
+     * Queues a copy of the message, since callers may reuse theirs once send returns; after close the message is sent
+     * directly with the lane producer.
+     */
+    @Override
+    public void send(String topicName, Long key, TwitterAvroModel message, LatencyTrace latencyTrace) {
+        Lane lane = laneFor(message.getText());
+        if (!running) {
+            lane.producer.send(topicName, key, message, latencyTrace);
+            return;
+        }
+        LaneRecord record = new LaneRecord(topicName, key, TwitterAvroModel.newBuilder(message).build(), latencyTrace,
+                System.nanoTime());
+        // Counted before it is queued, so drain never sees a record neither queued nor handed to the lane producer
+        lane.pending.incrementAndGet();
+        if (lane.overflowAction == PriorityLaneConfigData.OverflowAction.DROP) {
+            if (!lane.queue.offer(record)) {
+                lane.pending.decrementAndGet();
+                lane.dropped.increment();
+                droppedLog.info("Priority lane {} is full, dropped record with key {}", lane.name, key);
+            }
+            return;
+        }
+        try {
+            lane.queue.put(record);
+        } catch (InterruptedException e) {
+            lane.pending.decrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing record for priority lane " + lane.name, e);
+        }
+    }
+
+    /**
+     * Waits for the dispatchers to hand every queued record to the lane producers, then drains those in the remaining
+     * time.
+     */
+    @Override
+    public DrainResult drain(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pending() > 0 && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(DRAIN_POLL_NANOS);
+        }
+        long drained = 0;
+        long abandoned = pending();
+        for (Lane lane : lanes) {
+            DrainResult laneResult = lane.producer.drain(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+            drained += laneResult.drained();
+            abandoned += laneResult.abandoned();
+        }
+        return new DrainResult(drained, abandoned);
+    }
+
+    /**
+     * Lanes send with their profile producers; change those under kafka-producer-config.profiles instead.
+     */
+    @Override
+    public boolean reconfigure(Map<String, Object> configOverrides, Duration maxPause) {
+        LOG.warn("Producer reconfiguration is not supported with priority lanes, ignored: {}", configOverrides);
+        return false;
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(closeTimeoutMs);
+        try {
+            for (Lane lane : lanes) {
+                lane.dispatcher.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int abandoned = 0;
+        for (Lane lane : lanes) {
+            List<LaneRecord> left = new ArrayList<>();
+            lane.queue.drainTo(left);
+            lane.pending.addAndGet(-left.size());
+            abandoned += left.size();
+        }
+        if (abandoned > 0) {
+            LOG.warn("Closed priority lanes with {} queued record(s) abandoned after {} ms", abandoned, closeTimeoutMs);
+        } else {
+            LOG.info("Closed priority lanes with every queued record handed to the lane producers");
+        }
+        lanes.forEach(lane -> lane.producer.close());
+    }
+
+    private Lane laneFor(String text) {
+        if (text != null) {
+            for (Lane lane : lanes) {
+                for (String keyword : lane.keywords) {
+                    if (containsWordIgnoreCase(text, keyword)) {
+                        return lane;
+                    }
+                }
+            }
+        }
+        return defaultLane;
+    }
+
+    String laneNameFor(String text) {
+        return laneFor(text).name;
+    }
+
+    private long pending() {
+        long pending = 0;
+        for (Lane lane : lanes) {
+            pending += lane.pending.get();
+        }
+        return pending;
+    }
+
+    private void dispatch(Lane lane) {
+        while (running || !lane.queue.isEmpty()) {
+            LaneRecord record;
+            try {
+                record = lane.queue.poll(DISPATCH_POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (record == null) {
+                continue;
+            }
+            lane.queueWait.record(System.nanoTime() - record.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+            try {
+                lane.producer.send(record.topicName(), record.key(), record.message(), record.latencyTrace());
+            } catch (RuntimeException e) {
+                dispatchFailedLog.info("Priority lane {} could not send record with key {}: {}",
+                        lane.name, record.key(), e.getMessage());
+            } finally {
+                lane.pending.decrementAndGet();
+            }
+        }
+    }
+
+    private static boolean containsWordIgnoreCase(String text, String keyword) {
+        int length = keyword.length();
+        int last = text.length() - length;
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, keyword, 0, length)
+                    && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)))
+                    && (i == last || !Character.isLetterOrDigit(text.charAt(i + length)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record LaneRecord(String topicName, Long key, TwitterAvroModel message, LatencyTrace latencyTrace,
+                              long enqueuedAtNanos) {
+    }
+
+    private final class Lane {
+
+        private final String name;
+
+        private final List<String> keywords;
+
+        private final PriorityLaneConfigData.OverflowAction overflowAction;
+
+        private final BlockingQueue<LaneRecord> queue;
+
+        /**
+         * Records queued or being handed to the producer by the dispatcher.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final TwitterKafkaProducer producer;
+
+        private final Thread dispatcher;
+
+        private final Timer queueWait;
+
+        private final Counter dropped;
+
+        private Lane(String name, PriorityLaneConfigData.Lane config, TwitterKafkaProducer producer,
+                     MeterRegistry meterRegistry) {
+            this.name = name;
+            this.keywords = List.copyOf(config.getKeywords());
+            this.overflowAction = config.getOverflowAction() == null ? PriorityLaneConfigData.OverflowAction.BLOCK
+                    : config.getOverflowAction();
+            this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+            this.producer = producer;
+            this.dispatcher = new Thread(() -> dispatch(this), "priority-lane-dispatcher-" + name);
+            this.dispatcher.setDaemon(true);
+            this.dropped = Counter.builder("tweet.lane.dropped")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            this.queueWait = Timer.builder("tweet.lane.queue.wait")
+                    .tag("lane", name)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            Gauge.builder("tweet.lane.queue.size", queue, BlockingQueue::size)
+                    .tag("lane", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.microservices.demo.kafka.producer.config.latency;
+
+import com.microservices.demo.config.LatencyTrackingConfigData;
+import com.microservices.demo.kafka.latency.EpochMicros;
+import com.microservices.demo.kafka.latency.LatencyTrace;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records per-stage latency histograms for acknowledged records from their {@link LatencyTrace}.
+ * <p>
+ * Processing-time stages go to {@value #PIPELINE_LATENCY}, event-time (tweet creation to broker ack)
+ * to {@value #EVENT_LATENCY}. Both publish the configured percentiles and SLO buckets, so they can be
+ * scraped through the Prometheus endpoint.
+ * <p>
+ * A recorder {@link #forLane for a priority lane} records under {@value #LANE_LATENCY} and
+ * {@value #LANE_EVENT_LATENCY} with a lane tag, and passes every ack on to the pipeline-wide recorder.
+ */
+@Component
+public class PipelineLatencyRecorder {
+
+    public static final String PIPELINE_LATENCY = "tweet.pipeline.latency";
+
+    public static final String EVENT_LATENCY = "tweet.event.latency";
+
+    public static final String LANE_LATENCY = "tweet.lane.latency";
+
+    public static final String LANE_EVENT_LATENCY = "tweet.lane.event.latency";
+
+    public static final String RECEIVE_TO_TRANSFORM = "receive-to-transform";
+
+    public static final String TRANSFORM_TO_SEND = "transform-to-send";
+
+    public static final String SEND_TO_ACK = "send-to-ack";
+
+    public static final String RECEIVE_TO_ACK = "receive-to-ack";
+
+    public static final String CREATED_TO_ACK = "created-to-ack";
+
+    private final Timer receiveToTransform;
+
+    private final Timer transformToSend;
+
+    private final Timer sendToAck;
+
+    private final Timer receiveToAck;
+
+    private final Timer createdToAck;
+
+    private final PipelineLatencyRecorder parent;
+
+    @Autowired
+    public PipelineLatencyRecorder(LatencyTrackingConfigData latencyTrackingConfigData, MeterRegistry meterRegistry) {
+        this(PIPELINE_LATENCY, EVENT_LATENCY, Tags.empty(), null, latencyTrackingConfigData, meterRegistry);
+    }
+
+    private PipelineLatencyRecorder(String pipelineName, String eventName, Tags tags, PipelineLatencyRecorder parent,
+                                    LatencyTrackingConfigData latencyTrackingConfigData, MeterRegistry meterRegistry) {
+        this.receiveToTransform = timer(pipelineName, RECEIVE_TO_TRANSFORM, tags, latencyTrackingConfigData, meterRegistry);
+        this.transformToSend = timer(pipelineName, TRANSFORM_TO_SEND, tags, latencyTrackingConfigData, meterRegistry);
+        this.sendToAck = timer(pipelineName, SEND_TO_ACK, tags, latencyTrackingConfigData, meterRegistry);
+        this.receiveToAck = timer(pipelineName, RECEIVE_TO_ACK, tags, latencyTrackingConfigData, meterRegistry);
+        this.createdToAck = timer(eventName, CREATED_TO_ACK, tags, latencyTrackingConfigData, meterRegistry);
+        this.parent = parent;
+    }
+
+    public static PipelineLatencyRecorder forLane(String lane, PipelineLatencyRecorder parent,
+                                                  LatencyTrackingConfigData latencyTrackingConfigData,
+                                                  MeterRegistry meterRegistry) {
+        return new PipelineLatencyRecorder(LANE_LATENCY, LANE_EVENT_LATENCY, Tags.of("lane", lane), parent,
+                latencyTrackingConfigData, meterRegistry);
+    }
+
+    /**
+     * Called from the producer ack callback.
+     */
+    public void recordAck(LatencyTrace trace) {
+        long ackedAtUs = EpochMicros.now();
+        record(receiveToTransform, trace.getTransformedAtUs() - trace.getReceivedAtUs());
+        record(transformToSend, trace.getSentAtUs() - trace.getTransformedAtUs());
+        record(sendToAck, ackedAtUs - trace.getSentAtUs());
+        record(receiveToAck, ackedAtUs - trace.getReceivedAtUs());
+        record(createdToAck, ackedAtUs - trace.getCreatedAtMs() * 1_000L);
+        if (parent != null) {
+            parent.recordAck(trace);
+        }
+    }
+
+    /**
+     * @return the timers by stage name, in pipeline order
+     */
+    public Map<String, Timer> getTimers() {
+        Map<String, Timer> timers = new LinkedHashMap<>();
+        timers.put(RECEIVE_TO_TRANSFORM, receiveToTransform);
+        timers.put(TRANSFORM_TO_SEND, transformToSend);
+        timers.put(SEND_TO_ACK, sendToAck);
+        timers.put(RECEIVE_TO_ACK, receiveToAck);
+        timers.put(CREATED_TO_ACK, createdToAck);
+        return timers;
+    }
+
+    private static void record(Timer timer, long micros) {
+        // Clock skew between the tweet source and this host can make event-time negative
+        timer.record(Math.max(micros, 0L), TimeUnit.MICROSECONDS);
+    }
+
+    private static Timer timer(String name, String stage, Tags tags, LatencyTrackingConfigData config,
+                               MeterRegistry meterRegistry) {
+        return Timer.builder(name)
+                .tag("stage", stage)
+                .tags(tags)
+                .publishPercentiles(config.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray())
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(config.getServiceLevelObjectivesMs().stream()
+                        .map(Duration::ofMillis)
+                        .toArray(Duration[]::new))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,202 @@
+package com.microservices.demo.kafka.producer.config.profile;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Holds the KafkaTemplate for every topic: the template of the kafka-producer-config profile that lists the topic,
+ * or the default template built from the global settings. A profile's template is created on first use.
+ * <p>
+ * {@link #forTopic} runs for every record, so it does not hash the topic name. It scans the short array of topics
+ * resolved so far, comparing by reference before equality, so the usual caller passing the same String instance from
+ * kafka-config never compares characters. Only a topic not seen before takes the lock and the map lookup.
+ */
+public class ProducerProfiles<K extends Serializable, V extends SpecificRecordBase> {
+
+    /**
+     * Bounds the route array when callers send to an unbounded set of topics; topics past it stay on the slow path.
+     */
+    private static final int MAX_ROUTES = 64;
+
+    private final KafkaTemplate<K, V> defaultTemplate;
+
+    private final Function<Map<String, Object>, KafkaTemplate<K, V>> templateFactory;
+
+    private final Map<String, Profile<K, V>> profilesByName = new LinkedHashMap<>();
+
+    private final Map<String, Profile<K, V>> profilesByTopic = new HashMap<>();
+
+    private volatile TopicRoute<K, V>[] routes = newRoutes(0);
+
+    /**
+     * @param templateFactory creates the template for a profile from its overrides of the default producer config
+     */
+    public ProducerProfiles(KafkaTemplate<K, V> defaultTemplate,
+                            KafkaProducerConfigData kafkaProducerConfigData,
+                            Function<Map<String, Object>, KafkaTemplate<K, V>> templateFactory) {
+        this.defaultTemplate = defaultTemplate;
+        this.templateFactory = templateFactory;
+        kafkaProducerConfigData.getProfiles().forEach((name, profileConfig) -> {
+            Profile<K, V> profile = new Profile<>(name,
+                    producerOverrides(profileConfig, kafkaProducerConfigData.getBatchSizeBoostFactor()));
+            profilesByName.put(name, profile);
+            for (String topic : profileConfig.getTopics()) {
+                Profile<K, V> previous = profilesByTopic.put(topic, profile);
+                if (previous != null) {
+                    throw new IllegalStateException("Topic " + topic + " is listed by both kafka-producer-config"
+                            + " profiles " + previous.name + " and " + name);
+                }
+            }
+        });
+    }
+
+    /**
+     * Routes every topic to the one template, for producers that are bound to a single profile.
+     */
+    public static <K extends Serializable, V extends SpecificRecordBase> ProducerProfiles<K, V> single(
+            KafkaTemplate<K, V> kafkaTemplate) {
+        return new ProducerProfiles<>(kafkaTemplate, new KafkaProducerConfigData(), overrides -> {
+            throw new IllegalStateException("No producer profiles configured");
+        });
+    }
+
+    public KafkaTemplate<K, V> forTopic(String topic) {
+        for (TopicRoute<K, V> route : routes) {
+            if (route.topic() == topic || route.topic().equals(topic)) {
+                return route.kafkaTemplate();
+            }
+        }
+        return resolve(topic);
+    }
+
+    /**
+     * @param name profile name, or null for the default template
+     */
+    public synchronized KafkaTemplate<K, V> forProfile(String name) {
+        if (name == null) {
+            return defaultTemplate;
+        }
+        Profile<K, V> profile = profilesByName.get(name);
+        if (profile == null) {
+            throw new IllegalStateException("Unknown kafka-producer-config profile " + name + ", configured: "
+                    + profilesByName.keySet());
+        }
+        return templateOf(profile);
+    }
+
+    /**
+     * @return the default template and every profile template created so far
+     */
+    public synchronized List<KafkaTemplate<K, V>> templates() {
+        List<KafkaTemplate<K, V>> templates = new ArrayList<>();
+        templates.add(defaultTemplate);
+        profilesByName.values().stream()
+                .filter(profile -> profile.kafkaTemplate != null)
+                .forEach(profile -> templates.add(profile.kafkaTemplate));
+        return templates;
+    }
+
+    /**
+     * Applies runtime overrides to the default producer and replaces it. Profile producers already created take
+     * only the overrides for settings their profile leaves to the defaults, so a profile keeps its own tuning.
+     */
+    public synchronized void reconfigure(Map<String, Object> configOverrides) {
+        defaultTemplate.getProducerFactory().updateConfigs(configOverrides);
+        defaultTemplate.getProducerFactory().reset();
+        for (Profile<K, V> profile : profilesByName.values()) {
+            if (profile.kafkaTemplate == null) {
+                continue;
+            }
+            Map<String, Object> inherited = new HashMap<>(configOverrides);
+            inherited.keySet().removeAll(profile.overrides.keySet());
+            if (!inherited.isEmpty()) {
+                profile.kafkaTemplate.getProducerFactory().updateConfigs(inherited);
+                profile.kafkaTemplate.getProducerFactory().reset();
+            }
+        }
+    }
+
+    private synchronized KafkaTemplate<K, V> resolve(String topic) {
+        TopicRoute<K, V>[] current = routes;
+        KafkaTemplate<K, V> kafkaTemplate = null;
+        for (TopicRoute<K, V> route : current) {
+            if (route.topic().equals(topic)) {
+                kafkaTemplate = route.kafkaTemplate();
+                break;
+            }
+        }
+        if (kafkaTemplate == null) {
+            Profile<K, V> profile = profilesByTopic.get(topic);
+            kafkaTemplate = profile == null ? defaultTemplate : templateOf(profile);
+        }
+        if (current.length < MAX_ROUTES) {
+            TopicRoute<K, V>[] extended = Arrays.copyOf(current, current.length + 1);
+            extended[current.length] = new TopicRoute<>(topic, kafkaTemplate);
+            routes = extended;
+        }
+        return kafkaTemplate;
+    }
+
+    private KafkaTemplate<K, V> templateOf(Profile<K, V> profile) {
+        if (profile.kafkaTemplate == null) {
+            // Later default-producer overrides are already in the factory this copies from
+            profile.kafkaTemplate = templateFactory.apply(profile.overrides);
+        }
+        return profile.kafkaTemplate;
+    }
+
+    /**
+     * @return the producer config entries the profile sets; unset settings are left to the default producer config
+     */
+    static Map<String, Object> producerOverrides(KafkaProducerConfigData.ProducerProfile profileConfig,
+                                                 Integer batchSizeBoostFactor) {
+        Map<String, Object> overrides = new HashMap<>();
+        if (profileConfig.getAcks() != null) {
+            overrides.put(ProducerConfig.ACKS_CONFIG, profileConfig.getAcks());
+        }
+        if (profileConfig.getLingerMs() != null) {
+            overrides.put(ProducerConfig.LINGER_MS_CONFIG, profileConfig.getLingerMs());
+        }
+        if (profileConfig.getBatchSize() != null) {
+            overrides.put(ProducerConfig.BATCH_SIZE_CONFIG, profileConfig.getBatchSize() * batchSizeBoostFactor);
+        }
+        if (profileConfig.getCompressionType() != null) {
+            overrides.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, profileConfig.getCompressionType());
+        }
+        return overrides;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K extends Serializable, V extends SpecificRecordBase> TopicRoute<K, V>[] newRoutes(int length) {
+        return (TopicRoute<K, V>[]) new TopicRoute[length];
+    }
+
+    private record TopicRoute<K extends Serializable, V extends SpecificRecordBase>(String topic,
+                                                                                   KafkaTemplate<K, V> kafkaTemplate) {
+    }
+
+    private static final class Profile<K extends Serializable, V extends SpecificRecordBase> {
+
+        private final String name;
+
+        private final Map<String, Object> overrides;
+
+        private KafkaTemplate<K, V> kafkaTemplate;
+
+        private Profile(String name, Map<String, Object> overrides) {
+            this.name = name;
+            this.overrides = Map.copyOf(overrides);
+        }
+    }
+}
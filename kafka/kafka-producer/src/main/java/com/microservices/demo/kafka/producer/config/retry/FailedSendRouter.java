@@ -0,0 +1,130 @@
+package com.microservices.demo.kafka.producer.config.retry;
+
+import com.microservices.demo.config.SendRetryConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.profile.ProducerProfiles;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes records whose send failed after the producer's own retries and writes them to the first retry tier of
+ * send-retry-config, or straight to the dead-letter topic when no tiers are configured; {@link SendRetrier} takes
+ * it from there.
+ * <p>
+ * Failures are reported on the producer's network thread, where a send could block, so the records are handed to
+ * a single router thread through a bounded queue. Records routed to a tier are counted as
+ * kafka.producer.retry.routed{tier}, to the dead-letter topic as kafka.producer.dead.letter. A record is lost when
+ * the queue is full or the tier write fails too, counted as kafka.producer.retry.lost{reason} with reason
+ * router-queue-full or tier-write-failed.
+ * <p>
+ * The tier topics are written with the same producer profiles, on the same cluster, as the send that failed. The
+ * router therefore only recovers failures of single records, such as an expired batch or a rejected record; while
+ * the cluster itself is unreachable the tier write fails as well and every failed record is lost. Outages are
+ * covered by the circuit breaker, which holds records back on the sending threads instead.
+ */
+@Component
+public class FailedSendRouter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FailedSendRouter.class);
+
+    private final SendRetryConfigData sendRetryConfigData;
+
+    private final ProducerProfiles<Long, TwitterAvroModel> producerProfiles;
+
+    private final boolean enabled;
+
+    private final Set<String> retriedTopics;
+
+    private final ThreadPoolExecutor routerExecutor;
+
+    private final Counter routed;
+
+    private final Counter deadLettered;
+
+    private final Counter lostQueueFull;
+
+    private final Counter lostWriteFailed;
+
+    public FailedSendRouter(SendRetryConfigData sendRetryConfigData,
+                            ProducerProfiles<Long, TwitterAvroModel> producerProfiles,
+                            MeterRegistry meterRegistry) {
+        this.sendRetryConfigData = sendRetryConfigData;
+        this.producerProfiles = producerProfiles;
+        this.enabled = Boolean.TRUE.equals(sendRetryConfigData.getEnabled());
+        this.retriedTopics = enabled ? Set.copyOf(sendRetryConfigData.getTopics()) : Set.of();
+        this.routerExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(enabled ? sendRetryConfigData.getRouterQueueCapacity() : 1), runnable -> {
+            Thread thread = new Thread(runnable, "kafka-failed-send-router");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.routed = SendRetrier.routedCounter(0, meterRegistry);
+        this.deadLettered = SendRetrier.deadLetterCounter(meterRegistry);
+        this.lostQueueFull = SendRetrier.lostCounter("router-queue-full", meterRegistry);
+        this.lostWriteFailed = SendRetrier.lostCounter("tier-write-failed", meterRegistry);
+    }
+
+    /**
+     * @return whether failed sends to the topic are routed to retry tiers; the caller must then send a record value
+     * it does not modify afterwards, since the router reads it after the failure
+     */
+    public boolean retries(String topic) {
+        return retriedTopics.contains(topic);
+    }
+
+    /**
+     * Queues the failed record for the first retry tier without blocking.
+     */
+    public void route(ProducerRecord<Long, TwitterAvroModel> failedRecord, Throwable failure) {
+        try {
+            routerExecutor.execute(() -> write(failedRecord, failure));
+        } catch (RejectedExecutionException e) {
+            lostQueueFull.increment();
+            LOG.error("Lost failed record with key {} for topic {}: retry router queue is full",
+                    failedRecord.key(), failedRecord.topic());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        routerExecutor.shutdown();
+    }
+
+    private void write(ProducerRecord<Long, TwitterAvroModel> failedRecord, Throwable failure) {
+        String originalTopic = failedRecord.topic();
+        boolean deadLetter = sendRetryConfigData.getDelaysMs().isEmpty();
+        String target = deadLetter
+                ? sendRetryConfigData.deadLetterTopic(originalTopic)
+                : sendRetryConfigData.retryTopic(originalTopic, 0);
+        ProducerRecord<Long, TwitterAvroModel> retryRecord = new ProducerRecord<>(target, null,
+                System.currentTimeMillis(), failedRecord.key(), failedRecord.value(), new RecordHeaders(failedRecord.headers().toArray()));
+        RetryHeaders.recordFailure(retryRecord.headers(), originalTopic, failure);
+        try {
+            producerProfiles.forTopic(target).send(retryRecord).whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    lostWriteFailed.increment();
+                    LOG.error("Lost failed record with key {} for topic {}: could not write it to {}",
+                            failedRecord.key(), originalTopic, target, throwable);
+                } else {
+                    (deadLetter ? deadLettered : routed).increment();
+                }
+            });
+        } catch (RuntimeException e) {
+            lostWriteFailed.increment();
+            LOG.error("Lost failed record with key {} for topic {}: could not write it to {}",
+                    failedRecord.key(), originalTopic, target, e);
+        }
+    }
+}
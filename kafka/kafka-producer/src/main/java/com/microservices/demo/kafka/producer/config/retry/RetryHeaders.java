@@ -0,0 +1,58 @@
+package com.microservices.demo.kafka.producer.config.retry;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Headers carried by records on retry tier and dead-letter topics.
+ */
+public final class RetryHeaders {
+
+    public static final String ORIGINAL_TOPIC = "retry-original-topic";
+
+    /**
+     * Number of failed sends so far, as a 4-byte big-endian int.
+     */
+    public static final String ATTEMPTS = "retry-attempts";
+
+    public static final String FAILURE_EXCEPTION = "retry-failure-exception";
+
+    public static final String FAILURE_MESSAGE = "retry-failure-message";
+
+    /**
+     * Time of the latest failure in epoch millis, as an 8-byte big-endian long.
+     */
+    public static final String FAILURE_TIMESTAMP = "retry-failure-timestamp";
+
+    private RetryHeaders() {
+    }
+
+    /**
+     * Replaces the failure headers with the given failure, counting it as one more attempt.
+     */
+    static void recordFailure(Headers headers, String originalTopic, Throwable failure) {
+        int attempts = attempts(headers) + 1;
+        Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+        headers.remove(ORIGINAL_TOPIC).add(ORIGINAL_TOPIC, originalTopic.getBytes(StandardCharsets.UTF_8));
+        headers.remove(ATTEMPTS).add(ATTEMPTS, ByteBuffer.allocate(Integer.BYTES).putInt(attempts).array());
+        headers.remove(FAILURE_EXCEPTION).add(FAILURE_EXCEPTION,
+                cause.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        headers.remove(FAILURE_MESSAGE).add(FAILURE_MESSAGE,
+                String.valueOf(cause.getMessage()).getBytes(StandardCharsets.UTF_8));
+        headers.remove(FAILURE_TIMESTAMP).add(FAILURE_TIMESTAMP,
+                ByteBuffer.allocate(Long.BYTES).putLong(System.currentTimeMillis()).array());
+    }
+
+    public static int attempts(Headers headers) {
+        Header header = headers.lastHeader(ATTEMPTS);
+        return header == null ? 0 : ByteBuffer.wrap(header.value()).getInt();
+    }
+
+    public static String originalTopic(Headers headers) {
+        Header header = headers.lastHeader(ORIGINAL_TOPIC);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,265 @@
+package com.microservices.demo.kafka.producer.config.retry;
+
+import com.microservices.demo.config.SendRetryConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Re-sends records from the retry tier topics to their original topic once the tier's delay has passed since they
+ * failed, and moves the ones that fail again to the next tier, or to the dead-letter topic after the last one.
+ * <p>
+ * Runs on its own consumer and producer, apart from the main send path, and copies keys, values and headers as
+ * bytes, so records are not deserialized again. Records of a tier arrive in failure order, so a partition whose
+ * head record is not due yet is paused until it is. Offsets are committed only once every record of a poll has
+ * been re-sent or moved on.
+ * <p>
+ * Counts re-sends as kafka.producer.retry.resent{tier}, records moved to a later tier as
+ * kafka.producer.retry.routed{tier} and to the dead-letter topic as kafka.producer.dead.letter, and records that
+ * could not be moved on as kafka.producer.retry.lost{reason=forward-failed}.
+ */
+@Component
+@ConditionalOnProperty(name = "send-retry-config.enabled", havingValue = "true")
+public class SendRetrier implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SendRetrier.class);
+
+    private final SendRetryConfigData sendRetryConfigData;
+
+    private final Map<String, Object> producerConfig;
+
+    private final Map<String, Integer> tiersByTopic = new HashMap<>();
+
+    private final Map<TopicPartition, Long> pausedUntilMs = new HashMap<>();
+
+    private final List<Counter> resent = new ArrayList<>();
+
+    private final List<Counter> routed = new ArrayList<>();
+
+    private final Counter deadLettered;
+
+    private final Counter lost;
+
+    private final Thread thread;
+
+    private volatile boolean running;
+
+    private KafkaConsumer<byte[], byte[]> consumer;
+
+    private KafkaProducer<byte[], byte[]> producer;
+
+    public SendRetrier(SendRetryConfigData sendRetryConfigData,
+                       ProducerFactory<Long, TwitterAvroModel> producerFactory,
+                       MeterRegistry meterRegistry) {
+        this.sendRetryConfigData = sendRetryConfigData;
+        this.producerConfig = new HashMap<>(producerFactory.getConfigurationProperties());
+        for (String topic : sendRetryConfigData.getTopics()) {
+            for (int tier = 0; tier < sendRetryConfigData.getDelaysMs().size(); tier++) {
+                tiersByTopic.put(sendRetryConfigData.retryTopic(topic, tier), tier);
+            }
+        }
+        for (int tier = 0; tier < sendRetryConfigData.getDelaysMs().size(); tier++) {
+            resent.add(Counter.builder("kafka.producer.retry.resent").tag("tier", String.valueOf(tier))
+                    .register(meterRegistry));
+            routed.add(routedCounter(tier, meterRegistry));
+        }
+        this.deadLettered = deadLetterCounter(meterRegistry);
+        this.lost = lostCounter("forward-failed", meterRegistry);
+        this.thread = new Thread(this, "kafka-send-retrier");
+        this.thread.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        Map<String, Object> consumerConfig = new HashMap<>();
+        consumerConfig.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, producerConfig.get(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG));
+        consumerConfig.put(ConsumerConfig.GROUP_ID_CONFIG, sendRetryConfigData.getRetrierGroupId());
+        consumerConfig.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerConfig.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumer = new KafkaConsumer<>(consumerConfig, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+        producer = new KafkaProducer<>(producerConfig, new ByteArraySerializer(), new ByteArraySerializer());
+        consumer.subscribe(tiersByTopic.keySet());
+        running = true;
+        thread.start();
+        LOG.info("Retrying failed sends of {} after {} ms", sendRetryConfigData.getTopics(),
+                sendRetryConfigData.getDelaysMs());
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        if (consumer != null) {
+            consumer.wakeup();
+            try {
+                thread.join(Duration.ofSeconds(5).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                long nowMs = System.currentTimeMillis();
+                resumeDuePartitions(nowMs);
+                ConsumerRecords<byte[], byte[]> records = consumer.poll(Duration.ofMillis(pollMs(nowMs)));
+                if (!records.isEmpty()) {
+                    retry(records);
+                }
+            }
+        } catch (WakeupException e) {
+            if (running) {
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Send retrier stopped", e);
+        } finally {
+            consumer.close();
+            producer.close();
+        }
+    }
+
+    private void retry(ConsumerRecords<byte[], byte[]> records) {
+        long nowMs = System.currentTimeMillis();
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        List<PendingSend> resends = new ArrayList<>();
+        for (TopicPartition partition : records.partitions()) {
+            int tier = tiersByTopic.get(partition.topic());
+            long delayMs = sendRetryConfigData.getDelaysMs().get(tier);
+            for (ConsumerRecord<byte[], byte[]> record : records.records(partition)) {
+                long dueMs = record.timestamp() + delayMs;
+                if (dueMs > nowMs) {
+                    consumer.seek(partition, record.offset());
+                    consumer.pause(List.of(partition));
+                    pausedUntilMs.put(partition, dueMs);
+                    break;
+                }
+                String originalTopic = RetryHeaders.originalTopic(record.headers());
+                ProducerRecord<byte[], byte[]> resend = new ProducerRecord<>(originalTopic, null, record.key(),
+                        record.value(), new RecordHeaders(record.headers().toArray()));
+                resends.add(new PendingSend(tier, originalTopic, resend, producer.send(resend)));
+                offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+            }
+        }
+        List<PendingSend> forwards = new ArrayList<>();
+        for (PendingSend pending : resends) {
+            Throwable failure = failure(pending);
+            if (failure == null) {
+                resent.get(pending.tier).increment();
+            } else {
+                forwards.add(forward(pending, failure));
+            }
+        }
+        for (PendingSend pending : forwards) {
+            Throwable failure = failure(pending);
+            if (failure != null) {
+                lost.increment();
+                LOG.error("Lost failed record for topic {}: could not write it to {}", pending.originalTopic,
+                        pending.record.topic(), failure);
+            } else if (pending.tier < routed.size()) {
+                routed.get(pending.tier).increment();
+            } else {
+                deadLettered.increment();
+            }
+        }
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+        }
+    }
+
+    /**
+     * Sends the record that failed again to the next tier, or to the dead-letter topic after the last tier.
+     */
+    private PendingSend forward(PendingSend failed, Throwable failure) {
+        int nextTier = failed.tier + 1;
+        String target = nextTier < sendRetryConfigData.getDelaysMs().size()
+                ? sendRetryConfigData.retryTopic(failed.originalTopic, nextTier)
+                : sendRetryConfigData.deadLetterTopic(failed.originalTopic);
+        ProducerRecord<byte[], byte[]> forward = new ProducerRecord<>(target, null, System.currentTimeMillis(),
+                failed.record.key(), failed.record.value(), new RecordHeaders(failed.record.headers().toArray()));
+        RetryHeaders.recordFailure(forward.headers(), failed.originalTopic, failure);
+        return new PendingSend(nextTier, failed.originalTopic, forward, producer.send(forward));
+    }
+
+    private static Throwable failure(PendingSend pending) {
+        try {
+            pending.result.get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return e;
+        }
+    }
+
+    private void resumeDuePartitions(long nowMs) {
+        List<TopicPartition> due = new ArrayList<>();
+        pausedUntilMs.forEach((partition, dueMs) -> {
+            if (dueMs <= nowMs) {
+                due.add(partition);
+            }
+        });
+        if (!due.isEmpty()) {
+            due.forEach(pausedUntilMs::remove);
+            // Partitions revoked while paused are no longer assigned
+            due.retainAll(consumer.assignment());
+            consumer.resume(due);
+        }
+    }
+
+    private long pollMs(long nowMs) {
+        long pollMs = sendRetryConfigData.getRetrierPollMs();
+        for (long dueMs : pausedUntilMs.values()) {
+            pollMs = Math.min(pollMs, Math.max(1, dueMs - nowMs));
+        }
+        return pollMs;
+    }
+
+    static Counter routedCounter(int tier, MeterRegistry meterRegistry) {
+        return Counter.builder("kafka.producer.retry.routed").tag("tier", String.valueOf(tier)).register(meterRegistry);
+    }
+
+    static Counter deadLetterCounter(MeterRegistry meterRegistry) {
+        return Counter.builder("kafka.producer.dead.letter").register(meterRegistry);
+    }
+
+    static Counter lostCounter(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder("kafka.producer.retry.lost").tag("reason", reason).register(meterRegistry);
+    }
+
+    private record PendingSend(int tier, String originalTopic, ProducerRecord<byte[], byte[]> record,
+                               Future<RecordMetadata> result) {
+    }
+}
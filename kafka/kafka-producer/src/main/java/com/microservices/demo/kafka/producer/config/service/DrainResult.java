@@ -0,0 +1,10 @@
+package com.microservices.demo.kafka.producer.config.service;
+
+/**
+ * Outcome of draining a producer.
+ *
+ * @param drained   records that were in flight when the drain started and completed, acked or failed, before the deadline
+ * @param abandoned records still awaiting an ack at the deadline
+ */
+public record DrainResult(long drained, long abandoned) {
+}
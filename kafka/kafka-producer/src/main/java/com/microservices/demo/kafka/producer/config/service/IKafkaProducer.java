@@ -1,9 +1,32 @@
 package com.microservices.demo.kafka.producer.config.service;
 
+import com.microservices.demo.kafka.latency.LatencyTrace;
 import org.apache.avro.specific.SpecificRecordBase;
 
 import java.io.Serializable;
+import java.time.Duration;
+import java.util.Map;
 
 public interface IKafkaProducer<K extends Serializable, V extends SpecificRecordBase>{
-    void send(String topicName, K key, V message);
+    default void send(String topicName, K key, V message) {
+        send(topicName, key, message, null);
+    }
+
+    /**
+     * @param latencyTrace pipeline timestamps to stamp into the record headers, or null to send without them
+     */
+    void send(String topicName, K key, V message, LatencyTrace latencyTrace);
+
+    /**
+     * Flushes buffered records and waits, at most for the timeout, until every record sent so far is acknowledged.
+     */
+    DrainResult drain(Duration timeout);
+
+    /**
+     * Applies producer config overrides by replacing the underlying producer. Sends are held back while the old
+     * producer drains and is swapped, for no longer than maxPause.
+     *
+     * @return whether the overrides were applied; false leaves the current producer running untouched
+     */
+    boolean reconfigure(Map<String, Object> configOverrides, Duration maxPause);
 }
@@ -1,8 +1,21 @@
 package com.microservices.demo.kafka.producer.config.service.impl;
 
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.common.logging.SampledLogSite;
+import com.microservices.demo.config.CircuitBreakerConfigData;
+import com.microservices.demo.config.GracefulShutdownConfigData;
 import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.latency.LatencyTrace;
+import com.microservices.demo.kafka.producer.config.circuit.IProducerFallback;
+import com.microservices.demo.kafka.producer.config.circuit.ProducerCircuitBreaker;
+import com.microservices.demo.kafka.producer.config.latency.PipelineLatencyRecorder;
+import com.microservices.demo.kafka.producer.config.profile.ProducerProfiles;
+import com.microservices.demo.kafka.producer.config.retry.FailedSendRouter;
+import com.microservices.demo.kafka.producer.config.service.DrainResult;
 import com.microservices.demo.kafka.producer.config.service.IKafkaProducer;
+import com.microservices.demo.kafka.producer.exception.KafkaProducerCircuitOpenException;
 import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,52 +23,246 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.StampedLock;
 
 @Service
 public class TwitterKafkaProducer implements IKafkaProducer<Long, TwitterAvroModel> {
 
     private static final Logger LOG = LoggerFactory.getLogger(TwitterKafkaProducer.class);
 
-    private final KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate;
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
 
-    public TwitterKafkaProducer(KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    private final ProducerProfiles<Long, TwitterAvroModel> producerProfiles;
+
+    private final PipelineLatencyRecorder pipelineLatencyRecorder;
+
+    private final GracefulShutdownConfigData gracefulShutdownConfigData;
+
+    private final ProducerCircuitBreaker producerCircuitBreaker;
+
+    private final CircuitBreakerConfigData circuitBreakerConfigData;
+
+    private final IProducerFallback producerFallback;
+
+    private final FailedSendRouter failedSendRouter;
+
+    /**
+     * Records handed to the template whose ack or failure has not been seen yet.
+     */
+    private final AtomicLong inFlight = new AtomicLong();
+
+    /**
+     * Set once the first ack arrives; startup-benchmark.sh reads the resulting log line as time-to-first-record.
+     */
+    private final AtomicBoolean firstRecordAcked = new AtomicBoolean();
+
+    /**
+     * Held shared by every send and exclusively while {@link #reconfigure} swaps the producer.
+     */
+    private final StampedLock producerSwapLock = new StampedLock();
+
+    /**
+     * Runs the blocking template flush of {@link #drain}, which must not tie up a thread of the common pool.
+     */
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "kafka-producer-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final SampledLogSite sendLog;
+
+    private final SampledLogSite ackLog;
+
+    public TwitterKafkaProducer(ProducerProfiles<Long, TwitterAvroModel> producerProfiles,
+                                PipelineLatencyRecorder pipelineLatencyRecorder,
+                                GracefulShutdownConfigData gracefulShutdownConfigData,
+                                ProducerCircuitBreaker producerCircuitBreaker,
+                                CircuitBreakerConfigData circuitBreakerConfigData,
+                                IProducerFallback producerFallback,
+                                FailedSendRouter failedSendRouter,
+                                HotPathLogging hotPathLogging) {
+        this.producerProfiles = producerProfiles;
+        this.pipelineLatencyRecorder = pipelineLatencyRecorder;
+        this.gracefulShutdownConfigData = gracefulShutdownConfigData;
+        this.producerCircuitBreaker = producerCircuitBreaker;
+        this.circuitBreakerConfigData = circuitBreakerConfigData;
+        this.producerFallback = producerFallback;
+        this.failedSendRouter = failedSendRouter;
+        this.sendLog = hotPathLogging.site("kafka-send", LOG);
+        this.ackLog = hotPathLogging.site("kafka-ack", LOG);
+    }
+
+    /**
+     * Sends a copy of the message when failed sends to the topic are retried, as the retry router reads the record
+     * after the failure and callers may reuse the message once send returns.
+     */
+    @Override
+    public void send(String topicName, Long key, TwitterAvroModel message, LatencyTrace latencyTrace) {
+        sendLog.info("Sending message to topic: {} with key: {} and message: {}", topicName, key, message);
+        boolean retried = failedSendRouter.retries(topicName);
+        ProducerRecord<Long, TwitterAvroModel> producerRecord = new ProducerRecord<>(topicName, key,
+                retried ? TwitterAvroModel.newBuilder(message).build() : message);
+        if (latencyTrace != null) {
+            latencyTrace.markSent();
+            producerRecord.headers().add(LatencyTrace.HEADER_NAME, latencyTrace.encode());
+        }
+        if (!acquirePermission(producerRecord)) {
+            return;
+        }
+        CompletableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture;
+        long stamp = producerSwapLock.readLock();
+        long sendStartNanos = System.nanoTime();
+        inFlight.incrementAndGet();
+        try {
+            kafkaResultFuture = producerProfiles.forTopic(topicName).send(producerRecord);
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            producerCircuitBreaker.onComplete(System.nanoTime() - sendStartNanos, false);
+            throw e;
+        } finally {
+            producerSwapLock.unlockRead(stamp);
+        }
+        kafkaResultFuture.whenComplete((result, throwable) -> {
+            inFlight.decrementAndGet();
+            producerCircuitBreaker.onComplete(System.nanoTime() - sendStartNanos, throwable == null);
+        });
+
+        handleKafkaResultFuture(topicName, key, latencyTrace, kafkaResultFuture);
+        if (retried) {
+            kafkaResultFuture.exceptionally(throwable -> {
+                failedSendRouter.route(producerRecord, throwable);
+                return null;
+            });
+        }
     }
 
     @Override
-    public void send(String topicName, Long key, TwitterAvroModel message) {
-        LOG.info("Sending message to topic: {} with key: {} and message: {}", topicName, key, message);
-        kafkaTemplate.send(topicName, key, message);
-        CompletableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture =
-                kafkaTemplate.send(topicName, key, message);
+    public DrainResult drain(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long pending = inFlight.get();
+        if (pending == 0) {
+            return new DrainResult(0, 0);
+        }
+        // flush() blocks until every buffered record completes, which may outlive the deadline on a slow cluster
+        flushExecutor.execute(() -> producerProfiles.templates().forEach(KafkaTemplate::flush));
+        while (inFlight.get() > 0 && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(DRAIN_POLL_NANOS);
+        }
+        long abandoned = Math.min(inFlight.get(), pending);
+        return new DrainResult(pending - abandoned, abandoned);
+    }
 
-        handleKafkaResultFuture(topicName, message, kafkaResultFuture);
+    /**
+     * The old producers are only closed once everything they accepted is acknowledged, so a swap never fails records;
+     * if that takes longer than maxPause the swap is abandoned instead. See {@link ProducerProfiles#reconfigure} for
+     * how the overrides reach the profile producers.
+     */
+    @Override
+    public boolean reconfigure(Map<String, Object> configOverrides, Duration maxPause) {
+        long deadline = System.nanoTime() + maxPause.toNanos();
+        long stamp;
+        try {
+            stamp = producerSwapLock.tryWriteLock(maxPause.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (stamp == 0) {
+            LOG.warn("Producer reconfiguration abandoned: sends did not pause within {} ms", maxPause.toMillis());
+            return false;
+        }
+        try {
+            DrainResult drainResult = drain(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+            if (drainResult.abandoned() > 0) {
+                LOG.warn("Producer reconfiguration abandoned: {} record(s) still unacknowledged after {} ms",
+                        drainResult.abandoned(), maxPause.toMillis());
+                return false;
+            }
+            producerProfiles.reconfigure(configOverrides);
+            LOG.info("Kafka producer reconfigured with {}", configOverrides);
+            return true;
+        } finally {
+            producerSwapLock.unlockWrite(stamp);
+        }
     }
 
     @PreDestroy
     public void close() {
-        if (kafkaTemplate != null) {
+        if (producerProfiles != null) {
+            if (inFlight.get() > 0) {
+                DrainResult drainResult = drain(Duration.ofMillis(gracefulShutdownConfigData.getDeadlineMs()));
+                LOG.info("Drained Kafka producer: {} record(s) acknowledged, {} abandoned",
+                        drainResult.drained(),
+                        drainResult.abandoned()
+                );
+            }
             LOG.info("Closing Kafka producer");
-            kafkaTemplate.destroy();
+            producerProfiles.templates().forEach(KafkaTemplate::destroy);
+        }
+        flushExecutor.shutdown();
+    }
+
+    /**
+     * @return whether the record may be sent; false once the fallback has taken it
+     */
+    private boolean acquirePermission(ProducerRecord<Long, TwitterAvroModel> producerRecord) {
+        CircuitBreakerConfigData.OpenStateAction openStateAction = circuitBreakerConfigData.getOpenStateAction();
+        if (openStateAction == null || openStateAction == CircuitBreakerConfigData.OpenStateAction.BLOCK) {
+            if (producerCircuitBreaker.awaitPermission()) {
+                return true;
+            }
+            throw new KafkaProducerCircuitOpenException("Interrupted while waiting for the producer circuit to "
+                    + "close, rejected record for topic: " + producerRecord.topic());
+        }
+        if (producerCircuitBreaker.tryAcquirePermission()) {
+            return true;
         }
+        if (openStateAction == CircuitBreakerConfigData.OpenStateAction.FAIL_FAST) {
+            throw new KafkaProducerCircuitOpenException("Producer circuit is " + producerCircuitBreaker.getState()
+                    + ", rejected record for topic: " + producerRecord.topic());
+        }
+        producerFallback.divert(producerRecord);
+        return false;
     }
 
-    private static void handleKafkaResultFuture(String topicName, TwitterAvroModel message, CompletableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture) {
+    /**
+     * The callbacks must not read the message: it may already be reused for the next tweet once send() returns.
+     */
+    private void handleKafkaResultFuture(String topicName, Long key, LatencyTrace latencyTrace,
+                                         CompletableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture) {
         kafkaResultFuture
                 .thenAccept(result -> {
-                    RecordMetadata metadata = result.getRecordMetadata();
-                    LOG.info("Message sent successfully. Topic: {}, Partition: {}, Offset: {}, Timestamp: {}, at time {}",
-                            metadata.topic(),
-                            metadata.partition(),
-                            metadata.offset(),
-                            metadata.timestamp(),
-                            System.nanoTime()
-                    );
+                    if (latencyTrace != null) {
+                        pipelineLatencyRecorder.recordAck(latencyTrace);
+                    }
+                    if (!firstRecordAcked.get() && firstRecordAcked.compareAndSet(false, true)) {
+                        LOG.info("First record produced {} ms after JVM start",
+                                System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime());
+                    }
+                    if (ackLog.sample()) {
+                        RecordMetadata metadata = result.getRecordMetadata();
+                        LOG.info("Message sent successfully. Topic: {}, Partition: {}, Offset: {}, Timestamp: {}",
+                                metadata.topic(),
+                                metadata.partition(),
+                                metadata.offset(),
+                                metadata.timestamp()
+                        );
+                    }
                 })
                 .exceptionally(throwable -> {
-                    LOG.error("Error while sending message {} to topic: {}",
-                            message.toString(),
+                    LOG.error("Error while sending message with key {} to topic: {}",
+                            key,
                             topicName,
                             throwable
                     );
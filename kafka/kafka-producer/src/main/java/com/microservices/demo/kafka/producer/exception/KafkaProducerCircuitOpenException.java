@@ -0,0 +1,17 @@
+package com.microservices.demo.kafka.producer.exception;
+
+/**
+ * Thrown when a send is rejected because the producer circuit breaker is open.
+ * It is raised on the caller's thread without contacting the cluster.
+ */
+public class KafkaProducerCircuitOpenException extends RuntimeException {
+    public KafkaProducerCircuitOpenException() {}
+
+    public KafkaProducerCircuitOpenException(String message) {
+        super(message);
+    }
+
+    public KafkaProducerCircuitOpenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,133 @@
+package com.microservices.demo.kafka.producer.config.circuit;
+
+import com.microservices.demo.config.CircuitBreakerConfigData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProducerCircuitBreakerTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private volatile long nowNanos;
+
+    private ProducerCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerConfigData configData = new CircuitBreakerConfigData();
+        configData.setEnabled(true);
+        configData.setSlidingWindowSize(10);
+        configData.setMinimumCalls(5);
+        configData.setFailureRateThresholdPercent(50);
+        configData.setSlowCallDurationMs(100L);
+        configData.setSlowCallRateThresholdPercent(80);
+        configData.setOpenStateDurationMs(1_000L);
+        configData.setHalfOpenProbeCalls(2);
+        breaker = new ProducerCircuitBreaker(configData, meterRegistry, () -> nowNanos);
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onComplete(FAST, false);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void opensOnFailureRateAndRejectsUntilOpenDurationElapses() {
+        record(5, FAST, true);
+        record(5, FAST, false);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(meterRegistry.get("kafka.producer.circuit.calls")
+                .tag("state", "open").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+
+        nowNanos += TimeUnit.MILLISECONDS.toNanos(999);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void opensOnSlowCallRate() {
+        record(2, FAST, true);
+        record(8, SLOW, true);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+    }
+
+    @Test
+    void oldOutcomesSlideOutOfTheWindow() {
+        record(2, FAST, false);
+        record(10, FAST, true);
+        record(4, FAST, false);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void halfOpenClosesAfterSuccessfulProbes() {
+        record(5, FAST, false);
+        nowNanos += TimeUnit.SECONDS.toNanos(1);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(breaker.getState()).isEqualTo(CircuitState.HALF_OPEN);
+
+        record(2, FAST, true);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(meterRegistry.get("kafka.producer.circuit.transitions").tag("to", "closed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void failedProbeReopens() {
+        record(5, FAST, false);
+        nowNanos += TimeUnit.SECONDS.toNanos(1);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+
+        breaker.onComplete(FAST, false);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(meterRegistry.get("kafka.producer.circuit.state").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void awaitPermissionWaitsOutTheOpenStateWithoutCountingRejections() throws Exception {
+        record(5, FAST, false);
+        CompletableFuture<Boolean> permitted = CompletableFuture.supplyAsync(breaker::awaitPermission);
+
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(permitted).isNotDone();
+        nowNanos += TimeUnit.SECONDS.toNanos(1);
+
+        assertThat(permitted.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitState.HALF_OPEN);
+        assertThat(meterRegistry.get("kafka.producer.circuit.calls")
+                .tag("state", "open").tag("outcome", "rejected").counter().count()).isZero();
+        assertThat(meterRegistry.get("kafka.producer.circuit.blocked").timer().count()).isEqualTo(1);
+    }
+
+    private void record(int calls, long durationNanos, boolean success) {
+        for (int i = 0; i < calls; i++) {
+            breaker.onComplete(durationNanos, success);
+        }
+    }
+}
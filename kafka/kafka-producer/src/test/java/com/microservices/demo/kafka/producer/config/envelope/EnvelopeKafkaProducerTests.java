@@ -0,0 +1,183 @@
+package com.microservices.demo.kafka.producer.config.envelope;
+
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.config.EnvelopeConfigData;
+import com.microservices.demo.config.GracefulShutdownConfigData;
+import com.microservices.demo.config.HotPathLoggingConfigData;
+import com.microservices.demo.config.LatencyTrackingConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.envelope.TwitterEnvelopes;
+import com.microservices.demo.kafka.latency.LatencyTrace;
+import com.microservices.demo.kafka.producer.config.latency.PipelineLatencyRecorder;
+import com.microservices.demo.kafka.producer.config.service.DrainResult;
+import com.microservices.demo.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EnvelopeKafkaProducerTests {
+
+    private static final int PARTITIONS = 3;
+
+    private final List<CompletableFuture<SendResult<Long, TwitterAvroEnvelope>>> pendingSends = new CopyOnWriteArrayList<>();
+
+    private final List<ProducerRecord<Long, TwitterAvroEnvelope>> sentRecords = new CopyOnWriteArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TwitterKafkaProducer recordProducer = mock(TwitterKafkaProducer.class);
+
+    private EnvelopeKafkaProducer producer;
+
+    @AfterEach
+    void tearDown() {
+        pendingSends.forEach(future -> future.complete(null));
+        producer.close();
+    }
+
+    @Test
+    void packsTweetsOfOnePartitionUntilMaxRecordsUnaffectedByMessageReuse() {
+        producer = producer(3, 60_000L);
+        long[] keys = keysOfPartition(1, 4);
+        TwitterAvroModel message = tweet(0L, "first");
+
+        producer.send("twitter-topic", keys[0], message);
+        message.setText("second");
+        producer.send("twitter-topic", keys[1], message);
+        assertThat(sentRecords).isEmpty();
+        message.setText("third");
+        producer.send("twitter-topic", keys[2], message);
+        producer.send("twitter-topic", keys[3], message);
+
+        assertThat(sentRecords).hasSize(1);
+        ProducerRecord<Long, TwitterAvroEnvelope> record = sentRecords.get(0);
+        assertThat(record.topic()).isEqualTo("twitter-envelope-topic");
+        assertThat(record.partition()).isEqualTo(1);
+        assertThat(record.value().getPartition()).isEqualTo(1);
+        assertThat(record.value().getTweets()).extracting(TwitterAvroModel::getText)
+                .containsExactly("first", "second", "third");
+        assertThat(meterRegistry.get("kafka.producer.envelope.flushes").tag("trigger", "size").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void sendsLingeringEnvelopeAndRecordsLatencyOfEveryTweetOnAck() {
+        producer = producer(100, 20L);
+        long[] keys = keysOfPartition(2, 2);
+        producer.send("twitter-topic", keys[0], tweet(keys[0], "kafka"), LatencyTrace.received(System.currentTimeMillis()));
+        producer.send("twitter-topic", keys[1], tweet(keys[1], "java"), LatencyTrace.received(System.currentTimeMillis()));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sentRecords.isEmpty() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(sentRecords).hasSize(1);
+        assertThat(sentRecords.get(0).value().getTweets()).hasSize(2);
+        pendingSends.get(0).complete(null);
+
+        // The linger thread may attach the ack callback only after the send returned, and then runs it itself
+        Timer sendToAck = meterRegistry.get(PipelineLatencyRecorder.PIPELINE_LATENCY)
+                .tag("stage", PipelineLatencyRecorder.SEND_TO_ACK).timer();
+        while (sendToAck.count() < 2 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(sendToAck.count()).isEqualTo(2);
+        assertThat(meterRegistry.get("kafka.producer.envelope.flushes").tag("trigger", "linger").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void sendsRecordsForOtherTopicsOneByOne() {
+        producer = producer(3, 60_000L);
+        TwitterAvroModel message = tweet(5L, "sampled");
+
+        producer.send("twitter-sample-topic", 5L, message);
+
+        verify(recordProducer).send("twitter-sample-topic", 5L, message, null);
+        assertThat(sentRecords).isEmpty();
+    }
+
+    @Test
+    void drainSendsOpenEnvelopesAndCountsUnacknowledgedTweetsAsAbandoned() {
+        producer = producer(100, 60_000L);
+        producer.send("twitter-topic", 1L, tweet(1L, "one"));
+        producer.send("twitter-topic", 2L, tweet(2L, "two"));
+        producer.send("twitter-topic", 3L, tweet(3L, "three"));
+
+        DrainResult drainResult = producer.drain(Duration.ofMillis(50));
+
+        assertThat(sentRecords.stream().mapToInt(record -> record.value().getTweets().size()).sum()).isEqualTo(3);
+        assertThat(drainResult.abandoned()).isEqualTo(3);
+        assertThat(drainResult.drained()).isZero();
+        verify(recordProducer, never()).send(anyString(), any(), any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private EnvelopeKafkaProducer producer(int maxRecords, long lingerMs) {
+        KafkaTemplate<Long, TwitterAvroEnvelope> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.partitionsFor("twitter-envelope-topic")).thenReturn(IntStream.range(0, PARTITIONS)
+                .mapToObj(partition -> new PartitionInfo("twitter-envelope-topic", partition, null, null, null))
+                .toList());
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            sentRecords.add(invocation.getArgument(0));
+            CompletableFuture<SendResult<Long, TwitterAvroEnvelope>> future = new CompletableFuture<>();
+            pendingSends.add(future);
+            return future;
+        });
+        when(recordProducer.drain(any())).thenReturn(new DrainResult(0, 0));
+        EnvelopeConfigData envelopeConfigData = new EnvelopeConfigData();
+        envelopeConfigData.setSourceTopic("twitter-topic");
+        envelopeConfigData.setTopicName("twitter-envelope-topic");
+        envelopeConfigData.setMaxRecords(maxRecords);
+        envelopeConfigData.setMaxBytes(1 << 20);
+        envelopeConfigData.setLingerMs(lingerMs);
+        LatencyTrackingConfigData latencyTrackingConfigData = new LatencyTrackingConfigData();
+        latencyTrackingConfigData.setPercentiles(List.of(0.99));
+        latencyTrackingConfigData.setServiceLevelObjectivesMs(List.of(100L));
+        GracefulShutdownConfigData gracefulShutdownConfigData = new GracefulShutdownConfigData();
+        gracefulShutdownConfigData.setDeadlineMs(100L);
+        return new EnvelopeKafkaProducer(envelopeConfigData, recordProducer, kafkaTemplate,
+                new PipelineLatencyRecorder(latencyTrackingConfigData, meterRegistry),
+                gracefulShutdownConfigData,
+                new HotPathLogging(new HotPathLoggingConfigData()),
+                meterRegistry);
+    }
+
+    private static long[] keysOfPartition(int partition, int count) {
+        return IntStream.range(0, 1_000)
+                .filter(key -> TwitterEnvelopes.partitionFor((long) key, PARTITIONS) == partition)
+                .limit(count)
+                .mapToLong(key -> key)
+                .toArray();
+    }
+
+    private static TwitterAvroModel tweet(long userId, String text) {
+        return TwitterAvroModel.newBuilder()
+                .setUserId(userId)
+                .setId(userId)
+                .setText(text)
+                .setCreatedAt(null)
+                .build();
+    }
+}
@@ -0,0 +1,284 @@
+package com.microservices.demo.kafka.producer.config.lane;
+
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.config.CircuitBreakerConfigData;
+import com.microservices.demo.config.GracefulShutdownConfigData;
+import com.microservices.demo.config.HotPathLoggingConfigData;
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.config.LatencyTrackingConfigData;
+import com.microservices.demo.config.PriorityLaneConfigData;
+import com.microservices.demo.config.SendRetryConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.circuit.ProducerCircuitBreaker;
+import com.microservices.demo.kafka.producer.config.latency.PipelineLatencyRecorder;
+import com.microservices.demo.kafka.producer.config.profile.ProducerProfiles;
+import com.microservices.demo.kafka.producer.config.retry.FailedSendRouter;
+import com.microservices.demo.kafka.producer.config.service.DrainResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PriorityLaneKafkaProducerTests {
+
+    private final PriorityLaneConfigData priorityLaneConfigData = new PriorityLaneConfigData();
+
+    private final KafkaProducerConfigData kafkaProducerConfigData = new KafkaProducerConfigData();
+
+    private final GracefulShutdownConfigData gracefulShutdownConfigData = new GracefulShutdownConfigData();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<Map<String, Object>> laneOverrides = new ArrayList<>();
+
+    private final List<Long> sentKeys = new CopyOnWriteArrayList<>();
+
+    private final List<TwitterAvroModel> sentMessages = new CopyOnWriteArrayList<>();
+
+    /**
+     * Sends of the bulk profile producer wait for this, as if blocked for max.block.ms on metadata or a full buffer.
+     */
+    private final CountDownLatch bulkUnblocked = new CountDownLatch(1);
+
+    private final CountDownLatch bulkSendStarted = new CountDownLatch(1);
+
+    private volatile boolean bulkBlocks;
+
+    private PriorityLaneKafkaProducer producer;
+
+    @BeforeEach
+    void setUp() {
+        KafkaProducerConfigData.ProducerProfile latencySensitive = new KafkaProducerConfigData.ProducerProfile();
+        latencySensitive.setAcks("1");
+        latencySensitive.setLingerMs(0);
+        KafkaProducerConfigData.ProducerProfile bulkProfile = new KafkaProducerConfigData.ProducerProfile();
+        bulkProfile.setBatchSize(32768);
+        kafkaProducerConfigData.setBatchSizeBoostFactor(100);
+        kafkaProducerConfigData.getProfiles().put("latency-sensitive", latencySensitive);
+        kafkaProducerConfigData.getProfiles().put("bulk", bulkProfile);
+
+        PriorityLaneConfigData.Lane critical = new PriorityLaneConfigData.Lane();
+        critical.setKeywords(List.of("Kafka"));
+        critical.setProducerProfile("latency-sensitive");
+        PriorityLaneConfigData.Lane bulk = new PriorityLaneConfigData.Lane();
+        bulk.setProducerProfile("bulk");
+        priorityLaneConfigData.getLanes().put("critical", critical);
+        priorityLaneConfigData.getLanes().put("bulk", bulk);
+        priorityLaneConfigData.setDefaultLane("bulk");
+        gracefulShutdownConfigData.setDeadlineMs(100L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkUnblocked.countDown();
+        if (producer != null) {
+            producer.close();
+        }
+    }
+
+    @Test
+    void lanesArePickedByKeywordAsAWholeWordIgnoringCase() {
+        producer = createProducer();
+
+        assertThat(producer.laneNameFor("streaming with KAFKA today")).isEqualTo("critical");
+        assertThat(producer.laneNameFor("#kafka")).isEqualTo("critical");
+        assertThat(producer.laneNameFor("Kafka, streams and more")).isEqualTo("critical");
+        assertThat(producer.laneNameFor("a Kafkaesque week")).isEqualTo("bulk");
+        assertThat(producer.laneNameFor("apache-kafka2")).isEqualTo("bulk");
+        assertThat(producer.laneNameFor("streaming with java today")).isEqualTo("bulk");
+        assertThat(producer.laneNameFor(null)).isEqualTo("bulk");
+    }
+
+    @Test
+    void everyLaneSendsWithItsProfileProducer() {
+        producer = createProducer();
+
+        assertThat(laneOverrides).containsExactly(
+                Map.of("acks", "1", "linger.ms", 0),
+                Map.of("batch.size", 32768 * 100));
+    }
+
+    @Test
+    void everyLaneDispatchesItsQueueInOrder() {
+        producer = createProducer();
+        for (long key = 1; key <= 6; key++) {
+            producer.send("twitter-topic", key, tweet("kafka"));
+            producer.send("twitter-topic", 100 + key, tweet("java"));
+        }
+
+        producer.start();
+        DrainResult drainResult = producer.drain(Duration.ofSeconds(5));
+
+        assertThat(drainResult.abandoned()).isZero();
+        assertThat(sentKeys.stream().filter(key -> key < 100)).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(sentKeys.stream().filter(key -> key > 100)).containsExactly(101L, 102L, 103L, 104L, 105L, 106L);
+        assertThat(meterRegistry.get("tweet.lane.queue.wait").tag("lane", "critical").timer().count()).isEqualTo(6);
+    }
+
+    @Test
+    void criticalRecordsGoOutWhileTheBulkLaneProducerBlocks() throws InterruptedException {
+        bulkBlocks = true;
+        producer = createProducer();
+        producer.start();
+
+        producer.send("twitter-topic", 101L, tweet("java"));
+        assertThat(bulkSendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        producer.send("twitter-topic", 102L, tweet("java"));
+        producer.send("twitter-topic", 1L, tweet("kafka"));
+        producer.send("twitter-topic", 2L, tweet("kafka"));
+
+        awaitSent(2);
+        assertThat(sentKeys).containsExactly(1L, 2L);
+
+        bulkUnblocked.countDown();
+        awaitSent(4);
+        assertThat(sentKeys).containsExactly(1L, 2L, 101L, 102L);
+    }
+
+    @Test
+    void fullLaneDropsRecordsWithoutBlockingTheSenderWhenConfigured() throws InterruptedException {
+        PriorityLaneConfigData.Lane bulk = priorityLaneConfigData.getLanes().get("bulk");
+        bulk.setQueueCapacity(1);
+        bulk.setOverflowAction(PriorityLaneConfigData.OverflowAction.DROP);
+        bulkBlocks = true;
+        producer = createProducer();
+        producer.start();
+
+        producer.send("twitter-topic", 101L, tweet("java"));
+        assertThat(bulkSendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        producer.send("twitter-topic", 102L, tweet("java"));
+        producer.send("twitter-topic", 103L, tweet("java"));
+        producer.send("twitter-topic", 104L, tweet("java"));
+
+        assertThat(meterRegistry.get("tweet.lane.dropped").tag("lane", "bulk").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("tweet.lane.dropped").tag("lane", "critical").counter().count()).isZero();
+        bulkUnblocked.countDown();
+        assertThat(producer.drain(Duration.ofSeconds(5)).abandoned()).isZero();
+        assertThat(sentKeys).containsExactly(101L, 102L);
+    }
+
+    @Test
+    void queuesACopyButSendsTheCallersMessageOnceClosed() {
+        producer = createProducer();
+        producer.start();
+        TwitterAvroModel reused = tweet("kafka");
+
+        producer.send("twitter-topic", 1L, reused);
+        awaitSent(1);
+        producer.close();
+        producer.send("twitter-topic", 2L, reused);
+
+        assertThat(sentMessages).hasSize(2);
+        assertThat(sentMessages.get(0)).isNotSameAs(reused).isEqualTo(reused);
+        assertThat(sentMessages.get(1)).isSameAs(reused);
+    }
+
+    @Test
+    void closeLetsTheDispatchersSendTheirQueuesWithinTheShutdownDeadline() throws InterruptedException {
+        gracefulShutdownConfigData.setDeadlineMs(10_000L);
+        bulkBlocks = true;
+        producer = createProducer();
+        producer.start();
+        producer.send("twitter-topic", 101L, tweet("java"));
+        assertThat(bulkSendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        producer.send("twitter-topic", 102L, tweet("java"));
+        Thread unblocker = new Thread(() -> {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1_500));
+            bulkUnblocked.countDown();
+        });
+        unblocker.start();
+
+        producer.close();
+
+        assertThat(sentKeys).containsExactly(101L, 102L);
+        unblocker.join();
+    }
+
+    @Test
+    void defaultLaneMustBeOneOfTheLanes() {
+        priorityLaneConfigData.setDefaultLane("missing");
+
+        assertThatThrownBy(this::createProducer)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing");
+    }
+
+    @SuppressWarnings("unchecked")
+    private PriorityLaneKafkaProducer createProducer() {
+        LatencyTrackingConfigData latencyTrackingConfigData = new LatencyTrackingConfigData();
+        latencyTrackingConfigData.setPercentiles(List.of(0.99));
+        latencyTrackingConfigData.setServiceLevelObjectivesMs(List.of(100L));
+        CircuitBreakerConfigData circuitBreakerConfigData = new CircuitBreakerConfigData();
+        circuitBreakerConfigData.setEnabled(false);
+        circuitBreakerConfigData.setSlidingWindowSize(10);
+        circuitBreakerConfigData.setMinimumCalls(5);
+        circuitBreakerConfigData.setFailureRateThresholdPercent(50);
+        circuitBreakerConfigData.setSlowCallDurationMs(100L);
+        circuitBreakerConfigData.setSlowCallRateThresholdPercent(80);
+        circuitBreakerConfigData.setOpenStateDurationMs(1_000L);
+        circuitBreakerConfigData.setHalfOpenProbeCalls(2);
+        return new PriorityLaneKafkaProducer(priorityLaneConfigData,
+                new ProducerProfiles<>(mock(KafkaTemplate.class), kafkaProducerConfigData, overrides -> {
+                    laneOverrides.add(overrides);
+                    boolean bulkProfile = overrides.containsKey("batch.size");
+                    KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate = mock(KafkaTemplate.class);
+                    when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+                        if (bulkProfile && bulkBlocks) {
+                            bulkSendStarted.countDown();
+                            bulkUnblocked.await();
+                        }
+                        ProducerRecord<Long, TwitterAvroModel> producerRecord = invocation.getArgument(0);
+                        sentMessages.add(producerRecord.value());
+                        sentKeys.add(producerRecord.key());
+                        return CompletableFuture.completedFuture(null);
+                    });
+                    return kafkaTemplate;
+                }),
+                latencyTrackingConfigData,
+                new PipelineLatencyRecorder(latencyTrackingConfigData, meterRegistry),
+                gracefulShutdownConfigData,
+                new ProducerCircuitBreaker(circuitBreakerConfigData, meterRegistry),
+                circuitBreakerConfigData,
+                record -> {
+                },
+                new FailedSendRouter(new SendRetryConfigData(), ProducerProfiles.single(mock(KafkaTemplate.class)),
+                        meterRegistry),
+                new HotPathLogging(new HotPathLoggingConfigData()),
+                meterRegistry);
+    }
+
+    private void awaitSent(int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sentKeys.size() < count && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(sentKeys).hasSize(count);
+    }
+
+    private static TwitterAvroModel tweet(String text) {
+        return TwitterAvroModel.newBuilder()
+                .setId(1L)
+                .setUserId(1L)
+                .setText(text)
+                .setCreatedAt("2026-10-18T00:00:00Z")
+                .build();
+    }
+}
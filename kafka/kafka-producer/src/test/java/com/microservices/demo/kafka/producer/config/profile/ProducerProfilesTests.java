@@ -0,0 +1,139 @@
+package com.microservices.demo.kafka.producer.config.profile;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProducerProfilesTests {
+
+    private final KafkaProducerConfigData kafkaProducerConfigData = new KafkaProducerConfigData();
+
+    private final List<Map<String, Object>> createdWith = new ArrayList<>();
+
+    private final List<KafkaTemplate<Long, TwitterAvroModel>> created = new ArrayList<>();
+
+    private KafkaTemplate<Long, TwitterAvroModel> defaultTemplate;
+
+    @BeforeEach
+    void setUp() {
+        defaultTemplate = template();
+        kafkaProducerConfigData.setBatchSizeBoostFactor(100);
+        KafkaProducerConfigData.ProducerProfile bulk = new KafkaProducerConfigData.ProducerProfile();
+        bulk.setTopics(List.of("bulk-topic", "archive-topic"));
+        bulk.setLingerMs(20);
+        bulk.setBatchSize(32768);
+        kafkaProducerConfigData.getProfiles().put("bulk", bulk);
+    }
+
+    @Test
+    void topicsOfAProfileShareItsTemplateAndOthersUseTheDefault() {
+        ProducerProfiles<Long, TwitterAvroModel> profiles = profiles();
+
+        KafkaTemplate<Long, TwitterAvroModel> bulkTemplate = profiles.forTopic("bulk-topic");
+
+        assertThat(profiles.forTopic("archive-topic")).isSameAs(bulkTemplate);
+        assertThat(profiles.forTopic(new String("bulk-topic"))).isSameAs(bulkTemplate);
+        assertThat(profiles.forTopic("twitter-topic")).isSameAs(defaultTemplate);
+        assertThat(createdWith).containsExactly(Map.of("linger.ms", 20, "batch.size", 32768 * 100));
+    }
+
+    @Test
+    void topicStringsBuiltPerRecordStillRouteToTheirProfile() {
+        ProducerProfiles<Long, TwitterAvroModel> profiles = profiles();
+        KafkaTemplate<Long, TwitterAvroModel> bulkTemplate = profiles.forTopic("bulk-topic");
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(profiles.forTopic(new StringBuilder("bulk-").append("topic").toString())).isSameAs(bulkTemplate);
+        }
+        assertThat(profiles.forTopic(new StringBuilder("twitter-").append("topic").toString())).isSameAs(defaultTemplate);
+        assertThat(created).hasSize(1);
+    }
+
+    @Test
+    void profileTemplatesAreCreatedOnFirstUse() {
+        ProducerProfiles<Long, TwitterAvroModel> profiles = profiles();
+
+        assertThat(profiles.forTopic("twitter-topic")).isSameAs(defaultTemplate);
+        assertThat(created).isEmpty();
+        assertThat(profiles.templates()).containsExactly(defaultTemplate);
+
+        KafkaTemplate<Long, TwitterAvroModel> bulkTemplate = profiles.forProfile("bulk");
+
+        assertThat(profiles.templates()).containsExactly(defaultTemplate, bulkTemplate);
+    }
+
+    @Test
+    void reconfigureKeepsTheSettingsAProfileSets() {
+        ProducerProfiles<Long, TwitterAvroModel> profiles = profiles();
+        KafkaTemplate<Long, TwitterAvroModel> bulkTemplate = profiles.forProfile("bulk");
+
+        profiles.reconfigure(Map.of("linger.ms", 50, "acks", "1"));
+
+        verify(defaultTemplate.getProducerFactory()).updateConfigs(Map.of("linger.ms", 50, "acks", "1"));
+        verify(defaultTemplate.getProducerFactory()).reset();
+        verify(bulkTemplate.getProducerFactory()).updateConfigs(Map.of("acks", "1"));
+        verify(bulkTemplate.getProducerFactory()).reset();
+    }
+
+    @Test
+    void reconfigureLeavesProfileProducersAloneWhenTheyOverrideEverything() {
+        ProducerProfiles<Long, TwitterAvroModel> profiles = profiles();
+        KafkaTemplate<Long, TwitterAvroModel> bulkTemplate = profiles.forProfile("bulk");
+
+        profiles.reconfigure(Map.of("linger.ms", 50));
+
+        verify(bulkTemplate.getProducerFactory(), never()).reset();
+    }
+
+    @Test
+    void aTopicBelongsToOneProfileAtMost() {
+        KafkaProducerConfigData.ProducerProfile other = new KafkaProducerConfigData.ProducerProfile();
+        other.setTopics(List.of("bulk-topic"));
+        kafkaProducerConfigData.getProfiles().put("other", other);
+
+        assertThatThrownBy(this::profiles)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("bulk-topic");
+    }
+
+    @Test
+    void unknownProfileNamesAreRejected() {
+        ProducerProfiles<Long, TwitterAvroModel> profiles = profiles();
+
+        assertThat(profiles.forProfile(null)).isSameAs(defaultTemplate);
+        assertThatThrownBy(() -> profiles.forProfile("missing"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing");
+    }
+
+    private ProducerProfiles<Long, TwitterAvroModel> profiles() {
+        return new ProducerProfiles<>(defaultTemplate, kafkaProducerConfigData, overrides -> {
+            createdWith.add(overrides);
+            KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate = template();
+            created.add(kafkaTemplate);
+            return kafkaTemplate;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KafkaTemplate<Long, TwitterAvroModel> template() {
+        KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate = mock(KafkaTemplate.class);
+        ProducerFactory<Long, TwitterAvroModel> producerFactory = mock(ProducerFactory.class);
+        when(kafkaTemplate.getProducerFactory()).thenReturn(producerFactory);
+        return kafkaTemplate;
+    }
+}
@@ -0,0 +1,103 @@
+package com.microservices.demo.kafka.producer.config.retry;
+
+import com.microservices.demo.config.SendRetryConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.profile.ProducerProfiles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FailedSendRouterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch writeStarted = new CountDownLatch(1);
+
+    private final CountDownLatch writeReleased = new CountDownLatch(1);
+
+    private FailedSendRouter router;
+
+    @AfterEach
+    void tearDown() {
+        writeReleased.countDown();
+        router.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countsRecordsLostBecauseTheTierWriteFailsToo() {
+        KafkaTemplate<Long, TwitterAvroModel> template = mock(KafkaTemplate.class);
+        when(template.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        router = new FailedSendRouter(config(10), ProducerProfiles.single(template), meterRegistry);
+
+        router.route(failedRecord(1L), new IllegalStateException("broker down"));
+
+        awaitLost("tier-write-failed", 1);
+        assertThat(lost("router-queue-full")).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countsRecordsLostBecauseTheRouterQueueIsFull() throws InterruptedException {
+        KafkaTemplate<Long, TwitterAvroModel> template = mock(KafkaTemplate.class);
+        when(template.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            writeStarted.countDown();
+            writeReleased.await();
+            return new CompletableFuture<>();
+        });
+        router = new FailedSendRouter(config(1), ProducerProfiles.single(template), meterRegistry);
+
+        router.route(failedRecord(1L), new IllegalStateException("record too large"));
+        assertThat(writeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        router.route(failedRecord(2L), new IllegalStateException("record too large"));
+        router.route(failedRecord(3L), new IllegalStateException("record too large"));
+
+        assertThat(lost("router-queue-full")).isEqualTo(1);
+        assertThat(lost("tier-write-failed")).isZero();
+    }
+
+    private double lost(String reason) {
+        return meterRegistry.get("kafka.producer.retry.lost").tag("reason", reason).counter().count();
+    }
+
+    private void awaitLost(String reason, int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (lost(reason) < count && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(lost(reason)).isEqualTo(count);
+    }
+
+    private static SendRetryConfigData config(int routerQueueCapacity) {
+        SendRetryConfigData config = new SendRetryConfigData();
+        config.setEnabled(true);
+        config.setTopics(List.of("twitter-topic"));
+        config.setDelaysMs(List.of(1_000L));
+        config.setRetryTopicSuffix("-retry-");
+        config.setDeadLetterTopicSuffix("-dlt");
+        config.setRouterQueueCapacity(routerQueueCapacity);
+        return config;
+    }
+
+    private static ProducerRecord<Long, TwitterAvroModel> failedRecord(long key) {
+        return new ProducerRecord<>("twitter-topic", key, TwitterAvroModel.newBuilder()
+                .setId(key)
+                .setUserId(key)
+                .setText("kafka")
+                .setCreatedAt("2026-10-18T00:00:00Z")
+                .build());
+    }
+}
@@ -0,0 +1,138 @@
+package com.microservices.demo.kafka.producer.config.retry;
+
+import com.microservices.demo.config.SendRetryConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SendRetrierTests {
+
+    private static EmbeddedKafkaKraftBroker broker;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SendRetrier retrier;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 1, "orders", "orders-retry-200", "orders-retry-400", "orders-dlt",
+                "missing-retry-200", "missing-retry-400", "missing-dlt");
+        broker.brokerProperty("auto.create.topics.enable", "false");
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @AfterEach
+    void stopRetrier() {
+        retrier.close();
+    }
+
+    @Test
+    void resendsToTheOriginalTopicOnceTheTierDelayHasPassed() {
+        retrier = retrier("orders");
+        long failedAtMs = System.currentTimeMillis();
+        produce("orders-retry-200", "orders", failedAtMs);
+
+        ConsumerRecord<byte[], byte[]> resent = consumeOne("orders");
+
+        assertThat(new String(resent.value(), StandardCharsets.UTF_8)).isEqualTo("tweet");
+        assertThat(resent.timestamp()).isGreaterThanOrEqualTo(failedAtMs + 200);
+        assertThat(RetryHeaders.attempts(resent.headers())).isEqualTo(1);
+        assertThat(meterRegistry.get("kafka.producer.retry.resent").tag("tier", "0").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void movesRecordsThatKeepFailingThroughTheTiersToTheDeadLetterTopic() {
+        retrier = retrier("missing");
+        produce("missing-retry-200", "missing", System.currentTimeMillis());
+
+        ConsumerRecord<byte[], byte[]> deadLetter = consumeOne("missing-dlt");
+
+        assertThat(new String(deadLetter.value(), StandardCharsets.UTF_8)).isEqualTo("tweet");
+        assertThat(RetryHeaders.originalTopic(deadLetter.headers())).isEqualTo("missing");
+        assertThat(RetryHeaders.attempts(deadLetter.headers())).isEqualTo(3);
+        assertThat(deadLetter.headers().lastHeader(RetryHeaders.FAILURE_EXCEPTION)).isNotNull();
+        assertThat(meterRegistry.get("kafka.producer.retry.routed").tag("tier", "1").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("kafka.producer.dead.letter").counter().count()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private SendRetrier retrier(String topic) {
+        SendRetryConfigData config = new SendRetryConfigData();
+        config.setEnabled(true);
+        config.setTopics(List.of(topic));
+        config.setDelaysMs(List.of(200L, 400L));
+        config.setRetryTopicSuffix("-retry-");
+        config.setDeadLetterTopicSuffix("-dlt");
+        config.setRetrierGroupId("retrier-" + UUID.randomUUID());
+        config.setRetrierPollMs(100L);
+        ProducerFactory<Long, TwitterAvroModel> producerFactory = mock(ProducerFactory.class);
+        when(producerFactory.getConfigurationProperties()).thenReturn(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ProducerConfig.MAX_BLOCK_MS_CONFIG, 500));
+        SendRetrier sendRetrier = new SendRetrier(config, producerFactory, meterRegistry);
+        sendRetrier.start();
+        return sendRetrier;
+    }
+
+    /**
+     * Writes a record as FailedSendRouter does after the first failed send.
+     */
+    private static void produce(String retryTopic, String originalTopic, long failedAtMs) {
+        try (KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(
+                Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()),
+                new ByteArraySerializer(), new ByteArraySerializer())) {
+            RecordHeaders headers = new RecordHeaders();
+            RetryHeaders.recordFailure(headers, originalTopic, new IllegalStateException("broker down"));
+            producer.send(new ProducerRecord<>(retryTopic, null, failedAtMs, null,
+                    "tweet".getBytes(StandardCharsets.UTF_8), headers));
+            producer.flush();
+        }
+    }
+
+    private static ConsumerRecord<byte[], byte[]> consumeOne(String topic) {
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ConsumerConfig.GROUP_ID_CONFIG, "verifier-" + UUID.randomUUID(),
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"),
+                new ByteArrayDeserializer(), new ByteArrayDeserializer())) {
+            consumer.subscribe(List.of(topic));
+            List<ConsumerRecord<byte[], byte[]>> records = new ArrayList<>();
+            long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+            while (records.isEmpty() && System.nanoTime() < deadline) {
+                consumer.poll(Duration.ofMillis(200)).forEach(records::add);
+            }
+            assertThat(records).as("records on " + topic).hasSize(1);
+            return records.get(0);
+        }
+    }
+}
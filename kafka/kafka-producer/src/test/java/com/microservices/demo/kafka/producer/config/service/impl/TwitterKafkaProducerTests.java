@@ -0,0 +1,263 @@
+package com.microservices.demo.kafka.producer.config.service.impl;
+
+import com.microservices.demo.config.CircuitBreakerConfigData;
+import com.microservices.demo.config.GracefulShutdownConfigData;
+import com.microservices.demo.config.HotPathLoggingConfigData;
+import com.microservices.demo.config.LatencyTrackingConfigData;
+import com.microservices.demo.config.SendRetryConfigData;
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.circuit.IProducerFallback;
+import com.microservices.demo.kafka.producer.config.circuit.ProducerCircuitBreaker;
+import com.microservices.demo.kafka.producer.config.latency.PipelineLatencyRecorder;
+import com.microservices.demo.kafka.producer.config.profile.ProducerProfiles;
+import com.microservices.demo.kafka.producer.config.retry.FailedSendRouter;
+import com.microservices.demo.kafka.producer.config.retry.RetryHeaders;
+import com.microservices.demo.kafka.producer.config.service.DrainResult;
+import com.microservices.demo.kafka.producer.exception.KafkaProducerCircuitOpenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TwitterKafkaProducerTests {
+
+    private final List<CompletableFuture<SendResult<Long, TwitterAvroModel>>> pendingSends = new CopyOnWriteArrayList<>();
+
+    private final List<ProducerRecord<Long, TwitterAvroModel>> sentRecords = new CopyOnWriteArrayList<>();
+
+    private final List<ProducerRecord<Long, TwitterAvroModel>> routedRecords = new CopyOnWriteArrayList<>();
+
+    private KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate;
+
+    private ProducerFactory<Long, TwitterAvroModel> producerFactory;
+
+    private final List<ProducerRecord<?, ?>> diverted = new ArrayList<>();
+
+    private final CircuitBreakerConfigData circuitBreakerConfigData = new CircuitBreakerConfigData();
+
+    private TwitterKafkaProducer producer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        producerFactory = mock(ProducerFactory.class);
+        when(kafkaTemplate.getProducerFactory()).thenReturn(producerFactory);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            sentRecords.add(invocation.getArgument(0));
+            CompletableFuture<SendResult<Long, TwitterAvroModel>> future = new CompletableFuture<>();
+            pendingSends.add(future);
+            return future;
+        });
+        // The router sends from its own thread, on a template of its own so that it never adds to the sends above
+        KafkaTemplate<Long, TwitterAvroModel> routerTemplate = mock(KafkaTemplate.class);
+        when(routerTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            routedRecords.add(invocation.getArgument(0));
+            return new CompletableFuture<>();
+        });
+        LatencyTrackingConfigData latencyTrackingConfigData = new LatencyTrackingConfigData();
+        latencyTrackingConfigData.setPercentiles(List.of(0.99));
+        latencyTrackingConfigData.setServiceLevelObjectivesMs(List.of(100L));
+        GracefulShutdownConfigData gracefulShutdownConfigData = new GracefulShutdownConfigData();
+        gracefulShutdownConfigData.setDeadlineMs(100L);
+        circuitBreakerConfigData.setEnabled(true);
+        circuitBreakerConfigData.setSlidingWindowSize(4);
+        circuitBreakerConfigData.setMinimumCalls(2);
+        circuitBreakerConfigData.setFailureRateThresholdPercent(50);
+        circuitBreakerConfigData.setSlowCallDurationMs(60_000L);
+        circuitBreakerConfigData.setSlowCallRateThresholdPercent(100);
+        circuitBreakerConfigData.setOpenStateDurationMs(60_000L);
+        circuitBreakerConfigData.setHalfOpenProbeCalls(1);
+        circuitBreakerConfigData.setOpenStateAction(CircuitBreakerConfigData.OpenStateAction.FALLBACK);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IProducerFallback producerFallback = diverted::add;
+        SendRetryConfigData sendRetryConfigData = new SendRetryConfigData();
+        sendRetryConfigData.setEnabled(true);
+        sendRetryConfigData.setTopics(List.of("twitter-topic"));
+        sendRetryConfigData.setDelaysMs(List.of(1_000L, 10_000L));
+        sendRetryConfigData.setRetryTopicSuffix("-retry-");
+        sendRetryConfigData.setDeadLetterTopicSuffix("-dlt");
+        sendRetryConfigData.setRouterQueueCapacity(10);
+        producer = new TwitterKafkaProducer(ProducerProfiles.single(kafkaTemplate),
+                new PipelineLatencyRecorder(latencyTrackingConfigData, meterRegistry),
+                gracefulShutdownConfigData,
+                new ProducerCircuitBreaker(circuitBreakerConfigData, meterRegistry),
+                circuitBreakerConfigData,
+                producerFallback,
+                new FailedSendRouter(sendRetryConfigData, ProducerProfiles.single(routerTemplate), meterRegistry),
+                new HotPathLogging(new HotPathLoggingConfigData()));
+    }
+
+    @Test
+    void routesFailedSendsToTheFirstRetryTierUnaffectedByMessageReuse() {
+        TwitterAvroModel message = tweet();
+        producer.send("twitter-topic", 1L, message);
+        message.setText("next tweet");
+        pendingSends.get(0).completeExceptionally(new IllegalStateException("broker down"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (routedRecords.isEmpty() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(sentRecords).hasSize(1);
+        assertThat(routedRecords).hasSize(1);
+        ProducerRecord<Long, TwitterAvroModel> retryRecord = routedRecords.get(0);
+        assertThat(retryRecord.topic()).isEqualTo("twitter-topic-retry-1000");
+        assertThat(retryRecord.key()).isEqualTo(1L);
+        assertThat(retryRecord.value().getText()).isEqualTo("kafka");
+        assertThat(RetryHeaders.originalTopic(retryRecord.headers())).isEqualTo("twitter-topic");
+        assertThat(RetryHeaders.attempts(retryRecord.headers())).isEqualTo(1);
+    }
+
+    @Test
+    void sendsEachRecordOnce() {
+        producer.send("twitter-topic", 1L, tweet());
+
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void drainCountsAckedAndFailedRecordsAsDrained() {
+        producer.send("twitter-topic", 1L, tweet());
+        producer.send("twitter-topic", 2L, tweet());
+        pendingSends.get(0).complete(null);
+        pendingSends.get(1).completeExceptionally(new IllegalStateException("broker down"));
+
+        assertThat(producer.drain(Duration.ofMillis(100))).isEqualTo(new DrainResult(0, 0));
+    }
+
+    @Test
+    void drainGivesUpAtTheDeadline() {
+        producer.send("twitter-topic", 1L, tweet());
+        producer.send("twitter-topic", 2L, tweet());
+        pendingSends.get(0).complete(null);
+
+        long start = System.nanoTime();
+        DrainResult drainResult = producer.drain(Duration.ofMillis(50));
+
+        assertThat(drainResult).isEqualTo(new DrainResult(0, 1));
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void drainWaitsForOutstandingAcks() {
+        producer.send("twitter-topic", 1L, tweet());
+        CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS)
+                .execute(() -> pendingSends.get(0).complete(null));
+
+        assertThat(producer.drain(Duration.ofSeconds(5))).isEqualTo(new DrainResult(1, 0));
+    }
+
+    @Test
+    void openCircuitDivertsToFallbackWithoutSending() {
+        producer.send("twitter-topic", 1L, tweet());
+        producer.send("twitter-topic", 2L, tweet());
+        pendingSends.forEach(future -> future.completeExceptionally(new IllegalStateException("broker down")));
+
+        producer.send("twitter-topic", 3L, tweet());
+
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+        assertThat(diverted).singleElement().extracting(ProducerRecord::key).isEqualTo(3L);
+    }
+
+    @Test
+    void openCircuitFailsFastWhenConfigured() {
+        circuitBreakerConfigData.setOpenStateAction(CircuitBreakerConfigData.OpenStateAction.FAIL_FAST);
+        producer.send("twitter-topic", 1L, tweet());
+        producer.send("twitter-topic", 2L, tweet());
+        pendingSends.forEach(future -> future.completeExceptionally(new IllegalStateException("broker down")));
+
+        assertThatThrownBy(() -> producer.send("twitter-topic", 3L, tweet()))
+                .isInstanceOf(KafkaProducerCircuitOpenException.class);
+        assertThat(diverted).isEmpty();
+    }
+
+    @Test
+    void openCircuitBlocksTheSenderByDefault() throws InterruptedException {
+        circuitBreakerConfigData.setOpenStateAction(null);
+        producer.send("twitter-topic", 1L, tweet());
+        producer.send("twitter-topic", 2L, tweet());
+        pendingSends.forEach(future -> future.completeExceptionally(new IllegalStateException("broker down")));
+        AtomicReference<Throwable> sendFailure = new AtomicReference<>();
+        Thread sender = new Thread(() -> {
+            try {
+                producer.send("twitter-topic", 3L, tweet());
+            } catch (RuntimeException e) {
+                sendFailure.set(e);
+            }
+        });
+
+        sender.start();
+        sender.join(200);
+        assertThat(sender.isAlive()).isTrue();
+        sender.interrupt();
+        sender.join(5_000);
+
+        assertThat(sendFailure.get()).isInstanceOf(KafkaProducerCircuitOpenException.class);
+        assertThat(diverted).isEmpty();
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void closedCircuitNeverUsesFallback() {
+        producer.send("twitter-topic", 1L, tweet());
+        pendingSends.get(0).complete(null);
+
+        assertThat(diverted).isEmpty();
+        verify(kafkaTemplate, never()).flush();
+    }
+
+    @Test
+    void reconfigureSwapsTheProducerOnceOutstandingRecordsAreAcked() {
+        producer.send("twitter-topic", 1L, tweet());
+        CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS)
+                .execute(() -> pendingSends.get(0).complete(null));
+        Map<String, Object> overrides = Map.of("linger.ms", 20);
+
+        assertThat(producer.reconfigure(overrides, Duration.ofSeconds(5))).isTrue();
+        verify(producerFactory).updateConfigs(overrides);
+        verify(producerFactory).reset();
+    }
+
+    @Test
+    void reconfigureKeepsTheProducerWhenRecordsStayUnackedPastThePause() {
+        producer.send("twitter-topic", 1L, tweet());
+
+        assertThat(producer.reconfigure(Map.of("linger.ms", 20), Duration.ofMillis(50))).isFalse();
+        verify(producerFactory, never()).reset();
+
+        producer.send("twitter-topic", 2L, tweet());
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+    }
+
+    private static TwitterAvroModel tweet() {
+        return TwitterAvroModel.newBuilder()
+                .setId(1L)
+                .setUserId(1L)
+                .setText("kafka")
+                .setCreatedAt("2026-10-18T00:00:00Z")
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.microservices.demo.twitter.to.kafka.service.aot;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Reflection and resource hints for the libraries that load classes by name at runtime, so the service also
+ * starts from the AOT-processed context of the aot-cds profile.
+ */
+public class TwitterToKafkaRuntimeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * Picked by twitter4j's factories through Class.forName, depending on what is on the classpath.
+     */
+    private static final List<String> TWITTER4J_TYPES = List.of(
+            "twitter4j.DispatcherImpl",
+            "twitter4j.HttpClientImpl",
+            "twitter4j.SLF4JLoggerFactory",
+            "twitter4j.StdOutLoggerFactory",
+            "twitter4j.conf.PropertyConfigurationFactory"
+    );
+
+    /**
+     * Instantiated by the Kafka clients from the serializer class names in kafka-producer-config.
+     */
+    private static final List<String> KAFKA_SERIALIZER_TYPES = List.of(
+            "org.apache.kafka.common.serialization.LongSerializer",
+            "io.confluent.kafka.serializers.KafkaAvroSerializer"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // SpecificData reads SCHEMA$ and news up records reflectively when the serializer resolves the schema
+        hints.reflection().registerType(TwitterAvroModel.class,
+                MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(TwitterAvroModel.Builder.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        TWITTER4J_TYPES.forEach(type -> hints.reflection().registerType(TypeReference.of(type),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS));
+        hints.resources().registerPattern("twitter4j.properties");
+
+        KAFKA_SERIALIZER_TYPES.forEach(type -> hints.reflection().registerType(TypeReference.of(type),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS));
+    }
+}
@@ -0,0 +1,39 @@
+package com.microservices.demo.twitter.to.kafka.service.controller;
+
+import com.microservices.demo.twitter.to.kafka.service.latest.LatestTweet;
+import com.microservices.demo.twitter.to.kafka.service.latest.LatestTweetView;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/users")
+public class LatestTweetController {
+
+    private final LatestTweetView latestTweetView;
+
+    public LatestTweetController(LatestTweetView latestTweetView) {
+        this.latestTweetView = latestTweetView;
+    }
+
+    /**
+     * Latest tweet of a user from the view of the compacted latest tweet topic.
+     * Example: GET /users/42/latest-tweet
+     *
+     * @param userId id of the user
+     * @return the tweet, 404 when the user has none, or 503 while the view is restoring or disabled
+     */
+    @GetMapping("/{userId}/latest-tweet")
+    public ResponseEntity<LatestTweet> getLatestTweet(@PathVariable long userId) {
+        if (!latestTweetView.isRestored()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return latestTweetView.latestTweet(userId)
+                .map(LatestTweet::of)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,36 @@
+package com.microservices.demo.twitter.to.kafka.service.controller;
+
+import com.microservices.demo.config.TrendingTermsConfigData;
+import com.microservices.demo.twitter.to.kafka.service.trending.ITrendingTermsTracker;
+import com.microservices.demo.twitter.to.kafka.service.trending.TrendingTerm;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/trending-terms")
+public class TrendingTermsController {
+
+    private final ITrendingTermsTracker trendingTermsTracker;
+
+    private final TrendingTermsConfigData trendingTermsConfigData;
+
+    public TrendingTermsController(ITrendingTermsTracker trendingTermsTracker, TrendingTermsConfigData trendingTermsConfigData) {
+        this.trendingTermsTracker = trendingTermsTracker;
+        this.trendingTermsConfigData = trendingTermsConfigData;
+    }
+
+    /**
+     * Current top terms and hashtags within the sliding window.
+     * Example: GET /trending-terms?k=20
+     *
+     * @param k number of terms to return, defaults to trending-terms-config.top-k
+     */
+    @GetMapping
+    public List<TrendingTerm> getTopTerms(@RequestParam(required = false) Integer k) {
+        return trendingTermsTracker.getTopTerms(k == null ? trendingTermsConfigData.getTopK() : k);
+    }
+}
@@ -0,0 +1,52 @@
+package com.microservices.demo.twitter.to.kafka.service.controller;
+
+import com.microservices.demo.config.TweetIndexConfigData;
+import com.microservices.demo.twitter.to.kafka.service.index.ITweetIndex;
+import com.microservices.demo.twitter.to.kafka.service.index.TweetSearchOperator;
+import com.microservices.demo.twitter.to.kafka.service.index.TweetSearchQuery;
+import com.microservices.demo.twitter.to.kafka.service.index.TweetSearchResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/tweet-index")
+public class TweetIndexController {
+
+    private final ITweetIndex tweetIndex;
+
+    private final TweetIndexConfigData tweetIndexConfigData;
+
+    public TweetIndexController(ITweetIndex tweetIndex, TweetIndexConfigData tweetIndexConfigData) {
+        this.tweetIndex = tweetIndex;
+        this.tweetIndexConfigData = tweetIndexConfigData;
+    }
+
+    /**
+     * Searches recent tweets by term.
+     * Example: GET /tweet-index/search?terms=java&amp;terms=kafka&amp;operator=AND&amp;from=1700000000000
+     *
+     * @param terms    one or more terms to match
+     * @param operator AND to require every term, OR to require any of them
+     * @param from     inclusive lower bound of the creation time in epoch millis, defaults to the retention window
+     * @param to       inclusive upper bound of the creation time in epoch millis, defaults to now
+     * @param limit    maximum number of tweet ids to return, capped by tweet-index-config.max-results
+     * @return matching tweet ids, newest first
+     */
+    @GetMapping("/search")
+    public TweetSearchResult search(@RequestParam List<String> terms,
+                                    @RequestParam(defaultValue = "AND") TweetSearchOperator operator,
+                                    @RequestParam(required = false) Long from,
+                                    @RequestParam(required = false) Long to,
+                                    @RequestParam(required = false) Integer limit) {
+        long now = System.currentTimeMillis();
+        return tweetIndex.search(TweetSearchQuery.of(terms,
+                operator,
+                from == null ? now - tweetIndexConfigData.getRetentionMs() : from,
+                to == null ? now : to,
+                limit == null ? tweetIndexConfigData.getMaxResults() : limit));
+    }
+}
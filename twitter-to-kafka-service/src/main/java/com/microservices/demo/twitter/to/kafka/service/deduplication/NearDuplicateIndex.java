@@ -0,0 +1,146 @@
+package com.microservices.demo.twitter.to.kafka.service.deduplication;
+
+import java.util.Arrays;
+
+/**
+ * Fingerprints of the tweets of a sliding time window, searchable for one within a Hamming distance.
+ * <p>
+ * A fingerprint is split into maxDistance + 1 bands of adjacent bits. Two fingerprints that differ in at most
+ * maxDistance bits differ in at most that many bands, so they agree on at least one band exactly, and only the
+ * tweets sharing a band with the searched fingerprint are compared. Every band has a hash table from band value
+ * to the newest tweet with it, and every tweet links to the next older one of its bucket.
+ * <p>
+ * Tweets are kept in a ring of capacity slots in arrival order and forgotten when they leave the window or when
+ * the ring is full, which only moves the tail forward; a link to a sequence number behind the tail ends the chain,
+ * so nothing is unlinked. The memory is fixed at about (24 + 16 * bands) bytes per slot.
+ */
+public class NearDuplicateIndex {
+
+    public static final long NO_MATCH = -1L;
+
+    private static final long NONE = -1L;
+
+    private final int maxDistance;
+
+    private final long windowMs;
+
+    private final int capacity;
+
+    private final int slotMask;
+
+    private final int bands;
+
+    private final int[] bandShifts;
+
+    private final long[] bandMasks;
+
+    private final int tableMask;
+
+    private final long[] heads;
+
+    private final long[] next;
+
+    private final long[] fingerprints;
+
+    private final long[] clusterIds;
+
+    private final long[] addedAtMs;
+
+    private long head;
+
+    private long tail;
+
+    /**
+     * @param maxDistance largest Hamming distance of a near duplicate, 0 to 7; every band must stay wide enough
+     *                    to make chance matches rare
+     * @param capacity    tweets held at most, rounded up to a power of two
+     */
+    public NearDuplicateIndex(int maxDistance, long windowMs, int capacity) {
+        if (maxDistance < 0 || maxDistance > 7) {
+            throw new IllegalArgumentException("Hamming distance must be between 0 and 7, was " + maxDistance);
+        }
+        this.maxDistance = maxDistance;
+        this.windowMs = windowMs;
+        this.capacity = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.slotMask = this.capacity - 1;
+        this.bands = maxDistance + 1;
+        this.bandShifts = new int[bands];
+        this.bandMasks = new long[bands];
+        int shift = 0;
+        for (int band = 0; band < bands; band++) {
+            int bits = Long.SIZE / bands + (band < Long.SIZE % bands ? 1 : 0);
+            bandShifts[band] = shift;
+            bandMasks[band] = bits == Long.SIZE ? -1L : (1L << bits) - 1;
+            shift += bits;
+        }
+        this.tableMask = slotMask;
+        this.heads = new long[bands * this.capacity];
+        this.next = new long[bands * this.capacity];
+        this.fingerprints = new long[this.capacity];
+        this.clusterIds = new long[this.capacity];
+        this.addedAtMs = new long[this.capacity];
+        Arrays.fill(heads, NONE);
+    }
+
+    /**
+     * Looks for a tweet of the window whose fingerprint is within the Hamming distance and returns its cluster.
+     * Without one the fingerprint is added as the first tweet of cluster id. Matches are not added, so a flood of
+     * copies neither grows the chains nor pushes other tweets out of the window; copies arriving for longer than
+     * the window let one through per window.
+     *
+     * @return the cluster of the match, or {@link #NO_MATCH} when the fingerprint was added
+     */
+    public synchronized long findOrAdd(long fingerprint, long id, long nowMs) {
+        expire(nowMs);
+        for (int band = 0; band < bands; band++) {
+            int bucket = band * capacity + bucket(fingerprint, band);
+            for (long seq = heads[bucket]; seq >= tail; seq = next[band * capacity + slot(seq)]) {
+                int slot = slot(seq);
+                if (SimHash.distance(fingerprints[slot], fingerprint) <= maxDistance) {
+                    return clusterIds[slot];
+                }
+            }
+        }
+        add(fingerprint, id, nowMs);
+        return NO_MATCH;
+    }
+
+    /**
+     * @return tweets in the window, as of the last call to {@link #findOrAdd}
+     */
+    public synchronized int size() {
+        return (int) (head - tail);
+    }
+
+    private void expire(long nowMs) {
+        while (tail < head && nowMs - addedAtMs[slot(tail)] >= windowMs) {
+            tail++;
+        }
+    }
+
+    private void add(long fingerprint, long id, long nowMs) {
+        if (head - tail == capacity) {
+            tail++;
+        }
+        int slot = slot(head);
+        fingerprints[slot] = fingerprint;
+        clusterIds[slot] = id;
+        addedAtMs[slot] = nowMs;
+        for (int band = 0; band < bands; band++) {
+            int bucket = band * capacity + bucket(fingerprint, band);
+            next[band * capacity + slot] = heads[bucket];
+            heads[bucket] = head;
+        }
+        head++;
+    }
+
+    private int bucket(long fingerprint, int band) {
+        long value = (fingerprint >>> bandShifts[band]) & bandMasks[band];
+        long hash = (value + band) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & tableMask;
+    }
+
+    private int slot(long seq) {
+        return (int) seq & slotMask;
+    }
+}
@@ -0,0 +1,111 @@
+package com.microservices.demo.twitter.to.kafka.service.deduplication;
+
+import com.microservices.demo.config.NearDuplicateConfigData;
+import com.microservices.demo.config.TokenizationConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.tokenization.TweetTextScanner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds tweets that are near copies of a tweet of the last window-ms, such as copy-paste spam and bot retweets
+ * with another mention, link or a word changed, which exact id deduplication lets through. Depending on action
+ * they are tagged with the id of the first tweet of their cluster as nearDuplicateClusterId, the default, or
+ * dropped before they are produced. Dropping has to be asked for: tweets that merely share most of their terms,
+ * such as those of a small vocabulary, match as well.
+ * <p>
+ * The fingerprint is the {@link SimHash} of the tweet's tokens, which leave out URLs and mentions, or of the terms
+ * of its text when tokenization is disabled; tweets with fewer than min-tokens terms are not checked. Runs on the
+ * ingest threads with a {@link SimHash} per thread and one {@link NearDuplicateIndex}, whose memory is fixed by
+ * capacity.
+ * <p>
+ * Publishes tweet.near.duplicate.checked, tweet.near.duplicates{action} and tweet.near.duplicate.window.size.
+ */
+@Component
+public class NearDuplicateStage {
+
+    private final ThreadLocal<SimHash> simHashes = ThreadLocal.withInitial(SimHash::new);
+
+    private final ThreadLocal<TweetTextScanner> scanners = ThreadLocal.withInitial(TweetTextScanner::new);
+
+    private final ThreadLocal<List<String>> terms = ThreadLocal.withInitial(ArrayList::new);
+
+    private final ThreadLocal<List<String>> hashtags = ThreadLocal.withInitial(ArrayList::new);
+
+    private final boolean enabled;
+
+    private final boolean drop;
+
+    private final int minTokens;
+
+    private final int maxTokens;
+
+    private final NearDuplicateIndex index;
+
+    private final Counter checked;
+
+    private final Counter duplicates;
+
+    public NearDuplicateStage(NearDuplicateConfigData nearDuplicateConfigData,
+                              TokenizationConfigData tokenizationConfigData,
+                              MeterRegistry meterRegistry) {
+        this.enabled = Boolean.TRUE.equals(nearDuplicateConfigData.getEnabled());
+        this.drop = nearDuplicateConfigData.getAction() == NearDuplicateConfigData.Action.DROP;
+        this.minTokens = nearDuplicateConfigData.getMinTokens() == null ? 0 : nearDuplicateConfigData.getMinTokens();
+        this.maxTokens = tokenizationConfigData.getMaxTokens() == null ? Integer.MAX_VALUE
+                : tokenizationConfigData.getMaxTokens();
+        this.index = enabled
+                ? new NearDuplicateIndex(nearDuplicateConfigData.getMaxHammingDistance(),
+                nearDuplicateConfigData.getWindowMs(), nearDuplicateConfigData.getCapacity())
+                : null;
+        this.checked = Counter.builder("tweet.near.duplicate.checked").register(meterRegistry);
+        this.duplicates = Counter.builder("tweet.near.duplicates").tag("action", drop ? "dropped" : "tagged")
+                .register(meterRegistry);
+        if (enabled) {
+            Gauge.builder("tweet.near.duplicate.window.size", index, NearDuplicateIndex::size).register(meterRegistry);
+        }
+    }
+
+    /**
+     * @return false when the tweet is a near duplicate to drop
+     */
+    public boolean admit(TwitterAvroModel twitterAvroModel) {
+        // A reused model may still carry the cluster of the previous tweet
+        twitterAvroModel.setNearDuplicateClusterId(null);
+        if (!enabled) {
+            return true;
+        }
+        List<String> features = features(twitterAvroModel);
+        if (features.size() < minTokens) {
+            return true;
+        }
+        checked.increment();
+        long fingerprint = simHashes.get().fingerprint(features);
+        long clusterId = index.findOrAdd(fingerprint, twitterAvroModel.getId(), System.currentTimeMillis());
+        if (clusterId == NearDuplicateIndex.NO_MATCH) {
+            return true;
+        }
+        duplicates.increment();
+        if (drop) {
+            return false;
+        }
+        twitterAvroModel.setNearDuplicateClusterId(clusterId);
+        return true;
+    }
+
+    private List<String> features(TwitterAvroModel twitterAvroModel) {
+        if (twitterAvroModel.getTokens() != null) {
+            return twitterAvroModel.getTokens();
+        }
+        List<String> scanned = terms.get();
+        scanned.clear();
+        hashtags.get().clear();
+        scanners.get().scan(twitterAvroModel.getText(), scanned, hashtags.get(), maxTokens);
+        return scanned;
+    }
+}
@@ -0,0 +1,66 @@
+package com.microservices.demo.twitter.to.kafka.service.deduplication;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 64-bit SimHash of the terms of a tweet: every term is hashed to 64 bits, adds one to the bits that are set in its
+ * hash and subtracts one from the others, and the fingerprint has the bits set that ended up positive. Texts sharing
+ * most of their terms thus differ in few bits. Terms are not paired with their neighbours: a tweet has so few that
+ * the pairs a single changed word breaks move the fingerprint as far as unrelated text would, and a reordered copy
+ * is still a copy.
+ * <p>
+ * Instances keep the bit counts between calls and are not thread-safe.
+ */
+public final class SimHash {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int[] bitCounts = new int[Long.SIZE];
+
+    public long fingerprint(List<String> terms) {
+        Arrays.fill(bitCounts, 0);
+        for (int i = 0; i < terms.size(); i++) {
+            add(hash(terms.get(i)));
+        }
+        long fingerprint = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (bitCounts[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    public static int distance(long fingerprint, long other) {
+        return Long.bitCount(fingerprint ^ other);
+    }
+
+    private void add(long featureHash) {
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            // +1 for a set bit, -1 for a clear one
+            bitCounts[bit] += (int) ((featureHash >>> bit) & 1L) * 2 - 1;
+        }
+    }
+
+    /**
+     * FNV-1a over the chars, finished with the MurmurHash3 mix so that similar terms get unrelated bits.
+     */
+    private static long hash(String term) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < term.length(); i++) {
+            hash = (hash ^ term.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
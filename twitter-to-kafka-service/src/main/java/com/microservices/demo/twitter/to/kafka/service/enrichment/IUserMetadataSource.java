@@ -0,0 +1,11 @@
+package com.microservices.demo.twitter.to.kafka.service.enrichment;
+
+public interface IUserMetadataSource {
+
+    /**
+     * Called from the enrichment cache's loader threads, possibly concurrently for different users.
+     *
+     * @return the user's metadata, {@link UserMetadata#UNKNOWN} when the source does not know the user
+     */
+    UserMetadata lookup(long userId);
+}
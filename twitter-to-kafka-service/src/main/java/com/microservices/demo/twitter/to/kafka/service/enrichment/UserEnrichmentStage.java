@@ -0,0 +1,159 @@
+package com.microservices.demo.twitter.to.kafka.service.enrichment;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.common.logging.SampledLogSite;
+import com.microservices.demo.config.UserEnrichmentConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adds the author's follower tier and account class to the record before it is produced, so consumers do not
+ * look them up per record.
+ * <p>
+ * Lookups go through a cache bounded by size and age. Concurrent misses for the same user share one load, and
+ * entries older than cache-refresh-after-write-ms are reloaded in the background while the old value is still
+ * served, so at steady state a record only pays for a cache hit. A record that misses waits at most
+ * lookup-timeout-ms for the load and is produced without user metadata after that; the load itself continues
+ * and fills the cache for the user's next tweet.
+ * <p>
+ * Publishes the cache's hits, misses, loads and evictions under cache.* with cache=user-metadata, the hit ratio
+ * as user.enrichment.hit.ratio and the time records spend here as user.enrichment.lookup{wait}: "immediate" when
+ * the value was already loaded, "waited" when the record waited for a load, its own or a concurrent one.
+ * <p>
+ * Enabling it without a user-enrichment-config.source fails at startup rather than producing records without the
+ * metadata their consumers expect.
+ */
+@Component
+public class UserEnrichmentStage {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserEnrichmentStage.class);
+
+    private static final String CACHE_NAME = "user-metadata";
+
+    private final boolean enabled;
+
+    private final long lookupTimeoutNanos;
+
+    private final ExecutorService loaderExecutor;
+
+    private final AsyncLoadingCache<Long, UserMetadata> cache;
+
+    private final Timer immediateTimer;
+
+    private final Timer waitedTimer;
+
+    private final Counter timeouts;
+
+    private final Counter failures;
+
+    private final SampledLogSite failureLog;
+
+    @Autowired
+    public UserEnrichmentStage(UserEnrichmentConfigData userEnrichmentConfigData,
+                               ObjectProvider<IUserMetadataSource> userMetadataSources,
+                               HotPathLogging hotPathLogging,
+                               MeterRegistry meterRegistry) {
+        this(userEnrichmentConfigData, userMetadataSources.getIfAvailable(), hotPathLogging, meterRegistry);
+    }
+
+    UserEnrichmentStage(UserEnrichmentConfigData userEnrichmentConfigData,
+                        IUserMetadataSource userMetadataSource,
+                        HotPathLogging hotPathLogging,
+                        MeterRegistry meterRegistry) {
+        this.enabled = Boolean.TRUE.equals(userEnrichmentConfigData.getEnabled());
+        if (enabled && userMetadataSource == null) {
+            throw new TwitterToKafkaServiceException("user-enrichment-config.enabled needs a user-enrichment-config.source, "
+                    + "but source is " + userEnrichmentConfigData.getSource());
+        }
+        IUserMetadataSource source = userMetadataSource == null ? userId -> UserMetadata.UNKNOWN : userMetadataSource;
+        this.lookupTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(userEnrichmentConfigData.getLookupTimeoutMs());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.loaderExecutor = Executors.newFixedThreadPool(userEnrichmentConfigData.getLoaderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "user-metadata-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(userEnrichmentConfigData.getCacheMaximumSize())
+                .expireAfterWrite(Duration.ofMillis(userEnrichmentConfigData.getCacheExpireAfterWriteMs()))
+                .refreshAfterWrite(Duration.ofMillis(userEnrichmentConfigData.getCacheRefreshAfterWriteMs()))
+                .executor(loaderExecutor)
+                .recordStats()
+                .buildAsync(source::lookup);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("user.enrichment.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                .register(meterRegistry);
+        this.immediateTimer = lookupTimer("immediate", meterRegistry);
+        this.waitedTimer = lookupTimer("waited", meterRegistry);
+        this.timeouts = Counter.builder("user.enrichment.timeouts").register(meterRegistry);
+        this.failures = Counter.builder("user.enrichment.failures").register(meterRegistry);
+        this.failureLog = hotPathLogging.site("user-enrichment-failed", LOG);
+    }
+
+    public void enrich(TwitterAvroModel twitterAvroModel) {
+        if (!enabled) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        CompletableFuture<UserMetadata> lookup = cache.get(twitterAvroModel.getUserId());
+        UserMetadata userMetadata;
+        if (lookup.isDone() && !lookup.isCompletedExceptionally()) {
+            userMetadata = lookup.join();
+            immediateTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        } else {
+            userMetadata = await(lookup, twitterAvroModel.getUserId());
+            waitedTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        twitterAvroModel.setFollowerTier(userMetadata.followerTier());
+        twitterAvroModel.setAccountClass(userMetadata.accountClass());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loaderExecutor.shutdownNow();
+    }
+
+    private UserMetadata await(CompletableFuture<UserMetadata> lookup, long userId) {
+        try {
+            return lookup.get(lookupTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+        } catch (ExecutionException e) {
+            failures.increment();
+            failureLog.info("Lookup of user {} failed: {}", userId, e.getCause().toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return UserMetadata.UNKNOWN;
+    }
+
+    private static Timer lookupTimer(String wait, MeterRegistry meterRegistry) {
+        return Timer.builder("user.enrichment.lookup")
+                .tag("wait", wait)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,12 @@
+package com.microservices.demo.twitter.to.kafka.service.enrichment;
+
+/**
+ * Attributes of a tweet's author that are added to the record before it is produced.
+ */
+public record UserMetadata(String followerTier, String accountClass) {
+
+    /**
+     * Cached for users the source does not know, so they are not looked up again on every tweet.
+     */
+    public static final UserMetadata UNKNOWN = new UserMetadata(null, null);
+}
@@ -0,0 +1,75 @@
+package com.microservices.demo.twitter.to.kafka.service.enrichment.impl;
+
+import com.microservices.demo.config.UserEnrichmentConfigData;
+import com.microservices.demo.twitter.to.kafka.service.enrichment.IUserMetadataSource;
+import com.microservices.demo.twitter.to.kafka.service.enrichment.UserMetadata;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads user metadata from a local CSV file of userId,followerTier,accountClass lines once at startup.
+ */
+@Component
+@ConditionalOnProperty(name = "user-enrichment-config.source", havingValue = "file")
+public class FileUserMetadataSource implements IUserMetadataSource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileUserMetadataSource.class);
+
+    private final Map<Long, UserMetadata> users;
+
+    public FileUserMetadataSource(UserEnrichmentConfigData userEnrichmentConfigData) {
+        Path path = Path.of(userEnrichmentConfigData.getFilePath());
+        this.users = read(path);
+        LOG.info("Loaded metadata of {} users from {}", users.size(), path);
+    }
+
+    @Override
+    public UserMetadata lookup(long userId) {
+        return users.getOrDefault(userId, UserMetadata.UNKNOWN);
+    }
+
+    static Map<Long, UserMetadata> read(Path path) {
+        Map<Long, UserMetadata> users = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length != 3) {
+                    throw new TwitterToKafkaServiceException("Expected userId,followerTier,accountClass on line "
+                            + lineNumber + " of " + path);
+                }
+                try {
+                    users.put(Long.parseLong(fields[0].strip()),
+                            new UserMetadata(emptyToNull(fields[1]), emptyToNull(fields[2])));
+                } catch (NumberFormatException e) {
+                    throw new TwitterToKafkaServiceException("Invalid user id on line " + lineNumber + " of " + path);
+                }
+            }
+        } catch (IOException e) {
+            throw new TwitterToKafkaServiceException("Could not read user metadata from " + path, e);
+        }
+        return users;
+    }
+
+    private static String emptyToNull(String field) {
+        String stripped = field.strip();
+        return stripped.isEmpty() ? null : stripped;
+    }
+}
@@ -0,0 +1,49 @@
+package com.microservices.demo.twitter.to.kafka.service.enrichment.impl;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.config.UserEnrichmentConfigData;
+import com.microservices.demo.twitter.to.kafka.service.enrichment.IUserMetadataSource;
+import com.microservices.demo.twitter.to.kafka.service.enrichment.UserMetadata;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stands in for a remote user service: derives stable metadata from the user id and takes
+ * simulated-lookup-delay-ms per lookup, like a network round trip would. Only for mock tweets: the metadata is made
+ * up, so it refuses to start when real tweets are streamed.
+ */
+@Component
+@ConditionalOnProperty(name = "user-enrichment-config.source", havingValue = "simulated")
+public class SimulatedUserMetadataSource implements IUserMetadataSource {
+
+    private static final String[] FOLLOWER_TIERS = {"nano", "micro", "mid", "macro", "mega"};
+
+    private static final String[] ACCOUNT_CLASSES = {"personal", "business", "media", "government"};
+
+    private final long delayNanos;
+
+    public SimulatedUserMetadataSource(UserEnrichmentConfigData userEnrichmentConfigData,
+                                       TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData) {
+        if (!Boolean.TRUE.equals(twitterToKafkaServiceConfigData.getEnableMockTweets())) {
+            throw new TwitterToKafkaServiceException("user-enrichment-config.source simulated makes up user metadata and "
+                    + "needs twitter-to-kafka-service.enable-mock-tweets");
+        }
+        Long delayMs = userEnrichmentConfigData.getSimulatedLookupDelayMs();
+        this.delayNanos = delayMs == null ? 0 : TimeUnit.MILLISECONDS.toNanos(delayMs);
+    }
+
+    @Override
+    public UserMetadata lookup(long userId) {
+        if (delayNanos > 0) {
+            LockSupport.parkNanos(delayNanos);
+        }
+        // Fewer users in every higher tier
+        int tier = Math.min(Long.numberOfTrailingZeros(userId | 1L << 62) / 2, FOLLOWER_TIERS.length - 1);
+        return new UserMetadata(FOLLOWER_TIERS[tier],
+                ACCOUNT_CLASSES[(int) ((userId * 0x9E3779B97F4A7C15L >>> 33) % ACCOUNT_CLASSES.length)]);
+    }
+}
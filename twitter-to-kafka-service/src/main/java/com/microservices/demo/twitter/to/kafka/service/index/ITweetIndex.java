@@ -0,0 +1,9 @@
+package com.microservices.demo.twitter.to.kafka.service.index;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+
+public interface ITweetIndex {
+    void index(TwitterAvroModel twitterAvroModel, long createdAtMs);
+
+    TweetSearchResult search(TweetSearchQuery query);
+}
@@ -0,0 +1,202 @@
+package com.microservices.demo.twitter.to.kafka.service.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over the tweets created within one fixed time window.
+ * Documents get consecutive shard-local ordinals; tweet ids and creation times are kept in
+ * primitive arrays indexed by ordinal, and every term maps to a compressed posting list of ordinals.
+ * Tweets usually arrive in creation order, so walking ordinals backwards yields the newest first; a shard that
+ * received a tweet out of order sorts its matches by creation time instead.
+ */
+public class IndexShard {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final long startMs;
+
+    private final long endMs;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] tweetIds = new long[INITIAL_CAPACITY];
+
+    private long[] createdAtMs = new long[INITIAL_CAPACITY];
+
+    private int documentCount;
+
+    private long latestCreatedAtMs = Long.MIN_VALUE;
+
+    private boolean arrivedInOrder = true;
+
+    public IndexShard(long startMs, long endMs) {
+        this.startMs = startMs;
+        this.endMs = endMs;
+    }
+
+    public long getStartMs() {
+        return startMs;
+    }
+
+    public long getEndMs() {
+        return endMs;
+    }
+
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(long tweetId, long createdAt, String text) {
+        lock.writeLock().lock();
+        try {
+            if (documentCount == tweetIds.length) {
+                tweetIds = Arrays.copyOf(tweetIds, documentCount << 1);
+                createdAtMs = Arrays.copyOf(createdAtMs, documentCount << 1);
+            }
+            int ordinal = documentCount++;
+            tweetIds[ordinal] = tweetId;
+            createdAtMs[ordinal] = createdAt;
+            if (createdAt < latestCreatedAtMs) {
+                arrivedInOrder = false;
+            } else {
+                latestCreatedAtMs = createdAt;
+            }
+            TweetTokenizer.tokenize(text, term -> postings.computeIfAbsent(term, t -> new PostingList()).add(ordinal));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Collects the ids of matching tweets, newest first by creation time, into the given collector.
+     *
+     * @param query     the query to run
+     * @param collector receives matching tweet ids
+     */
+    public void search(TweetSearchQuery query, TweetIdCollector collector) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = query.operator() == TweetSearchOperator.AND ? matchAll(query.terms()) : matchAny(query.terms());
+            if (matches == null) {
+                return;
+            }
+            boolean fullyCovered = query.fromMs() <= startMs && query.toMs() >= endMs;
+            if (!arrivedInOrder) {
+                collectByCreationTime(matches, query, fullyCovered, collector);
+                return;
+            }
+            for (int ordinal = matches.previousSetBit(documentCount - 1); ordinal >= 0; ordinal = matches.previousSetBit(ordinal - 1)) {
+                if (fullyCovered || (createdAtMs[ordinal] >= query.fromMs() && createdAtMs[ordinal] <= query.toMs())) {
+                    collector.collect(tweetIds[ordinal]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collectByCreationTime(BitSet matches, TweetSearchQuery query, boolean fullyCovered,
+                                       TweetIdCollector collector) {
+        // Offset within the shard in the high bits and ordinal in the low bits, so a primitive sort orders by creation
+        // time and then by arrival; shards are far shorter than the 2^31 ms the offset can hold
+        long[] keys = new long[matches.cardinality()];
+        int count = 0;
+        for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+            if (fullyCovered || (createdAtMs[ordinal] >= query.fromMs() && createdAtMs[ordinal] <= query.toMs())) {
+                keys[count++] = (createdAtMs[ordinal] - startMs) << 32 | ordinal;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        for (int i = count - 1; i >= 0; i--) {
+            collector.collect(tweetIds[(int) keys[i]]);
+        }
+    }
+
+    /**
+     * @return whether every tweet of this shard is older than the cutoff
+     */
+    public boolean isExpired(long cutoffMs) {
+        return endMs < cutoffMs;
+    }
+
+    private BitSet matchAny(List<String> terms) {
+        BitSet matches = null;
+        for (String term : terms) {
+            PostingList postingList = postings.get(term);
+            if (postingList == null) {
+                continue;
+            }
+            if (matches == null) {
+                matches = new BitSet(documentCount);
+            }
+            PostingList.Cursor cursor = postingList.cursor();
+            for (int ordinal = cursor.next(); ordinal != -1; ordinal = cursor.next()) {
+                matches.set(ordinal);
+            }
+        }
+        return matches;
+    }
+
+    private BitSet matchAll(List<String> terms) {
+        if (terms.isEmpty()) {
+            return null;
+        }
+        List<PostingList> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            PostingList postingList = postings.get(term);
+            if (postingList == null) {
+                return null;
+            }
+            lists.add(postingList);
+        }
+        // Drive the intersection from the rarest term, so the other lists are skipped through rather than scanned
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        PostingList.Cursor lead = lists.get(0).cursor();
+        PostingList.Cursor[] others = new PostingList.Cursor[lists.size() - 1];
+        for (int i = 1; i < lists.size(); i++) {
+            others[i - 1] = lists.get(i).cursor();
+        }
+
+        BitSet matches = new BitSet(documentCount);
+        int candidate = lead.next();
+        while (candidate != -1) {
+            int next = candidate;
+            for (PostingList.Cursor other : others) {
+                next = other.advance(candidate);
+                if (next != candidate) {
+                    break;
+                }
+            }
+            if (next == -1) {
+                break;
+            }
+            if (next == candidate) {
+                matches.set(candidate);
+                candidate = lead.next();
+            } else {
+                candidate = lead.advance(next);
+            }
+        }
+        return matches;
+    }
+
+    @FunctionalInterface
+    public interface TweetIdCollector {
+        void collect(long tweetId);
+    }
+}
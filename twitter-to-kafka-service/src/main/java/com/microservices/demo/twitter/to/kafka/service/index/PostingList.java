@@ -0,0 +1,116 @@
+package com.microservices.demo.twitter.to.kafka.service.index;
+
+import java.util.Arrays;
+
+/**
+ * Append-only posting list of shard-local document ordinals.
+ * Ordinals are strictly increasing, so they are stored as variable-length encoded deltas,
+ * which keeps most entries at a single byte.
+ */
+public class PostingList {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+
+    private int length;
+
+    private int count;
+
+    private int lastOrdinal = -1;
+
+    /**
+     * Appends an ordinal to the list. Ordinals equal to the last one are ignored, so a term
+     * repeated within one document is only posted once.
+     *
+     * @param ordinal the shard-local document ordinal, never lower than the last appended one
+     */
+    public void add(int ordinal) {
+        if (ordinal == lastOrdinal) {
+            return;
+        }
+        if (ordinal < lastOrdinal) {
+            throw new IllegalArgumentException("Ordinals must be appended in increasing order");
+        }
+        int delta = ordinal - lastOrdinal;
+        ensureCapacity(length + 5);
+        while ((delta & ~0x7F) != 0) {
+            buffer[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        buffer[length++] = (byte) delta;
+        lastOrdinal = ordinal;
+        count++;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int sizeInBytes() {
+        return length;
+    }
+
+    public Cursor cursor() {
+        return new Cursor(buffer, length);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length << 1));
+        }
+    }
+
+    /**
+     * Forward-only reader over a snapshot of the list. Entries appended after the cursor was
+     * created are not visible to it.
+     */
+    public static final class Cursor {
+        private final byte[] buffer;
+
+        private final int limit;
+
+        private int position;
+
+        private int current = -1;
+
+        private Cursor(byte[] buffer, int limit) {
+            this.buffer = buffer;
+            this.limit = limit;
+        }
+
+        /**
+         * @return the next ordinal, or -1 when the list is exhausted
+         */
+        public int next() {
+            if (position >= limit) {
+                return -1;
+            }
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            current += delta;
+            return current;
+        }
+
+        /**
+         * @param target the ordinal to advance to
+         * @return the first ordinal greater than or equal to the target, or -1 when the list is exhausted
+         */
+        public int advance(int target) {
+            int ordinal = current;
+            while (ordinal < target) {
+                ordinal = next();
+                if (ordinal == -1) {
+                    return -1;
+                }
+            }
+            return ordinal;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.microservices.demo.twitter.to.kafka.service.index;
+
+public enum TweetSearchOperator {
+    AND,
+    OR
+}
@@ -0,0 +1,31 @@
+package com.microservices.demo.twitter.to.kafka.service.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Term query over the in-memory tweet index.
+ *
+ * @param terms    normalized query terms
+ * @param operator whether all terms (AND) or any term (OR) must match
+ * @param fromMs   inclusive lower bound of the tweet creation time, epoch millis
+ * @param toMs     inclusive upper bound of the tweet creation time, epoch millis
+ * @param limit    maximum number of tweet ids to return
+ */
+public record TweetSearchQuery(List<String> terms, TweetSearchOperator operator, long fromMs, long toMs, int limit) {
+
+    /**
+     * Builds a query from raw user input, running every term through the same tokenizer used at index time.
+     */
+    public static TweetSearchQuery of(List<String> rawTerms, TweetSearchOperator operator, long fromMs, long toMs, int limit) {
+        List<String> terms = new ArrayList<>();
+        for (String rawTerm : rawTerms) {
+            TweetTokenizer.tokenize(rawTerm, term -> {
+                if (!terms.contains(term)) {
+                    terms.add(term);
+                }
+            });
+        }
+        return new TweetSearchQuery(List.copyOf(terms), operator, fromMs, toMs, limit);
+    }
+}
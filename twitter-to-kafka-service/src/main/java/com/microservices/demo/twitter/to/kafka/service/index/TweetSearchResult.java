@@ -0,0 +1,9 @@
+package com.microservices.demo.twitter.to.kafka.service.index;
+
+/**
+ * @param tweetIds       matching tweet ids, newest first, truncated to the query limit
+ * @param totalHits      number of matching tweets before truncation
+ * @param shardsSearched number of time shards overlapping the query range
+ */
+public record TweetSearchResult(long[] tweetIds, int totalHits, int shardsSearched) {
+}
@@ -0,0 +1,47 @@
+package com.microservices.demo.twitter.to.kafka.service.index;
+
+import java.util.function.Consumer;
+
+/**
+ * Splits tweet text into lower-cased terms on any character that is not a letter or a digit.
+ * By default leading '#' and '@' are dropped with the rest of the separators, so "#Kafka" and "kafka"
+ * produce the same term.
+ */
+public final class TweetTokenizer {
+
+    private TweetTokenizer() {
+    }
+
+    public static void tokenize(String text, Consumer<String> termConsumer) {
+        tokenize(text, false, termConsumer);
+    }
+
+    /**
+     * @param text         tweet text, may be null
+     * @param keepHashtags whether a '#' directly in front of a term is kept, so "#kafka" and "kafka" stay distinct
+     * @param termConsumer receives every term in order of appearance
+     */
+    public static void tokenize(String text, boolean keepHashtags, Consumer<String> termConsumer) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        char[] term = new char[length + 1];
+        int termLength = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (termLength == 0 && keepHashtags && i > 0 && text.charAt(i - 1) == '#') {
+                    term[termLength++] = '#';
+                }
+                term[termLength++] = Character.toLowerCase(c);
+            } else if (termLength > 0) {
+                termConsumer.accept(new String(term, 0, termLength));
+                termLength = 0;
+            }
+        }
+        if (termLength > 0) {
+            termConsumer.accept(new String(term, 0, termLength));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.microservices.demo.twitter.to.kafka.service.index.impl;
+
+import com.microservices.demo.config.TweetIndexConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.index.ITweetIndex;
+import com.microservices.demo.twitter.to.kafka.service.index.IndexShard;
+import com.microservices.demo.twitter.to.kafka.service.index.TweetSearchQuery;
+import com.microservices.demo.twitter.to.kafka.service.index.TweetSearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory inverted index over recent tweets, split into fixed-length time shards.
+ * Shards older than the configured retention are dropped as a whole, so expiry never touches
+ * individual posting lists. Both indexing and searching drop them, so an idle stream does not keep
+ * expired shards around.
+ */
+@Component
+public class ShardedTweetIndex implements ITweetIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShardedTweetIndex.class);
+
+    private final TweetIndexConfigData tweetIndexConfigData;
+
+    private final ConcurrentSkipListMap<Long, IndexShard> shards = new ConcurrentSkipListMap<>();
+
+    private final LongSupplier millisClock;
+
+    @Autowired
+    public ShardedTweetIndex(TweetIndexConfigData tweetIndexConfigData) {
+        this(tweetIndexConfigData, System::currentTimeMillis);
+    }
+
+    ShardedTweetIndex(TweetIndexConfigData tweetIndexConfigData, LongSupplier millisClock) {
+        this.tweetIndexConfigData = tweetIndexConfigData;
+        this.millisClock = millisClock;
+    }
+
+    @Override
+    public void index(TwitterAvroModel twitterAvroModel, long createdAtMs) {
+        if (!Boolean.TRUE.equals(tweetIndexConfigData.getEnabled())) {
+            return;
+        }
+        long cutoffMs = millisClock.getAsLong() - tweetIndexConfigData.getRetentionMs();
+        if (createdAtMs < cutoffMs) {
+            return;
+        }
+        long shardDurationMs = tweetIndexConfigData.getShardDurationMs();
+        long shardStartMs = createdAtMs - Math.floorMod(createdAtMs, shardDurationMs);
+        IndexShard shard = shards.get(shardStartMs);
+        if (shard == null) {
+            shard = shards.computeIfAbsent(shardStartMs, start -> new IndexShard(start, start + shardDurationMs - 1));
+            evictExpiredShards(cutoffMs);
+        }
+        shard.add(twitterAvroModel.getId(), createdAtMs, twitterAvroModel.getText());
+    }
+
+    @Override
+    public TweetSearchResult search(TweetSearchQuery query) {
+        long cutoffMs = millisClock.getAsLong() - tweetIndexConfigData.getRetentionMs();
+        evictExpiredShards(cutoffMs);
+        long fromMs = Math.max(query.fromMs(), cutoffMs);
+        int limit = Math.min(query.limit(), tweetIndexConfigData.getMaxResults());
+        if (query.terms().isEmpty() || fromMs > query.toMs() || limit <= 0) {
+            return new TweetSearchResult(new long[0], 0, 0);
+        }
+
+        Long fromKey = shards.floorKey(fromMs);
+        NavigableMap<Long, IndexShard> candidates = shards.subMap(fromKey == null ? fromMs : fromKey, true, query.toMs(), true)
+                .descendingMap();
+        long[] tweetIds = new long[limit];
+        int[] hits = new int[1];
+        int shardsSearched = 0;
+        TweetSearchQuery boundedQuery = new TweetSearchQuery(query.terms(), query.operator(), fromMs, query.toMs(), limit);
+        for (IndexShard shard : candidates.values()) {
+            if (shard.getEndMs() < fromMs) {
+                continue;
+            }
+            shardsSearched++;
+            shard.search(boundedQuery, tweetId -> {
+                if (hits[0] < limit) {
+                    tweetIds[hits[0]] = tweetId;
+                }
+                hits[0]++;
+            });
+        }
+        return new TweetSearchResult(Arrays.copyOf(tweetIds, Math.min(hits[0], limit)), hits[0], shardsSearched);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    private void evictExpiredShards(long cutoffMs) {
+        // Searches call this too, so the common case of nothing to drop is a single lookup
+        Map.Entry<Long, IndexShard> oldest = shards.firstEntry();
+        if (oldest == null || !oldest.getValue().isExpired(cutoffMs)) {
+            return;
+        }
+        NavigableMap<Long, IndexShard> expired = shards.headMap(cutoffMs - tweetIndexConfigData.getShardDurationMs(), true);
+        if (!expired.isEmpty()) {
+            LOG.info("Dropping {} expired tweet index shard(s)", expired.size());
+            expired.clear();
+        }
+    }
+}
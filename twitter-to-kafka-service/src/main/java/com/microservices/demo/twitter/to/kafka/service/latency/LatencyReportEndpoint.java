@@ -0,0 +1,50 @@
+package com.microservices.demo.twitter.to.kafka.service.latency;
+
+import com.microservices.demo.kafka.producer.config.latency.PipelineLatencyRecorder;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage latency report in milliseconds.
+ * Example: GET /actuator/latency
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyReportEndpoint {
+
+    private final PipelineLatencyRecorder pipelineLatencyRecorder;
+
+    public LatencyReportEndpoint(PipelineLatencyRecorder pipelineLatencyRecorder) {
+        this.pipelineLatencyRecorder = pipelineLatencyRecorder;
+    }
+
+    @ReadOperation
+    public Map<String, StageLatency> report() {
+        Map<String, StageLatency> report = new LinkedHashMap<>();
+        pipelineLatencyRecorder.getTimers().forEach((stage, timer) -> report.put(stage, stageLatency(timer)));
+        return report;
+    }
+
+    private static StageLatency stageLatency(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile valueAtPercentile : snapshot.percentileValues()) {
+            percentiles.put("p" + valueAtPercentile.percentile() * 100, valueAtPercentile.value(TimeUnit.MILLISECONDS));
+        }
+        return new StageLatency(snapshot.count(),
+                snapshot.mean(TimeUnit.MILLISECONDS),
+                snapshot.max(TimeUnit.MILLISECONDS),
+                percentiles);
+    }
+
+    public record StageLatency(long count, double meanMs, double maxMs, Map<String, Double> percentilesMs) {
+    }
+}
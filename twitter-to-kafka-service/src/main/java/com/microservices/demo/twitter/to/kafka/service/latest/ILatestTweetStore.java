@@ -0,0 +1,26 @@
+package com.microservices.demo.twitter.to.kafka.service.latest;
+
+/**
+ * Serialized latest tweet per userId. Implementations are not thread-safe; {@link LatestTweetView} guards them.
+ */
+public interface ILatestTweetStore extends AutoCloseable {
+
+    void put(long userId, byte[] source, int offset, int length);
+
+    void remove(long userId);
+
+    /**
+     * @return a copy of the tweet of the user, or null when there is none
+     */
+    byte[] get(long userId);
+
+    int size();
+
+    /**
+     * @return bytes taken by the tweets, without the index
+     */
+    long valueBytes();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,13 @@
+package com.microservices.demo.twitter.to.kafka.service.latest;
+
+import org.apache.avro.Schema;
+
+import java.io.IOException;
+
+/**
+ * Schemas the records of a topic were written with, by the id the schema registry serializer put in their header.
+ */
+public interface IWriterSchemaSource {
+
+    Schema schema(int schemaId) throws IOException;
+}
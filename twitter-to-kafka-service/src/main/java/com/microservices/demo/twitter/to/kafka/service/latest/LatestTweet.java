@@ -0,0 +1,16 @@
+package com.microservices.demo.twitter.to.kafka.service.latest;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+
+import java.util.List;
+
+public record LatestTweet(long userId, long id, String text, String createdAt, List<String> hashtags) {
+
+    public static LatestTweet of(TwitterAvroModel twitterAvroModel) {
+        return new LatestTweet(twitterAvroModel.getUserId(),
+                twitterAvroModel.getId(),
+                twitterAvroModel.getText(),
+                twitterAvroModel.getCreatedAt(),
+                twitterAvroModel.getHashtags());
+    }
+}
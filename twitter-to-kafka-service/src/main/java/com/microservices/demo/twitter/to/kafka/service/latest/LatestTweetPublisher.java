@@ -0,0 +1,157 @@
+package com.microservices.demo.twitter.to.kafka.service.latest;
+
+import com.microservices.demo.config.LatestTweetConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.IKafkaProducer;
+import com.microservices.demo.kafka.producer.exception.KafkaProducerCircuitOpenException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes the latest tweet of every user to the compacted latest tweet topic, keyed by userId.
+ * <p>
+ * Compaction keeps only the last record per key anyway, so tweets are conflated per user: the first tweet of a user
+ * starts a conflate-ms window, later ones replace it, and the latest is sent once the window ended. A user tweeting
+ * faster than that costs one record per window on the topic instead of one per tweet. Windows are checked ten times
+ * per conflate-ms, so sends are spread like the users' first tweets rather than sent in one burst per window, which
+ * would queue up ahead of the tweets of the main topic. With conflate-ms 0 every tweet is sent right away.
+ * <p>
+ * Publishes latest.tweet.offered and latest.tweet.published.
+ */
+@Component
+public class LatestTweetPublisher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LatestTweetPublisher.class);
+
+    private static final int CHECKS_PER_WINDOW = 10;
+
+    private final IKafkaProducer<Long, TwitterAvroModel> kafkaProducer;
+
+    private final String topicName;
+
+    private final boolean enabled;
+
+    private final long conflateNanos;
+
+    private final Map<Long, Pending> pendingByUser = new ConcurrentHashMap<>();
+
+    private final Counter offered;
+
+    private final Counter published;
+
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    private final ScheduledExecutorService publishExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "latest-tweet-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LatestTweetPublisher(LatestTweetConfigData latestTweetConfigData,
+                                IKafkaProducer<Long, TwitterAvroModel> kafkaProducer,
+                                MeterRegistry meterRegistry) {
+        this.kafkaProducer = kafkaProducer;
+        this.topicName = latestTweetConfigData.getTopicName();
+        this.enabled = Boolean.TRUE.equals(latestTweetConfigData.getEnabled());
+        long conflateMs = latestTweetConfigData.getConflateMs();
+        this.conflateNanos = TimeUnit.MILLISECONDS.toNanos(conflateMs);
+        this.offered = Counter.builder("latest.tweet.offered").register(meterRegistry);
+        this.published = Counter.builder("latest.tweet.published").register(meterRegistry);
+        if (enabled && conflateMs > 0) {
+            long checkMs = Math.max(1, conflateMs / CHECKS_PER_WINDOW);
+            publishExecutor.scheduleWithFixedDelay(() -> publish(System.nanoTime()), checkMs, checkMs,
+                    TimeUnit.MILLISECONDS);
+        }
+        if (enabled) {
+            LOG.info("Publishing the latest tweet per user every {} ms to topic {}", conflateMs, topicName);
+        }
+    }
+
+    public void offer(TwitterAvroModel twitterAvroModel) {
+        if (!enabled) {
+            return;
+        }
+        offered.increment();
+        if (conflateNanos == 0) {
+            send(twitterAvroModel);
+            return;
+        }
+        // The model may be reused for the next tweet
+        TwitterAvroModel copy = TwitterAvroModel.newBuilder(twitterAvroModel).build();
+        long nowNanos = System.nanoTime();
+        pendingByUser.merge(copy.getUserId(), new Pending(copy, nowNanos),
+                (previous, latest) -> new Pending(latest.tweet(), previous.windowStartNanos()));
+    }
+
+    /**
+     * Sends the latest tweet of every user whose window ended by nowNanos. Tweets dropped by an open circuit are
+     * kept for the next check unless the user tweeted again meanwhile.
+     */
+    void publish(long nowNanos) {
+        for (Map.Entry<Long, Pending> entry : pendingByUser.entrySet()) {
+            Pending pending = entry.getValue();
+            // A newer tweet replaced the entry meanwhile when the removal fails; it is sent with the next check
+            if (nowNanos - pending.windowStartNanos() >= conflateNanos
+                    && pendingByUser.remove(entry.getKey(), pending)
+                    && !send(pending.tweet())) {
+                pendingByUser.putIfAbsent(entry.getKey(), pending);
+            }
+        }
+    }
+
+    /**
+     * Stops the window checks, waiting at most for the timeout for a check in progress, and sends the latest tweet of
+     * every user still pending, so they reach the producer before it is drained. Later calls do nothing.
+     *
+     * @return whether a check in progress finished before the timeout
+     */
+    public boolean stop(Duration timeout) {
+        if (!stopped.compareAndSet(false, true)) {
+            return true;
+        }
+        publishExecutor.shutdown();
+        boolean finished;
+        try {
+            finished = publishExecutor.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finished = false;
+        }
+        if (enabled && conflateNanos > 0) {
+            // Every window started before now, so all of them end by now plus a window
+            publish(System.nanoTime() + conflateNanos);
+        }
+        return finished;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stop(Duration.ZERO);
+    }
+
+    private boolean send(TwitterAvroModel twitterAvroModel) {
+        try {
+            kafkaProducer.send(topicName, twitterAvroModel.getUserId(), twitterAvroModel);
+            published.increment();
+            return true;
+        } catch (KafkaProducerCircuitOpenException e) {
+            LOG.debug("Dropped the latest tweet of user {}: {}", twitterAvroModel.getUserId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private record Pending(TwitterAvroModel tweet, long windowStartNanos) {
+    }
+}
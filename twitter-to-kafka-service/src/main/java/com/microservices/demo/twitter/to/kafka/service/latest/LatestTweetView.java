@@ -0,0 +1,311 @@
+package com.microservices.demo.twitter.to.kafka.service.latest;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.LatestTweetConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.latest.impl.HeapLatestTweetStore;
+import com.microservices.demo.twitter.to.kafka.service.latest.impl.OffHeapLatestTweetStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.LongDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The latest tweet of every user, materialized from the compacted latest tweet topic and looked up by userId.
+ * <p>
+ * On start the view reads every partition of the topic from the beginning, without a consumer group or commits,
+ * and fetches restore-fetch-bytes per partition and request so the restore takes few round trips. Compaction keeps
+ * about one record per user there, so the restore reads little more than the view holds. The view is restored once
+ * it reached the end offsets the partitions had when it started; it keeps tailing the topic afterwards. Partitions
+ * added later are read after a restart.
+ * <p>
+ * Tweets are kept as the records hold them, the Avro binary behind the 5 byte schema registry header, in an
+ * {@link OffHeapLatestTweetStore} with off-heap or else a {@link HeapLatestTweetStore}. Compaction keeps records
+ * written with every earlier version of the schema, so a lookup reads the tweet from the schema of the id in its
+ * header, fetched once per id from an {@link IWriterSchemaSource}, into the schema this service was built with. A
+ * record without a value removes the user.
+ * <p>
+ * Publishes latest.tweet.view.users, latest.tweet.view.bytes, latest.tweet.view.restored and
+ * latest.tweet.view.records.
+ */
+@Component
+public class LatestTweetView implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LatestTweetView.class);
+
+    private static final byte MAGIC_BYTE = 0;
+
+    private static final int HEADER_BYTES = 5;
+
+    private final String topicName;
+
+    private final Consumer<Long, byte[]> consumer;
+
+    private final IWriterSchemaSource writerSchemaSource;
+
+    private final Map<Integer, SpecificDatumReader<TwitterAvroModel>> readers = new ConcurrentHashMap<>();
+
+    private final ILatestTweetStore store;
+
+    private final Duration pollTimeout;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Counter records;
+
+    private final Thread thread;
+
+    private volatile boolean running;
+
+    private volatile boolean restored;
+
+    @Autowired
+    public LatestTweetView(KafkaConfigData kafkaConfigData,
+                           LatestTweetConfigData latestTweetConfigData,
+                           IWriterSchemaSource writerSchemaSource,
+                           MeterRegistry meterRegistry) {
+        this(latestTweetConfigData.getTopicName(),
+                Boolean.TRUE.equals(latestTweetConfigData.getViewEnabled())
+                        ? newConsumer(kafkaConfigData, latestTweetConfigData)
+                        : null,
+                writerSchemaSource,
+                Boolean.TRUE.equals(latestTweetConfigData.getOffHeap())
+                        ? new OffHeapLatestTweetStore(latestTweetConfigData.getExpectedUsers(),
+                        latestTweetConfigData.getSlabBytes())
+                        : new HeapLatestTweetStore(latestTweetConfigData.getExpectedUsers()),
+                Duration.ofMillis(latestTweetConfigData.getPollTimeoutMs()),
+                meterRegistry);
+    }
+
+    /**
+     * @param consumer null when the view is disabled
+     */
+    LatestTweetView(String topicName,
+                    Consumer<Long, byte[]> consumer,
+                    IWriterSchemaSource writerSchemaSource,
+                    ILatestTweetStore store,
+                    Duration pollTimeout,
+                    MeterRegistry meterRegistry) {
+        this.topicName = topicName;
+        this.consumer = consumer;
+        this.writerSchemaSource = writerSchemaSource;
+        this.store = store;
+        this.pollTimeout = pollTimeout;
+        this.records = Counter.builder("latest.tweet.view.records").register(meterRegistry);
+        Gauge.builder("latest.tweet.view.users", this, view -> view.read(ILatestTweetStore::size))
+                .register(meterRegistry);
+        Gauge.builder("latest.tweet.view.bytes", this, view -> view.read(ILatestTweetStore::valueBytes))
+                .register(meterRegistry);
+        Gauge.builder("latest.tweet.view.restored", this, view -> view.restored ? 1 : 0).register(meterRegistry);
+        this.thread = new Thread(this, "latest-tweet-view");
+        this.thread.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (consumer == null) {
+            return;
+        }
+        running = true;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        consumer.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRestored() {
+        return restored;
+    }
+
+    /**
+     * @return the latest tweet of the user, empty when the view has none
+     */
+    public Optional<TwitterAvroModel> latestTweet(long userId) {
+        byte[] tweet;
+        lock.readLock().lock();
+        try {
+            tweet = store.get(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (tweet == null) {
+            return Optional.empty();
+        }
+        try {
+            SpecificDatumReader<TwitterAvroModel> reader = reader(ByteBuffer.wrap(tweet, 1, Integer.BYTES).getInt());
+            BinaryDecoder decoder = DecoderFactory.get()
+                    .binaryDecoder(tweet, HEADER_BYTES, tweet.length - HEADER_BYTES, null);
+            return Optional.of(reader.read(null, decoder));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode the latest tweet of user " + userId, e);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            List<TopicPartition> partitions = awaitPartitions();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> restoreOffsets = new HashMap<>(consumer.endOffsets(partitions));
+            long startNanos = System.nanoTime();
+            long restoredRecords = 0;
+            while (running) {
+                ConsumerRecords<Long, byte[]> polled = consumer.poll(pollTimeout);
+                apply(polled);
+                if (!restored) {
+                    restoredRecords += polled.count();
+                    restoreOffsets.entrySet().removeIf(end -> consumer.position(end.getKey()) >= end.getValue());
+                    if (restoreOffsets.isEmpty()) {
+                        restored = true;
+                        logRestored(restoredRecords, System.nanoTime() - startNanos);
+                    }
+                }
+            }
+        } catch (WakeupException e) {
+            // close() woke up the poll
+        } catch (RuntimeException e) {
+            LOG.error("Stopped reading the latest tweets of topic {}", topicName, e);
+        } finally {
+            consumer.close();
+            restored = false;
+            lock.writeLock().lock();
+            try {
+                store.close();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private List<TopicPartition> awaitPartitions() {
+        while (true) {
+            List<PartitionInfo> infos = consumer.partitionsFor(topicName);
+            if (infos != null && !infos.isEmpty()) {
+                List<TopicPartition> partitions = new ArrayList<>(infos.size());
+                infos.forEach(info -> partitions.add(new TopicPartition(info.topic(), info.partition())));
+                return partitions;
+            }
+            LOG.info("Waiting for topic {} to be created", topicName);
+            try {
+                TimeUnit.MILLISECONDS.sleep(pollTimeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WakeupException();
+            }
+            if (!running) {
+                throw new WakeupException();
+            }
+        }
+    }
+
+    /**
+     * Applies a poll under one write lock, lookups wait for at most one batch.
+     */
+    private void apply(ConsumerRecords<Long, byte[]> polled) {
+        if (polled.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (ConsumerRecord<Long, byte[]> record : polled) {
+                if (record.key() == null) {
+                    continue;
+                }
+                byte[] value = record.value();
+                if (value == null) {
+                    store.remove(record.key());
+                } else if (value.length >= HEADER_BYTES && value[0] == MAGIC_BYTE) {
+                    store.put(record.key(), value, 0, value.length);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        records.increment(polled.count());
+    }
+
+    private SpecificDatumReader<TwitterAvroModel> reader(int schemaId) throws IOException {
+        SpecificDatumReader<TwitterAvroModel> reader = readers.get(schemaId);
+        if (reader == null) {
+            // Schemas of an id never change, so racing lookups fetch the same one
+            Schema writerSchema = writerSchemaSource.schema(schemaId);
+            reader = new SpecificDatumReader<>(writerSchema, TwitterAvroModel.getClassSchema());
+            readers.putIfAbsent(schemaId, reader);
+        }
+        return reader;
+    }
+
+    private void logRestored(long restoredRecords, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        LOG.info("Restored the latest tweets of {} users from {} records of topic {} in {} ms, {} records/s",
+                (long) read(ILatestTweetStore::size), restoredRecords, topicName, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                Math.round(restoredRecords / seconds));
+    }
+
+    private double read(ToDoubleFunction<ILatestTweetStore> metric) {
+        lock.readLock().lock();
+        try {
+            return metric.applyAsDouble(store);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Consumer<Long, byte[]> newConsumer(KafkaConfigData kafkaConfigData,
+                                                      LatestTweetConfigData latestTweetConfigData) {
+        Map<String, Object> consumerConfig = new HashMap<>();
+        consumerConfig.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaConfigData.getBootstrapServers());
+        consumerConfig.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerConfig.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, latestTweetConfigData.getRestoreFetchBytes());
+        consumerConfig.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG,
+                Math.max(latestTweetConfigData.getRestoreFetchBytes(), ConsumerConfig.DEFAULT_FETCH_MAX_BYTES));
+        consumerConfig.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10_000);
+        return new KafkaConsumer<>(consumerConfig, new LongDeserializer(), new ByteArrayDeserializer());
+    }
+}
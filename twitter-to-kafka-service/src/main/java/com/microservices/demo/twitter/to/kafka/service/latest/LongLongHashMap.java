@@ -0,0 +1,210 @@
+package com.microservices.demo.twitter.to.kafka.service.latest;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from long to long with linear probing, kept in two parallel primitive arrays so that millions
+ * of users cost 16 bytes per slot instead of a boxed key, a boxed value and a node each.
+ * <p>
+ * 0 marks a free slot, so the key 0 is kept aside. Removals shift the following entries of the probe sequence back
+ * instead of leaving tombstones, so lookups never slow down on a map that sees many removals. Not thread-safe.
+ */
+public class LongLongHashMap {
+
+    private static final long FREE = 0L;
+
+    private static final double LOAD_FACTOR = 0.75;
+
+    private long[] keys;
+
+    private long[] values;
+
+    private int mask;
+
+    private int size;
+
+    private int resizeAt;
+
+    private boolean hasFreeKey;
+
+    private long freeKeyValue;
+
+    /**
+     * @param expectedSize entries the map holds without rehashing
+     */
+    public LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return the value of the key, or missingValue when the map does not contain it
+     */
+    public long get(long key, long missingValue) {
+        if (key == FREE) {
+            return hasFreeKey ? freeKeyValue : missingValue;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == FREE) {
+                return missingValue;
+            }
+        }
+    }
+
+    /**
+     * @return the previous value of the key, or missingValue when the map did not contain it
+     */
+    public long put(long key, long value, long missingValue) {
+        if (key == FREE) {
+            long previous = hasFreeKey ? freeKeyValue : missingValue;
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeKeyValue = value;
+            return previous;
+        }
+        int slot = slot(key);
+        for (; keys[slot] != FREE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                long previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return missingValue;
+    }
+
+    /**
+     * @return the value the key had, or missingValue when the map did not contain it
+     */
+    public long remove(long key, long missingValue) {
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                return missingValue;
+            }
+            hasFreeKey = false;
+            size--;
+            return freeKeyValue;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == FREE) {
+                return missingValue;
+            }
+            if (current == key) {
+                long previous = values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(Entry entry) {
+        if (hasFreeKey) {
+            entry.accept(FREE, freeKeyValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                entry.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Replaces the value of every entry; keys are not changed and the map must not be modified meanwhile.
+     */
+    public void replaceAll(ValueFunction function) {
+        if (hasFreeKey) {
+            freeKeyValue = function.apply(FREE, freeKeyValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                values[slot] = function.apply(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    /**
+     * Empties the slot and moves back every following entry of its run that may live there, so that no entry
+     * ends up behind a free slot on its probe sequence.
+     */
+    private void shiftBack(int slot) {
+        int free = slot;
+        for (int next = (free + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            // The entry may move to the free slot unless its home lies cyclically in (free, next]
+            boolean homeBetween = free <= next ? free < home && home <= next : free < home || home <= next;
+            if (!homeBetween) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        keys[free] = FREE;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != FREE) {
+                int slot = slot(key);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slot(long key) {
+        // Sequential user ids would otherwise fill runs of neighbouring slots
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR) + 1;
+        return (int) Math.min(1 << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    @FunctionalInterface
+    public interface Entry {
+        void accept(long key, long value);
+    }
+
+    @FunctionalInterface
+    public interface ValueFunction {
+        long apply(long key, long value);
+    }
+}
@@ -0,0 +1,95 @@
+package com.microservices.demo.twitter.to.kafka.service.latest.impl;
+
+import com.microservices.demo.twitter.to.kafka.service.latest.ILatestTweetStore;
+import com.microservices.demo.twitter.to.kafka.service.latest.LongLongHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Keeps every tweet in its own byte array, addressed by a slot that the userId maps to. Slots of removed users are
+ * reused, so the index never holds more slots than users seen at once.
+ */
+public class HeapLatestTweetStore implements ILatestTweetStore {
+
+    private static final long MISSING = -1L;
+
+    private final LongLongHashMap slotsByUser;
+
+    private byte[][] tweets;
+
+    private int[] freeSlots;
+
+    private int freeCount;
+
+    private int nextSlot;
+
+    private long valueBytes;
+
+    public HeapLatestTweetStore(int expectedUsers) {
+        this.slotsByUser = new LongLongHashMap(expectedUsers);
+        this.tweets = new byte[Math.max(expectedUsers, 16)][];
+        this.freeSlots = new int[16];
+    }
+
+    @Override
+    public void put(long userId, byte[] source, int offset, int length) {
+        byte[] tweet = Arrays.copyOfRange(source, offset, offset + length);
+        long slot = slotsByUser.get(userId, MISSING);
+        if (slot == MISSING) {
+            slot = allocateSlot();
+            slotsByUser.put(userId, slot, MISSING);
+        } else {
+            valueBytes -= tweets[(int) slot].length;
+        }
+        tweets[(int) slot] = tweet;
+        valueBytes += length;
+    }
+
+    @Override
+    public void remove(long userId) {
+        long slot = slotsByUser.remove(userId, MISSING);
+        if (slot != MISSING) {
+            valueBytes -= tweets[(int) slot].length;
+            tweets[(int) slot] = null;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = (int) slot;
+        }
+    }
+
+    @Override
+    public byte[] get(long userId) {
+        long slot = slotsByUser.get(userId, MISSING);
+        return slot == MISSING ? null : tweets[(int) slot].clone();
+    }
+
+    @Override
+    public int size() {
+        return slotsByUser.size();
+    }
+
+    @Override
+    public long valueBytes() {
+        return valueBytes;
+    }
+
+    @Override
+    public void close() {
+        slotsByUser.clear();
+        tweets = new byte[0][];
+        freeCount = 0;
+        nextSlot = 0;
+        valueBytes = 0;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (nextSlot == tweets.length) {
+            tweets = Arrays.copyOf(tweets, Math.max(16, tweets.length * 2));
+        }
+        return nextSlot++;
+    }
+}
@@ -0,0 +1,143 @@
+package com.microservices.demo.twitter.to.kafka.service.latest.impl;
+
+import com.microservices.demo.twitter.to.kafka.service.latest.ILatestTweetStore;
+import com.microservices.demo.twitter.to.kafka.service.latest.LongLongHashMap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends tweets to direct buffers of slab-bytes as [int length][bytes] and keeps only their address, slab index
+ * in the high and offset in the low 32 bits, in a primitive map, so millions of users add neither heap objects nor
+ * garbage collection work.
+ * <p>
+ * A tweet that replaces or removes an older one leaves the older bytes behind. Once those exceed the live bytes,
+ * and a slab, the live tweets are copied into fresh slabs and the old ones dropped, which keeps the direct memory
+ * within about twice the live bytes plus a slab.
+ */
+public class OffHeapLatestTweetStore implements ILatestTweetStore {
+
+    private static final long MISSING = -1L;
+
+    private static final int LENGTH_BYTES = Integer.BYTES;
+
+    private final LongLongHashMap addressesByUser;
+
+    private final int slabBytes;
+
+    private List<ByteBuffer> slabs = new ArrayList<>();
+
+    private long liveBytes;
+
+    private long garbageBytes;
+
+    public OffHeapLatestTweetStore(int expectedUsers, int slabBytes) {
+        this.addressesByUser = new LongLongHashMap(expectedUsers);
+        this.slabBytes = slabBytes;
+    }
+
+    @Override
+    public void put(long userId, byte[] source, int offset, int length) {
+        long address = append(slabs, source, offset, length);
+        long previous = addressesByUser.put(userId, address, MISSING);
+        liveBytes += LENGTH_BYTES + length;
+        if (previous != MISSING) {
+            release(previous);
+        }
+    }
+
+    @Override
+    public void remove(long userId) {
+        long previous = addressesByUser.remove(userId, MISSING);
+        if (previous != MISSING) {
+            release(previous);
+        }
+    }
+
+    @Override
+    public byte[] get(long userId) {
+        long address = addressesByUser.get(userId, MISSING);
+        if (address == MISSING) {
+            return null;
+        }
+        ByteBuffer slab = slabs.get(slab(address));
+        int offset = offset(address);
+        byte[] tweet = new byte[slab.getInt(offset)];
+        slab.get(offset + LENGTH_BYTES, tweet);
+        return tweet;
+    }
+
+    @Override
+    public int size() {
+        return addressesByUser.size();
+    }
+
+    @Override
+    public long valueBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * @return bytes of direct memory the slabs take
+     */
+    public long allocatedBytes() {
+        return slabs.stream().mapToLong(ByteBuffer::capacity).sum();
+    }
+
+    @Override
+    public void close() {
+        // Direct buffers are freed once they are no longer referenced
+        addressesByUser.clear();
+        slabs = new ArrayList<>();
+        liveBytes = 0;
+        garbageBytes = 0;
+    }
+
+    private void release(long address) {
+        int recordBytes = LENGTH_BYTES + slabs.get(slab(address)).getInt(offset(address));
+        liveBytes -= recordBytes;
+        garbageBytes += recordBytes;
+        if (garbageBytes > liveBytes && garbageBytes > slabBytes) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        List<ByteBuffer> oldSlabs = slabs;
+        List<ByteBuffer> newSlabs = new ArrayList<>();
+        byte[] buffer = new byte[256];
+        addressesByUser.replaceAll((userId, address) -> {
+            ByteBuffer slab = oldSlabs.get(slab(address));
+            int offset = offset(address);
+            int length = slab.getInt(offset);
+            byte[] copy = length <= buffer.length ? buffer : new byte[length];
+            slab.get(offset + LENGTH_BYTES, copy, 0, length);
+            return append(newSlabs, copy, 0, length);
+        });
+        slabs = newSlabs;
+        garbageBytes = 0;
+    }
+
+    private long append(List<ByteBuffer> target, byte[] source, int offset, int length) {
+        int recordBytes = LENGTH_BYTES + length;
+        ByteBuffer slab = target.isEmpty() ? null : target.get(target.size() - 1);
+        if (slab == null || slab.remaining() < recordBytes) {
+            // A tweet larger than a slab gets a slab of its own
+            slab = ByteBuffer.allocateDirect(Math.max(slabBytes, recordBytes));
+            target.add(slab);
+        }
+        int recordOffset = slab.position();
+        slab.putInt(length);
+        slab.put(source, offset, length);
+        return ((long) (target.size() - 1) << 32) | recordOffset;
+    }
+
+    private static int slab(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+}
@@ -0,0 +1,57 @@
+package com.microservices.demo.twitter.to.kafka.service.latest.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.twitter.to.kafka.service.latest.IWriterSchemaSource;
+import org.apache.avro.Schema;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Looks schemas up by id with GET /schemas/ids/{id} on kafka-config.schema-registry-url.
+ */
+@Service
+public class SchemaRegistryWriterSchemaSource implements IWriterSchemaSource {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+
+    private final String schemaRegistryUrl;
+
+    public SchemaRegistryWriterSchemaSource(KafkaConfigData kafkaConfigData) {
+        this.schemaRegistryUrl = kafkaConfigData.getSchemaRegistryUrl().replaceAll("/+$", "");
+    }
+
+    @Override
+    public Schema schema(int schemaId) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(schemaRegistryUrl + "/schemas/ids/" + schemaId))
+                .timeout(TIMEOUT)
+                .GET()
+                .build();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while looking up schema " + schemaId, e);
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Schema " + schemaId + " not found, HTTP " + response.statusCode());
+        }
+        JsonNode schema = OBJECT_MAPPER.readTree(response.body()).path("schema");
+        if (!schema.isTextual()) {
+            throw new IOException("No schema in the response for schema " + schemaId);
+        }
+        return new Schema.Parser().parse(schema.asText());
+    }
+}
@@ -1,14 +1,41 @@
 package com.microservices.demo.twitter.to.kafka.service.listener;
 
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.common.logging.SampledLogSite;
 import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.LatencyTrackingConfigData;
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
 import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.latency.EpochMicros;
+import com.microservices.demo.kafka.latency.LatencyTrace;
 import com.microservices.demo.kafka.producer.config.service.IKafkaProducer;
+import com.microservices.demo.kafka.producer.exception.KafkaProducerCircuitOpenException;
+import com.microservices.demo.twitter.to.kafka.service.deduplication.NearDuplicateStage;
+import com.microservices.demo.twitter.to.kafka.service.enrichment.UserEnrichmentStage;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import com.microservices.demo.twitter.to.kafka.service.index.ITweetIndex;
+import com.microservices.demo.twitter.to.kafka.service.latest.LatestTweetPublisher;
+import com.microservices.demo.twitter.to.kafka.service.sampling.StratifiedReservoirSampler;
+import com.microservices.demo.twitter.to.kafka.service.tokenization.TweetTokenizationStage;
+import com.microservices.demo.twitter.to.kafka.service.transformer.TweetJsonParser;
+import com.microservices.demo.twitter.to.kafka.service.transformer.TwitterJsonToAvroTransformer;
 import com.microservices.demo.twitter.to.kafka.service.transformer.TwitterStatusToAvroTransformer;
+import com.microservices.demo.twitter.to.kafka.service.trending.ITrendingTermsTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import twitter4j.Status;
 import twitter4j.StatusAdapter;
+import twitter4j.TwitterException;
+import twitter4j.TwitterObjectFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 @Component
 public class TwitterKafkaStatusListener extends StatusAdapter {
@@ -16,25 +43,211 @@ public class TwitterKafkaStatusListener extends StatusAdapter {
 
     private final KafkaConfigData kafkaConfigData;
 
+    private final LatencyTrackingConfigData latencyTrackingConfigData;
+
     private final IKafkaProducer<Long, TwitterAvroModel> kafkaProducer;
 
     private final TwitterStatusToAvroTransformer twitterStatusToAvroTransformer;
 
-    public TwitterKafkaStatusListener(KafkaConfigData kafkaConfigData, IKafkaProducer<Long, TwitterAvroModel> kafkaProducer, TwitterStatusToAvroTransformer twitterStatusToAvroTransformer) {
+    private final TwitterJsonToAvroTransformer twitterJsonToAvroTransformer;
+
+    private final TweetTokenizationStage tweetTokenizationStage;
+
+    private final UserEnrichmentStage userEnrichmentStage;
+
+    private final NearDuplicateStage nearDuplicateStage;
+
+    private final boolean reuseAvroModel;
+
+    private final boolean rawJsonTransform;
+
+    private final ITweetIndex tweetIndex;
+
+    private final ITrendingTermsTracker trendingTermsTracker;
+
+    private final StratifiedReservoirSampler reservoirSampler;
+
+    private final LatestTweetPublisher latestTweetPublisher;
+
+    private final SampledLogSite statusLog;
+
+    private final SampledLogSite circuitOpenLog;
+
+    private final SampledLogSite skippedLog;
+
+    private final Counter circuitOpenDropped;
+
+    private final AtomicInteger inProgress = new AtomicInteger();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile boolean accepting = true;
+
+    public TwitterKafkaStatusListener(KafkaConfigData kafkaConfigData,
+                                      LatencyTrackingConfigData latencyTrackingConfigData,
+                                      TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData,
+                                      IKafkaProducer<Long, TwitterAvroModel> kafkaProducer,
+                                      TwitterStatusToAvroTransformer twitterStatusToAvroTransformer,
+                                      TwitterJsonToAvroTransformer twitterJsonToAvroTransformer,
+                                      TweetTokenizationStage tweetTokenizationStage,
+                                      UserEnrichmentStage userEnrichmentStage,
+                                      NearDuplicateStage nearDuplicateStage,
+                                      ITweetIndex tweetIndex,
+                                      ITrendingTermsTracker trendingTermsTracker,
+                                      StratifiedReservoirSampler reservoirSampler,
+                                      LatestTweetPublisher latestTweetPublisher,
+                                      HotPathLogging hotPathLogging,
+                                      MeterRegistry meterRegistry) {
         this.kafkaConfigData = kafkaConfigData;
+        this.latencyTrackingConfigData = latencyTrackingConfigData;
         this.kafkaProducer = kafkaProducer;
         this.twitterStatusToAvroTransformer = twitterStatusToAvroTransformer;
+        this.twitterJsonToAvroTransformer = twitterJsonToAvroTransformer;
+        this.tweetTokenizationStage = tweetTokenizationStage;
+        this.userEnrichmentStage = userEnrichmentStage;
+        this.nearDuplicateStage = nearDuplicateStage;
+        this.reuseAvroModel = Boolean.TRUE.equals(twitterToKafkaServiceConfigData.getTransformerObjectReuse());
+        this.rawJsonTransform = Boolean.TRUE.equals(twitterToKafkaServiceConfigData.getRawJsonTransform());
+        this.tweetIndex = tweetIndex;
+        this.trendingTermsTracker = trendingTermsTracker;
+        this.reservoirSampler = reservoirSampler;
+        this.latestTweetPublisher = latestTweetPublisher;
+        this.statusLog = hotPathLogging.site("twitter-status-received", LOG);
+        this.circuitOpenLog = hotPathLogging.site("kafka-circuit-open", LOG);
+        this.skippedLog = hotPathLogging.site("twitter-message-skipped", LOG);
+        this.circuitOpenDropped = Counter.builder("twitter.status.dropped")
+                .tag("reason", "circuit-open")
+                .register(meterRegistry);
     }
 
     @Override
     public void onStatus(Status status) {
+        inProgress.incrementAndGet();
+        try {
+            if (accepting) {
+                process(status);
+            } else {
+                rejected.incrementAndGet();
+            }
+        } finally {
+            inProgress.decrementAndGet();
+        }
+    }
+
+    /**
+     * Entry point for sources that deliver the raw JSON of a stream message. With raw-json-transform enabled the
+     * JSON is transformed directly; otherwise it is parsed into a Status first. Messages that are not tweets,
+     * such as delete or limit notices, are skipped.
+     */
+    public void onRawStatus(String rawJson) {
+        inProgress.incrementAndGet();
+        try {
+            if (!accepting) {
+                rejected.incrementAndGet();
+            } else if (rawJsonTransform) {
+                processRaw(rawJson);
+            } else {
+                Status status = TwitterObjectFactory.createStatus(rawJson);
+                if (status.getUser() != null && status.getCreatedAt() != null) {
+                    process(status);
+                } else {
+                    skippedLog.info("Skipped stream message that is not a tweet: {}", rawJson);
+                }
+            }
+        } catch (TwitterException | TwitterToKafkaServiceException e) {
+            skippedLog.info("Skipped stream message that could not be parsed: {}", e.getMessage());
+        } finally {
+            inProgress.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops accepting statuses and waits, at most for the timeout, for the ones already in the pipeline
+     * to reach the producer. Statuses delivered afterwards are dropped and counted as rejected.
+     *
+     * @return whether the pipeline was empty before the timeout
+     */
+    public boolean close(Duration timeout) {
+        accepting = false;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inProgress.get() > 0) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private void process(Status status) {
+        LatencyTrace latencyTrace = latencyTrackingConfigData.getEnabled()
+                ? LatencyTrace.received(status.getCreatedAt().getTime())
+                : null;
 
-        LOG.info("Received status text: {} sending to kafka topic: {}",
+        statusLog.info("Received status text: {} sending to kafka topic: {}",
                 status.getText(),
                 kafkaConfigData.getTopicName()
         );
 
-        TwitterAvroModel twitterAvroModel = twitterStatusToAvroTransformer.getTwitterAvroModelFromStatus(status);
-        kafkaProducer.send(kafkaConfigData.getTopicName(), twitterAvroModel.getUserId(), twitterAvroModel);
+        TwitterAvroModel twitterAvroModel = reuseAvroModel
+                ? twitterStatusToAvroTransformer.getReusableTwitterAvroModelFromStatus(status)
+                : twitterStatusToAvroTransformer.getTwitterAvroModelFromStatus(status);
+        tweetTokenizationStage.tokenize(twitterAvroModel);
+        // Before enrichment, so dropped near duplicates cost no user lookups
+        if (!nearDuplicateStage.admit(twitterAvroModel)) {
+            return;
+        }
+        userEnrichmentStage.enrich(twitterAvroModel);
+        if (latencyTrace != null) {
+            latencyTrace.markTransformed();
+        }
+        publish(twitterAvroModel, status.getCreatedAt().getTime(), latencyTrace);
+    }
+
+    private void processRaw(String rawJson) {
+        long receivedAtUs = EpochMicros.now();
+        TwitterAvroModel twitterAvroModel = reuseAvroModel
+                ? twitterJsonToAvroTransformer.getReusableTwitterAvroModel()
+                : new TwitterAvroModel();
+        long createdAtMs = twitterJsonToAvroTransformer.transform(rawJson, twitterAvroModel);
+        if (createdAtMs == TweetJsonParser.NOT_A_TWEET) {
+            skippedLog.info("Skipped stream message that is not a tweet: {}", rawJson);
+            return;
+        }
+        tweetTokenizationStage.tokenize(twitterAvroModel);
+        if (!nearDuplicateStage.admit(twitterAvroModel)) {
+            return;
+        }
+        userEnrichmentStage.enrich(twitterAvroModel);
+        LatencyTrace latencyTrace = null;
+        if (latencyTrackingConfigData.getEnabled()) {
+            latencyTrace = LatencyTrace.received(createdAtMs, receivedAtUs);
+            latencyTrace.markTransformed();
+        }
+
+        statusLog.info("Received status text: {} sending to kafka topic: {}",
+                twitterAvroModel.getText(),
+                kafkaConfigData.getTopicName()
+        );
+
+        publish(twitterAvroModel, createdAtMs, latencyTrace);
+    }
+
+    private void publish(TwitterAvroModel twitterAvroModel, long createdAtMs, LatencyTrace latencyTrace) {
+        tweetIndex.index(twitterAvroModel, createdAtMs);
+        trendingTermsTracker.track(twitterAvroModel.getText());
+        reservoirSampler.offer(twitterAvroModel);
+        latestTweetPublisher.offer(twitterAvroModel);
+        try {
+            kafkaProducer.send(kafkaConfigData.getTopicName(), twitterAvroModel.getUserId(), twitterAvroModel,
+                    latencyTrace);
+        } catch (KafkaProducerCircuitOpenException e) {
+            circuitOpenDropped.increment();
+            circuitOpenLog.info("Dropped status {}: {}", twitterAvroModel.getId(), e.getMessage());
+        }
     }
 }
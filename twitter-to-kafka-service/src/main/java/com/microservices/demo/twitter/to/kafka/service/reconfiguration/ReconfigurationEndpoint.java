@@ -0,0 +1,84 @@
+package com.microservices.demo.twitter.to.kafka.service.reconfiguration;
+
+import org.apache.kafka.common.record.CompressionType;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runtime settings of the pipeline; fields left out of a write keep their current value.
+ * Example: POST /actuator/reconfigure {"twitterKeywords": ["Java", "Kafka"], "mockSleepMs": 100, "lingerMs": 20}
+ */
+@Component
+@Endpoint(id = "reconfigure")
+public class ReconfigurationEndpoint {
+
+    private static final Set<String> ACKS = Set.of("0", "1", "all", "-1");
+
+    private final RuntimeReconfigurationService runtimeReconfigurationService;
+
+    public ReconfigurationEndpoint(RuntimeReconfigurationService runtimeReconfigurationService) {
+        this.runtimeReconfigurationService = runtimeReconfigurationService;
+    }
+
+    @ReadOperation
+    public RuntimeSettings settings() {
+        return runtimeReconfigurationService.current();
+    }
+
+    @WriteOperation
+    public ReconfigurationResult reconfigure(@Nullable List<String> twitterKeywords,
+                                             @Nullable Long mockSleepMs,
+                                             @Nullable Integer lingerMs,
+                                             @Nullable Integer batchSize,
+                                             @Nullable String compressionType,
+                                             @Nullable String acks) {
+        if (!runtimeReconfigurationService.isEnabled()) {
+            throw new InvalidEndpointRequestException("Runtime reconfiguration is disabled",
+                    "reconfiguration-config.enabled is false");
+        }
+        if (twitterKeywords != null && (twitterKeywords.isEmpty() || twitterKeywords.stream().anyMatch(this::isBlank))) {
+            reject("twitterKeywords must contain at least one non-blank keyword");
+        }
+        if (mockSleepMs != null && mockSleepMs < 0) {
+            reject("mockSleepMs must not be negative");
+        }
+        if (lingerMs != null && lingerMs < 0) {
+            reject("lingerMs must not be negative");
+        }
+        if (batchSize != null && batchSize < 0) {
+            reject("batchSize must not be negative");
+        }
+        if (compressionType != null && !isCompressionType(compressionType)) {
+            reject("compressionType must be one of none, gzip, snappy, lz4 or zstd");
+        }
+        if (acks != null && !ACKS.contains(acks)) {
+            reject("acks must be one of " + ACKS);
+        }
+        return runtimeReconfigurationService.apply(new RuntimeSettings(twitterKeywords, mockSleepMs, lingerMs,
+                batchSize, compressionType, acks));
+    }
+
+    private boolean isBlank(String keyword) {
+        return keyword == null || keyword.isBlank();
+    }
+
+    private boolean isCompressionType(String compressionType) {
+        try {
+            CompressionType.forName(compressionType);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void reject(String message) {
+        throw new InvalidEndpointRequestException(message, message);
+    }
+}
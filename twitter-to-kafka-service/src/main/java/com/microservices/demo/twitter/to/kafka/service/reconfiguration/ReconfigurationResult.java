@@ -0,0 +1,9 @@
+package com.microservices.demo.twitter.to.kafka.service.reconfiguration;
+
+/**
+ * @param settings             the settings in effect after the request
+ * @param producerReconfigured whether producer changes were requested and applied
+ * @param producerPauseMs      how long sends were held back for the producer swap
+ */
+public record ReconfigurationResult(RuntimeSettings settings, boolean producerReconfigured, long producerPauseMs) {
+}
@@ -0,0 +1,147 @@
+package com.microservices.demo.twitter.to.kafka.service.reconfiguration;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.config.ReconfigurationConfigData;
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.IKafkaProducer;
+import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
+import com.microservices.demo.twitter.to.kafka.service.sampling.StratifiedReservoirSampler;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies new keywords, ingest rate and producer tuning to the running pipeline.
+ * <p>
+ * The stream switches keywords make-before-break, so ingestion never pauses for it, and the reservoir sample
+ * strata follow the new keywords. Producer changes replace
+ * the Kafka producer, which holds sends back for at most reconfiguration-config.max-pause-ms; if the old producer
+ * cannot drain within that bound, the producer keeps its current settings and the result says so.
+ */
+@Service
+public class RuntimeReconfigurationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RuntimeReconfigurationService.class);
+
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+
+    private final KafkaProducerConfigData kafkaProducerConfigData;
+
+    private final ReconfigurationConfigData reconfigurationConfigData;
+
+    private final StreamRunner streamRunner;
+
+    private final IKafkaProducer<Long, TwitterAvroModel> kafkaProducer;
+
+    private final StratifiedReservoirSampler reservoirSampler;
+
+    public RuntimeReconfigurationService(TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData,
+                                         KafkaProducerConfigData kafkaProducerConfigData,
+                                         ReconfigurationConfigData reconfigurationConfigData,
+                                         StreamRunner streamRunner,
+                                         IKafkaProducer<Long, TwitterAvroModel> kafkaProducer,
+                                         StratifiedReservoirSampler reservoirSampler) {
+        this.twitterToKafkaServiceConfigData = twitterToKafkaServiceConfigData;
+        this.kafkaProducerConfigData = kafkaProducerConfigData;
+        this.reconfigurationConfigData = reconfigurationConfigData;
+        this.streamRunner = streamRunner;
+        this.kafkaProducer = kafkaProducer;
+        this.reservoirSampler = reservoirSampler;
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(reconfigurationConfigData.getEnabled());
+    }
+
+    public RuntimeSettings current() {
+        return new RuntimeSettings(List.copyOf(twitterToKafkaServiceConfigData.getTwitterKeywords()),
+                twitterToKafkaServiceConfigData.getMockSleepMs(),
+                kafkaProducerConfigData.getLingerMs(),
+                kafkaProducerConfigData.getBatchSize(),
+                kafkaProducerConfigData.getCompressionType(),
+                kafkaProducerConfigData.getAcks());
+    }
+
+    public synchronized ReconfigurationResult apply(RuntimeSettings request) {
+        if (request.twitterKeywords() != null || request.mockSleepMs() != null) {
+            applyStreamSettings(request);
+        }
+
+        Map<String, Object> producerOverrides = producerOverrides(request);
+        boolean producerReconfigured = false;
+        long producerPauseMs = 0;
+        if (!producerOverrides.isEmpty()) {
+            long pauseStart = System.nanoTime();
+            producerReconfigured = kafkaProducer.reconfigure(producerOverrides,
+                    Duration.ofMillis(reconfigurationConfigData.getMaxPauseMs()));
+            producerPauseMs = Duration.ofNanos(System.nanoTime() - pauseStart).toMillis();
+            if (producerReconfigured) {
+                updateProducerConfigData(request);
+            }
+        }
+        return new ReconfigurationResult(current(), producerReconfigured, producerPauseMs);
+    }
+
+    /**
+     * The runner gets a complete new configuration; the shared config bean only follows once the runner has it.
+     */
+    private void applyStreamSettings(RuntimeSettings request) {
+        TwitterToKafkaServiceConfigData newConfig = new TwitterToKafkaServiceConfigData();
+        BeanUtils.copyProperties(twitterToKafkaServiceConfigData, newConfig);
+        if (request.twitterKeywords() != null) {
+            newConfig.setTwitterKeywords(List.copyOf(request.twitterKeywords()));
+        }
+        if (request.mockSleepMs() != null) {
+            newConfig.setMockSleepMs(request.mockSleepMs());
+        }
+        streamRunner.reconfigure(newConfig);
+        twitterToKafkaServiceConfigData.setTwitterKeywords(newConfig.getTwitterKeywords());
+        twitterToKafkaServiceConfigData.setMockSleepMs(newConfig.getMockSleepMs());
+        if (request.twitterKeywords() != null) {
+            reservoirSampler.updateKeywords(newConfig.getTwitterKeywords());
+        }
+        LOG.info("Stream reconfigured with keywords: {} and mock sleep time: {} ms",
+                newConfig.getTwitterKeywords(), newConfig.getMockSleepMs());
+    }
+
+    private Map<String, Object> producerOverrides(RuntimeSettings request) {
+        Map<String, Object> overrides = new HashMap<>();
+        if (request.lingerMs() != null) {
+            overrides.put(ProducerConfig.LINGER_MS_CONFIG, request.lingerMs());
+        }
+        if (request.batchSize() != null) {
+            overrides.put(ProducerConfig.BATCH_SIZE_CONFIG,
+                    request.batchSize() * kafkaProducerConfigData.getBatchSizeBoostFactor());
+        }
+        if (request.compressionType() != null) {
+            overrides.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, request.compressionType());
+        }
+        if (request.acks() != null) {
+            overrides.put(ProducerConfig.ACKS_CONFIG, request.acks());
+        }
+        return overrides;
+    }
+
+    private void updateProducerConfigData(RuntimeSettings request) {
+        if (request.lingerMs() != null) {
+            kafkaProducerConfigData.setLingerMs(request.lingerMs());
+        }
+        if (request.batchSize() != null) {
+            kafkaProducerConfigData.setBatchSize(request.batchSize());
+        }
+        if (request.compressionType() != null) {
+            kafkaProducerConfigData.setCompressionType(request.compressionType());
+        }
+        if (request.acks() != null) {
+            kafkaProducerConfigData.setAcks(request.acks());
+        }
+    }
+}
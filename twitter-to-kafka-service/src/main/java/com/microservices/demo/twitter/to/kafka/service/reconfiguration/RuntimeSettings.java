@@ -0,0 +1,16 @@
+package com.microservices.demo.twitter.to.kafka.service.reconfiguration;
+
+import java.util.List;
+
+/**
+ * The settings that can change without a restart. In a request, null fields keep their current value.
+ *
+ * @param batchSize base batch size in bytes, multiplied by kafka-producer-config.batch-size-boost-factor as at startup
+ */
+public record RuntimeSettings(List<String> twitterKeywords,
+                              Long mockSleepMs,
+                              Integer lingerMs,
+                              Integer batchSize,
+                              String compressionType,
+                              String acks) {
+}
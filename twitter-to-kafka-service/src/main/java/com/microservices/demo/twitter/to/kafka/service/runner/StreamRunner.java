@@ -1,7 +1,23 @@
 package com.microservices.demo.twitter.to.kafka.service.runner;
 
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
 import twitter4j.TwitterException;
 
+import java.time.Duration;
+
 public interface StreamRunner {
     void start() throws TwitterException;
+
+    /**
+     * Stops taking in new statuses, waiting at most for the timeout until the source has stopped delivering them.
+     *
+     * @return whether the source stopped before the timeout
+     */
+    boolean stop(Duration timeout);
+
+    /**
+     * Switches a running stream to the keywords and ingest settings of the new configuration, without dropping
+     * statuses the stream has already received. Before start() this is a no-op; start() reads the configuration.
+     */
+    void reconfigure(TwitterToKafkaServiceConfigData newConfig);
 }
@@ -4,20 +4,22 @@ import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
 import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
 import com.microservices.demo.twitter.to.kafka.service.listener.TwitterKafkaStatusListener;
 import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
-import twitter4j.Status;
-import twitter4j.TwitterException;
-import twitter4j.TwitterObjectFactory;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @ConditionalOnProperty(name = "twitter-to-kafka-service.enable-mock-tweets", havingValue = "true")
@@ -45,7 +47,26 @@ public class MockKafkaStreamRunner implements StreamRunner {
             "} " +
             "}";
 
-    private static final String TWITTER_STATUS_DATE_FORMAT = "EEE MMM dd HH:mm:ss zzz yyyy";
+    private static final String TWITTER_STATUS_DATE_FORMAT = "EEE MMM dd HH:mm:ss Z yyyy";
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mock-twitter-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final CountDownLatch stopSignal = new CountDownLatch(1);
+
+    /**
+     * Replaced on every reconfiguration so a sleep under the old interval ends early.
+     */
+    private volatile CountDownLatch wakeUp = new CountDownLatch(1);
+
+    private volatile String[] keywords;
+
+    private volatile long sleepTimeMs;
+
+    private long userCount;
 
     public MockKafkaStreamRunner(TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData, TwitterKafkaStatusListener twitterKafkaStatusListener) {
         this.twitterToKafkaServiceConfigData = twitterToKafkaServiceConfigData;
@@ -54,35 +75,70 @@ public class MockKafkaStreamRunner implements StreamRunner {
 
     @Override
     public void start() {
-        String[] keywords = twitterToKafkaServiceConfigData.getTwitterKeywords().toArray(new String[0]);
+        keywords = twitterToKafkaServiceConfigData.getTwitterKeywords().toArray(new String[0]);
+        sleepTimeMs = twitterToKafkaServiceConfigData.getMockSleepMs();
+        Long mockUserCount = twitterToKafkaServiceConfigData.getMockUserCount();
+        userCount = mockUserCount == null || mockUserCount <= 0 ? Long.MAX_VALUE : mockUserCount;
         int minTweetLength = twitterToKafkaServiceConfigData.getMockMinTweetLength();
         int maxTweetLength = twitterToKafkaServiceConfigData.getMockMaxTweetLength();
-        long sleepTimeMs = twitterToKafkaServiceConfigData.getMockSleepMs();
         LOG.info("Started mock twitter stream with keywords: {} and sleep time: {} ms", keywords, sleepTimeMs);
-        simulateTwitterStream(keywords, minTweetLength, maxTweetLength, sleepTimeMs);
+        simulateTwitterStream(minTweetLength, maxTweetLength);
 
     }
 
-    private void simulateTwitterStream(String[] keywords, int minTweetLength, int maxTweetLength, long sleepTimeMs) {
-        Executors.newSingleThreadExecutor().submit(() -> {
+    @Override
+    public void reconfigure(TwitterToKafkaServiceConfigData newConfig) {
+        keywords = newConfig.getTwitterKeywords().toArray(new String[0]);
+        sleepTimeMs = newConfig.getMockSleepMs();
+        CountDownLatch previous = wakeUp;
+        wakeUp = new CountDownLatch(1);
+        previous.countDown();
+        LOG.info("Mock twitter stream switched to keywords: {} and sleep time: {} ms", keywords, sleepTimeMs);
+    }
+
+    /**
+     * Lets the status being handed to the listener finish, then ends the simulation loop.
+     */
+    @Override
+    public boolean stop(Duration timeout) {
+        stopSignal.countDown();
+        wakeUp.countDown();
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopSignal.countDown();
+        executor.shutdownNow();
+        LOG.info("Mock twitter stream has been shut down.");
+    }
+
+    private void simulateTwitterStream(int minTweetLength, int maxTweetLength) {
+        executor.submit(() -> {
             try {
-                while (!Thread.currentThread().isInterrupted()) {
+                while (stopSignal.getCount() > 0 && !Thread.currentThread().isInterrupted()) {
                     String formattedTweetAsRawJson = getFormattedTweet(keywords, minTweetLength, maxTweetLength);
-                    Status status = TwitterObjectFactory.createStatus(formattedTweetAsRawJson);
-                    twitterKafkaStatusListener.onStatus(status);
+                    twitterKafkaStatusListener.onRawStatus(formattedTweetAsRawJson);
                     sleep(sleepTimeMs);
                 }
             } catch (TwitterToKafkaServiceException e) {
                 LOG.error("Error while simulating Twitter stream", e);
-            } catch (TwitterException e) {
-                LOG.error("Error while creating Twitter status from raw JSON", e);
             }
         });
     }
 
+    /**
+     * Sleeps between statuses, waking up early when the stream is stopped or reconfigured.
+     */
     private void sleep(long sleepTimeMs) {
         try {
-            Thread.sleep(sleepTimeMs);
+            wakeUp.await(sleepTimeMs, TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) {
             LOG.error("Sleep interrupted", e);
             Thread.currentThread().interrupt();
@@ -95,7 +151,7 @@ public class MockKafkaStreamRunner implements StreamRunner {
                 ZonedDateTime.now().format(DateTimeFormatter.ofPattern(TWITTER_STATUS_DATE_FORMAT, Locale.ENGLISH)),
                 String.valueOf(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE)),
                 getRandomTweetContent(keywords, minTweetLength, maxTweetLength),
-                String.valueOf(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE)),
+                String.valueOf(ThreadLocalRandom.current().nextLong(userCount)),
         };
 
         return formatTweetAsJsonWithParams(params);
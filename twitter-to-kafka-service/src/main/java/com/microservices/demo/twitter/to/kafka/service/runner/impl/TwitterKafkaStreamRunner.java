@@ -3,50 +3,80 @@ package com.microservices.demo.twitter.to.kafka.service.runner.impl;
 import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
 import com.microservices.demo.twitter.to.kafka.service.listener.TwitterKafkaStatusListener;
 import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
+import com.microservices.demo.twitter.to.kafka.service.runner.shard.IStatusSource;
+import com.microservices.demo.twitter.to.kafka.service.runner.shard.KeywordShards;
+import com.microservices.demo.twitter.to.kafka.service.runner.shard.ShardedStatusStream;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
-import twitter4j.FilterQuery;
-import twitter4j.TwitterException;
-import twitter4j.TwitterStream;
-import twitter4j.TwitterStreamFactory;
+
+import java.time.Duration;
+import java.util.List;
 
 @Component
 @ConditionalOnProperty(name = "twitter-to-kafka-service.enable-mock-tweets", havingValue = "false", matchIfMissing = true)
 public class TwitterKafkaStreamRunner implements StreamRunner {
     private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
     private final TwitterKafkaStatusListener twitterKafkaStatusListener;
+    private final IStatusSource statusSource;
+    private final MeterRegistry meterRegistry;
 
     private static final Logger LOG = LoggerFactory.getLogger(TwitterKafkaStreamRunner.class);
 
-    private TwitterStream twitterStream;
+    private ShardedStatusStream shardedStatusStream;
 
-    public TwitterKafkaStreamRunner(TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData, TwitterKafkaStatusListener twitterKafkaStatusListener) {
+    public TwitterKafkaStreamRunner(TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData,
+                                    TwitterKafkaStatusListener twitterKafkaStatusListener,
+                                    IStatusSource statusSource,
+                                    MeterRegistry meterRegistry) {
         this.twitterToKafkaServiceConfigData = twitterToKafkaServiceConfigData;
         this.twitterKafkaStatusListener = twitterKafkaStatusListener;
+        this.statusSource = statusSource;
+        this.meterRegistry = meterRegistry;
     }
 
     @PreDestroy
     public void shutdown() {
-        if (twitterStream != null) {
-            twitterStream.shutdown();
+        if (shardedStatusStream != null) {
+            shardedStatusStream.stop(Duration.ZERO);
             LOG.info("Twitter stream has been shut down.");
         } else {
             LOG.warn("Twitter stream was not running.");
         }
     }
 
+    /**
+     * Closes every shard connection and waits for the shard threads to hand their buffered statuses to the listener.
+     */
     @Override
-    public void start() throws TwitterException {
-        twitterStream = new TwitterStreamFactory().getInstance();
-        twitterStream.addListener(twitterKafkaStatusListener);
-        addFilter();
+    public boolean stop(Duration timeout) {
+        if (shardedStatusStream != null) {
+            boolean stopped = shardedStatusStream.stop(timeout);
+            LOG.info("Twitter stream connections have been closed.");
+            return stopped;
+        }
+        return true;
     }
 
-    private void addFilter() {
-        twitterStream.filter(new FilterQuery().track(twitterToKafkaServiceConfigData.getTwitterKeywords().toArray(new String[0])));
-        LOG.info("Started Twitter stream with keywords: {}", twitterToKafkaServiceConfigData.getTwitterKeywords());
+    @Override
+    public void reconfigure(TwitterToKafkaServiceConfigData newConfig) {
+        if (shardedStatusStream != null) {
+            shardedStatusStream.replaceKeywords(newConfig.getTwitterKeywords());
+            LOG.info("Switching Twitter stream to keywords: {}", newConfig.getTwitterKeywords());
+        }
+    }
+
+    @Override
+    public void start() {
+        List<List<String>> keywordShards = KeywordShards.split(twitterToKafkaServiceConfigData.getTwitterKeywords(),
+                twitterToKafkaServiceConfigData.getStreamShardCount());
+        shardedStatusStream = new ShardedStatusStream(statusSource, keywordShards, twitterKafkaStatusListener::onRawStatus,
+                twitterToKafkaServiceConfigData, meterRegistry);
+        shardedStatusStream.start();
+        LOG.info("Started Twitter stream with keywords: {} across {} shard(s)",
+                twitterToKafkaServiceConfigData.getTwitterKeywords(), keywordShards.size());
     }
 }
@@ -0,0 +1,21 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.shard;
+
+/**
+ * One open stream connection, read by a single shard thread. Messages are delivered as their raw JSON.
+ */
+public interface IStatusConnection extends AutoCloseable {
+    /**
+     * Waits up to the timeout for the next message. After {@link #close()}, returns the messages
+     * already buffered and then null.
+     *
+     * @return the raw JSON of the next message, or null when none arrived within the timeout
+     * @throws Exception when the connection has dropped and has nothing buffered
+     */
+    String poll(long timeoutMs) throws Exception;
+
+    /**
+     * Stops receiving messages. Does not throw.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,14 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.shard;
+
+import java.util.List;
+
+/**
+ * Opens stream connections for one shard of the tracked keywords.
+ */
+public interface IStatusSource {
+    /**
+     * @param shard    index of the shard the connection serves, for naming and logging
+     * @param keywords keywords the connection tracks
+     */
+    IStatusConnection connect(int shard, List<String> keywords) throws Exception;
+}
@@ -0,0 +1,25 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class KeywordShards {
+
+    private KeywordShards() {
+    }
+
+    /**
+     * Deals the keywords round-robin into at most shardCount non-empty shards, preserving their order.
+     */
+    public static List<List<String>> split(List<String> keywords, int shardCount) {
+        int shards = Math.max(1, Math.min(shardCount, keywords.size()));
+        List<List<String>> result = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            result.add(new ArrayList<>());
+        }
+        for (int i = 0; i < keywords.size(); i++) {
+            result.get(i % shards).add(keywords.get(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,246 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.shard;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Reads several stream connections in parallel, one thread per keyword shard, and hands the raw JSON of every
+ * message to the shared sink. The sink is called concurrently from all shard threads.
+ * <p>
+ * Each shard reconnects on its own when its connection drops, with exponential backoff that resets as soon
+ * as a connection delivers a status. Per shard, twitter.stream.statuses, twitter.stream.connects and
+ * twitter.stream.disconnects are counted, and twitter.stream.connected and twitter.stream.backoff are gauged.
+ * <p>
+ * Keywords can be replaced while running: each shard opens its new connection before it closes the old one and
+ * drains what that one had buffered, so a swap delivers some statuses twice rather than missing any.
+ */
+public class ShardedStatusStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShardedStatusStream.class);
+
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final List<Shard> shards = new ArrayList<>();
+
+    private final CountDownLatch stopSignal = new CountDownLatch(1);
+
+    private volatile boolean running = true;
+
+    public ShardedStatusStream(IStatusSource statusSource,
+                               List<List<String>> keywordShards,
+                               Consumer<String> sink,
+                               TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData,
+                               MeterRegistry meterRegistry) {
+        for (int i = 0; i < keywordShards.size(); i++) {
+            shards.add(new Shard(i, keywordShards.get(i), statusSource, sink, twitterToKafkaServiceConfigData, meterRegistry));
+        }
+    }
+
+    public void start() {
+        shards.forEach(shard -> shard.thread.start());
+    }
+
+    /**
+     * Deals the keywords over the existing shards and has every shard switch its connection on its next poll.
+     * The shard count stays as started; shards left without keywords disconnect until a later swap.
+     */
+    public void replaceKeywords(List<String> keywords) {
+        List<List<String>> keywordShards = KeywordShards.split(keywords, shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).requestedKeywords.set(i < keywordShards.size() ? List.copyOf(keywordShards.get(i)) : List.of());
+        }
+    }
+
+    /**
+     * Closes every connection, lets each shard hand its buffered statuses to the sink, and waits
+     * at most for the timeout for the shard threads to finish.
+     *
+     * @return whether all shard threads finished before the timeout
+     */
+    public boolean stop(Duration timeout) {
+        running = false;
+        stopSignal.countDown();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (Shard shard : shards) {
+            try {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs > 0) {
+                    shard.thread.join(remainingMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return shards.stream().noneMatch(shard -> shard.thread.isAlive());
+    }
+
+    private final class Shard implements Runnable {
+
+        private final int index;
+
+        private volatile List<String> keywords;
+
+        private final AtomicReference<List<String>> requestedKeywords = new AtomicReference<>();
+
+        private final IStatusSource statusSource;
+
+        private final Consumer<String> sink;
+
+        private final TwitterToKafkaServiceConfigData config;
+
+        private final Thread thread;
+
+        private final Counter statuses;
+
+        private final Counter connects;
+
+        private final Counter disconnects;
+
+        private volatile boolean connected;
+
+        private volatile long backoffMs;
+
+        private Shard(int index, List<String> keywords, IStatusSource statusSource, Consumer<String> sink,
+                      TwitterToKafkaServiceConfigData config, MeterRegistry meterRegistry) {
+            this.index = index;
+            this.keywords = keywords;
+            this.statusSource = statusSource;
+            this.sink = sink;
+            this.config = config;
+            this.backoffMs = config.getStreamReconnectInitialBackoffMs();
+            this.thread = new Thread(this, "twitter-stream-shard-" + index);
+            this.thread.setDaemon(true);
+
+            String shardTag = String.valueOf(index);
+            this.statuses = Counter.builder("twitter.stream.statuses").tag("shard", shardTag).register(meterRegistry);
+            this.connects = Counter.builder("twitter.stream.connects").tag("shard", shardTag).register(meterRegistry);
+            this.disconnects = Counter.builder("twitter.stream.disconnects").tag("shard", shardTag).register(meterRegistry);
+            Gauge.builder("twitter.stream.connected", this, shard -> shard.connected ? 1 : 0)
+                    .tag("shard", shardTag)
+                    .register(meterRegistry);
+            Gauge.builder("twitter.stream.backoff", this, shard -> shard.backoffMs)
+                    .tag("shard", shardTag)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void run() {
+            LOG.info("Stream shard {} tracking keywords: {}", index, keywords);
+            IStatusConnection connection = null;
+            boolean received = false;
+            while (running) {
+                try {
+                    List<String> requested = requestedKeywords.getAndSet(null);
+                    if (requested != null) {
+                        connection = swap(connection, requested);
+                        received = false;
+                    }
+                    if (connection == null && !keywords.isEmpty()) {
+                        connection = connect();
+                        received = false;
+                    }
+                    if (connection == null) {
+                        idle();
+                        continue;
+                    }
+                    String status = connection.poll(POLL_TIMEOUT_MS);
+                    if (status != null) {
+                        if (!received) {
+                            received = true;
+                            backoffMs = config.getStreamReconnectInitialBackoffMs();
+                        }
+                        deliver(status);
+                    }
+                } catch (Exception e) {
+                    closeAndDrain(connection);
+                    connection = null;
+                    if (running) {
+                        disconnects.increment();
+                        LOG.warn("Stream shard {} disconnected, reconnecting in {} ms", index, backoffMs, e);
+                        backOff();
+                    }
+                }
+            }
+            closeAndDrain(connection);
+            LOG.info("Stream shard {} stopped", index);
+        }
+
+        private IStatusConnection connect() throws Exception {
+            IStatusConnection connection = statusSource.connect(index, keywords);
+            connected = true;
+            connects.increment();
+            return connection;
+        }
+
+        /**
+         * Make-before-break: the old connection keeps buffering until the new one is open.
+         */
+        private IStatusConnection swap(IStatusConnection current, List<String> newKeywords) throws Exception {
+            LOG.info("Stream shard {} switching keywords from {} to {}", index, keywords, newKeywords);
+            keywords = newKeywords;
+            IStatusConnection next = newKeywords.isEmpty() ? null : connect();
+            closeAndDrain(current);
+            connected = next != null;
+            return next;
+        }
+
+        private void closeAndDrain(IStatusConnection connection) {
+            connected = false;
+            if (connection == null) {
+                return;
+            }
+            try {
+                connection.close();
+                String buffered;
+                while ((buffered = connection.poll(0)) != null) {
+                    deliver(buffered);
+                }
+            } catch (Exception e) {
+                LOG.warn("Stream shard {} failed to drain its closed connection", index, e);
+            }
+        }
+
+        private void idle() {
+            try {
+                stopSignal.await(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+
+        private void deliver(String status) {
+            statuses.increment();
+            try {
+                sink.accept(status);
+            } catch (RuntimeException e) {
+                LOG.error("Stream shard {} failed to process status: {}", index, status, e);
+            }
+        }
+
+        private void backOff() {
+            try {
+                stopSignal.await(backoffMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            backoffMs = Math.min((long) (backoffMs * config.getStreamReconnectBackoffMultiplier()),
+                    config.getStreamReconnectMaxBackoffMs());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.shard.impl;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import com.microservices.demo.twitter.to.kafka.service.runner.shard.IStatusConnection;
+import com.microservices.demo.twitter.to.kafka.service.runner.shard.IStatusSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import twitter4j.ConnectionLifeCycleListener;
+import twitter4j.FilterQuery;
+import twitter4j.RawStreamListener;
+import twitter4j.TwitterStream;
+import twitter4j.TwitterStreamFactory;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Opens one twitter4j filter stream per shard.
+ * <p>
+ * Only a raw listener is registered, so twitter4j hands over each message line without parsing it. twitter4j runs
+ * every stream's listeners on one dispatcher shared by all TwitterStream instances, so the listener registered here
+ * only queues the message; the shard thread polling the connection runs the pipeline. When a shard's queue stays full
+ * for stream-shard-offer-timeout-ms the message is dropped and counted as twitter.stream.overflow{shard}, rather
+ * than holding up the dispatcher and with it every other shard.
+ */
+@Component
+public class TwitterStatusSource implements IStatusSource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TwitterStatusSource.class);
+
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+
+    private final Supplier<TwitterStream> twitterStreams;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Streams of the connections not closed yet.
+     */
+    private final Set<TwitterStream> openStreams = ConcurrentHashMap.newKeySet();
+
+    private volatile TwitterStream lastTwitterStream;
+
+    @Autowired
+    public TwitterStatusSource(TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData,
+                               MeterRegistry meterRegistry) {
+        this(twitterToKafkaServiceConfigData, meterRegistry, () -> new TwitterStreamFactory().getInstance());
+    }
+
+    TwitterStatusSource(TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData,
+                        MeterRegistry meterRegistry,
+                        Supplier<TwitterStream> twitterStreams) {
+        this.twitterToKafkaServiceConfigData = twitterToKafkaServiceConfigData;
+        this.meterRegistry = meterRegistry;
+        this.twitterStreams = twitterStreams;
+    }
+
+    @Override
+    public IStatusConnection connect(int shard, List<String> keywords) {
+        TwitterStream twitterStream = twitterStreams.get();
+        lastTwitterStream = twitterStream;
+        openStreams.add(twitterStream);
+        Long offerTimeoutMs = twitterToKafkaServiceConfigData.getStreamShardOfferTimeoutMs();
+        TwitterStatusConnection connection = new TwitterStatusConnection(shard, twitterStream,
+                twitterToKafkaServiceConfigData.getStreamShardQueueCapacity(),
+                offerTimeoutMs == null ? 0 : offerTimeoutMs,
+                Counter.builder("twitter.stream.overflow").tag("shard", String.valueOf(shard)).register(meterRegistry),
+                openStreams::remove);
+        twitterStream.addListener(connection);
+        twitterStream.addConnectionLifeCycleListener(connection);
+        twitterStream.filter(new FilterQuery().track(keywords.toArray(new String[0])));
+        return connection;
+    }
+
+    /**
+     * Shuts down every stream still open, and with them the dispatcher shared by all streams; when every shard
+     * connection has been closed already, only the dispatcher.
+     */
+    @PreDestroy
+    public void shutdown() {
+        int open = openStreams.size();
+        for (TwitterStream twitterStream : openStreams) {
+            twitterStream.shutdown();
+        }
+        openStreams.clear();
+        TwitterStream twitterStream = lastTwitterStream;
+        if (open == 0 && twitterStream != null) {
+            twitterStream.shutdown();
+        }
+        if (twitterStream != null) {
+            LOG.info("Twitter stream dispatcher has been shut down with {} stream(s) still open.", open);
+        }
+    }
+
+    static final class TwitterStatusConnection
+            implements IStatusConnection, RawStreamListener, ConnectionLifeCycleListener {
+
+        private final int shard;
+
+        private final TwitterStream twitterStream;
+
+        private final BlockingQueue<String> queue;
+
+        private final long offerTimeoutMs;
+
+        private final Counter overflow;
+
+        private final Consumer<TwitterStream> onClosed;
+
+        /**
+         * Why the stream is down; cleared when twitter4j reconnects it.
+         */
+        private volatile Exception failure;
+
+        private volatile boolean closed;
+
+        private TwitterStatusConnection(int shard, TwitterStream twitterStream, int queueCapacity,
+                                        long offerTimeoutMs, Counter overflow, Consumer<TwitterStream> onClosed) {
+            this.shard = shard;
+            this.twitterStream = twitterStream;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.offerTimeoutMs = offerTimeoutMs;
+            this.overflow = overflow;
+            this.onClosed = onClosed;
+        }
+
+        @Override
+        public String poll(long timeoutMs) throws Exception {
+            String status = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+            if (status == null && failure != null && !closed) {
+                throw failure;
+            }
+            return status;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                twitterStream.cleanUp();
+                onClosed.accept(twitterStream);
+            }
+        }
+
+        @Override
+        public void onMessage(String rawJson) {
+            try {
+                // Waits on the shared dispatcher for a bounded time only, so other shards keep being delivered
+                if (!queue.offer(rawJson, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    overflow.increment();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onException(Exception ex) {
+            failure = ex;
+        }
+
+        @Override
+        public void onConnect() {
+            failure = null;
+            LOG.info("Twitter stream shard {} connected", shard);
+        }
+
+        @Override
+        public void onDisconnect() {
+            failure = new TwitterToKafkaServiceException("Twitter stream shard " + shard + " disconnected");
+        }
+
+        @Override
+        public void onCleanUp() {
+        }
+    }
+}
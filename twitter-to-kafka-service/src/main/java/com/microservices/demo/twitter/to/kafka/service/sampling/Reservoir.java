@@ -0,0 +1,61 @@
+package com.microservices.demo.twitter.to.kafka.service.sampling;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Uniform sample of fixed size over the records offered since the last drain (Algorithm R): the first capacity
+ * records are kept, after that the n-th record replaces a random slot with probability capacity / n.
+ * A record is copied only when it is kept, so offering costs a counter increment and a random draw.
+ * Not thread-safe.
+ */
+final class Reservoir {
+
+    private final TwitterAvroModel[] slots;
+
+    private long seen;
+
+    Reservoir(int capacity) {
+        this.slots = new TwitterAvroModel[capacity];
+    }
+
+    void offer(TwitterAvroModel twitterAvroModel) {
+        seen++;
+        if (seen <= slots.length) {
+            slots[(int) seen - 1] = copy(twitterAvroModel);
+        } else {
+            long slot = ThreadLocalRandom.current().nextLong(seen);
+            if (slot < slots.length) {
+                slots[(int) slot] = copy(twitterAvroModel);
+            }
+        }
+    }
+
+    /**
+     * Moves the sample, each record weighted by the records it stands for, into sample and starts a new one.
+     *
+     * @return the number of records offered since the last drain
+     */
+    long drainTo(List<TwitterAvroModel> sample) {
+        int kept = (int) Math.min(seen, slots.length);
+        double weight = kept == 0 ? 0 : (double) seen / kept;
+        for (int i = 0; i < kept; i++) {
+            slots[i].setSampleWeight(weight);
+            sample.add(slots[i]);
+        }
+        Arrays.fill(slots, 0, kept, null);
+        long offered = seen;
+        seen = 0;
+        return offered;
+    }
+
+    /**
+     * Records may be reused by the transformer once they are sent, so the reservoir keeps its own copy.
+     */
+    private static TwitterAvroModel copy(TwitterAvroModel twitterAvroModel) {
+        return TwitterAvroModel.newBuilder(twitterAvroModel).build();
+    }
+}
@@ -0,0 +1,268 @@
+package com.microservices.demo.twitter.to.kafka.service.sampling;
+
+import com.microservices.demo.config.ReservoirSampleConfigData;
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.IKafkaProducer;
+import com.microservices.demo.kafka.producer.exception.KafkaProducerCircuitOpenException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a fixed-size uniform sample of the stream per keyword stratum and publishes it to the sample topic once
+ * per window, so consumers that only need a representative sample can read samples-per-stratum records per
+ * stratum and window instead of the full topic. Every sampled record carries the number of records it stands for
+ * as sampleWeight, as strata are sampled at different rates.
+ * <p>
+ * A record joins the stratum of the first keyword among its precomputed tokens, or in its text when it has none.
+ * Each stratum has its own lock, so ingest threads offering records of different keywords do not contend.
+ * <p>
+ * Without reservoir-sample-config.strata the strata are the stream keywords, and follow them when they change at
+ * runtime: strata of kept keywords keep their reservoirs, new keywords get empty ones, and the reservoirs of removed
+ * keywords are published with the next window and then dropped.
+ * <p>
+ * Publishes the offered and sampled records per stratum as tweet.sample.offered{stratum} and
+ * tweet.sample.published{stratum}.
+ */
+@Component
+public class StratifiedReservoirSampler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StratifiedReservoirSampler.class);
+
+    static final String UNMATCHED_STRATUM = "other";
+
+    private final ReservoirSampleConfigData reservoirSampleConfigData;
+
+    private final IKafkaProducer<Long, TwitterAvroModel> kafkaProducer;
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+
+    private final boolean followsKeywords;
+
+    private final int capacity;
+
+    private final Stratum unmatched;
+
+    private volatile Strata strata;
+
+    /**
+     * Strata of removed keywords, published once more with the next window. Guarded by this.
+     */
+    private final List<Stratum> retired = new ArrayList<>();
+
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    private final ScheduledExecutorService publishExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reservoir-sample-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StratifiedReservoirSampler(ReservoirSampleConfigData reservoirSampleConfigData,
+                                      TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData,
+                                      IKafkaProducer<Long, TwitterAvroModel> kafkaProducer,
+                                      MeterRegistry meterRegistry) {
+        this.reservoirSampleConfigData = reservoirSampleConfigData;
+        this.kafkaProducer = kafkaProducer;
+        this.meterRegistry = meterRegistry;
+        this.enabled = Boolean.TRUE.equals(reservoirSampleConfigData.getEnabled());
+        this.followsKeywords = reservoirSampleConfigData.getStrata() == null
+                || reservoirSampleConfigData.getStrata().isEmpty();
+        List<String> configured = followsKeywords
+                ? twitterToKafkaServiceConfigData.getTwitterKeywords()
+                : reservoirSampleConfigData.getStrata();
+        this.capacity = reservoirSampleConfigData.getSamplesPerStratum();
+        this.strata = strataOf(configured, Map.of());
+        this.unmatched = Boolean.TRUE.equals(reservoirSampleConfigData.getSampleUnmatched())
+                ? new Stratum(UNMATCHED_STRATUM, capacity, meterRegistry)
+                : null;
+        if (enabled) {
+            long windowMs = reservoirSampleConfigData.getWindowMs();
+            publishExecutor.scheduleAtFixedRate(this::publish, windowMs, windowMs, TimeUnit.MILLISECONDS);
+            LOG.info("Sampling {} records per stratum of {} every {} ms to topic {}", capacity, configured,
+                    windowMs, reservoirSampleConfigData.getTopicName());
+        }
+    }
+
+    public void offer(TwitterAvroModel twitterAvroModel) {
+        if (!enabled) {
+            return;
+        }
+        Stratum stratum = stratumOf(twitterAvroModel);
+        if (stratum != null) {
+            synchronized (stratum) {
+                stratum.reservoir.offer(twitterAvroModel);
+            }
+        }
+    }
+
+    /**
+     * Moves the strata to new stream keywords; ignored when reservoir-sample-config.strata are configured. Records
+     * offered to a removed keyword's stratum after its last window was published are lost.
+     */
+    public synchronized void updateKeywords(List<String> twitterKeywords) {
+        if (!followsKeywords) {
+            return;
+        }
+        Map<String, Stratum> existing = new HashMap<>();
+        for (Stratum stratum : strata.strata) {
+            existing.put(stratum.name.toLowerCase(Locale.ROOT), stratum);
+        }
+        Strata updated = strataOf(twitterKeywords, existing);
+        for (Stratum stratum : updated.strata) {
+            existing.remove(stratum.name.toLowerCase(Locale.ROOT));
+        }
+        retired.addAll(existing.values());
+        strata = updated;
+        LOG.info("Sampling strata changed to {}", twitterKeywords);
+    }
+
+    /**
+     * Ends the current window of every stratum and sends its sample.
+     */
+    void publish() {
+        List<TwitterAvroModel> sample = new ArrayList<>();
+        for (Stratum stratum : strata.strata) {
+            publish(stratum, sample);
+        }
+        if (unmatched != null) {
+            publish(unmatched, sample);
+        }
+        List<Stratum> removed;
+        synchronized (this) {
+            removed = new ArrayList<>(retired);
+            retired.clear();
+        }
+        for (Stratum stratum : removed) {
+            publish(stratum, sample);
+        }
+    }
+
+    /**
+     * Stops the window schedule, waiting at most for the timeout for a publish in progress, and sends the samples of
+     * the current window, so they reach the producer before it is drained. Later calls do nothing.
+     *
+     * @return whether a publish in progress finished before the timeout
+     */
+    public boolean stop(Duration timeout) {
+        if (!stopped.compareAndSet(false, true)) {
+            return true;
+        }
+        publishExecutor.shutdown();
+        boolean finished;
+        try {
+            finished = publishExecutor.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finished = false;
+        }
+        if (enabled) {
+            publish();
+        }
+        return finished;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stop(Duration.ZERO);
+    }
+
+    private void publish(Stratum stratum, List<TwitterAvroModel> sample) {
+        sample.clear();
+        long offered;
+        synchronized (stratum) {
+            offered = stratum.reservoir.drainTo(sample);
+        }
+        stratum.offered.increment(offered);
+        try {
+            for (TwitterAvroModel twitterAvroModel : sample) {
+                kafkaProducer.send(reservoirSampleConfigData.getTopicName(), twitterAvroModel.getUserId(),
+                        twitterAvroModel);
+                stratum.published.increment();
+            }
+        } catch (KafkaProducerCircuitOpenException e) {
+            LOG.warn("Dropped the sample of stratum {}: {}", stratum.name, e.getMessage());
+        }
+    }
+
+    private Stratum stratumOf(TwitterAvroModel twitterAvroModel) {
+        List<String> tokens = twitterAvroModel.getTokens();
+        String text = twitterAvroModel.getText();
+        Strata current = strata;
+        for (int i = 0; i < current.keywords.length; i++) {
+            String keyword = current.keywords[i];
+            if (tokens != null ? tokens.contains(keyword) : containsIgnoreCase(text, keyword)) {
+                return current.strata[i];
+            }
+        }
+        return unmatched;
+    }
+
+    /**
+     * @param existing strata to keep by lower-cased keyword
+     */
+    private Strata strataOf(List<String> names, Map<String, Stratum> existing) {
+        String[] keywords = new String[names.size()];
+        Stratum[] keywordStrata = new Stratum[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            keywords[i] = names.get(i).toLowerCase(Locale.ROOT);
+            Stratum kept = existing.get(keywords[i]);
+            keywordStrata[i] = kept != null ? kept : new Stratum(names.get(i), capacity, meterRegistry);
+        }
+        return new Strata(keywords, keywordStrata);
+    }
+
+    private static boolean containsIgnoreCase(String text, String keyword) {
+        if (text == null) {
+            return false;
+        }
+        int last = text.length() - keyword.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, keyword, 0, keyword.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lower-cased keywords and their strata, replaced as a whole when the keywords change.
+     */
+    private record Strata(String[] keywords, Stratum[] strata) {
+    }
+
+    private static final class Stratum {
+
+        private final String name;
+
+        private final Reservoir reservoir;
+
+        private final Counter offered;
+
+        private final Counter published;
+
+        private Stratum(String name, int capacity, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.reservoir = new Reservoir(capacity);
+            this.offered = Counter.builder("tweet.sample.offered").tag("stratum", name).register(meterRegistry);
+            this.published = Counter.builder("tweet.sample.published").tag("stratum", name).register(meterRegistry);
+        }
+    }
+}
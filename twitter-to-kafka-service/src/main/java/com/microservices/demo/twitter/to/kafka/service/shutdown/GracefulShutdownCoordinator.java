@@ -0,0 +1,103 @@
+package com.microservices.demo.twitter.to.kafka.service.shutdown;
+
+import com.microservices.demo.config.GracefulShutdownConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.DrainResult;
+import com.microservices.demo.kafka.producer.config.service.IKafkaProducer;
+import com.microservices.demo.twitter.to.kafka.service.latest.LatestTweetPublisher;
+import com.microservices.demo.twitter.to.kafka.service.listener.TwitterKafkaStatusListener;
+import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
+import com.microservices.demo.twitter.to.kafka.service.sampling.StratifiedReservoirSampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Drains the pipeline on shutdown within graceful-shutdown-config.deadline-ms:
+ * stop intake, let in-flight statuses reach the producer, send the pending reservoir samples and latest tweets, which
+ * also go through the producer, then flush the producer and wait for acks.
+ * <p>
+ * Runs in the highest lifecycle phase, so it finishes before the web server and the Kafka beans are stopped.
+ */
+@Component
+public class GracefulShutdownCoordinator implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GracefulShutdownCoordinator.class);
+
+    private final GracefulShutdownConfigData gracefulShutdownConfigData;
+
+    private final StreamRunner streamRunner;
+
+    private final TwitterKafkaStatusListener twitterKafkaStatusListener;
+
+    private final StratifiedReservoirSampler reservoirSampler;
+
+    private final LatestTweetPublisher latestTweetPublisher;
+
+    private final IKafkaProducer<Long, TwitterAvroModel> kafkaProducer;
+
+    private volatile boolean running;
+
+    public GracefulShutdownCoordinator(GracefulShutdownConfigData gracefulShutdownConfigData,
+                                       StreamRunner streamRunner,
+                                       TwitterKafkaStatusListener twitterKafkaStatusListener,
+                                       StratifiedReservoirSampler reservoirSampler,
+                                       LatestTweetPublisher latestTweetPublisher,
+                                       IKafkaProducer<Long, TwitterAvroModel> kafkaProducer) {
+        this.gracefulShutdownConfigData = gracefulShutdownConfigData;
+        this.streamRunner = streamRunner;
+        this.twitterKafkaStatusListener = twitterKafkaStatusListener;
+        this.reservoirSampler = reservoirSampler;
+        this.latestTweetPublisher = latestTweetPublisher;
+        this.kafkaProducer = kafkaProducer;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (!gracefulShutdownConfigData.getEnabled()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + Duration.ofMillis(gracefulShutdownConfigData.getDeadlineMs()).toNanos();
+        LOG.info("Graceful shutdown started with a deadline of {} ms", gracefulShutdownConfigData.getDeadlineMs());
+
+        if (!streamRunner.stop(remaining(deadlineNanos))) {
+            LOG.warn("Stream source did not stop before the deadline");
+        }
+        if (!twitterKafkaStatusListener.close(remaining(deadlineNanos))) {
+            LOG.warn("Statuses still in the pipeline at the deadline");
+        }
+        if (!reservoirSampler.stop(remaining(deadlineNanos))) {
+            LOG.warn("Reservoir sample publish still running at the deadline");
+        }
+        if (!latestTweetPublisher.stop(remaining(deadlineNanos))) {
+            LOG.warn("Latest tweet publish still running at the deadline");
+        }
+        DrainResult drainResult = kafkaProducer.drain(remaining(deadlineNanos));
+
+        long abandoned = drainResult.abandoned() + twitterKafkaStatusListener.getRejectedCount();
+        LOG.info("Graceful shutdown completed in {} ms: {} record(s) drained, {} abandoned",
+                Duration.ofNanos(System.nanoTime() - startNanos).toMillis(),
+                drainResult.drained(),
+                abandoned
+        );
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static Duration remaining(long deadlineNanos) {
+        return Duration.ofNanos(Math.max(deadlineNanos - System.nanoTime(), 0L));
+    }
+}
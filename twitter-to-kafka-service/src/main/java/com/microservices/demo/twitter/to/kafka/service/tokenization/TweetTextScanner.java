@@ -0,0 +1,170 @@
+package com.microservices.demo.twitter.to.kafka.service.tokenization;
+
+import java.text.Normalizer;
+import java.util.List;
+
+/**
+ * Scans tweet text into distinct lower-cased terms and hashtags in a single pass over a char array.
+ * <p>
+ * Terms are runs of letters and digits, as in the tweet index. URLs (http://, https:// and www. up to the next
+ * whitespace) and @mentions are skipped. A '#' starting a word makes the word up to the next character that is not
+ * a letter, digit or '_' a hashtag; its letters and digits are still scanned as terms, so "#Kafka" yields both the
+ * hashtag and the term "kafka". Everything else, emoji and punctuation included, separates terms. Text with
+ * non-ASCII characters is NFKC-normalized first, so full-width and compatibility forms match their plain spelling.
+ * <p>
+ * Terms are assembled in a reusable buffer and compared in place against the ones already found, so the only
+ * strings allocated are the distinct terms themselves, plus the normalized copy of non-ASCII text that is not
+ * in NFKC already. Instances are not thread-safe.
+ */
+public final class TweetTextScanner {
+
+    private static final char[][] URL_PREFIXES = {"http://".toCharArray(), "https://".toCharArray(), "www.".toCharArray()};
+
+    private char[] text = new char[280];
+
+    private char[] term = new char[280];
+
+    /**
+     * @param input     tweet text, may be null
+     * @param tokens    receives the distinct terms in order of first appearance, up to maxTokens
+     * @param hashtags  receives the distinct hashtags without '#' in order of first appearance, up to maxTokens
+     */
+    public void scan(String input, List<String> tokens, List<String> hashtags, int maxTokens) {
+        if (input == null) {
+            return;
+        }
+        int length = load(input);
+        int i = 0;
+        while (i < length) {
+            char c = text[i];
+            boolean wordStart = !letterOrDigitBefore(i);
+            int width;
+            if (wordStart && isUrl(i, length)) {
+                i = skipToWhitespace(i, length);
+            } else if (wordStart && c == '@' && handleCharAt(i + 1, length) > 0) {
+                i = skipHandle(i + 1, length);
+            } else if (wordStart && c == '#' && handleCharAt(i + 1, length) > 0) {
+                if (hashtags.size() < maxTokens) {
+                    emit(i + 1, skipHandle(i + 1, length), hashtags);
+                }
+                i++;
+            } else if ((width = letterOrDigitAt(i, length)) > 0) {
+                int end = i + width;
+                while (end < length && (width = letterOrDigitAt(end, length)) > 0) {
+                    end += width;
+                }
+                if (tokens.size() < maxTokens) {
+                    emit(i, end, tokens);
+                }
+                i = end;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private int load(String input) {
+        String normalized = input;
+        for (int i = 0; i < input.length(); i++) {
+            if (input.charAt(i) >= 0x80) {
+                if (!Normalizer.isNormalized(input, Normalizer.Form.NFKC)) {
+                    normalized = Normalizer.normalize(input, Normalizer.Form.NFKC);
+                }
+                break;
+            }
+        }
+        int length = normalized.length();
+        if (text.length < length) {
+            text = new char[length];
+            term = new char[length];
+        }
+        normalized.getChars(0, length, text, 0);
+        return length;
+    }
+
+    /**
+     * Lower-cases text[from, to), a run of letters, digits and for hashtags '_', into the term buffer and adds it
+     * to found unless it is there already.
+     */
+    private void emit(int from, int to, List<String> found) {
+        int termLength = 0;
+        int i = from;
+        while (i < to) {
+            int codePoint = Character.codePointAt(text, i, to);
+            termLength += Character.toChars(Character.toLowerCase(codePoint), term, termLength);
+            i += Character.charCount(codePoint);
+        }
+        for (String existing : found) {
+            if (matches(existing, termLength)) {
+                return;
+            }
+        }
+        found.add(new String(term, 0, termLength));
+    }
+
+    private boolean matches(String existing, int termLength) {
+        if (existing.length() != termLength) {
+            return false;
+        }
+        for (int i = 0; i < termLength; i++) {
+            if (existing.charAt(i) != term[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of chars of the letter or digit at i, 0 when there is none
+     */
+    private int letterOrDigitAt(int i, int length) {
+        if (i >= length) {
+            return 0;
+        }
+        int codePoint = Character.codePointAt(text, i, length);
+        return Character.isLetterOrDigit(codePoint) ? Character.charCount(codePoint) : 0;
+    }
+
+    private int handleCharAt(int i, int length) {
+        return i < length && text[i] == '_' ? 1 : letterOrDigitAt(i, length);
+    }
+
+    private boolean letterOrDigitBefore(int i) {
+        return i > 0 && Character.isLetterOrDigit(Character.codePointBefore(text, i));
+    }
+
+    private boolean isUrl(int from, int length) {
+        for (char[] prefix : URL_PREFIXES) {
+            if (from + prefix.length <= length && startsWithIgnoreCase(from, prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean startsWithIgnoreCase(int from, char[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (Character.toLowerCase(text[from + i]) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipToWhitespace(int from, int length) {
+        int i = from;
+        while (i < length && !Character.isWhitespace(text[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private int skipHandle(int from, int length) {
+        int i = from;
+        int width;
+        while ((width = handleCharAt(i, length)) > 0) {
+            i += width;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,56 @@
+package com.microservices.demo.twitter.to.kafka.service.tokenization;
+
+import com.microservices.demo.config.TokenizationConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the tokens and hashtags of the Avro model from its text once on the producer side, so consumers of the
+ * topic do not tokenize and normalize the text again.
+ * <p>
+ * Runs on the thread that transforms the tweet, with a scanner per thread, so it scales with the ingest threads:
+ * one per keyword shard. When the model already carries token lists, as a reused model does, they are cleared
+ * and refilled instead of replaced.
+ */
+@Component
+public class TweetTokenizationStage {
+
+    private final ThreadLocal<TweetTextScanner> scanners = ThreadLocal.withInitial(TweetTextScanner::new);
+
+    private final boolean enabled;
+
+    private final int maxTokens;
+
+    public TweetTokenizationStage(TokenizationConfigData tokenizationConfigData) {
+        this.enabled = Boolean.TRUE.equals(tokenizationConfigData.getEnabled());
+        this.maxTokens = tokenizationConfigData.getMaxTokens() == null ? Integer.MAX_VALUE
+                : tokenizationConfigData.getMaxTokens();
+    }
+
+    public void tokenize(TwitterAvroModel twitterAvroModel) {
+        if (!enabled) {
+            return;
+        }
+        if (twitterAvroModel.getText() == null) {
+            twitterAvroModel.setTokens(null);
+            twitterAvroModel.setHashtags(null);
+            return;
+        }
+        List<String> tokens = cleared(twitterAvroModel.getTokens());
+        List<String> hashtags = cleared(twitterAvroModel.getHashtags());
+        scanners.get().scan(twitterAvroModel.getText(), tokens, hashtags, maxTokens);
+        twitterAvroModel.setTokens(tokens);
+        twitterAvroModel.setHashtags(hashtags);
+    }
+
+    private static List<String> cleared(List<String> existing) {
+        if (existing == null) {
+            return new ArrayList<>();
+        }
+        existing.clear();
+        return existing;
+    }
+}
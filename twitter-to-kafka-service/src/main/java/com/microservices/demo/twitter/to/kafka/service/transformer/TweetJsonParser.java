@@ -0,0 +1,378 @@
+package com.microservices.demo.twitter.to.kafka.service.transformer;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+
+import java.time.Instant;
+
+/**
+ * Single-pass scanner that pulls id, user.id, text and created_at out of raw tweet JSON and writes them into a
+ * {@link TwitterAvroModel}. Every other member, including nested objects such as retweeted_status, is skipped
+ * without being materialized. Ids are accepted as JSON numbers or numeric strings.
+ * <p>
+ * created_at is read in Twitter's "EEE MMM dd HH:mm:ss Z yyyy" form, where the zone is a +HHMM offset or UTC/GMT,
+ * and converted to epoch millis without allocating. The text is the only string copied out of the input.
+ * <p>
+ * Not thread-safe; keep one instance per thread.
+ */
+public final class TweetJsonParser {
+
+    /**
+     * Returned by {@link #parse} for messages that are valid JSON but not a tweet, such as delete or limit notices.
+     */
+    public static final long NOT_A_TWEET = Long.MIN_VALUE;
+
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+
+    private final StringBuilder unescaped = new StringBuilder(280);
+
+    private String json;
+
+    private int pos;
+
+    private int keyEnd;
+
+    private boolean hasId;
+
+    private boolean hasUserId;
+
+    private boolean hasCreatedAt;
+
+    private long id;
+
+    private long userId;
+
+    private long createdAtMs;
+
+    private String text;
+
+    private long formattedCreatedAtMs;
+
+    private String formattedCreatedAt;
+
+    /**
+     * @return created-at epoch millis of the tweet, or {@link #NOT_A_TWEET} when id, user.id or created_at is missing
+     * @throws TwitterToKafkaServiceException when the input is not well-formed JSON or created_at cannot be read
+     */
+    public long parse(String rawJson, TwitterAvroModel target) {
+        json = rawJson;
+        pos = 0;
+        hasId = false;
+        hasUserId = false;
+        hasCreatedAt = false;
+        text = null;
+        try {
+            skipWhitespace();
+            expect('{');
+            readTopLevelMembers();
+        } catch (IndexOutOfBoundsException e) {
+            throw malformed("unexpected end of input");
+        } finally {
+            json = null;
+        }
+        if (!hasId || !hasUserId || !hasCreatedAt) {
+            return NOT_A_TWEET;
+        }
+        target.setId(id);
+        target.setUserId(userId);
+        target.setText(text);
+        target.setCreatedAt(createdAtString(createdAtMs));
+        return createdAtMs;
+    }
+
+    private void readTopLevelMembers() {
+        if (tryConsume('}')) {
+            return;
+        }
+        do {
+            int keyStart = readKeyAndColon();
+            if (keyIs(keyStart, "id")) {
+                id = readLongValue();
+                hasId = true;
+            } else if (keyIs(keyStart, "text")) {
+                text = readNullableString();
+            } else if (keyIs(keyStart, "created_at")) {
+                createdAtMs = readCreatedAt();
+                hasCreatedAt = true;
+            } else if (keyIs(keyStart, "user")) {
+                readUser();
+            } else {
+                skipValue();
+            }
+        } while (nextMember());
+    }
+
+    private void readUser() {
+        skipWhitespace();
+        if (json.charAt(pos) != '{') {
+            skipValue();
+            return;
+        }
+        pos++;
+        if (tryConsume('}')) {
+            return;
+        }
+        do {
+            int keyStart = readKeyAndColon();
+            if (keyIs(keyStart, "id")) {
+                userId = readLongValue();
+                hasUserId = true;
+            } else {
+                skipValue();
+            }
+        } while (nextMember());
+    }
+
+    /**
+     * Reads a key and the following colon.
+     *
+     * @return the index of the first character of the key; the key ends right before the closing quote
+     */
+    private int readKeyAndColon() {
+        skipWhitespace();
+        expect('"');
+        int start = pos;
+        skipStringBody();
+        keyEnd = pos - 1;
+        skipWhitespace();
+        expect(':');
+        return start;
+    }
+
+    private boolean keyIs(int keyStart, String key) {
+        return keyEnd - keyStart == key.length() && json.regionMatches(keyStart, key, 0, key.length());
+    }
+
+    /**
+     * @return whether another member follows; false after the closing brace
+     */
+    private boolean nextMember() {
+        skipWhitespace();
+        char c = json.charAt(pos++);
+        if (c == ',') {
+            return true;
+        }
+        if (c == '}') {
+            return false;
+        }
+        throw malformed("expected ',' or '}'");
+    }
+
+    private long readLongValue() {
+        skipWhitespace();
+        boolean quoted = tryConsume('"');
+        boolean negative = tryConsume('-');
+        int start = pos;
+        long value = 0;
+        char c;
+        while (pos < json.length() && (c = json.charAt(pos)) >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            pos++;
+        }
+        if (pos == start) {
+            throw malformed("expected a number");
+        }
+        if (quoted) {
+            expect('"');
+        }
+        return negative ? -value : value;
+    }
+
+    private String readNullableString() {
+        skipWhitespace();
+        if (json.startsWith("null", pos)) {
+            pos += 4;
+            return null;
+        }
+        expect('"');
+        int start = pos;
+        char c;
+        while ((c = json.charAt(pos)) != '"') {
+            if (c == '\\') {
+                return readEscapedString(start);
+            }
+            pos++;
+        }
+        pos++;
+        return json.substring(start, pos - 1);
+    }
+
+    private String readEscapedString(int start) {
+        unescaped.setLength(0);
+        unescaped.append(json, start, pos);
+        char c;
+        while ((c = json.charAt(pos++)) != '"') {
+            if (c != '\\') {
+                unescaped.append(c);
+                continue;
+            }
+            char escape = json.charAt(pos++);
+            switch (escape) {
+                case '"', '\\', '/' -> unescaped.append(escape);
+                case 'b' -> unescaped.append('\b');
+                case 'f' -> unescaped.append('\f');
+                case 'n' -> unescaped.append('\n');
+                case 'r' -> unescaped.append('\r');
+                case 't' -> unescaped.append('\t');
+                case 'u' -> {
+                    unescaped.append((char) Integer.parseInt(json, pos, pos + 4, 16));
+                    pos += 4;
+                }
+                default -> throw malformed("invalid escape '\\" + escape + "'");
+            }
+        }
+        return unescaped.toString();
+    }
+
+    /**
+     * Parses "Sun Oct 18 10:00:00 +0000 2026" in place.
+     */
+    private long readCreatedAt() {
+        skipWhitespace();
+        expect('"');
+        int start = pos;
+        skipStringBody();
+        int end = pos - 1;
+        // Fixed layout up to the zone: "EEE MMM dd HH:mm:ss "
+        if (end - start < 26 || json.charAt(start + 3) != ' ' || json.charAt(start + 19) != ' ') {
+            throw malformed("unsupported created_at");
+        }
+        int month = monthIndexOf(start + 4);
+        int day = twoDigits(start + 8);
+        int hour = twoDigits(start + 11);
+        int minute = twoDigits(start + 14);
+        int second = twoDigits(start + 17);
+        int zoneStart = start + 20;
+        int zoneEnd = json.indexOf(' ', zoneStart);
+        if (zoneEnd < 0 || zoneEnd > end - 4) {
+            throw malformed("unsupported created_at");
+        }
+        int year = twoDigits(zoneEnd + 1) * 100 + twoDigits(zoneEnd + 3);
+        int offsetSeconds = zoneOffsetSeconds(zoneStart, zoneEnd);
+        long epochDay = epochDay(year, month, day);
+        return ((epochDay * 86_400L) + hour * 3_600L + minute * 60L + second - offsetSeconds) * 1_000L;
+    }
+
+    private int monthIndexOf(int start) {
+        for (int month = 0; month < 12; month++) {
+            if (json.regionMatches(start, MONTHS, month * 3, 3)) {
+                return month + 1;
+            }
+        }
+        throw malformed("unknown month in created_at");
+    }
+
+    private int zoneOffsetSeconds(int start, int end) {
+        char sign = json.charAt(start);
+        if ((sign == '+' || sign == '-') && end - start == 5) {
+            int seconds = twoDigits(start + 1) * 3_600 + twoDigits(start + 3) * 60;
+            return sign == '-' ? -seconds : seconds;
+        }
+        if (end - start == 3 && (json.regionMatches(start, "UTC", 0, 3) || json.regionMatches(start, "GMT", 0, 3))) {
+            return 0;
+        }
+        throw malformed("unsupported zone in created_at");
+    }
+
+    private int twoDigits(int at) {
+        int high = json.charAt(at) - '0';
+        int low = json.charAt(at + 1) - '0';
+        if (high < 0 || high > 9 || low < 0 || low > 9) {
+            throw malformed("expected digits in created_at");
+        }
+        return high * 10 + low;
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    /**
+     * Same representation as the Status based transform; reformatted only when the timestamp changes.
+     */
+    private String createdAtString(long epochMs) {
+        if (formattedCreatedAt == null || formattedCreatedAtMs != epochMs) {
+            formattedCreatedAtMs = epochMs;
+            formattedCreatedAt = String.valueOf(Instant.ofEpochSecond(epochMs));
+        }
+        return formattedCreatedAt;
+    }
+
+    private void skipValue() {
+        skipWhitespace();
+        char c = json.charAt(pos);
+        switch (c) {
+            case '"' -> {
+                pos++;
+                skipStringBody();
+            }
+            case '{', '[' -> skipContainer();
+            default -> {
+                // number, true, false or null
+                while (pos < json.length() && ",}] \t\r\n".indexOf(json.charAt(pos)) < 0) {
+                    pos++;
+                }
+            }
+        }
+    }
+
+    private void skipContainer() {
+        int depth = 0;
+        do {
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                skipStringBody();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Moves past the closing quote of a string whose opening quote was already consumed.
+     */
+    private void skipStringBody() {
+        char c;
+        while ((c = json.charAt(pos++)) != '"') {
+            if (c == '\\') {
+                pos++;
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        char c;
+        while ((c = json.charAt(pos)) == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            pos++;
+        }
+    }
+
+    private boolean tryConsume(char expected) {
+        skipWhitespace();
+        if (json.charAt(pos) == expected) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char expected) {
+        if (json.charAt(pos++) != expected) {
+            throw malformed("expected '" + expected + "'");
+        }
+    }
+
+    private TwitterToKafkaServiceException malformed(String reason) {
+        return new TwitterToKafkaServiceException("Malformed tweet JSON at offset " + pos + ": " + reason);
+    }
+}
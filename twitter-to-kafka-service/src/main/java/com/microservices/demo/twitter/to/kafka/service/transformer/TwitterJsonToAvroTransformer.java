@@ -0,0 +1,32 @@
+package com.microservices.demo.twitter.to.kafka.service.transformer;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transforms raw tweet JSON straight into the Avro model with a per-thread {@link TweetJsonParser},
+ * without building a twitter4j Status.
+ */
+@Component
+public class TwitterJsonToAvroTransformer {
+
+    private final ThreadLocal<TweetJsonParser> parsers = ThreadLocal.withInitial(TweetJsonParser::new);
+
+    private final ThreadLocal<TwitterAvroModel> reusableModels = ThreadLocal.withInitial(TwitterAvroModel::new);
+
+    /**
+     * @param target model to fill, a fresh one or {@link #getReusableTwitterAvroModel()}
+     * @return created-at epoch millis, or {@link TweetJsonParser#NOT_A_TWEET} when the message carries no tweet
+     */
+    public long transform(String rawJson, TwitterAvroModel target) {
+        return parsers.get().parse(rawJson, target);
+    }
+
+    /**
+     * Model owned by the calling thread, with the same reuse contract as
+     * {@link TwitterStatusToAvroTransformer#getReusableTwitterAvroModelFromStatus}.
+     */
+    public TwitterAvroModel getReusableTwitterAvroModel() {
+        return reusableModels.get();
+    }
+}
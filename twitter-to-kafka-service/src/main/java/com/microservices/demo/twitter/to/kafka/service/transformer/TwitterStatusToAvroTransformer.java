@@ -9,6 +9,8 @@ import java.time.Instant;
 @Component
 public class TwitterStatusToAvroTransformer {
 
+    private final ThreadLocal<ReusableModel> reusableModels = ThreadLocal.withInitial(ReusableModel::new);
+
     public TwitterAvroModel getTwitterAvroModelFromStatus(Status status){
         return TwitterAvroModel.newBuilder()
                 .setId(status.getId())
@@ -17,4 +19,36 @@ public class TwitterStatusToAvroTransformer {
                 .setCreatedAt(String.valueOf(Instant.ofEpochSecond(status.getCreatedAt().getTime())))
                 .build();
     }
+
+    /**
+     * Same content as {@link #getTwitterAvroModelFromStatus}, written through the setters into a model owned by
+     * the calling thread, so no builder, field validation or deep copy is involved. The created-at string is
+     * only formatted again when the timestamp changes.
+     * <p>
+     * The returned model is overwritten by the next call on the same thread. Callers must be done with it by
+     * then; the Kafka producer serializes the value inside send(), so it is free again once send() returns.
+     */
+    public TwitterAvroModel getReusableTwitterAvroModelFromStatus(Status status) {
+        ReusableModel reusableModel = reusableModels.get();
+        TwitterAvroModel twitterAvroModel = reusableModel.model;
+        twitterAvroModel.setId(status.getId());
+        twitterAvroModel.setUserId(status.getUser().getId());
+        twitterAvroModel.setText(status.getText());
+        long createdAtMs = status.getCreatedAt().getTime();
+        if (reusableModel.createdAt == null || reusableModel.createdAtMs != createdAtMs) {
+            reusableModel.createdAtMs = createdAtMs;
+            reusableModel.createdAt = String.valueOf(Instant.ofEpochSecond(createdAtMs));
+        }
+        twitterAvroModel.setCreatedAt(reusableModel.createdAt);
+        return twitterAvroModel;
+    }
+
+    private static final class ReusableModel {
+
+        private final TwitterAvroModel model = new TwitterAvroModel();
+
+        private long createdAtMs;
+
+        private String createdAt;
+    }
 }
@@ -0,0 +1,143 @@
+package com.microservices.demo.twitter.to.kafka.service.trending;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming top-K terms: counts go into a {@link WindowedCountMinSketch}, and a bounded indexed
+ * min-heap keeps the terms with the highest estimates seen so far. When the window slides, all
+ * candidates are re-estimated, so terms that stopped trending sink and get replaced.
+ * Memory is fixed by the sketch dimensions and the candidate capacity.
+ * Not thread-safe.
+ */
+public class HeavyHitters {
+
+    private final WindowedCountMinSketch sketch;
+
+    private final Map<String, Candidate> candidates;
+
+    private final Candidate[] heap;
+
+    private int size;
+
+    /**
+     * @param sketch   the sketch counting every term
+     * @param capacity number of candidates kept, should be a few times the K that is queried
+     */
+    public HeavyHitters(WindowedCountMinSketch sketch, int capacity) {
+        this.sketch = sketch;
+        this.candidates = new HashMap<>(capacity * 2);
+        this.heap = new Candidate[capacity];
+    }
+
+    public void add(String term, long nowMs) {
+        if (sketch.advance(nowMs)) {
+            refresh(nowMs);
+        }
+        long estimate = sketch.addAndEstimate(term, nowMs);
+        Candidate candidate = candidates.get(term);
+        if (candidate != null) {
+            // Estimates only grow between window slides, so the candidate can only move away from the root
+            candidate.count = estimate;
+            siftDown(candidate.heapIndex);
+        } else if (size < heap.length) {
+            candidate = new Candidate(term, estimate);
+            candidates.put(term, candidate);
+            place(candidate, size++);
+            siftUp(candidate.heapIndex);
+        } else if (estimate > heap[0].count) {
+            candidates.remove(heap[0].term);
+            candidate = new Candidate(term, estimate);
+            candidates.put(term, candidate);
+            place(candidate, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * @return up to k terms with the highest estimated counts within the window, highest first
+     */
+    public List<TrendingTerm> top(int k, long nowMs) {
+        if (sketch.advance(nowMs)) {
+            refresh(nowMs);
+        }
+        Candidate[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, Comparator.comparingLong((Candidate c) -> c.count).reversed().thenComparing(c -> c.term));
+        List<TrendingTerm> top = new ArrayList<>(Math.min(k, size));
+        for (int i = 0; i < sorted.length && top.size() < k; i++) {
+            top.add(new TrendingTerm(sorted[i].term, sorted[i].count));
+        }
+        return top;
+    }
+
+    private void refresh(long nowMs) {
+        int live = 0;
+        for (int i = 0; i < size; i++) {
+            Candidate candidate = heap[i];
+            candidate.count = sketch.estimate(candidate.term, nowMs);
+            if (candidate.count == 0) {
+                candidates.remove(candidate.term);
+            } else {
+                place(candidate, live++);
+            }
+        }
+        Arrays.fill(heap, live, size, null);
+        size = live;
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    private void siftUp(int index) {
+        Candidate candidate = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= candidate.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(candidate, index);
+    }
+
+    private void siftDown(int index) {
+        Candidate candidate = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child = right;
+            }
+            if (candidate.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(candidate, index);
+    }
+
+    private void place(Candidate candidate, int index) {
+        heap[index] = candidate;
+        candidate.heapIndex = index;
+    }
+
+    private static final class Candidate {
+        private final String term;
+
+        private long count;
+
+        private int heapIndex;
+
+        private Candidate(String term, long count) {
+            this.term = term;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.microservices.demo.twitter.to.kafka.service.trending;
+
+import java.util.List;
+
+public interface ITrendingTermsTracker {
+    void track(String text);
+
+    List<TrendingTerm> getTopTerms(int k);
+}
@@ -0,0 +1,8 @@
+package com.microservices.demo.twitter.to.kafka.service.trending;
+
+/**
+ * @param term           the term, hashtags keep their leading '#'
+ * @param estimatedCount Count-Min estimate of the occurrences within the sliding window, never below the true count
+ */
+public record TrendingTerm(String term, long estimatedCount) {
+}
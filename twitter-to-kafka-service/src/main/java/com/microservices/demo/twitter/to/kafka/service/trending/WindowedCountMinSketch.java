@@ -0,0 +1,124 @@
+package com.microservices.demo.twitter.to.kafka.service.trending;
+
+/**
+ * Count-Min Sketch over a sliding window made of a fixed ring of sub-window buckets.
+ * Every bucket is a depth x width counter matrix; a running total of all live buckets is kept
+ * alongside, so estimates read a single matrix. When the window slides, the expiring bucket is
+ * subtracted from the total and cleared. Memory is (buckets + 1) * depth * width ints regardless
+ * of how many distinct terms are seen.
+ * Not thread-safe.
+ */
+public class WindowedCountMinSketch {
+
+    private final int depth;
+
+    private final int width;
+
+    private final long bucketDurationMs;
+
+    private final int[][] buckets;
+
+    private final int[] totals;
+
+    private int currentBucket;
+
+    private long currentBucketStartMs = Long.MIN_VALUE;
+
+    private final int[] indexes;
+
+    /**
+     * @param depth          number of hash rows, the error probability shrinks exponentially with it
+     * @param width          counters per row, the error bound shrinks linearly with it
+     * @param windowMs       length of the sliding window
+     * @param bucketCount    number of sub-windows the window slides by
+     */
+    public WindowedCountMinSketch(int depth, int width, long windowMs, int bucketCount) {
+        if (depth <= 0 || width <= 0 || bucketCount <= 0 || windowMs < bucketCount) {
+            throw new IllegalArgumentException("Invalid sketch dimensions");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.bucketDurationMs = windowMs / bucketCount;
+        this.buckets = new int[bucketCount][depth * width];
+        this.totals = new int[depth * width];
+        this.indexes = new int[depth];
+    }
+
+    /**
+     * Counts one occurrence of the term and returns its estimated count within the window.
+     */
+    public long addAndEstimate(String term, long nowMs) {
+        advance(nowMs);
+        computeIndexes(term);
+        int[] bucket = buckets[currentBucket];
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = indexes[row];
+            bucket[index]++;
+            estimate = Math.min(estimate, ++totals[index]);
+        }
+        return estimate;
+    }
+
+    public long estimate(String term, long nowMs) {
+        advance(nowMs);
+        computeIndexes(term);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, totals[indexes[row]]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Slides the window up to the given time.
+     *
+     * @return true when at least one bucket expired
+     */
+    public boolean advance(long nowMs) {
+        long bucketStartMs = nowMs - Math.floorMod(nowMs, bucketDurationMs);
+        if (currentBucketStartMs == Long.MIN_VALUE) {
+            currentBucketStartMs = bucketStartMs;
+            return false;
+        }
+        if (bucketStartMs <= currentBucketStartMs) {
+            return false;
+        }
+        long elapsedBuckets = Math.min((bucketStartMs - currentBucketStartMs) / bucketDurationMs, buckets.length);
+        for (long i = 0; i < elapsedBuckets; i++) {
+            currentBucket = (currentBucket + 1) % buckets.length;
+            expire(buckets[currentBucket]);
+        }
+        currentBucketStartMs = bucketStartMs;
+        return true;
+    }
+
+    public int sizeInBytes() {
+        return (buckets.length + 1) * depth * width * Integer.BYTES;
+    }
+
+    private void expire(int[] bucket) {
+        for (int i = 0; i < bucket.length; i++) {
+            totals[i] -= bucket[i];
+            bucket[i] = 0;
+        }
+    }
+
+    // Kirsch-Mitzenmacher double hashing: row i uses h1 + i * h2 over a 64-bit FNV-1a hash of the term
+    private void computeIndexes(String term) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < term.length(); i++) {
+            hash ^= term.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            int combined = h1 + row * h2;
+            indexes[row] = row * width + Math.floorMod(combined, width);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.microservices.demo.twitter.to.kafka.service.trending.impl;
+
+import com.microservices.demo.config.TrendingTermsConfigData;
+import com.microservices.demo.twitter.to.kafka.service.index.TweetTokenizer;
+import com.microservices.demo.twitter.to.kafka.service.trending.HeavyHitters;
+import com.microservices.demo.twitter.to.kafka.service.trending.ITrendingTermsTracker;
+import com.microservices.demo.twitter.to.kafka.service.trending.TrendingTerm;
+import com.microservices.demo.twitter.to.kafka.service.trending.WindowedCountMinSketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Tracks trending terms and hashtags over every tweet with a fixed memory footprint.
+ * Access to the sketch is serialized; a tweet only costs depth counter updates per term.
+ */
+@Component
+public class SketchTrendingTermsTracker implements ITrendingTermsTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SketchTrendingTermsTracker.class);
+
+    private final TrendingTermsConfigData trendingTermsConfigData;
+
+    private final HeavyHitters heavyHitters;
+
+    public SketchTrendingTermsTracker(TrendingTermsConfigData trendingTermsConfigData) {
+        this.trendingTermsConfigData = trendingTermsConfigData;
+        WindowedCountMinSketch sketch = new WindowedCountMinSketch(trendingTermsConfigData.getSketchDepth(),
+                trendingTermsConfigData.getSketchWidth(),
+                trendingTermsConfigData.getWindowMs(),
+                trendingTermsConfigData.getWindowBuckets());
+        this.heavyHitters = new HeavyHitters(sketch, trendingTermsConfigData.getCandidateCapacity());
+        LOG.info("Trending terms sketch uses {} bytes", sketch.sizeInBytes());
+    }
+
+    @Override
+    public void track(String text) {
+        if (!Boolean.TRUE.equals(trendingTermsConfigData.getEnabled())) {
+            return;
+        }
+        int minTermLength = trendingTermsConfigData.getMinTermLength();
+        long nowMs = System.currentTimeMillis();
+        synchronized (heavyHitters) {
+            TweetTokenizer.tokenize(text, true, term -> {
+                if (term.length() >= minTermLength) {
+                    heavyHitters.add(term, nowMs);
+                }
+            });
+        }
+    }
+
+    @Override
+    public List<TrendingTerm> getTopTerms(int k) {
+        synchronized (heavyHitters) {
+            return heavyHitters.top(Math.min(k, trendingTermsConfigData.getCandidateCapacity()), System.currentTimeMillis());
+        }
+    }
+}
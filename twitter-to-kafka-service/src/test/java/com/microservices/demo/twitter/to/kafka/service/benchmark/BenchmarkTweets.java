@@ -0,0 +1,46 @@
+package com.microservices.demo.twitter.to.kafka.service.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic tweet text shaped like the output of MockKafkaStreamRunner, shared by the benchmarks.
+ */
+final class BenchmarkTweets {
+
+    static final String[] WORDS = {
+            "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit",
+            "sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et",
+            "dolore", "magna", "aliqua"
+    };
+
+    private BenchmarkTweets() {
+    }
+
+    static String randomText(SplittableRandom random, String[] keywords) {
+        int length = random.nextInt(5, 16);
+        StringBuilder tweet = new StringBuilder(length * 8);
+        for (int i = 0; i < length; i++) {
+            tweet.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            if (i == length / 2) {
+                tweet.append(keywords[random.nextInt(keywords.length)]).append(' ');
+            }
+        }
+        return tweet.toString().trim();
+    }
+
+    /**
+     * Like {@link #randomText}, with a mention, a URL, hashtags and some non-ASCII words mixed in, as in real tweets.
+     */
+    static String randomTextWithEntities(SplittableRandom random, String[] keywords) {
+        String keyword = keywords[random.nextInt(keywords.length)];
+        StringBuilder tweet = new StringBuilder(200)
+                .append("@user_").append(random.nextInt(1000)).append(' ')
+                .append(randomText(random, keywords));
+        if (random.nextBoolean()) {
+            tweet.append(" Café Größe ");
+        }
+        return tweet.append(" https://t.co/").append(Integer.toHexString(random.nextInt()))
+                .append(" #").append(keyword).append(" #").append(WORDS[random.nextInt(WORDS.length)])
+                .toString();
+    }
+}
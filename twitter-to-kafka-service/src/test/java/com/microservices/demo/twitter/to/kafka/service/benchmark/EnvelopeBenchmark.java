@@ -0,0 +1,308 @@
+package com.microservices.demo.twitter.to.kafka.service.benchmark;
+
+import com.microservices.demo.config.TokenizationConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroEnvelope;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.envelope.TwitterEnvelopes;
+import com.microservices.demo.kafka.latency.LatencyTrace;
+import com.microservices.demo.twitter.to.kafka.service.tokenization.TweetTokenizationStage;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.kafka.common.compress.Compression;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.Record;
+import org.apache.kafka.common.record.TimestampType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-record mode against envelope mode over the Kafka record batch format, with the bytes a producer sends and a
+ * consumer fetches: per tweet, single-record mode writes a record with a key, the latency header and the 5 byte
+ * schema-ID prefix, envelope mode packs the tweets of a batch into one {@link TwitterAvroEnvelope} record.
+ * <p>
+ * Each benchmark produces all tweets into compressed record batches of tweets-per-batch tweets per partition, as
+ * many as accumulate within the producer linger, then reads the batches back and hands every tweet to the consumer.
+ * {@link #main} also prints the batch bytes per tweet of both modes for every compression type.
+ * Not part of the test suite; run {@link #main} from the test classpath.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EnvelopeBenchmark {
+
+    private static final int TWEET_COUNT = 4096;
+
+    private static final int PARTITIONS = 3;
+
+    private static final int USER_COUNT = 10_000;
+
+    private static final String[] KEYWORDS = {"Java", "Microservices", "Kafka", "Elasticsearch"};
+
+    private static final String[] FOLLOWER_TIERS = {"under-1k", "1k-10k", "10k-100k", "over-100k"};
+
+    private static final String[] ACCOUNT_CLASSES = {"personal", "business", "verified"};
+
+    /**
+     * Magic byte and schema ID the Confluent serializer puts in front of every value.
+     */
+    private static final int SCHEMA_ID_PREFIX = 5;
+
+    private static final int BATCH_BUFFER_BYTES = 4 << 20;
+
+    @State(Scope.Benchmark)
+    public static class Tweets {
+
+        @Param({"16", "512"})
+        int tweetsPerBatch;
+
+        @Param({"snappy", "zstd"})
+        String compression;
+
+        /**
+         * Tweets of each partition split into the batches a producer would send.
+         */
+        final List<List<TwitterAvroModel>> batches = new ArrayList<>();
+
+        final byte[] latencyHeader = LatencyTrace.received(System.currentTimeMillis()).encode();
+
+        Compression codec;
+
+        @Setup
+        public void setUp() {
+            codec = Compression.of(compression).build();
+            List<List<TwitterAvroModel>> partitions = new ArrayList<>();
+            for (int i = 0; i < PARTITIONS; i++) {
+                partitions.add(new ArrayList<>());
+            }
+            for (TwitterAvroModel tweet : tweets()) {
+                partitions.get(TwitterEnvelopes.partitionFor(tweet.getUserId(), PARTITIONS)).add(tweet);
+            }
+            batches.clear();
+            for (List<TwitterAvroModel> partition : partitions) {
+                for (int from = 0; from < partition.size(); from += tweetsPerBatch) {
+                    batches.add(partition.subList(from, Math.min(partition.size(), from + tweetsPerBatch)));
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Codec {
+
+        final SpecificDatumWriter<TwitterAvroModel> tweetWriter = new SpecificDatumWriter<>(TwitterAvroModel.class);
+
+        final SpecificDatumWriter<TwitterAvroEnvelope> envelopeWriter = new SpecificDatumWriter<>(TwitterAvroEnvelope.class);
+
+        final SpecificDatumReader<TwitterAvroModel> tweetReader = new SpecificDatumReader<>(TwitterAvroModel.class);
+
+        final SpecificDatumReader<TwitterAvroEnvelope> envelopeReader = new SpecificDatumReader<>(TwitterAvroEnvelope.class);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+        final ByteBuffer batchBuffer = ByteBuffer.allocate(BATCH_BUFFER_BYTES);
+
+        final byte[] key = new byte[Long.BYTES];
+
+        BinaryEncoder encoder;
+
+        BinaryDecoder decoder;
+
+        TwitterAvroModel tweet;
+
+        TwitterAvroEnvelope envelope;
+
+        byte[] encode(TwitterAvroModel value) throws IOException {
+            startValue();
+            tweetWriter.write(value, encoder);
+            return endValue();
+        }
+
+        byte[] encode(TwitterAvroEnvelope value) throws IOException {
+            startValue();
+            envelopeWriter.write(value, encoder);
+            return endValue();
+        }
+
+        private void startValue() throws IOException {
+            out.reset();
+            out.write(new byte[SCHEMA_ID_PREFIX]);
+            encoder = EncoderFactory.get().binaryEncoder(out, encoder);
+        }
+
+        private byte[] endValue() throws IOException {
+            encoder.flush();
+            return out.toByteArray();
+        }
+
+        MemoryRecordsBuilder builder(Compression codec) {
+            batchBuffer.clear();
+            return MemoryRecords.builder(batchBuffer, codec, TimestampType.CREATE_TIME, 0L);
+        }
+
+        byte[] key(long userId) {
+            ByteBuffer.wrap(key).putLong(userId);
+            return key;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        printWireSizes();
+        new Runner(new OptionsBuilder()
+                .include(EnvelopeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TWEET_COUNT)
+    public void singleRecords(Tweets tweets, Codec codec, Blackhole blackhole) throws IOException {
+        for (List<TwitterAvroModel> batch : tweets.batches) {
+            consumeSingleRecords(produceSingleRecords(tweets, codec, batch), codec, blackhole);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TWEET_COUNT)
+    public void envelopes(Tweets tweets, Codec codec, Blackhole blackhole) throws IOException {
+        for (List<TwitterAvroModel> batch : tweets.batches) {
+            consumeEnvelopes(produceEnvelope(tweets, codec, batch), codec, blackhole);
+        }
+    }
+
+    private static MemoryRecords produceSingleRecords(Tweets tweets, Codec codec, List<TwitterAvroModel> batch)
+            throws IOException {
+        MemoryRecordsBuilder builder = codec.builder(tweets.codec);
+        Header[] headers = {new RecordHeader(LatencyTrace.HEADER_NAME, tweets.latencyHeader)};
+        long timestamp = System.currentTimeMillis();
+        for (TwitterAvroModel tweet : batch) {
+            builder.append(timestamp, codec.key(tweet.getUserId()), codec.encode(tweet), headers);
+        }
+        return builder.build();
+    }
+
+    private static MemoryRecords produceEnvelope(Tweets tweets, Codec codec, List<TwitterAvroModel> batch)
+            throws IOException {
+        MemoryRecordsBuilder builder = codec.builder(tweets.codec);
+        long timestamp = System.currentTimeMillis();
+        TwitterAvroEnvelope envelope = TwitterAvroEnvelope.newBuilder()
+                .setPartition(TwitterEnvelopes.partitionFor(batch.get(0).getUserId(), PARTITIONS))
+                .setOpenedAt(timestamp)
+                .setTweets(batch)
+                .build();
+        builder.append(timestamp, null, codec.encode(envelope));
+        return builder.build();
+    }
+
+    private static void consumeSingleRecords(MemoryRecords records, Codec codec, Blackhole blackhole)
+            throws IOException {
+        for (Record record : records.records()) {
+            codec.decoder = decoder(record, codec.decoder);
+            codec.tweet = codec.tweetReader.read(codec.tweet, codec.decoder);
+            blackhole.consume(record.key().getLong(0));
+            blackhole.consume(codec.tweet);
+        }
+    }
+
+    private static void consumeEnvelopes(MemoryRecords records, Codec codec, Blackhole blackhole) throws IOException {
+        for (Record record : records.records()) {
+            codec.decoder = decoder(record, codec.decoder);
+            codec.envelope = codec.envelopeReader.read(codec.envelope, codec.decoder);
+            TwitterEnvelopes.unpack(codec.envelope, (userId, tweet) -> {
+                blackhole.consume(userId);
+                blackhole.consume(tweet);
+            });
+        }
+    }
+
+    /**
+     * Decodes the value in place, past the schema-ID prefix, the way the Confluent deserializer does.
+     */
+    private static BinaryDecoder decoder(Record record, BinaryDecoder reuse) {
+        ByteBuffer value = record.value();
+        return DecoderFactory.get().binaryDecoder(value.array(),
+                value.arrayOffset() + value.position() + SCHEMA_ID_PREFIX, value.remaining() - SCHEMA_ID_PREFIX, reuse);
+    }
+
+    private static void printWireSizes() throws IOException {
+        Codec codec = new Codec();
+        System.out.println("Record batch bytes per tweet, single records / envelopes:");
+        for (String tweetsPerBatch : new String[]{"16", "512"}) {
+            for (CompressionType compressionType : CompressionType.values()) {
+                Tweets tweets = new Tweets();
+                tweets.tweetsPerBatch = Integer.parseInt(tweetsPerBatch);
+                tweets.compression = compressionType.name;
+                tweets.setUp();
+                long single = 0;
+                long enveloped = 0;
+                for (List<TwitterAvroModel> batch : tweets.batches) {
+                    single += produceSingleRecords(tweets, codec, batch).sizeInBytes();
+                    enveloped += produceEnvelope(tweets, codec, batch).sizeInBytes();
+                }
+                System.out.printf("  %4s tweets per batch, %-6s: %6.1f / %6.1f%n", tweetsPerBatch,
+                        compressionType.name, (double) single / TWEET_COUNT, (double) enveloped / TWEET_COUNT);
+            }
+        }
+    }
+
+    /**
+     * Tokenized and enriched tweets from {@link #USER_COUNT} authors, as the listener sends them.
+     */
+    private static List<TwitterAvroModel> tweets() {
+        SplittableRandom random = new SplittableRandom(42);
+        TweetTokenizationStage tokenizationStage = new TweetTokenizationStage(tokenizationConfig());
+        TwitterAvroModel[] tweets = new TwitterAvroModel[TWEET_COUNT];
+        long createdAt = 1_700_000_000_000L;
+        for (int i = 0; i < TWEET_COUNT; i++) {
+            long userId = random.nextLong(USER_COUNT);
+            tweets[i] = TwitterAvroModel.newBuilder()
+                    .setId(1_900_000_000_000_000_000L + i)
+                    .setUserId(userId)
+                    .setText(BenchmarkTweets.randomTextWithEntities(random, KEYWORDS))
+                    .setCreatedAt(Long.toString(createdAt + i))
+                    .setFollowerTier(FOLLOWER_TIERS[(int) (userId % FOLLOWER_TIERS.length)])
+                    .setAccountClass(ACCOUNT_CLASSES[(int) (userId % ACCOUNT_CLASSES.length)])
+                    .build();
+            tokenizationStage.tokenize(tweets[i]);
+        }
+        return Arrays.asList(tweets);
+    }
+
+    private static TokenizationConfigData tokenizationConfig() {
+        TokenizationConfigData tokenizationConfigData = new TokenizationConfigData();
+        tokenizationConfigData.setEnabled(true);
+        tokenizationConfigData.setMaxTokens(64);
+        return tokenizationConfigData;
+    }
+}
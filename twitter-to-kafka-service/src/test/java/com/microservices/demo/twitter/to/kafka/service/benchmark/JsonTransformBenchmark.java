@@ -0,0 +1,106 @@
+package com.microservices.demo.twitter.to.kafka.service.benchmark;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.transformer.TweetJsonParser;
+import com.microservices.demo.twitter.to.kafka.service.transformer.TwitterStatusToAvroTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import twitter4j.TwitterException;
+import twitter4j.TwitterObjectFactory;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw tweet JSON to Avro model: twitter4j Status parsing plus the builder transform, against the streaming
+ * {@link TweetJsonParser} writing into a reused model. The JSON carries user, entities and a retweeted status
+ * like real stream messages. Run with the GC profiler to compare gc.alloc.rate.norm.
+ * Not part of the test suite; run {@link #main} from the test classpath.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class JsonTransformBenchmark {
+
+    private static final int TWEET_COUNT = 1024;
+
+    private static final String[] KEYWORDS = {"Java", "Microservices", "Kafka", "Elasticsearch"};
+
+    private static final DateTimeFormatter TWITTER_DATE =
+            DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.ENGLISH);
+
+    private final TwitterStatusToAvroTransformer statusTransformer = new TwitterStatusToAvroTransformer();
+
+    private final TweetJsonParser parser = new TweetJsonParser();
+
+    private final TwitterAvroModel reusableModel = new TwitterAvroModel();
+
+    private String[] tweets;
+
+    private int next;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonTransformBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        tweets = new String[TWEET_COUNT];
+        long createdAtSecond = 1_790_000_000L;
+        for (int i = 0; i < TWEET_COUNT; i++) {
+            createdAtSecond += i % 8 == 0 ? 1 : 0;
+            String createdAt = Instant.ofEpochSecond(createdAtSecond).atOffset(ZoneOffset.UTC).format(TWITTER_DATE);
+            String text = BenchmarkTweets.randomText(random, KEYWORDS);
+            long userId = random.nextLong(1, Long.MAX_VALUE);
+            tweets[i] = "{\"created_at\":\"" + createdAt + "\",\"id\":" + (1_800_000_000_000_000_000L + i)
+                    + ",\"id_str\":\"" + (1_800_000_000_000_000_000L + i) + "\",\"text\":\"" + text + "\","
+                    + "\"source\":\"<a href=\\\"https://example.com\\\" rel=\\\"nofollow\\\">client</a>\","
+                    + "\"truncated\":false,\"in_reply_to_status_id\":null,"
+                    + "\"user\":{\"id\":" + userId + ",\"id_str\":\"" + userId + "\",\"name\":\"user " + i + "\","
+                    + "\"screen_name\":\"user" + i + "\",\"location\":\"Earth\",\"followers_count\":" + (i * 7)
+                    + ",\"friends_count\":42,\"created_at\":\"" + createdAt + "\",\"verified\":false,\"lang\":null},"
+                    + "\"retweeted_status\":{\"id\":1,\"text\":\"" + text + "\",\"user\":{\"id\":2,\"name\":\"origin\"}},"
+                    + "\"entities\":{\"hashtags\":[{\"text\":\"kafka\",\"indices\":[0,6]}],\"urls\":[],"
+                    + "\"user_mentions\":[{\"screen_name\":\"someone\",\"id\":3,\"indices\":[7,15]}]},"
+                    + "\"favorite_count\":0,\"retweet_count\":0,\"lang\":\"en\",\"timestamp_ms\":\""
+                    + createdAtSecond * 1_000L + "\"}";
+        }
+    }
+
+    @Benchmark
+    public TwitterAvroModel statusThenBuilder() throws TwitterException {
+        return statusTransformer.getTwitterAvroModelFromStatus(TwitterObjectFactory.createStatus(nextTweet()));
+    }
+
+    @Benchmark
+    public long streamingParser() {
+        return parser.parse(nextTweet(), reusableModel);
+    }
+
+    private String nextTweet() {
+        return tweets[next++ & (TWEET_COUNT - 1)];
+    }
+}
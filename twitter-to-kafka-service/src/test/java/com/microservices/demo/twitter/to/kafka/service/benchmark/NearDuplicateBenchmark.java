@@ -0,0 +1,198 @@
+package com.microservices.demo.twitter.to.kafka.service.benchmark;
+
+import com.microservices.demo.twitter.to.kafka.service.deduplication.NearDuplicateIndex;
+import com.microservices.demo.twitter.to.kafka.service.deduplication.SimHash;
+import com.microservices.demo.twitter.to.kafka.service.tokenization.TweetTextScanner;
+import com.microservices.demo.twitter.to.kafka.service.trending.ZipfTerms;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tweets per second through SimHash and the banded index of near-duplicate suppression, on the tokens of a synthetic
+ * corpus: originals of 8 to 24 Zipf terms, four in ten tweets followed some seconds later by a copy with another
+ * mention and link, changed case, or one word added, removed or replaced. At the end of each trial the precision and
+ * recall of the copies found are printed, overall and per kind of edit, together with the entries the index held.
+ * Not part of the test suite; run {@link #main} from the test classpath.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class NearDuplicateBenchmark {
+
+    private static final int CORPUS_SIZE = 200_000;
+
+    private static final long WINDOW_MS = 60_000L;
+
+    private static final int CAPACITY = 262_144;
+
+    private static final int MIN_TOKENS = 4;
+
+    private static final String[] EDITS = {"none", "mention+link", "case", "word added", "word removed",
+            "word replaced"};
+
+    @Param({"3", "5"})
+    private int maxHammingDistance;
+
+    private Corpus corpus;
+
+    private SimHash simHash;
+
+    private NearDuplicateIndex index;
+
+    private long nowMs;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NearDuplicateBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        corpus = new Corpus(CORPUS_SIZE, 42);
+        simHash = new SimHash();
+        index = new NearDuplicateIndex(maxHammingDistance, WINDOW_MS, CAPACITY);
+    }
+
+    @TearDown(Level.Trial)
+    public void reportAccuracy() {
+        // Replay the corpus once into a fresh index so that every copy can only match its own original
+        Corpus labelled = new Corpus(CORPUS_SIZE, 7);
+        NearDuplicateIndex replay = new NearDuplicateIndex(maxHammingDistance, WINDOW_MS, CAPACITY);
+        SimHash replaySimHash = new SimHash();
+        long[] copies = new long[EDITS.length];
+        long[] found = new long[EDITS.length];
+        long truePositives = 0;
+        long falsePositives = 0;
+        for (int i = 0; i < labelled.size(); i++) {
+            if (labelled.tokens.get(i).size() < MIN_TOKENS) {
+                continue;
+            }
+            long clusterId = replay.findOrAdd(replaySimHash.fingerprint(labelled.tokens.get(i)), i, i);
+            int edit = labelled.edits[i];
+            copies[edit]++;
+            if (clusterId == NearDuplicateIndex.NO_MATCH) {
+                continue;
+            }
+            if (edit != 0 && clusterId == labelled.originals[i]) {
+                truePositives++;
+                found[edit]++;
+            } else {
+                falsePositives++;
+            }
+        }
+        long allCopies = labelled.size() - copies[0];
+        StringBuilder perEdit = new StringBuilder();
+        for (int edit = 1; edit < EDITS.length; edit++) {
+            perEdit.append(String.format(" %s=%.3f", EDITS[edit], (double) found[edit] / copies[edit]));
+        }
+        System.out.printf("%nmax-hamming-distance=%d precision=%.4f recall=%.3f recall by edit:%s index entries=%d%n",
+                maxHammingDistance, (double) truePositives / Math.max(1, truePositives + falsePositives),
+                (double) truePositives / allCopies, perEdit, replay.size());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void simHashOnly(Blackhole blackhole) {
+        for (List<String> tokens : corpus.tokens) {
+            blackhole.consume(simHash.fingerprint(tokens));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void simHashAndIndex(Blackhole blackhole) {
+        for (List<String> tokens : corpus.tokens) {
+            long now = nowMs++;
+            blackhole.consume(index.findOrAdd(simHash.fingerprint(tokens), now, now));
+        }
+    }
+
+    /**
+     * The tokens of a tweet stream as the tokenization stage leaves them, with the edit each tweet was made with and,
+     * for copies, the position of their original.
+     */
+    private static final class Corpus {
+
+        private final List<List<String>> tokens = new ArrayList<>();
+
+        private final int[] edits;
+
+        private final long[] originals;
+
+        private Corpus(int size, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            ZipfTerms zipfTerms = new ZipfTerms(100_000, 1.05, seed);
+            TweetTextScanner scanner = new TweetTextScanner();
+            List<String> hashtags = new ArrayList<>();
+            List<String> texts = new ArrayList<>(size);
+            edits = new int[size];
+            originals = new long[size];
+            // Copies come up to ten seconds, here ten thousand tweets, after their original
+            List<Integer> copiesDue = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                int original = copiesDue.isEmpty() || random.nextInt(5) < 3 ? -1 : copiesDue.remove(0);
+                String text;
+                if (original < 0) {
+                    text = "@user" + random.nextInt(1_000_000) + " " + String.join(" ", zipfTerms.next(
+                            8 + random.nextInt(17))) + " https://t.co/" + Long.toHexString(random.nextLong());
+                    if (random.nextInt(10) < 4) {
+                        copiesDue.add(Math.min(copiesDue.size(), random.nextInt(10_000)), i);
+                    }
+                } else {
+                    edits[i] = 1 + random.nextInt(EDITS.length - 1);
+                    originals[i] = original;
+                    text = edit(texts.get(original), edits[i], random, zipfTerms);
+                }
+                texts.add(text);
+                List<String> scanned = new ArrayList<>();
+                hashtags.clear();
+                scanner.scan(text, scanned, hashtags, 64);
+                tokens.add(scanned);
+            }
+        }
+
+        private int size() {
+            return tokens.size();
+        }
+
+        private static String edit(String text, int edit, SplittableRandom random, ZipfTerms zipfTerms) {
+            List<String> words = new ArrayList<>(List.of(text.split(" ")));
+            // The first word is the mention and the last the link
+            int word = 1 + random.nextInt(words.size() - 2);
+            switch (EDITS[edit]) {
+                case "mention+link" -> {
+                    words.set(0, "@user" + random.nextInt(1_000_000));
+                    words.set(words.size() - 1, "https://t.co/" + Long.toHexString(random.nextLong()));
+                }
+                case "case" -> words.replaceAll(w -> random.nextBoolean() ? w.toUpperCase() : w);
+                case "word added" -> words.add(word, zipfTerms.next());
+                case "word removed" -> words.remove(word);
+                default -> words.set(word, zipfTerms.next());
+            }
+            return String.join(" ", words);
+        }
+    }
+}
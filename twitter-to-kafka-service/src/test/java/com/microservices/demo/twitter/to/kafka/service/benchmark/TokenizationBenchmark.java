@@ -0,0 +1,148 @@
+package com.microservices.demo.twitter.to.kafka.service.benchmark;
+
+import com.microservices.demo.config.TokenizationConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.tokenization.TweetTokenizationStage;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the tokenization stage on one thread and on all cores, the way it runs on the ingest threads, and
+ * the cost of Avro-encoding a record with and without the precomputed tokens. {@link #main} also prints the
+ * average encoded size of both, to weigh the extra payload against the tokenization saved downstream.
+ * Not part of the test suite; run {@link #main} from the test classpath.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TokenizationBenchmark {
+
+    private static final int TWEET_COUNT = 1024;
+
+    private static final String[] KEYWORDS = {"Java", "Microservices", "Kafka", "Elasticsearch"};
+
+    @State(Scope.Benchmark)
+    public static class Stage {
+
+        final TweetTokenizationStage stage = new TweetTokenizationStage(config());
+
+        final String[] texts = new String[TWEET_COUNT];
+
+        @Setup
+        public void setUp() {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < TWEET_COUNT; i++) {
+                texts[i] = BenchmarkTweets.randomTextWithEntities(random, KEYWORDS);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Worker {
+
+        final TwitterAvroModel model = TwitterAvroModel.newBuilder()
+                .setId(1L).setUserId(1L).setText("").setCreatedAt(null).build();
+
+        final SpecificDatumWriter<TwitterAvroModel> writer = new SpecificDatumWriter<>(TwitterAvroModel.class);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+
+        BinaryEncoder encoder;
+
+        int next;
+
+        TwitterAvroModel next(Stage stage) {
+            model.setText(stage.texts[next++ & (TWEET_COUNT - 1)]);
+            return model;
+        }
+
+        int encode() throws IOException {
+            out.reset();
+            encoder = EncoderFactory.get().binaryEncoder(out, encoder);
+            writer.write(model, encoder);
+            encoder.flush();
+            return out.size();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        printPayloadSizes();
+        new Runner(new OptionsBuilder()
+                .include(TokenizationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Benchmark
+    public int tokenizeSingleThread(Stage stage, Worker worker) {
+        TwitterAvroModel model = worker.next(stage);
+        stage.stage.tokenize(model);
+        return model.getTokens().size();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int tokenizeAllCores(Stage stage, Worker worker) {
+        TwitterAvroModel model = worker.next(stage);
+        stage.stage.tokenize(model);
+        return model.getTokens().size();
+    }
+
+    @Benchmark
+    public int encodeWithoutTokens(Stage stage, Worker worker) throws IOException {
+        worker.next(stage).setTokens(null);
+        worker.model.setHashtags(null);
+        return worker.encode();
+    }
+
+    @Benchmark
+    public int tokenizeAndEncode(Stage stage, Worker worker) throws IOException {
+        stage.stage.tokenize(worker.next(stage));
+        return worker.encode();
+    }
+
+    private static void printPayloadSizes() throws IOException {
+        Stage stage = new Stage();
+        stage.setUp();
+        Worker worker = new Worker();
+        long withoutTokens = 0;
+        long withTokens = 0;
+        for (int i = 0; i < TWEET_COUNT; i++) {
+            worker.next(stage).setTokens(null);
+            worker.model.setHashtags(null);
+            withoutTokens += worker.encode();
+            stage.stage.tokenize(worker.model);
+            withTokens += worker.encode();
+        }
+        System.out.printf("Average Avro payload: %d bytes without tokens, %d bytes with tokens%n",
+                withoutTokens / TWEET_COUNT, withTokens / TWEET_COUNT);
+    }
+
+    private static TokenizationConfigData config() {
+        TokenizationConfigData tokenizationConfigData = new TokenizationConfigData();
+        tokenizationConfigData.setEnabled(true);
+        tokenizationConfigData.setMaxTokens(64);
+        return tokenizationConfigData;
+    }
+}
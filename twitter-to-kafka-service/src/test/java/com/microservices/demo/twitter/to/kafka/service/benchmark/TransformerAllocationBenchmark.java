@@ -0,0 +1,114 @@
+package com.microservices.demo.twitter.to.kafka.service.benchmark;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.transformer.TwitterStatusToAvroTransformer;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import twitter4j.Status;
+import twitter4j.TwitterException;
+import twitter4j.TwitterObjectFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation per tweet of the builder transform against the reusable-model transform, each followed by Avro
+ * binary encoding as the producer's serializer would do. Run with the GC profiler: compare gc.alloc.rate.norm
+ * (bytes per operation) between the two.
+ * Not part of the test suite; run {@link #main} from the test classpath.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TransformerAllocationBenchmark {
+
+    private static final int STATUS_COUNT = 1024;
+
+    private static final String[] KEYWORDS = {"Java", "Microservices", "Kafka", "Elasticsearch"};
+
+    private static final DateTimeFormatter TWITTER_DATE =
+            DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.ENGLISH);
+
+    private final TwitterStatusToAvroTransformer transformer = new TwitterStatusToAvroTransformer();
+
+    private final SpecificDatumWriter<TwitterAvroModel> writer = new SpecificDatumWriter<>(TwitterAvroModel.class);
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+
+    private Status[] statuses;
+
+    private BinaryEncoder encoder;
+
+    private int next;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TransformerAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    @Setup
+    public void setUp() throws TwitterException {
+        SplittableRandom random = new SplittableRandom(42);
+        statuses = new Status[STATUS_COUNT];
+        long createdAtMs = 1_790_000_000_000L;
+        for (int i = 0; i < STATUS_COUNT; i++) {
+            // Several tweets per second, as at sustained high rates
+            createdAtMs += i % 8 == 0 ? 1_000L : 0L;
+            statuses[i] = TwitterObjectFactory.createStatus("{\"id\": " + i + ", \"text\": \"" + BenchmarkTweets.randomText(random, KEYWORDS)
+                    + "\", \"created_at\": \"" + twitterDate(createdAtMs) + "\", \"user\": {\"id\": " + (i * 31L) + "}}");
+        }
+    }
+
+    @Benchmark
+    public int builder() throws IOException {
+        return encode(transformer.getTwitterAvroModelFromStatus(nextStatus()));
+    }
+
+    @Benchmark
+    public int reuse() throws IOException {
+        return encode(transformer.getReusableTwitterAvroModelFromStatus(nextStatus()));
+    }
+
+    private Status nextStatus() {
+        return statuses[next++ & (STATUS_COUNT - 1)];
+    }
+
+    private int encode(TwitterAvroModel model) throws IOException {
+        out.reset();
+        encoder = EncoderFactory.get().binaryEncoder(out, encoder);
+        writer.write(model, encoder);
+        encoder.flush();
+        return out.size();
+    }
+
+    private static String twitterDate(long epochMs) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneOffset.UTC).format(TWITTER_DATE);
+    }
+}
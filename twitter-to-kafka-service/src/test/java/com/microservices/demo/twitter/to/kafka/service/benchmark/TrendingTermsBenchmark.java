@@ -0,0 +1,111 @@
+package com.microservices.demo.twitter.to.kafka.service.benchmark;
+
+import com.microservices.demo.twitter.to.kafka.service.trending.ExactWindowedTermCounter;
+import com.microservices.demo.twitter.to.kafka.service.trending.HeavyHitters;
+import com.microservices.demo.twitter.to.kafka.service.trending.TrendingTerm;
+import com.microservices.demo.twitter.to.kafka.service.trending.WindowedCountMinSketch;
+import com.microservices.demo.twitter.to.kafka.service.trending.ZipfTerms;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Token throughput of the Count-Min Sketch top-K tracker against an exact per-term map on a Zipf stream.
+ * At the end of each trial the top-K recall and the worst relative overestimate against the exact
+ * baseline are printed, together with the number of distinct terms the exact baseline had to hold.
+ * Not part of the test suite; run {@link #main} from the test classpath.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class TrendingTermsBenchmark {
+
+    private static final int BATCH_SIZE = 100_000;
+
+    private static final long WINDOW_MS = 300_000L;
+
+    private static final int TOP_K = 10;
+
+    @Param({"100000", "1000000"})
+    private int vocabularySize;
+
+    private String[] terms;
+
+    private HeavyHitters heavyHitters;
+
+    private ExactWindowedTermCounter exact;
+
+    private long sketchNowMs;
+
+    private long exactNowMs;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TrendingTermsBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        terms = new ZipfTerms(vocabularySize, 1.05, 42).next(BATCH_SIZE);
+        heavyHitters = new HeavyHitters(new WindowedCountMinSketch(4, 4096, WINDOW_MS, 10), 100);
+        exact = new ExactWindowedTermCounter(WINDOW_MS, 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void reportAccuracy() {
+        // Replay one window into fresh structures so both sides see exactly the same stream
+        HeavyHitters sketch = new HeavyHitters(new WindowedCountMinSketch(4, 4096, WINDOW_MS, 10), 100);
+        ExactWindowedTermCounter baseline = new ExactWindowedTermCounter(WINDOW_MS, 10);
+        ZipfTerms zipfTerms = new ZipfTerms(vocabularySize, 1.05, 7);
+        for (int i = 0; i < 2_000_000; i++) {
+            String term = zipfTerms.next();
+            sketch.add(term, i / 10);
+            baseline.add(term, i / 10);
+        }
+        List<TrendingTerm> estimated = sketch.top(TOP_K, 199_999);
+        Set<String> actual = baseline.top(TOP_K, 199_999).stream().map(TrendingTerm::term).collect(Collectors.toSet());
+        long hits = estimated.stream().filter(t -> actual.contains(t.term())).count();
+        double worstError = estimated.stream()
+                .mapToDouble(t -> (double) (t.estimatedCount() - baseline.count(t.term())) / baseline.count(t.term()))
+                .max().orElse(0);
+        System.out.printf("%nvocabulary=%d top-%d recall=%.2f worst relative overestimate=%.4f exact distinct terms=%d%n",
+                vocabularySize, TOP_K, (double) hits / TOP_K, worstError, baseline.distinctTerms());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void countMinSketchTopK() {
+        for (String term : terms) {
+            heavyHitters.add(term, sketchNowMs++ / 100);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void exactMapBaseline() {
+        for (String term : terms) {
+            exact.add(term, exactNowMs++ / 100);
+        }
+    }
+}
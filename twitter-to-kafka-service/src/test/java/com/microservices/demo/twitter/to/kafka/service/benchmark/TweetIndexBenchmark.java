@@ -0,0 +1,111 @@
+package com.microservices.demo.twitter.to.kafka.service.benchmark;
+
+import com.microservices.demo.config.TweetIndexConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.index.TweetSearchOperator;
+import com.microservices.demo.twitter.to.kafka.service.index.TweetSearchQuery;
+import com.microservices.demo.twitter.to.kafka.service.index.TweetSearchResult;
+import com.microservices.demo.twitter.to.kafka.service.index.impl.ShardedTweetIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest and query cost of {@link ShardedTweetIndex} at millions of documents.
+ * Not part of the test suite; run {@link #main} from the test classpath.
+ */
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class TweetIndexBenchmark {
+
+    private static final String[] KEYWORDS = {"java", "microservices", "kafka", "elasticsearch"};
+
+    @Param({"1000000", "5000000"})
+    private int documentCount;
+
+    private TwitterAvroModel[] documents;
+
+    private long[] createdAtMs;
+
+    private ShardedTweetIndex populatedIndex;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TweetIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        long now = System.currentTimeMillis();
+        documents = new TwitterAvroModel[documentCount];
+        createdAtMs = new long[documentCount];
+        for (int i = 0; i < documentCount; i++) {
+            documents[i] = TwitterAvroModel.newBuilder()
+                    .setId(random.nextLong(Long.MAX_VALUE))
+                    .setUserId(random.nextLong(Long.MAX_VALUE))
+                    .setText(BenchmarkTweets.randomText(random, KEYWORDS))
+                    .setCreatedAt(null)
+                    .build();
+            // Spread documents evenly over the last 50 minutes, in arrival order
+            createdAtMs[i] = now - 3_000_000L + (3_000_000L * i) / documentCount;
+        }
+        populatedIndex = newIndex();
+        for (int i = 0; i < documentCount; i++) {
+            populatedIndex.index(documents[i], createdAtMs[i]);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ShardedTweetIndex ingestAll() {
+        ShardedTweetIndex tweetIndex = newIndex();
+        for (int i = 0; i < documentCount; i++) {
+            tweetIndex.index(documents[i], createdAtMs[i]);
+        }
+        return tweetIndex;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public TweetSearchResult queryAndLastHour() {
+        long now = System.currentTimeMillis();
+        return populatedIndex.search(TweetSearchQuery.of(List.of("kafka", "lorem"), TweetSearchOperator.AND, now - 3_600_000L, now, 100));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public TweetSearchResult queryOrLastTenMinutes() {
+        long now = System.currentTimeMillis();
+        return populatedIndex.search(TweetSearchQuery.of(List.of("java", "elasticsearch"), TweetSearchOperator.OR, now - 600_000L, now, 100));
+    }
+
+    private static ShardedTweetIndex newIndex() {
+        TweetIndexConfigData configData = new TweetIndexConfigData();
+        configData.setEnabled(true);
+        configData.setShardDurationMs(300_000L);
+        configData.setRetentionMs(3_600_000L);
+        configData.setMaxResults(100);
+        return new ShardedTweetIndex(configData);
+    }
+}
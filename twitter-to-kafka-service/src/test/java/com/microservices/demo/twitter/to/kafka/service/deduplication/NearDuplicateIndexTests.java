@@ -0,0 +1,67 @@
+package com.microservices.demo.twitter.to.kafka.service.deduplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearDuplicateIndexTests {
+
+    @Test
+    void findsEveryFingerprintWithinTheDistanceAndNoneBeyond() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int maxDistance = 0; maxDistance <= 7; maxDistance++) {
+            NearDuplicateIndex index = new NearDuplicateIndex(maxDistance, 60_000, 4096);
+            for (int i = 0; i < 1_000; i++) {
+                long fingerprint = random.nextLong();
+                assertThat(index.findOrAdd(fingerprint, i, 0)).isEqualTo(NearDuplicateIndex.NO_MATCH);
+                long near = flipBits(fingerprint, random.nextInt(maxDistance + 1), random);
+                assertThat(index.findOrAdd(near, 10_000 + i, 0)).as("distance %d", maxDistance).isEqualTo(i);
+                long far = flipBits(fingerprint, maxDistance + 1 + random.nextInt(3), random);
+                // Random fingerprints are some 32 bits apart, so only the original is close enough
+                assertThat(index.findOrAdd(far, 20_000 + i, 0)).isNotEqualTo(i);
+            }
+        }
+    }
+
+    @Test
+    void forgetsFingerprintsThatLeftTheWindowOrWerePushedOutOfTheRing() {
+        NearDuplicateIndex index = new NearDuplicateIndex(3, 1_000, 4);
+        index.findOrAdd(0x0FL, 1, 0);
+        assertThat(index.findOrAdd(0x0EL, 2, 999)).isEqualTo(1);
+        assertThat(index.findOrAdd(0x0EL, 3, 1_000)).isEqualTo(NearDuplicateIndex.NO_MATCH);
+        assertThat(index.size()).isEqualTo(1);
+
+        SplittableRandom random = new SplittableRandom(7);
+        for (long id = 4; id < 8; id++) {
+            assertThat(index.findOrAdd(random.nextLong(), id, 1_000)).isEqualTo(NearDuplicateIndex.NO_MATCH);
+        }
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.findOrAdd(0x0EL, 8, 1_000)).isEqualTo(NearDuplicateIndex.NO_MATCH);
+    }
+
+    @Test
+    void scoresTextsByTheTermsTheyShare() {
+        SimHash simHash = new SimHash();
+        long original = simHash.fingerprint(List.of("win", "a", "free", "iphone", "today", "click", "the",
+                "link", "below", "to", "claim"));
+        long edited = simHash.fingerprint(List.of("win", "a", "free", "iphone", "today", "click", "the",
+                "link", "below", "to", "claim", "now"));
+        long unrelated = simHash.fingerprint(List.of("kafka", "streams", "joins", "explained", "with",
+                "examples", "and", "diagrams"));
+
+        assertThat(SimHash.distance(original, edited)).isLessThan(SimHash.distance(original, unrelated));
+        assertThat(SimHash.distance(original, unrelated)).isGreaterThan(10);
+    }
+
+    private static long flipBits(long fingerprint, int bits, SplittableRandom random) {
+        long flipped = fingerprint;
+        while (Long.bitCount(flipped ^ fingerprint) < bits) {
+            flipped ^= 1L << random.nextInt(64);
+        }
+        return flipped;
+    }
+}
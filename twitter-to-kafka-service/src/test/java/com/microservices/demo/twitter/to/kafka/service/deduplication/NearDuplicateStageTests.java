@@ -0,0 +1,124 @@
+package com.microservices.demo.twitter.to.kafka.service.deduplication;
+
+import com.microservices.demo.config.NearDuplicateConfigData;
+import com.microservices.demo.config.TokenizationConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.tokenization.TweetTokenizationStage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearDuplicateStageTests {
+
+    private static final String SPAM = "@alice WIN a free iPhone 15 today!!! Click the link below to claim your prize "
+            + "before midnight https://t.co/abc123 #giveaway";
+
+    /**
+     * The vocabulary MockKafkaStreamRunner draws its tweets from.
+     */
+    private static final String[] MOCK_WORDS = {"lorem", "ipsum", "dolor", "sit", "amet", "consectetur",
+            "adipiscing", "elit", "sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore",
+            "magna", "aliqua"};
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void dropsCopiesWithAnotherMentionLinkCaseOrAWordAdded() {
+        NearDuplicateStage stage = stage(NearDuplicateConfigData.Action.DROP, true);
+
+        assertThat(stage.admit(model(1, SPAM))).isTrue();
+        assertThat(stage.admit(model(2, SPAM.replace("@alice", "@bob").replace("abc123", "xyz789")))).isFalse();
+        assertThat(stage.admit(model(3, SPAM.toLowerCase() + " Hurry!"))).isFalse();
+        assertThat(stage.admit(model(4, "Kafka Streams joins explained with examples and diagrams for beginners")))
+                .isTrue();
+        assertThat(meterRegistry.get("tweet.near.duplicates").tag("action", "dropped").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("tweet.near.duplicate.window.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void tagsCopiesWithTheFirstTweetOfTheirClusterAndClearsReusedModels() {
+        NearDuplicateStage stage = stage(NearDuplicateConfigData.Action.TAG, false);
+        TwitterAvroModel reused = model(1, SPAM);
+
+        assertThat(stage.admit(reused)).isTrue();
+        assertThat(reused.getNearDuplicateClusterId()).isNull();
+
+        reused.setId(2L);
+        reused.setText(SPAM.replace("@alice", "@carol"));
+        assertThat(stage.admit(reused)).isTrue();
+        assertThat(reused.getNearDuplicateClusterId()).isEqualTo(1L);
+
+        reused.setId(3L);
+        reused.setText("Elasticsearch bulk indexing tuned with adaptive batch sizes and backpressure");
+        assertThat(stage.admit(reused)).isTrue();
+        assertThat(reused.getNearDuplicateClusterId()).isNull();
+    }
+
+    @Test
+    void letsShortTweetsThrough() {
+        NearDuplicateStage stage = stage(NearDuplicateConfigData.Action.DROP, true);
+
+        assertThat(stage.admit(model(1, "good morning"))).isTrue();
+        assertThat(stage.admit(model(2, "good morning"))).isTrue();
+    }
+
+    @Test
+    void keepsEveryDistinctMockTweetUnlessDroppingIsAskedFor() {
+        NearDuplicateStage stage = stage(null, true);
+        Random random = new Random(42);
+        Set<String> texts = new HashSet<>();
+        long id = 0;
+        while (texts.size() < 20_000) {
+            String text = mockTweet(random);
+            if (texts.add(text)) {
+                assertThat(stage.admit(model(++id, text))).as(text).isTrue();
+            }
+        }
+
+        assertThat(meterRegistry.get("tweet.near.duplicates").tag("action", "tagged").counter().count())
+                .isPositive();
+        assertThat(meterRegistry.find("tweet.near.duplicates").tag("action", "dropped").counter()).isNull();
+    }
+
+    private NearDuplicateStage stage(NearDuplicateConfigData.Action action, boolean tokenize) {
+        NearDuplicateConfigData config = new NearDuplicateConfigData();
+        config.setEnabled(true);
+        config.setAction(action);
+        config.setMaxHammingDistance(3);
+        config.setWindowMs(60_000L);
+        config.setCapacity(1024);
+        config.setMinTokens(4);
+        TokenizationConfigData tokenizationConfig = new TokenizationConfigData();
+        tokenizationConfig.setEnabled(tokenize);
+        tokenizationConfig.setMaxTokens(64);
+        tokenizationStage = new TweetTokenizationStage(tokenizationConfig);
+        return new NearDuplicateStage(config, tokenizationConfig, meterRegistry);
+    }
+
+    private TweetTokenizationStage tokenizationStage;
+
+    private static String mockTweet(Random random) {
+        int length = 5 + random.nextInt(11);
+        StringBuilder tweet = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            tweet.append(MOCK_WORDS[random.nextInt(MOCK_WORDS.length)]).append(' ');
+            if (i == length / 2) {
+                tweet.append("Kafka ");
+            }
+        }
+        return tweet.toString().trim();
+    }
+
+    private TwitterAvroModel model(long id, String text) {
+        TwitterAvroModel model = TwitterAvroModel.newBuilder().setId(id).setUserId(id).setText(text)
+                .setCreatedAt(null).build();
+        tokenizationStage.tokenize(model);
+        return model;
+    }
+}
@@ -0,0 +1,165 @@
+package com.microservices.demo.twitter.to.kafka.service.enrichment;
+
+import com.microservices.demo.common.logging.HotPathLogging;
+import com.microservices.demo.config.HotPathLoggingConfigData;
+import com.microservices.demo.config.UserEnrichmentConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserEnrichmentStageTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserEnrichmentStage stage;
+
+    @AfterEach
+    void tearDown() {
+        if (stage != null) {
+            stage.shutdown();
+        }
+    }
+
+    @Test
+    void servesRepeatedLookupsFromTheCache() {
+        AtomicInteger lookups = new AtomicInteger();
+        stage = stage(userId -> {
+            lookups.incrementAndGet();
+            return new UserMetadata("macro", "media");
+        }, 1000);
+
+        TwitterAvroModel first = model(7L);
+        stage.enrich(first);
+        TwitterAvroModel second = model(7L);
+        stage.enrich(second);
+
+        assertThat(second.getFollowerTier()).isEqualTo("macro");
+        assertThat(second.getAccountClass()).isEqualTo("media");
+        assertThat(lookups).hasValue(1);
+        assertThat(meterRegistry.get("user.enrichment.lookup").tag("wait", "immediate").timer().count())
+                .isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get("user.enrichment.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void coalescesConcurrentMissesForTheSameUser() throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        stage = stage(userId -> {
+            lookups.incrementAndGet();
+            await(release);
+            return new UserMetadata("nano", "personal");
+        }, 5000);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<TwitterAvroModel>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> {
+                    TwitterAvroModel model = model(42L);
+                    stage.enrich(model);
+                    return model;
+                }));
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+            release.countDown();
+
+            for (Future<TwitterAvroModel> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getFollowerTier()).isEqualTo("nano");
+            }
+            assertThat(lookups).hasValue(1);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void producesWithoutMetadataWhenTheLookupTimesOutAndFillsTheCacheLater() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        stage = stage(userId -> {
+            await(release);
+            return new UserMetadata("mid", "business");
+        }, 20);
+        TwitterAvroModel slow = model(1L);
+        slow.setFollowerTier("stale");
+
+        stage.enrich(slow);
+        release.countDown();
+
+        assertThat(slow.getFollowerTier()).isNull();
+        assertThat(slow.getAccountClass()).isNull();
+        assertThat(meterRegistry.get("user.enrichment.timeouts").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("user.enrichment.lookup").tag("wait", "waited").timer().count()).isEqualTo(1);
+        TwitterAvroModel next = model(1L);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        do {
+            stage.enrich(next);
+        } while (next.getFollowerTier() == null && System.nanoTime() < deadline);
+        assertThat(next.getFollowerTier()).isEqualTo("mid");
+    }
+
+    @Test
+    void failedLookupsAreNotCached() {
+        AtomicInteger lookups = new AtomicInteger();
+        stage = stage(userId -> {
+            if (lookups.incrementAndGet() == 1) {
+                throw new IllegalStateException("user service unavailable");
+            }
+            return new UserMetadata("mega", "government");
+        }, 1000);
+
+        TwitterAvroModel failed = model(3L);
+        stage.enrich(failed);
+        TwitterAvroModel retried = model(3L);
+        stage.enrich(retried);
+
+        assertThat(failed.getFollowerTier()).isNull();
+        assertThat(retried.getFollowerTier()).isEqualTo("mega");
+        assertThat(meterRegistry.get("user.enrichment.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failsToStartWhenEnabledWithoutASource() {
+        assertThatThrownBy(() -> stage(null, 0))
+                .isInstanceOf(TwitterToKafkaServiceException.class)
+                .hasMessageContaining("user-enrichment-config.source");
+    }
+
+    private UserEnrichmentStage stage(IUserMetadataSource source, long lookupTimeoutMs) {
+        UserEnrichmentConfigData config = new UserEnrichmentConfigData();
+        config.setEnabled(true);
+        config.setCacheMaximumSize(1000L);
+        config.setCacheExpireAfterWriteMs(60_000L);
+        config.setCacheRefreshAfterWriteMs(30_000L);
+        config.setLookupTimeoutMs(lookupTimeoutMs);
+        config.setLoaderThreads(2);
+        return new UserEnrichmentStage(config, source, new HotPathLogging(new HotPathLoggingConfigData()),
+                meterRegistry);
+    }
+
+    private static TwitterAvroModel model(long userId) {
+        return TwitterAvroModel.newBuilder().setId(userId).setUserId(userId).setText("kafka").setCreatedAt(null)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.microservices.demo.twitter.to.kafka.service.enrichment.impl;
+
+import com.microservices.demo.config.UserEnrichmentConfigData;
+import com.microservices.demo.twitter.to.kafka.service.enrichment.UserMetadata;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileUserMetadataSourceTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsUsersAndReturnsUnknownForOthers() throws IOException {
+        FileUserMetadataSource source = new FileUserMetadataSource(config(write(
+                "# userId,followerTier,accountClass",
+                "1,macro,media",
+                "",
+                " 2 , nano , ")));
+
+        assertThat(source.lookup(1L)).isEqualTo(new UserMetadata("macro", "media"));
+        assertThat(source.lookup(2L)).isEqualTo(new UserMetadata("nano", null));
+        assertThat(source.lookup(3L)).isSameAs(UserMetadata.UNKNOWN);
+    }
+
+    @Test
+    void rejectsMalformedLines() throws IOException {
+        UserEnrichmentConfigData config = config(write("1,macro"));
+
+        assertThatThrownBy(() -> new FileUserMetadataSource(config))
+                .isInstanceOf(TwitterToKafkaServiceException.class)
+                .hasMessageContaining("line 1");
+    }
+
+    private Path write(String... lines) throws IOException {
+        return Files.write(directory.resolve("users.csv"), List.of(lines));
+    }
+
+    private static UserEnrichmentConfigData config(Path path) {
+        UserEnrichmentConfigData config = new UserEnrichmentConfigData();
+        config.setFilePath(path.toString());
+        return config;
+    }
+}
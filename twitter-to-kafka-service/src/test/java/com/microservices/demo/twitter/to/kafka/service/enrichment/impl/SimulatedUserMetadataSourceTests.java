@@ -0,0 +1,34 @@
+package com.microservices.demo.twitter.to.kafka.service.enrichment.impl;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.config.UserEnrichmentConfigData;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SimulatedUserMetadataSourceTests {
+
+    @Test
+    void derivesStableMetadataForMockTweets() {
+        SimulatedUserMetadataSource source = new SimulatedUserMetadataSource(new UserEnrichmentConfigData(),
+                twitterConfig(true));
+
+        assertThat(source.lookup(42L)).isEqualTo(source.lookup(42L));
+        assertThat(source.lookup(42L).followerTier()).isNotNull();
+    }
+
+    @Test
+    void refusesToStampMadeUpMetadataOnRealTweets() {
+        assertThatThrownBy(() -> new SimulatedUserMetadataSource(new UserEnrichmentConfigData(), twitterConfig(false)))
+                .isInstanceOf(TwitterToKafkaServiceException.class)
+                .hasMessageContaining("enable-mock-tweets");
+    }
+
+    private static TwitterToKafkaServiceConfigData twitterConfig(boolean mockTweets) {
+        TwitterToKafkaServiceConfigData config = new TwitterToKafkaServiceConfigData();
+        config.setEnableMockTweets(mockTweets);
+        return config;
+    }
+}
@@ -0,0 +1,114 @@
+package com.microservices.demo.twitter.to.kafka.service.index.impl;
+
+import com.microservices.demo.config.TweetIndexConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.index.TweetSearchOperator;
+import com.microservices.demo.twitter.to.kafka.service.index.TweetSearchQuery;
+import com.microservices.demo.twitter.to.kafka.service.index.TweetSearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedTweetIndexTests {
+
+    private static final long MINUTE_MS = 60_000L;
+
+    private ShardedTweetIndex tweetIndex;
+
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        TweetIndexConfigData configData = new TweetIndexConfigData();
+        configData.setEnabled(true);
+        configData.setShardDurationMs(5 * MINUTE_MS);
+        configData.setRetentionMs(60 * MINUTE_MS);
+        configData.setMaxResults(100);
+        now = System.currentTimeMillis();
+        tweetIndex = new ShardedTweetIndex(configData, () -> now);
+    }
+
+    @Test
+    void andQueryReturnsOnlyTweetsContainingEveryTermNewestFirst() {
+        index(1L, now - 20 * MINUTE_MS, "Learning #Java and Kafka today");
+        index(2L, now - 10 * MINUTE_MS, "java microservices");
+        index(3L, now - MINUTE_MS, "Kafka streams with JAVA");
+
+        TweetSearchResult result = tweetIndex.search(query(TweetSearchOperator.AND, now - 30 * MINUTE_MS, now, "java", "kafka"));
+
+        assertThat(result.tweetIds()).containsExactly(3L, 1L);
+        assertThat(result.totalHits()).isEqualTo(2);
+    }
+
+    @Test
+    void orQueryRespectsTimeRange() {
+        index(1L, now - 40 * MINUTE_MS, "elasticsearch cluster");
+        index(2L, now - 12 * MINUTE_MS, "kafka broker");
+        index(3L, now - 2 * MINUTE_MS, "elasticsearch index");
+
+        TweetSearchResult result = tweetIndex.search(query(TweetSearchOperator.OR, now - 15 * MINUTE_MS, now, "kafka", "elasticsearch"));
+
+        assertThat(result.tweetIds()).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void tweetsOlderThanRetentionAreNotIndexedAndExpiredShardsAreDropped() {
+        index(1L, now - 90 * MINUTE_MS, "kafka");
+        index(2L, now - 50 * MINUTE_MS, "kafka");
+        index(3L, now, "kafka");
+
+        TweetSearchResult result = tweetIndex.search(query(TweetSearchOperator.OR, 0L, now, "kafka"));
+
+        assertThat(result.tweetIds()).containsExactly(3L, 2L);
+        assertThat(tweetIndex.getShardCount()).isEqualTo(2);
+    }
+
+    @Test
+    void tweetsArrivingOutOfOrderAreStillReturnedNewestFirst() {
+        long shardStart = now - Math.floorMod(now, 5 * MINUTE_MS);
+        index(1L, shardStart + 3_000, "kafka");
+        index(2L, shardStart + 1_000, "kafka");
+        index(3L, shardStart + 4_000, "kafka");
+        index(4L, shardStart + 2_000, "kafka");
+        index(5L, shardStart - 1_000, "kafka");
+
+        TweetSearchResult result = tweetIndex.search(query(TweetSearchOperator.OR, now - 30 * MINUTE_MS, now + MINUTE_MS, "kafka"));
+
+        assertThat(result.tweetIds()).containsExactly(3L, 1L, 4L, 2L, 5L);
+    }
+
+    @Test
+    void searchingDropsShardsThatExpiredWhileTheStreamWasIdle() {
+        index(1L, now - 50 * MINUTE_MS, "kafka");
+        index(2L, now - 2 * MINUTE_MS, "kafka");
+
+        now += 20 * MINUTE_MS;
+        TweetSearchResult result = tweetIndex.search(query(TweetSearchOperator.OR, 0L, now, "kafka"));
+
+        assertThat(result.tweetIds()).containsExactly(2L);
+        assertThat(tweetIndex.getShardCount()).isEqualTo(1);
+    }
+
+    @Test
+    void limitTruncatesResultsButReportsTotalHits() {
+        for (long id = 1; id <= 10; id++) {
+            index(id, now - id * 1000, "java");
+        }
+
+        TweetSearchResult result = tweetIndex.search(TweetSearchQuery.of(List.of("Java"), TweetSearchOperator.AND, now - MINUTE_MS, now, 3));
+
+        assertThat(result.tweetIds()).hasSize(3);
+        assertThat(result.totalHits()).isEqualTo(10);
+    }
+
+    private void index(long id, long createdAtMs, String text) {
+        tweetIndex.index(TwitterAvroModel.newBuilder().setId(id).setUserId(id).setText(text).setCreatedAt(null).build(), createdAtMs);
+    }
+
+    private TweetSearchQuery query(TweetSearchOperator operator, long fromMs, long toMs, String... terms) {
+        return TweetSearchQuery.of(List.of(terms), operator, fromMs, toMs, 100);
+    }
+}
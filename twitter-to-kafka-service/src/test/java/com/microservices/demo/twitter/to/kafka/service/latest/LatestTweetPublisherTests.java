@@ -0,0 +1,115 @@
+package com.microservices.demo.twitter.to.kafka.service.latest;
+
+import com.microservices.demo.config.LatestTweetConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.latency.LatencyTrace;
+import com.microservices.demo.kafka.producer.config.service.DrainResult;
+import com.microservices.demo.kafka.producer.config.service.IKafkaProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatestTweetPublisherTests {
+
+    private final RecordingProducer producer = new RecordingProducer();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LatestTweetPublisher publisher;
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void sendsOnlyTheLatestTweetOfEachUserOnceItsWindowEnded() {
+        // Published explicitly by the test
+        publisher = publisher(3_600_000L);
+        TwitterAvroModel reused = model(1, 10);
+        publisher.offer(reused);
+        reused.setId(11L);
+        publisher.offer(reused);
+        publisher.offer(model(2, 20));
+
+        publisher.publish(System.nanoTime());
+        assertThat(producer.sent).isEmpty();
+
+        long windowEnded = System.nanoTime() + TimeUnit.HOURS.toNanos(1);
+        publisher.publish(windowEnded);
+        publisher.publish(windowEnded);
+
+        assertThat(producer.sent).hasSize(2).allSatisfy(sent -> {
+            assertThat(sent.topic()).isEqualTo("twitter-latest-topic");
+            assertThat(sent.key()).isEqualTo(sent.record().getUserId());
+        });
+        assertThat(producer.sent).extracting(sent -> sent.record().getId()).containsExactlyInAnyOrder(11L, 20L);
+        assertThat(meterRegistry.get("latest.tweet.offered").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("latest.tweet.published").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void sendsEveryTweetRightAwayWithoutConflation() {
+        publisher = publisher(0L);
+        publisher.offer(model(1, 10));
+        publisher.offer(model(1, 11));
+
+        assertThat(producer.sent).extracting(sent -> sent.record().getId()).containsExactly(10L, 11L);
+    }
+
+    @Test
+    void stopSendsThePendingTweetsOnce() {
+        publisher = publisher(3_600_000L);
+        publisher.offer(model(1, 10));
+        publisher.offer(model(2, 20));
+
+        assertThat(publisher.stop(Duration.ofSeconds(1))).isTrue();
+        publisher.shutdown();
+
+        assertThat(producer.sent).extracting(sent -> sent.record().getId()).containsExactlyInAnyOrder(10L, 20L);
+    }
+
+    private LatestTweetPublisher publisher(long conflateMs) {
+        LatestTweetConfigData config = new LatestTweetConfigData();
+        config.setEnabled(true);
+        config.setTopicName("twitter-latest-topic");
+        config.setConflateMs(conflateMs);
+        return new LatestTweetPublisher(config, producer, meterRegistry);
+    }
+
+    private static TwitterAvroModel model(long userId, long id) {
+        return TwitterAvroModel.newBuilder().setUserId(userId).setId(id).setText("tweet " + id).setCreatedAt(null)
+                .build();
+    }
+
+    private record Sent(String topic, Long key, TwitterAvroModel record) {
+    }
+
+    private static final class RecordingProducer implements IKafkaProducer<Long, TwitterAvroModel> {
+
+        private final List<Sent> sent = new ArrayList<>();
+
+        @Override
+        public void send(String topicName, Long key, TwitterAvroModel message, LatencyTrace latencyTrace) {
+            sent.add(new Sent(topicName, key, message));
+        }
+
+        @Override
+        public DrainResult drain(Duration timeout) {
+            return null;
+        }
+
+        @Override
+        public boolean reconfigure(Map<String, Object> configOverrides, Duration maxPause) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.microservices.demo.twitter.to.kafka.service.latest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.latest.impl.HeapLatestTweetStore;
+import com.microservices.demo.twitter.to.kafka.service.latest.impl.SchemaRegistryWriterSchemaSource;
+import com.microservices.demo.twitter.to.kafka.service.loadtest.InProcessSchemaRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatestTweetViewTests {
+
+    private static final String TOPIC = "twitter-latest-topic";
+
+    /**
+     * TwitterAvroModel as it was before tokens and the fields after them were added.
+     */
+    private static final Schema FIRST_SCHEMA = new Schema.Parser().parse("""
+            {"namespace": "com.microservices.demo.kafka.avro.model", "type": "record", "name": "TwitterAvroModel",
+             "fields": [{"name": "userId", "type": "long"}, {"name": "id", "type": "long"},
+                        {"name": "text", "type": ["null", "string"]},
+                        {"name": "createdAt", "type": ["null", "string"]}]}
+            """);
+
+    private static final List<TopicPartition> PARTITIONS = IntStream.range(0, 2)
+            .mapToObj(partition -> new TopicPartition(TOPIC, partition))
+            .toList();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MockConsumer<Long, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+    private final Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+
+    private final InProcessSchemaRegistry schemaRegistry = InProcessSchemaRegistry.start();
+
+    private LatestTweetView view;
+
+    @AfterEach
+    void tearDown() {
+        view.close();
+        schemaRegistry.stop();
+    }
+
+    @Test
+    void restoresTheLatestTweetPerUserFromTheBeginningOfTheTopic() {
+        createTopic();
+        consumer.updateEndOffsets(Map.of(PARTITIONS.get(0), 4L, PARTITIONS.get(1), 2L));
+        consumer.schedulePollTask(() -> {
+            add(0, 1L, tweet(1, 10, "first"));
+            add(0, 2L, tweet(2, 20, "removed later"));
+            add(0, 1L, tweet(1, 11, "second"));
+            add(0, 2L, null);
+            add(1, 3L, tweet(3, 30, "other partition"));
+            add(1, 4L, tweet(4, 40, "last"));
+        });
+        start();
+
+        awaitUntil(view::isRestored);
+        assertThat(view.latestTweet(1)).hasValueSatisfying(tweet -> {
+            assertThat(tweet.getId()).isEqualTo(11);
+            assertThat(tweet.getText()).isEqualTo("second");
+        });
+        assertThat(view.latestTweet(2)).isEmpty();
+        assertThat(view.latestTweet(3)).hasValueSatisfying(tweet -> assertThat(tweet.getText())
+                .isEqualTo("other partition"));
+        assertThat(meterRegistry.get("latest.tweet.view.users").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("latest.tweet.view.restored").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void isRestoredOnlyOnceEveryPartitionReachedItsEndOffsetAndKeepsTailingAfterwards() {
+        createTopic();
+        consumer.updateEndOffsets(Map.of(PARTITIONS.get(0), 2L, PARTITIONS.get(1), 0L));
+        consumer.schedulePollTask(() -> add(0, 1L, tweet(1, 10, "first")));
+        start();
+
+        awaitUntil(() -> view.latestTweet(1).isPresent());
+        assertThat(view.isRestored()).isFalse();
+
+        consumer.schedulePollTask(() -> add(0, 2L, tweet(2, 20, "restored")));
+        awaitUntil(view::isRestored);
+        consumer.schedulePollTask(() -> add(1, 1L, tweet(1, 12, "after the restore")));
+        awaitUntil(() -> view.latestTweet(1).map(tweet -> tweet.getId() == 12).orElse(false));
+    }
+
+    @Test
+    void readsTweetsWrittenWithAnEarlierSchemaWithTheSchemaOfTheirId() {
+        createTopic();
+        consumer.updateEndOffsets(Map.of(PARTITIONS.get(0), 2L, PARTITIONS.get(1), 0L));
+        consumer.schedulePollTask(() -> {
+            add(0, 1L, firstSchemaTweet(1, 10, "written before tokens existed"));
+            add(0, 2L, tweet(2, 20, "current"));
+        });
+        start();
+
+        awaitUntil(view::isRestored);
+        assertThat(view.latestTweet(1)).hasValueSatisfying(tweet -> {
+            assertThat(tweet.getId()).isEqualTo(10);
+            assertThat(tweet.getText()).isEqualTo("written before tokens existed");
+            assertThat(tweet.getTokens()).isNull();
+            assertThat(tweet.getNearDuplicateClusterId()).isNull();
+        });
+        assertThat(view.latestTweet(2)).hasValueSatisfying(tweet -> {
+            assertThat(tweet.getId()).isEqualTo(20);
+            assertThat(tweet.getText()).isEqualTo("current");
+        });
+    }
+
+    @Test
+    void waitsForTheTopicToBeCreated() throws InterruptedException {
+        start();
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertThat(view.isRestored()).isFalse();
+
+        consumer.updateEndOffsets(Map.of(PARTITIONS.get(0), 0L, PARTITIONS.get(1), 0L));
+        createTopic();
+
+        awaitUntil(view::isRestored);
+    }
+
+    private void start() {
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setSchemaRegistryUrl(schemaRegistry.getUrl());
+        view = new LatestTweetView(TOPIC, consumer, new SchemaRegistryWriterSchemaSource(kafkaConfigData),
+                new HeapLatestTweetStore(16), Duration.ofMillis(10), meterRegistry);
+        view.start();
+    }
+
+    private void createTopic() {
+        consumer.updateBeginningOffsets(Map.of(PARTITIONS.get(0), 0L, PARTITIONS.get(1), 0L));
+        Node node = new Node(0, "localhost", 9092);
+        consumer.updatePartitions(TOPIC, PARTITIONS.stream()
+                .map(partition -> new PartitionInfo(TOPIC, partition.partition(), node, new Node[0], new Node[0]))
+                .toList());
+    }
+
+    private void add(int partition, Long userId, byte[] value) {
+        long offset = nextOffsets.merge(PARTITIONS.get(partition), 1L, Long::sum) - 1;
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, partition, offset, userId, value));
+    }
+
+    /**
+     * The Avro binary of the tweet behind the header the schema registry serializer writes.
+     */
+    private byte[] tweet(long userId, long id, String text) {
+        TwitterAvroModel model = TwitterAvroModel.newBuilder().setUserId(userId).setId(id).setText(text)
+                .setCreatedAt(null).build();
+        try {
+            ByteArrayOutputStream out = header(TwitterAvroModel.getClassSchema());
+            BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+            new SpecificDatumWriter<>(TwitterAvroModel.class).write(model, encoder);
+            encoder.flush();
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] firstSchemaTweet(long userId, long id, String text) {
+        GenericRecord record = new GenericData.Record(FIRST_SCHEMA);
+        record.put("userId", userId);
+        record.put("id", id);
+        record.put("text", text);
+        try {
+            ByteArrayOutputStream out = header(FIRST_SCHEMA);
+            BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+            new GenericDatumWriter<GenericRecord>(FIRST_SCHEMA).write(record, encoder);
+            encoder.flush();
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Registers the schema like the serializer does and starts a value with the header carrying its id.
+     */
+    private ByteArrayOutputStream header(Schema schema) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(schemaRegistry.getUrl() + "/subjects/" + TOPIC
+                        + "-value/versions"))
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.createObjectNode()
+                        .put("schema", schema.toString()).toString()))
+                .build();
+        int schemaId;
+        try {
+            String response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString()).body();
+            schemaId = objectMapper.readTree(response).path("id").asInt();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0);
+        out.write(new byte[]{(byte) (schemaId >>> 24), (byte) (schemaId >>> 16), (byte) (schemaId >>> 8),
+                (byte) schemaId});
+        return out;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
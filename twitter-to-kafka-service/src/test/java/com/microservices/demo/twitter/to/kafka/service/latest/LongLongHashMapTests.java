@@ -0,0 +1,55 @@
+package com.microservices.demo.twitter.to.kafka.service.latest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongLongHashMapTests {
+
+    private static final long MISSING = -1L;
+
+    @Test
+    void behavesLikeAHashMapUnderRandomPutsAndRemovesIncludingTheFreeKey() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // Few distinct keys, so runs of colliding slots keep being shifted back by removals
+            long key = random.nextInt(2_000) - 10;
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key, MISSING)).isEqualTo(expected.getOrDefault(key, MISSING));
+                expected.remove(key);
+            } else {
+                long value = random.nextInt(1_000_000);
+                assertThat(map.put(key, value, MISSING)).isEqualTo(expected.getOrDefault(key, MISSING));
+                expected.put(key, value);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = -10; key < 1_990; key++) {
+            assertThat(map.get(key, MISSING)).isEqualTo(expected.getOrDefault(key, MISSING));
+        }
+        Map<Long, Long> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertThat(iterated).isEqualTo(expected);
+    }
+
+    @Test
+    void replacesValuesInPlace() {
+        LongLongHashMap map = new LongLongHashMap(16);
+        for (long key = 0; key < 100; key++) {
+            map.put(key, key, MISSING);
+        }
+
+        map.replaceAll((key, value) -> value * 2);
+
+        for (long key = 0; key < 100; key++) {
+            assertThat(map.get(key, MISSING)).isEqualTo(key * 2);
+        }
+    }
+}
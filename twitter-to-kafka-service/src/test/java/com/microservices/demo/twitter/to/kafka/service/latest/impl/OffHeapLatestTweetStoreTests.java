@@ -0,0 +1,64 @@
+package com.microservices.demo.twitter.to.kafka.service.latest.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapLatestTweetStoreTests {
+
+    @Test
+    void keepsTheLatestTweetPerUserAndForgetsRemovedUsers() {
+        OffHeapLatestTweetStore store = new OffHeapLatestTweetStore(16, 1024);
+        put(store, 1, "first");
+        put(store, 2, "other user");
+        put(store, 1, "second");
+        put(store, 3, "removed");
+        store.remove(3);
+
+        assertThat(text(store, 1)).isEqualTo("second");
+        assertThat(text(store, 2)).isEqualTo("other user");
+        assertThat(store.get(3)).isNull();
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.valueBytes()).isEqualTo(2 * Integer.BYTES + "second".length() + "other user".length());
+    }
+
+    @Test
+    void compactsReplacedTweetsSoMemoryFollowsTheLiveTweets() {
+        int slabBytes = 4096;
+        OffHeapLatestTweetStore store = new OffHeapLatestTweetStore(100, slabBytes);
+        for (int round = 0; round < 1_000; round++) {
+            for (long userId = 0; userId < 100; userId++) {
+                put(store, userId, "tweet " + round + " of user " + userId);
+            }
+        }
+
+        for (long userId = 0; userId < 100; userId++) {
+            assertThat(text(store, userId)).isEqualTo("tweet 999 of user " + userId);
+        }
+        assertThat(store.allocatedBytes()).isLessThanOrEqualTo(2 * store.valueBytes() + 2L * slabBytes);
+    }
+
+    @Test
+    void givesTweetsLargerThanASlabASlabOfTheirOwn() {
+        OffHeapLatestTweetStore store = new OffHeapLatestTweetStore(16, 64);
+        String large = "x".repeat(1_000);
+        put(store, 1, "small");
+        put(store, 2, large);
+        put(store, 3, "small again");
+
+        assertThat(text(store, 2)).isEqualTo(large);
+        assertThat(text(store, 3)).isEqualTo("small again");
+    }
+
+    private static void put(OffHeapLatestTweetStore store, long userId, String text) {
+        // Offset into a larger array, as the view passes the record value without its header
+        byte[] bytes = ("#####" + text).getBytes(StandardCharsets.UTF_8);
+        store.put(userId, bytes, 5, bytes.length - 5);
+    }
+
+    private static String text(OffHeapLatestTweetStore store, long userId) {
+        return new String(store.get(userId), StandardCharsets.UTF_8);
+    }
+}
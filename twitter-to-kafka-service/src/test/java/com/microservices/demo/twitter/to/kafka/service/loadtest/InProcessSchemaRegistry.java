@@ -0,0 +1,103 @@
+package com.microservices.demo.twitter.to.kafka.service.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Schema registry stand-in on a local port, covering the part of the REST API the service touches: the
+ * availability check on the root URL, schema registration per subject and schema lookup by id.
+ * Identical schemas share an id, as in the real registry.
+ */
+public final class InProcessSchemaRegistry {
+
+    private static final Pattern REGISTER_PATH = Pattern.compile("/subjects/([^/]+)/versions");
+
+    private static final Pattern SCHEMA_BY_ID_PATH = Pattern.compile("/schemas/ids/(\\d+)");
+
+    private static final String CONTENT_TYPE = "application/vnd.schemaregistry.v1+json";
+
+    private final HttpServer server;
+
+    private final Map<String, Integer> idsBySchema = new ConcurrentHashMap<>();
+
+    private final Map<Integer, String> schemasById = new ConcurrentHashMap<>();
+
+    private final Set<String> subjects = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    private InProcessSchemaRegistry(HttpServer server) {
+        this.server = server;
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static InProcessSchemaRegistry start() {
+        try {
+            return new InProcessSchemaRegistry(HttpServer.create(new InetSocketAddress("localhost", 0), 0));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the schema registry stand-in", e);
+        }
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public Set<String> getSubjects() {
+        return Set.copyOf(subjects);
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        Matcher register = REGISTER_PATH.matcher(path);
+        Matcher schemaById = SCHEMA_BY_ID_PATH.matcher(path);
+        if ("POST".equals(exchange.getRequestMethod()) && register.matches()) {
+            // the request body is {"schema": "..."} and is stored as is, so lookups can return it unchanged
+            String body = readBody(exchange);
+            int id = idsBySchema.computeIfAbsent(body, schema -> nextId.getAndIncrement());
+            schemasById.putIfAbsent(id, body);
+            subjects.add(register.group(1));
+            respond(exchange, 200, "{\"id\":" + id + "}");
+        } else if ("GET".equals(exchange.getRequestMethod()) && schemaById.matches()
+                && schemasById.containsKey(Integer.parseInt(schemaById.group(1)))) {
+            respond(exchange, 200, schemasById.get(Integer.parseInt(schemaById.group(1))));
+        } else if ("GET".equals(exchange.getRequestMethod()) && "/".equals(path)) {
+            respond(exchange, 200, "{}");
+        } else {
+            respond(exchange, 404, "{\"error_code\":40401,\"message\":\"Not found: " + path + "\"}");
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.microservices.demo.twitter.to.kafka.service.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry-backed stand-in for KafkaAvroSerializer, so the load test needs no Confluent artifacts.
+ * It registers each topic's value schema once with the registry at schema.registry.url and writes the same wire
+ * format: a zero magic byte, the 4-byte schema id, then the Avro binary encoding.
+ */
+public class SchemaRegistryStandInSerializer implements Serializer<SpecificRecord> {
+
+    private static final byte MAGIC_BYTE = 0;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private final Map<String, Integer> schemaIdsBySubject = new ConcurrentHashMap<>();
+
+    private final Map<Schema, SpecificDatumWriter<SpecificRecord>> writers = new ConcurrentHashMap<>();
+
+    private String schemaRegistryUrl;
+
+    private boolean isKey;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        this.schemaRegistryUrl = String.valueOf(configs.get("schema.registry.url"));
+        this.isKey = isKey;
+    }
+
+    @Override
+    public byte[] serialize(String topic, SpecificRecord record) {
+        if (record == null) {
+            return null;
+        }
+        Schema schema = record.getSchema();
+        String subject = topic + (isKey ? "-key" : "-value");
+        int schemaId = schemaIdsBySubject.computeIfAbsent(subject, key -> register(key, schema));
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+            out.write(MAGIC_BYTE);
+            out.write(ByteBuffer.allocate(Integer.BYTES).putInt(schemaId).array());
+            BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+            writers.computeIfAbsent(schema, SpecificDatumWriter::new).write(record, encoder);
+            encoder.flush();
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not serialize record for topic " + topic, e);
+        }
+    }
+
+    private int register(String subject, Schema schema) {
+        try {
+            String body = OBJECT_MAPPER.writeValueAsString(Map.of("schema", schema.toString()));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(schemaRegistryUrl + "/subjects/" + subject + "/versions"))
+                    .header("Content-Type", "application/vnd.schemaregistry.v1+json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new SerializationException("Schema registration for " + subject + " failed: " + response.body());
+            }
+            JsonNode id = OBJECT_MAPPER.readTree(response.body()).get("id");
+            return id.asInt();
+        } catch (IOException e) {
+            throw new SerializationException("Could not register schema for " + subject, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SerializationException("Interrupted while registering schema for " + subject, e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.microservices.demo.twitter.to.kafka.service.loadtest;
+
+import com.microservices.demo.config.EnvelopeConfigData;
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.kafka.producer.config.latency.PipelineLatencyRecorder;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the whole service against an embedded broker and the schema registry stand-in, with the mock runner as the
+ * load generator, and checks sustained throughput and p99 ack latency after a warm-up.
+ * <p>
+ * Add -Denvelope-config.enabled=true to measure envelope mode instead of single records.
+ * <p>
+ * Excluded from the default build; run it with: mvn test -P load-test -pl twitter-to-kafka-service -am
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "twitter-to-kafka-service.enable-mock-tweets=true",
+        "twitter-to-kafka-service.mock-sleep-ms=${load-test.mock-sleep-ms:0}",
+        "kafka-config.replication-factor=1",
+        "kafka-producer-config.value-serializer-class="
+                + "com.microservices.demo.twitter.to.kafka.service.loadtest.SchemaRegistryStandInSerializer",
+        "retry-config.sleep-time-ms=100"
+})
+@EmbeddedKafka(partitions = 3, topics = {"twitter-topic", "twitter-envelope-topic"}, bootstrapServersProperty = "kafka-config.bootstrap-servers")
+class TwitterToKafkaLoadTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TwitterToKafkaLoadTests.class);
+
+    private static final InProcessSchemaRegistry SCHEMA_REGISTRY = InProcessSchemaRegistry.start();
+
+    @Autowired
+    private PipelineLatencyRecorder pipelineLatencyRecorder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private KafkaConfigData kafkaConfigData;
+
+    @Autowired
+    private EnvelopeConfigData envelopeConfigData;
+
+    @Value("${load-test.warmup-ms:5000}")
+    private long warmupMs;
+
+    @Value("${load-test.duration-ms:10000}")
+    private long durationMs;
+
+    @Value("${load-test.min-throughput-per-second:1000}")
+    private double minThroughputPerSecond;
+
+    @Value("${load-test.max-p99-ack-ms:250}")
+    private double maxP99AckMs;
+
+    @DynamicPropertySource
+    static void schemaRegistryUrl(DynamicPropertyRegistry registry) {
+        registry.add("kafka-config.schema-registry-url", SCHEMA_REGISTRY::getUrl);
+    }
+
+    @AfterAll
+    static void stopSchemaRegistry() {
+        SCHEMA_REGISTRY.stop();
+    }
+
+    @Test
+    void sustainsThroughputWithinTheAckLatencyBudget() throws InterruptedException {
+        Timer receiveToAck = pipelineLatencyRecorder.getTimers().get(PipelineLatencyRecorder.RECEIVE_TO_ACK);
+        Collection<Timer> laneReceiveToAck = meterRegistry.find(PipelineLatencyRecorder.LANE_LATENCY)
+                .tag("stage", PipelineLatencyRecorder.RECEIVE_TO_ACK)
+                .timers();
+
+        Thread.sleep(warmupMs);
+        HistogramSnapshot before = receiveToAck.takeSnapshot();
+        Map<Timer, HistogramSnapshot> lanesBefore = laneReceiveToAck.stream()
+                .collect(Collectors.toMap(Function.identity(), Timer::takeSnapshot));
+        long start = System.nanoTime();
+        Thread.sleep(durationMs);
+        HistogramSnapshot after = receiveToAck.takeSnapshot();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long acked = after.count() - before.count();
+        double throughputPerSecond = acked / seconds;
+        double p99AckMs = p99Between(before, after);
+        LOG.info("Load test: {} record(s) acked in {} s, {} records/s, p99 receive-to-ack {} ms",
+                acked, String.format("%.1f", seconds), String.format("%.0f", throughputPerSecond),
+                String.format("%.2f", p99AckMs));
+        lanesBefore.forEach((laneTimer, laneBefore) -> LOG.info("Lane {}: p99 receive-to-ack {} ms",
+                laneTimer.getId().getTag("lane"),
+                String.format("%.2f", p99Between(laneBefore, laneTimer.takeSnapshot()))));
+        Gauge enrichmentHitRatio = meterRegistry.find("user.enrichment.hit.ratio").gauge();
+        if (enrichmentHitRatio != null) {
+            LOG.info("User enrichment: cache hit ratio {}", String.format("%.3f", enrichmentHitRatio.value()));
+        }
+        DistributionSummary envelopeSize = meterRegistry.find("kafka.producer.envelope.size").summary();
+        if (envelopeSize != null) {
+            LOG.info("Envelopes: {} sent, {} tweets on average",
+                    envelopeSize.count(), String.format("%.1f", envelopeSize.mean()));
+        }
+        LOG.info("Reservoir sample: {} of {} record(s) published",
+                String.format("%.0f", sum(meterRegistry.find("tweet.sample.published").counters())),
+                String.format("%.0f", sum(meterRegistry.find("tweet.sample.offered").counters())));
+
+        String producedTopic = Boolean.TRUE.equals(envelopeConfigData.getEnabled())
+                ? envelopeConfigData.getTopicName()
+                : kafkaConfigData.getTopicName();
+        assertThat(SCHEMA_REGISTRY.getSubjects()).contains(producedTopic + "-value");
+        assertThat(throughputPerSecond).as("sustained records/s").isGreaterThanOrEqualTo(minThroughputPerSecond);
+        assertThat(p99AckMs).as("p99 receive-to-ack ms").isLessThanOrEqualTo(maxP99AckMs);
+    }
+
+    private static double sum(Collection<Counter> counters) {
+        return counters.stream().mapToDouble(Counter::count).sum();
+    }
+
+    /**
+     * The published percentiles cover the timer's whole decay window, warm-up included, so the p99 of the measured
+     * interval is read off the difference of the cumulative histogram buckets instead, as the upper bound of the
+     * bucket it falls in.
+     */
+    private static double p99Between(HistogramSnapshot before, HistogramSnapshot after) {
+        CountAtBucket[] bucketsBefore = before.histogramCounts();
+        CountAtBucket[] bucketsAfter = after.histogramCounts();
+        double target = Math.ceil((after.count() - before.count()) * 0.99);
+        for (int i = 0; i < bucketsAfter.length; i++) {
+            if (bucketsAfter[i].count() - bucketsBefore[i].count() >= target) {
+                return bucketsAfter[i].bucket(TimeUnit.MILLISECONDS);
+            }
+        }
+        return after.max(TimeUnit.MILLISECONDS);
+    }
+}
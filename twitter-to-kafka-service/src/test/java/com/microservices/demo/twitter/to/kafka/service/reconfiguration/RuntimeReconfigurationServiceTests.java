@@ -0,0 +1,102 @@
+package com.microservices.demo.twitter.to.kafka.service.reconfiguration;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.config.ReconfigurationConfigData;
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.IKafkaProducer;
+import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
+import com.microservices.demo.twitter.to.kafka.service.sampling.StratifiedReservoirSampler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RuntimeReconfigurationServiceTests {
+
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData = new TwitterToKafkaServiceConfigData();
+
+    private final KafkaProducerConfigData kafkaProducerConfigData = new KafkaProducerConfigData();
+
+    private StreamRunner streamRunner;
+
+    private IKafkaProducer<Long, TwitterAvroModel> kafkaProducer;
+
+    private StratifiedReservoirSampler reservoirSampler;
+
+    private RuntimeReconfigurationService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        twitterToKafkaServiceConfigData.setTwitterKeywords(List.of("Java", "Kafka"));
+        twitterToKafkaServiceConfigData.setMockSleepMs(10_000L);
+        twitterToKafkaServiceConfigData.setStreamShardCount(2);
+        kafkaProducerConfigData.setLingerMs(5);
+        kafkaProducerConfigData.setBatchSize(16384);
+        kafkaProducerConfigData.setBatchSizeBoostFactor(100);
+        kafkaProducerConfigData.setCompressionType("snappy");
+        kafkaProducerConfigData.setAcks("all");
+        ReconfigurationConfigData reconfigurationConfigData = new ReconfigurationConfigData();
+        reconfigurationConfigData.setEnabled(true);
+        reconfigurationConfigData.setMaxPauseMs(500L);
+        streamRunner = mock(StreamRunner.class);
+        kafkaProducer = mock(IKafkaProducer.class);
+        reservoirSampler = mock(StratifiedReservoirSampler.class);
+        service = new RuntimeReconfigurationService(twitterToKafkaServiceConfigData, kafkaProducerConfigData,
+                reconfigurationConfigData, streamRunner, kafkaProducer, reservoirSampler);
+    }
+
+    @Test
+    void streamGetsACompleteConfigurationWithTheNewKeywords() {
+        ReconfigurationResult result = service.apply(new RuntimeSettings(List.of("Spring"), 100L, null, null, null, null));
+
+        ArgumentCaptor<TwitterToKafkaServiceConfigData> newConfig = ArgumentCaptor.forClass(TwitterToKafkaServiceConfigData.class);
+        verify(streamRunner).reconfigure(newConfig.capture());
+        assertThat(newConfig.getValue().getTwitterKeywords()).containsExactly("Spring");
+        assertThat(newConfig.getValue().getMockSleepMs()).isEqualTo(100L);
+        assertThat(newConfig.getValue().getStreamShardCount()).isEqualTo(2);
+        assertThat(twitterToKafkaServiceConfigData.getTwitterKeywords()).containsExactly("Spring");
+        verify(reservoirSampler).updateKeywords(List.of("Spring"));
+        assertThat(result.producerReconfigured()).isFalse();
+        verify(kafkaProducer, never()).reconfigure(anyMap(), any());
+    }
+
+    @Test
+    void producerOverridesUseTheStartupBatchSizeBoost() {
+        when(kafkaProducer.reconfigure(anyMap(), any())).thenReturn(true);
+
+        ReconfigurationResult result = service.apply(new RuntimeSettings(null, null, 20, 1000, null, "1"));
+
+        verify(kafkaProducer).reconfigure(Map.of("linger.ms", 20, "batch.size", 100_000, "acks", "1"),
+                Duration.ofMillis(500));
+        verify(streamRunner, never()).reconfigure(any());
+        verify(reservoirSampler, never()).updateKeywords(any());
+        assertThat(result.producerReconfigured()).isTrue();
+        assertThat(result.settings().lingerMs()).isEqualTo(20);
+        assertThat(result.settings().batchSize()).isEqualTo(1000);
+        assertThat(result.settings().acks()).isEqualTo("1");
+    }
+
+    @Test
+    void abandonedProducerSwapKeepsTheCurrentProducerSettings() {
+        when(kafkaProducer.reconfigure(anyMap(), any())).thenReturn(false);
+
+        ReconfigurationResult result = service.apply(new RuntimeSettings(null, null, 20, null, "lz4", null));
+
+        assertThat(result.producerReconfigured()).isFalse();
+        assertThat(result.settings().lingerMs()).isEqualTo(5);
+        assertThat(result.settings().compressionType()).isEqualTo("snappy");
+    }
+}
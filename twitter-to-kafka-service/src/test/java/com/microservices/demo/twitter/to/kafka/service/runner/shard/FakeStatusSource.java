@@ -0,0 +1,83 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process status source for tests. Raw tweet JSON is pushed per shard; a shard's current connection
+ * can be dropped to exercise reconnects.
+ */
+public class FakeStatusSource implements IStatusSource {
+
+    private final Map<Integer, FakeConnection> connections = new ConcurrentHashMap<>();
+
+    private final List<List<String>> connectedKeywords = new CopyOnWriteArrayList<>();
+
+    private final Map<Integer, Integer> failuresBeforeConnect = new ConcurrentHashMap<>();
+
+    @Override
+    public IStatusConnection connect(int shard, List<String> keywords) throws Exception {
+        if (failuresBeforeConnect.merge(shard, -1, Integer::sum) >= 0) {
+            throw new IllegalStateException("Connection refused for shard " + shard);
+        }
+        FakeConnection connection = new FakeConnection();
+        connectedKeywords.add(keywords);
+        connections.put(shard, connection);
+        return connection;
+    }
+
+    public void refuseConnections(int shard, int times) {
+        failuresBeforeConnect.put(shard, times);
+    }
+
+    public void push(int shard, String status) {
+        connections.get(shard).queue.add(status);
+    }
+
+    public void drop(int shard) {
+        connections.get(shard).dropped = true;
+    }
+
+    public boolean isConnected(int shard) {
+        FakeConnection connection = connections.get(shard);
+        return connection != null && !connection.closed && !connection.dropped;
+    }
+
+    public List<List<String>> getConnectedKeywords() {
+        return new ArrayList<>(connectedKeywords);
+    }
+
+    public static String tweetJson(long id, String text) {
+        return "{\"id\": " + id + ", \"text\": \"" + text + "\", "
+                + "\"created_at\": \"Sun Oct 18 10:00:00 +0000 2026\", \"user\": {\"id\": " + id + "}}";
+    }
+
+    private static final class FakeConnection implements IStatusConnection {
+
+        private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+
+        private volatile boolean dropped;
+
+        private volatile boolean closed;
+
+        @Override
+        public String poll(long timeoutMs) throws Exception {
+            String status = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+            if (status == null && dropped) {
+                throw new IllegalStateException("Connection dropped");
+            }
+            return status;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
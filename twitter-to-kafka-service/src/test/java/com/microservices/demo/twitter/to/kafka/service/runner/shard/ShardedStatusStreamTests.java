@@ -0,0 +1,155 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.shard;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedStatusStreamTests {
+
+    private final FakeStatusSource statusSource = new FakeStatusSource();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    private final Set<String> sinkThreads = ConcurrentHashMap.newKeySet();
+
+    private ShardedStatusStream stream;
+
+    @AfterEach
+    void tearDown() {
+        if (stream != null) {
+            stream.stop(Duration.ofSeconds(1));
+        }
+    }
+
+    @Test
+    void keywordsAreDealtAcrossShards() {
+        assertThat(KeywordShards.split(List.of("java", "kafka", "spring", "avro", "elastic"), 2))
+                .containsExactly(List.of("java", "spring", "elastic"), List.of("kafka", "avro"));
+        assertThat(KeywordShards.split(List.of("java"), 4)).containsExactly(List.of("java"));
+    }
+
+    @Test
+    void everyShardFeedsTheSharedSinkFromItsOwnThread() {
+        start(List.of(List.of("java"), List.of("kafka")));
+        awaitUntil(() -> statusSource.isConnected(0) && statusSource.isConnected(1));
+
+        statusSource.push(0, FakeStatusSource.tweetJson(1, "java"));
+        statusSource.push(1, FakeStatusSource.tweetJson(2, "kafka"));
+        awaitUntil(() -> received.size() == 2);
+
+        assertThat(received).containsExactlyInAnyOrder(FakeStatusSource.tweetJson(1, "java"),
+                FakeStatusSource.tweetJson(2, "kafka"));
+        assertThat(sinkThreads).containsExactlyInAnyOrder("twitter-stream-shard-0", "twitter-stream-shard-1");
+        assertThat(statusSource.getConnectedKeywords()).containsExactlyInAnyOrder(List.of("java"), List.of("kafka"));
+    }
+
+    @Test
+    void droppedShardReconnectsWithoutStallingTheOthers() {
+        start(List.of(List.of("java"), List.of("kafka")));
+        awaitUntil(() -> statusSource.isConnected(0) && statusSource.isConnected(1));
+
+        statusSource.drop(0);
+        statusSource.push(1, FakeStatusSource.tweetJson(2, "kafka"));
+        awaitUntil(() -> received.size() == 1);
+        awaitUntil(() -> statusSource.isConnected(0));
+        statusSource.push(0, FakeStatusSource.tweetJson(1, "java"));
+        awaitUntil(() -> received.size() == 2);
+
+        assertThat(counter("twitter.stream.connects", "0")).isEqualTo(2);
+        assertThat(counter("twitter.stream.disconnects", "0")).isEqualTo(1);
+        assertThat(counter("twitter.stream.disconnects", "1")).isZero();
+        assertThat(counter("twitter.stream.statuses", "0")).isEqualTo(1);
+    }
+
+    @Test
+    void refusedConnectionsBackOffExponentially() {
+        statusSource.refuseConnections(0, 3);
+        start(List.of(List.of("java")));
+
+        awaitUntil(() -> statusSource.isConnected(0));
+
+        assertThat(counter("twitter.stream.disconnects", "0")).isEqualTo(3);
+        assertThat(meterRegistry.get("twitter.stream.backoff").tag("shard", "0").gauge().value()).isEqualTo(80);
+    }
+
+    @Test
+    void stopHandsBufferedStatusesToTheSink() {
+        start(List.of(List.of("java")));
+        awaitUntil(() -> statusSource.isConnected(0));
+        for (int i = 0; i < 100; i++) {
+            statusSource.push(0, FakeStatusSource.tweetJson(i, "java"));
+        }
+
+        assertThat(stream.stop(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(received).hasSize(100);
+        assertThat(statusSource.isConnected(0)).isFalse();
+    }
+
+    @Test
+    void replacingKeywordsReconnectsInPlaceWithoutLosingBufferedStatuses() {
+        start(List.of(List.of("java"), List.of("kafka")));
+        awaitUntil(() -> statusSource.isConnected(0) && statusSource.isConnected(1));
+        for (int i = 0; i < 100; i++) {
+            statusSource.push(0, FakeStatusSource.tweetJson(i, "java"));
+        }
+
+        stream.replaceKeywords(List.of("spring", "avro", "elastic"));
+        awaitUntil(() -> statusSource.getConnectedKeywords().size() == 4);
+        awaitUntil(() -> received.size() == 100);
+        statusSource.push(0, FakeStatusSource.tweetJson(100, "spring"));
+        awaitUntil(() -> received.size() == 101);
+
+        assertThat(statusSource.getConnectedKeywords()).containsExactlyInAnyOrder(List.of("java"), List.of("kafka"),
+                List.of("spring", "elastic"), List.of("avro"));
+        assertThat(counter("twitter.stream.disconnects", "0")).isZero();
+    }
+
+    @Test
+    void shardsLeftWithoutKeywordsDisconnect() {
+        start(List.of(List.of("java"), List.of("kafka")));
+        awaitUntil(() -> statusSource.isConnected(0) && statusSource.isConnected(1));
+
+        stream.replaceKeywords(List.of("spring"));
+        awaitUntil(() -> !statusSource.isConnected(1));
+
+        assertThat(statusSource.isConnected(0)).isTrue();
+        assertThat(meterRegistry.get("twitter.stream.connected").tag("shard", "1").gauge().value()).isZero();
+    }
+
+    private void start(List<List<String>> keywordShards) {
+        TwitterToKafkaServiceConfigData configData = new TwitterToKafkaServiceConfigData();
+        configData.setStreamReconnectInitialBackoffMs(10L);
+        configData.setStreamReconnectMaxBackoffMs(80L);
+        configData.setStreamReconnectBackoffMultiplier(2.0);
+        stream = new ShardedStatusStream(statusSource, keywordShards, status -> {
+            sinkThreads.add(Thread.currentThread().getName());
+            received.add(status);
+        }, configData, meterRegistry);
+        stream.start();
+    }
+
+    private double counter(String name, String shard) {
+        return meterRegistry.get(name).tag("shard", shard).counter().count();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition not met within 5 s").isNegative();
+            Thread.onSpinWait();
+        }
+    }
+}
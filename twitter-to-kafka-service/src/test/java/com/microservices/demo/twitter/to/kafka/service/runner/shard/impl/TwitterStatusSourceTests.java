@@ -0,0 +1,96 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.shard.impl;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import com.microservices.demo.twitter.to.kafka.service.runner.shard.IStatusConnection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import twitter4j.TwitterStream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class TwitterStatusSourceTests {
+
+    private final List<TwitterStream> streams = new ArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TwitterStatusSource source = new TwitterStatusSource(config(), meterRegistry, () -> {
+        TwitterStream twitterStream = mock(TwitterStream.class);
+        streams.add(twitterStream);
+        return twitterStream;
+    });
+
+    @Test
+    void shutsDownEveryStreamStillOpen() {
+        source.connect(0, List.of("Java"));
+        IStatusConnection closed = source.connect(1, List.of("Kafka"));
+        source.connect(2, List.of("Spring"));
+        closed.close();
+
+        source.shutdown();
+
+        verify(streams.get(0)).shutdown();
+        verify(streams.get(1)).cleanUp();
+        verify(streams.get(1), never()).shutdown();
+        verify(streams.get(2)).shutdown();
+    }
+
+    @Test
+    void shutsDownTheDispatcherWhenEveryConnectionWasClosed() {
+        source.connect(0, List.of("Java")).close();
+
+        source.shutdown();
+
+        verify(streams.get(0)).shutdown();
+    }
+
+    @Test
+    void reportsADisconnectOnlyUntilTheStreamReconnects() throws Exception {
+        TwitterStatusSource.TwitterStatusConnection connection =
+                (TwitterStatusSource.TwitterStatusConnection) source.connect(0, List.of("Java"));
+
+        connection.onDisconnect();
+        assertThatThrownBy(() -> connection.poll(1)).isInstanceOf(TwitterToKafkaServiceException.class);
+
+        connection.onConnect();
+        assertThat(connection.poll(1)).isNull();
+        connection.onMessage("{}");
+        assertThat(connection.poll(1)).isEqualTo("{}");
+    }
+
+    @Test
+    void aFullShardDropsAndCountsMessagesWithoutHoldingUpTheOthers() throws Exception {
+        TwitterStatusSource.TwitterStatusConnection full =
+                (TwitterStatusSource.TwitterStatusConnection) source.connect(0, List.of("Java"));
+        TwitterStatusSource.TwitterStatusConnection other =
+                (TwitterStatusSource.TwitterStatusConnection) source.connect(1, List.of("Kafka"));
+        for (int i = 0; i < 10; i++) {
+            full.onMessage("{\"id\": " + i + "}");
+        }
+
+        long startNanos = System.nanoTime();
+        full.onMessage("{\"id\": 10}");
+        other.onMessage("{\"id\": 11}");
+
+        assertThat(System.nanoTime() - startNanos).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(other.poll(1)).isEqualTo("{\"id\": 11}");
+        assertThat(meterRegistry.get("twitter.stream.overflow").tag("shard", "0").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("twitter.stream.overflow").tag("shard", "1").counter().count()).isZero();
+    }
+
+    private static TwitterToKafkaServiceConfigData config() {
+        TwitterToKafkaServiceConfigData config = new TwitterToKafkaServiceConfigData();
+        config.setStreamShardQueueCapacity(10);
+        config.setStreamShardOfferTimeoutMs(20L);
+        return config;
+    }
+}
@@ -0,0 +1,210 @@
+package com.microservices.demo.twitter.to.kafka.service.sampling;
+
+import com.microservices.demo.config.ReservoirSampleConfigData;
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.latency.LatencyTrace;
+import com.microservices.demo.kafka.producer.config.service.DrainResult;
+import com.microservices.demo.kafka.producer.config.service.IKafkaProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class StratifiedReservoirSamplerTests {
+
+    private final RecordingProducer producer = new RecordingProducer();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StratifiedReservoirSampler sampler;
+
+    @AfterEach
+    void tearDown() {
+        sampler.shutdown();
+    }
+
+    @Test
+    void keepsAtMostTheSampleSizePerStratumWeightedByTheRecordsOffered() {
+        sampler = sampler(10, true);
+        for (int i = 0; i < 1000; i++) {
+            sampler.offer(model(i, "learning kafka"));
+        }
+        for (int i = 0; i < 4; i++) {
+            sampler.offer(model(i, "java records"));
+        }
+        for (int i = 0; i < 50; i++) {
+            sampler.offer(model(i, "lorem ipsum"));
+        }
+
+        sampler.publish();
+
+        assertThat(producer.sent).hasSize(10 + 4 + 10).allSatisfy(sent ->
+                assertThat(sent.topic()).isEqualTo("twitter-sample-topic"));
+        assertThat(weights("kafka")).hasSize(10).containsOnly(100.0);
+        assertThat(weights("java")).hasSize(4).containsOnly(1.0);
+        assertThat(weights("lorem")).hasSize(10).containsOnly(5.0);
+        assertThat(meterRegistry.get("tweet.sample.offered").tag("stratum", "Kafka").counter().count())
+                .isEqualTo(1000);
+        assertThat(meterRegistry.get("tweet.sample.published").tag("stratum", StratifiedReservoirSampler.UNMATCHED_STRATUM)
+                .counter().count()).isEqualTo(10);
+    }
+
+    @Test
+    void everyRecordIsEquallyLikelyToBeSampled() {
+        sampler = sampler(10, false);
+        int[] picked = new int[100];
+        int windows = 5000;
+        for (int window = 0; window < windows; window++) {
+            for (int i = 0; i < picked.length; i++) {
+                sampler.offer(model(i, "kafka"));
+            }
+            producer.sent.clear();
+            sampler.publish();
+            producer.sent.forEach(sent -> picked[(int) sent.record().getId()]++);
+        }
+
+        for (int count : picked) {
+            assertThat((double) count / windows).isCloseTo(0.1, within(0.02));
+        }
+    }
+
+    @Test
+    void prefersPrecomputedTokensAndDropsUnmatchedRecordsWhenConfigured() {
+        sampler = sampler(10, false);
+        TwitterAvroModel tokenized = model(1, "see https://kafka.apache.org");
+        tokenized.setTokens(List.of("see"));
+
+        sampler.offer(tokenized);
+        sampler.offer(model(2, "Elasticsearch mappings"));
+        sampler.publish();
+
+        assertThat(producer.sent).extracting(sent -> sent.record().getId()).containsExactly(2L);
+    }
+
+    @Test
+    void samplesCopiesOfReusedRecords() {
+        sampler = sampler(10, false);
+        TwitterAvroModel reused = model(1, "kafka");
+
+        sampler.offer(reused);
+        reused.setId(2L);
+        reused.setText("java");
+        sampler.offer(reused);
+        sampler.publish();
+
+        assertThat(producer.sent).extracting(sent -> sent.record().getText()).containsExactly("java", "kafka");
+    }
+
+    @Test
+    void strataFollowTheStreamKeywordsWhenTheyChange() {
+        sampler = sampler(10, false);
+        sampler.offer(model(1, "kafka before"));
+        sampler.offer(model(2, "java removed"));
+
+        sampler.updateKeywords(List.of("Kafka", "Spring"));
+        sampler.offer(model(3, "kafka after"));
+        sampler.offer(model(4, "spring added"));
+        sampler.offer(model(5, "java unmatched now"));
+        sampler.publish();
+
+        assertThat(producer.sent).extracting(sent -> sent.record().getId()).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        assertThat(meterRegistry.get("tweet.sample.offered").tag("stratum", "Kafka").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("tweet.sample.offered").tag("stratum", "Spring").counter().count()).isEqualTo(1);
+
+        producer.sent.clear();
+        sampler.offer(model(6, "java"));
+        sampler.publish();
+
+        assertThat(producer.sent).isEmpty();
+        assertThat(meterRegistry.get("tweet.sample.offered").tag("stratum", "Java").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void configuredStrataIgnoreKeywordChanges() {
+        ReservoirSampleConfigData config = sampleConfig(10, false);
+        config.setStrata(List.of("Java"));
+        TwitterToKafkaServiceConfigData twitterConfig = new TwitterToKafkaServiceConfigData();
+        twitterConfig.setTwitterKeywords(List.of("Java", "Kafka"));
+        sampler = new StratifiedReservoirSampler(config, twitterConfig, producer, meterRegistry);
+
+        sampler.updateKeywords(List.of("Kafka"));
+        sampler.offer(model(1, "java"));
+        sampler.offer(model(2, "kafka"));
+        sampler.publish();
+
+        assertThat(producer.sent).extracting(sent -> sent.record().getId()).containsExactly(1L);
+    }
+
+    @Test
+    void stopSendsTheSamplesOfTheCurrentWindowOnce() {
+        sampler = sampler(10, false);
+        sampler.offer(model(1, "kafka"));
+        sampler.offer(model(2, "java"));
+
+        assertThat(sampler.stop(Duration.ofSeconds(1))).isTrue();
+        sampler.shutdown();
+
+        assertThat(producer.sent).extracting(sent -> sent.record().getId()).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    private List<Double> weights(String keyword) {
+        return producer.sent.stream()
+                .filter(sent -> sent.record().getText().contains(keyword))
+                .map(sent -> sent.record().getSampleWeight())
+                .toList();
+    }
+
+    private StratifiedReservoirSampler sampler(int samplesPerStratum, boolean sampleUnmatched) {
+        TwitterToKafkaServiceConfigData twitterConfig = new TwitterToKafkaServiceConfigData();
+        twitterConfig.setTwitterKeywords(List.of("Java", "Microservices", "Kafka", "Elasticsearch"));
+        return new StratifiedReservoirSampler(sampleConfig(samplesPerStratum, sampleUnmatched), twitterConfig, producer,
+                meterRegistry);
+    }
+
+    private static ReservoirSampleConfigData sampleConfig(int samplesPerStratum, boolean sampleUnmatched) {
+        ReservoirSampleConfigData config = new ReservoirSampleConfigData();
+        config.setEnabled(true);
+        config.setTopicName("twitter-sample-topic");
+        // Published explicitly by the tests
+        config.setWindowMs(3_600_000L);
+        config.setSamplesPerStratum(samplesPerStratum);
+        config.setStrata(List.of());
+        config.setSampleUnmatched(sampleUnmatched);
+        return config;
+    }
+
+    private static TwitterAvroModel model(long id, String text) {
+        return TwitterAvroModel.newBuilder().setId(id).setUserId(id).setText(text).setCreatedAt(null).build();
+    }
+
+    private record Sent(String topic, TwitterAvroModel record) {
+    }
+
+    private static final class RecordingProducer implements IKafkaProducer<Long, TwitterAvroModel> {
+
+        private final List<Sent> sent = new ArrayList<>();
+
+        @Override
+        public void send(String topicName, Long key, TwitterAvroModel message, LatencyTrace latencyTrace) {
+            sent.add(new Sent(topicName, message));
+        }
+
+        @Override
+        public DrainResult drain(Duration timeout) {
+            return null;
+        }
+
+        @Override
+        public boolean reconfigure(Map<String, Object> configOverrides, Duration maxPause) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.microservices.demo.twitter.to.kafka.service.shutdown;
+
+import com.microservices.demo.config.GracefulShutdownConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.DrainResult;
+import com.microservices.demo.kafka.producer.config.service.IKafkaProducer;
+import com.microservices.demo.twitter.to.kafka.service.latest.LatestTweetPublisher;
+import com.microservices.demo.twitter.to.kafka.service.listener.TwitterKafkaStatusListener;
+import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
+import com.microservices.demo.twitter.to.kafka.service.sampling.StratifiedReservoirSampler;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GracefulShutdownCoordinatorTests {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushesTheSamplerAndLatestTweetsBeforeDrainingTheProducer() {
+        GracefulShutdownConfigData config = new GracefulShutdownConfigData();
+        config.setEnabled(true);
+        config.setDeadlineMs(1_000L);
+        StreamRunner streamRunner = mock(StreamRunner.class);
+        TwitterKafkaStatusListener listener = mock(TwitterKafkaStatusListener.class);
+        StratifiedReservoirSampler sampler = mock(StratifiedReservoirSampler.class);
+        LatestTweetPublisher latestTweetPublisher = mock(LatestTweetPublisher.class);
+        IKafkaProducer<Long, TwitterAvroModel> kafkaProducer = mock(IKafkaProducer.class);
+        when(streamRunner.stop(any())).thenReturn(true);
+        when(listener.close(any())).thenReturn(true);
+        when(sampler.stop(any())).thenReturn(true);
+        when(latestTweetPublisher.stop(any())).thenReturn(true);
+        when(kafkaProducer.drain(any())).thenReturn(new DrainResult(0L, 0L));
+
+        new GracefulShutdownCoordinator(config, streamRunner, listener, sampler, latestTweetPublisher, kafkaProducer)
+                .stop();
+
+        InOrder order = inOrder(streamRunner, listener, sampler, latestTweetPublisher, kafkaProducer);
+        order.verify(streamRunner).stop(any());
+        order.verify(listener).close(any());
+        order.verify(sampler).stop(any());
+        order.verify(latestTweetPublisher).stop(any());
+        order.verify(kafkaProducer).drain(any());
+    }
+}
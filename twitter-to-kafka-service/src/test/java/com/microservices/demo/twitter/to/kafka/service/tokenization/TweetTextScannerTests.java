@@ -0,0 +1,100 @@
+package com.microservices.demo.twitter.to.kafka.service.tokenization;
+
+import com.microservices.demo.config.TokenizationConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TweetTextScannerTests {
+
+    private final TweetTextScanner scanner = new TweetTextScanner();
+
+    private final List<String> tokens = new ArrayList<>();
+
+    private final List<String> hashtags = new ArrayList<>();
+
+    @Test
+    void skipsUrlsAndMentions() {
+        scanner.scan("@jdk_dev see https://example.com/java and www.kafka.apache.org, mail me@example.com",
+                tokens, hashtags, 64);
+
+        assertThat(tokens).containsExactly("see", "and", "mail", "me", "example", "com");
+        assertThat(hashtags).isEmpty();
+    }
+
+    @Test
+    void extractsHashtagsAndTokenizesTheirWords() {
+        scanner.scan("Shipping #Kafka_Streams with #java21, not issue#7", tokens, hashtags, 64);
+
+        assertThat(hashtags).containsExactly("kafka_streams", "java21");
+        assertThat(tokens).containsExactly("shipping", "kafka", "streams", "with", "java21", "not", "issue",
+                "7");
+    }
+
+    @Test
+    void lowerCasesAndDeduplicates() {
+        scanner.scan("Kafka KAFKA kafka #Kafka #KAFKA", tokens, hashtags, 64);
+
+        assertThat(tokens).containsExactly("kafka");
+        assertThat(hashtags).containsExactly("kafka");
+    }
+
+    @Test
+    void normalizesCompatibilityForms() {
+        scanner.scan("Ｋａｆｋａ ① café", tokens, hashtags, 64);
+
+        assertThat(tokens).containsExactly("kafka", "1", "café");
+    }
+
+    @Test
+    void emojiSeparateTerms() {
+        scanner.scan("java🚀kafka 🔥", tokens, hashtags, 64);
+
+        assertThat(tokens).containsExactly("java", "kafka");
+    }
+
+    @Test
+    void stopsAtMaxTokens() {
+        scanner.scan("one two three #a #b #c", tokens, hashtags, 2);
+
+        assertThat(tokens).containsExactly("one", "two");
+        assertThat(hashtags).containsExactly("a", "b");
+    }
+
+    @Test
+    void growsBuffersForLongText() {
+        String longText = "kafka ".repeat(100) + "java";
+
+        scanner.scan(longText, tokens, hashtags, 64);
+
+        assertThat(tokens).containsExactly("kafka", "java");
+    }
+
+    @Test
+    void stageReusesListsAndClearsThemForNullText() {
+        TokenizationConfigData tokenizationConfigData = new TokenizationConfigData();
+        tokenizationConfigData.setEnabled(true);
+        tokenizationConfigData.setMaxTokens(64);
+        TweetTokenizationStage stage = new TweetTokenizationStage(tokenizationConfigData);
+        TwitterAvroModel model = TwitterAvroModel.newBuilder().setId(1L).setUserId(1L).setText("#java rocks")
+                .setCreatedAt(null).build();
+
+        stage.tokenize(model);
+        List<String> firstTokens = model.getTokens();
+        model.setText("kafka");
+        stage.tokenize(model);
+
+        assertThat(model.getTokens()).isSameAs(firstTokens).containsExactly("kafka");
+        assertThat(model.getHashtags()).isEmpty();
+
+        model.setText(null);
+        stage.tokenize(model);
+
+        assertThat(model.getTokens()).isNull();
+        assertThat(model.getHashtags()).isNull();
+    }
+}
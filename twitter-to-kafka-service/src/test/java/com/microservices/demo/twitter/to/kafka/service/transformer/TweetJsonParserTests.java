@@ -0,0 +1,96 @@
+package com.microservices.demo.twitter.to.kafka.service.transformer;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import org.junit.jupiter.api.Test;
+import twitter4j.Status;
+import twitter4j.TwitterObjectFactory;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TweetJsonParserTests {
+
+    private static final String TWEET = """
+            {
+              "created_at": "Sun Oct 18 10:15:30 +0000 2026",
+              "id": 1847000000000000001,
+              "id_str": "1847000000000000001",
+              "text": "RT \\"Kafka\\" \\u00fcber alles \\ud83d\\ude80\\nline\\\\two \\/ #java",
+              "entities": {"hashtags": [{"text": "java", "indices": [60, 65]}], "urls": []},
+              "user": {"name": "x {not} [json]", "id": 987654321, "followers_count": 12, "verified": false},
+              "retweeted_status": {"id": 1, "text": "original", "user": {"id": 2}},
+              "coordinates": null,
+              "favorite_count": -3.5e2
+            }""";
+
+    private final TweetJsonParser parser = new TweetJsonParser();
+
+    private final TwitterStatusToAvroTransformer statusTransformer = new TwitterStatusToAvroTransformer();
+
+    @Test
+    void extractsTheSameModelAsTheStatusPath() throws Exception {
+        Status status = TwitterObjectFactory.createStatus(TWEET);
+        TwitterAvroModel model = new TwitterAvroModel();
+
+        long createdAtMs = parser.parse(TWEET, model);
+
+        assertThat(model).isEqualTo(statusTransformer.getTwitterAvroModelFromStatus(status));
+        assertThat(createdAtMs).isEqualTo(status.getCreatedAt().getTime());
+        assertThat(model.getText()).isEqualTo("RT \"Kafka\" über alles 🚀\nline\\two / #java");
+    }
+
+    @Test
+    void readsCreatedAtLikeTwitter4j() throws Exception {
+        SplittableRandom random = new SplittableRandom(7);
+        DateTimeFormatter offsetFormat = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.ENGLISH);
+        for (int i = 0; i < 1_000; i++) {
+            long epochSecond = random.nextLong(-2_000_000_000L, 4_000_000_000L);
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds(random.nextInt(-12, 15) * 3_600 + random.nextInt(2) * 1_800);
+            String createdAt = Instant.ofEpochSecond(epochSecond).atOffset(offset).format(offsetFormat);
+            String json = "{\"id\": 1, \"user\": {\"id\": 2}, \"created_at\": \"" + createdAt + "\"}";
+
+            assertThat(parser.parse(json, new TwitterAvroModel()))
+                    .as(createdAt)
+                    .isEqualTo(epochSecond * 1_000L)
+                    .isEqualTo(TwitterObjectFactory.createStatus(json).getCreatedAt().getTime());
+        }
+    }
+
+    @Test
+    void acceptsQuotedIdsAndZoneNames() {
+        TwitterAvroModel model = new TwitterAvroModel();
+
+        long createdAtMs = parser.parse("{\"created_at\":\"Thu Jan 01 00:00:01 UTC 1970\",\"id\":7,"
+                + "\"text\":null,\"user\":{\"id\":\"42\"}}", model);
+
+        assertThat(createdAtMs).isEqualTo(1_000L);
+        assertThat(model.getUserId()).isEqualTo(42L);
+        assertThat(model.getText()).isNull();
+    }
+
+    @Test
+    void streamNoticesAreNotTweets() {
+        assertThat(parser.parse("{\"delete\":{\"status\":{\"id\":1,\"user_id\":3}}}", new TwitterAvroModel()))
+                .isEqualTo(TweetJsonParser.NOT_A_TWEET);
+        assertThat(parser.parse("{\"limit\":{\"track\":1234}}", new TwitterAvroModel()))
+                .isEqualTo(TweetJsonParser.NOT_A_TWEET);
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThatThrownBy(() -> parser.parse("{\"id\": 1, \"text\": \"unterminated", new TwitterAvroModel()))
+                .isInstanceOf(TwitterToKafkaServiceException.class);
+        assertThatThrownBy(() -> parser.parse("{\"id\": 1 \"user\": {}}", new TwitterAvroModel()))
+                .isInstanceOf(TwitterToKafkaServiceException.class);
+        assertThatThrownBy(() -> parser.parse("{\"id\":1,\"user\":{\"id\":2},\"created_at\":\"2026-10-18T10:00:00Z\"}",
+                new TwitterAvroModel()))
+                .isInstanceOf(TwitterToKafkaServiceException.class);
+    }
+}
@@ -0,0 +1,53 @@
+package com.microservices.demo.twitter.to.kafka.service.transformer;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.runner.shard.FakeStatusSource;
+import org.junit.jupiter.api.Test;
+import twitter4j.Status;
+import twitter4j.TwitterException;
+import twitter4j.TwitterObjectFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwitterStatusToAvroTransformerTests {
+
+    private final TwitterStatusToAvroTransformer transformer = new TwitterStatusToAvroTransformer();
+
+    @Test
+    void reusableModelMatchesBuiltModel() {
+        Status status = status(42L, "kafka streams");
+
+        assertThat(transformer.getReusableTwitterAvroModelFromStatus(status))
+                .isEqualTo(transformer.getTwitterAvroModelFromStatus(status));
+    }
+
+    @Test
+    void reusableModelIsOverwrittenPerThread() {
+        TwitterAvroModel first = transformer.getReusableTwitterAvroModelFromStatus(status(1L, "java"));
+        TwitterAvroModel second = transformer.getReusableTwitterAvroModelFromStatus(status(2L, "kafka"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getId()).isEqualTo(2L);
+        assertThat(second.getText()).isEqualTo("kafka");
+    }
+
+    @Test
+    void threadsDoNotShareReusableModels() {
+        TwitterAvroModel here = transformer.getReusableTwitterAvroModelFromStatus(status(1L, "java"));
+        TwitterAvroModel elsewhere = CompletableFuture.supplyAsync(() ->
+                transformer.getReusableTwitterAvroModelFromStatus(status(2L, "kafka"))).join();
+
+        assertThat(elsewhere).isNotSameAs(here);
+        assertThat(here.getId()).isEqualTo(1L);
+    }
+
+    static Status status(long id, String text) {
+        try {
+            return TwitterObjectFactory.createStatus(FakeStatusSource.tweetJson(id, text));
+        } catch (TwitterException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
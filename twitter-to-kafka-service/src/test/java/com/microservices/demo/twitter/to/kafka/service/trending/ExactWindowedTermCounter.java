@@ -0,0 +1,73 @@
+package com.microservices.demo.twitter.to.kafka.service.trending;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exact baseline for {@link HeavyHitters}: one hash map per sub-window bucket plus a running total map.
+ * Memory grows with the vocabulary.
+ */
+public class ExactWindowedTermCounter {
+
+    private final long bucketDurationMs;
+
+    private final int bucketCount;
+
+    private final Deque<Map<String, Long>> buckets = new ArrayDeque<>();
+
+    private final Map<String, Long> totals = new HashMap<>();
+
+    private long currentBucketStartMs = Long.MIN_VALUE;
+
+    public ExactWindowedTermCounter(long windowMs, int bucketCount) {
+        this.bucketDurationMs = windowMs / bucketCount;
+        this.bucketCount = bucketCount;
+    }
+
+    public void add(String term, long nowMs) {
+        advance(nowMs);
+        buckets.peekLast().merge(term, 1L, Long::sum);
+        totals.merge(term, 1L, Long::sum);
+    }
+
+    public long count(String term) {
+        return totals.getOrDefault(term, 0L);
+    }
+
+    public List<TrendingTerm> top(int k, long nowMs) {
+        advance(nowMs);
+        return totals.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                .limit(k)
+                .map(e -> new TrendingTerm(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    public int distinctTerms() {
+        return totals.size();
+    }
+
+    private void advance(long nowMs) {
+        long bucketStartMs = nowMs - Math.floorMod(nowMs, bucketDurationMs);
+        if (currentBucketStartMs == Long.MIN_VALUE) {
+            currentBucketStartMs = bucketStartMs;
+            buckets.addLast(new HashMap<>());
+            return;
+        }
+        while (currentBucketStartMs < bucketStartMs) {
+            currentBucketStartMs += bucketDurationMs;
+            buckets.addLast(new HashMap<>());
+            if (buckets.size() > bucketCount) {
+                buckets.pollFirst().forEach((term, count) -> {
+                    if (totals.merge(term, -count, Long::sum) == 0) {
+                        totals.remove(term);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.microservices.demo.twitter.to.kafka.service.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTests {
+
+    private static final long WINDOW_MS = 60_000L;
+
+    @Test
+    void topTermsMatchExactBaselineOnZipfStream() {
+        HeavyHitters heavyHitters = new HeavyHitters(new WindowedCountMinSketch(4, 4096, WINDOW_MS, 6), 100);
+        ExactWindowedTermCounter exact = new ExactWindowedTermCounter(WINDOW_MS, 6);
+        ZipfTerms zipfTerms = new ZipfTerms(100_000, 1.1, 7);
+
+        long nowMs = 0;
+        for (int i = 0; i < 500_000; i++) {
+            nowMs = i / 5;
+            String term = zipfTerms.next();
+            heavyHitters.add(term, nowMs);
+            exact.add(term, nowMs);
+        }
+
+        List<TrendingTerm> estimated = heavyHitters.top(10, nowMs);
+        List<TrendingTerm> actual = exact.top(10, nowMs);
+        assertThat(recall(estimated, actual)).isGreaterThanOrEqualTo(0.9);
+        for (TrendingTerm term : estimated) {
+            long trueCount = exact.count(term.term());
+            assertThat(term.estimatedCount()).isGreaterThanOrEqualTo(trueCount);
+            assertThat((double) term.estimatedCount() - trueCount).isLessThanOrEqualTo(trueCount * 0.05);
+        }
+    }
+
+    @Test
+    void termsDecayOutOfTheWindow() {
+        HeavyHitters heavyHitters = new HeavyHitters(new WindowedCountMinSketch(4, 1024, WINDOW_MS, 6), 10);
+        for (int i = 0; i < 100; i++) {
+            heavyHitters.add("#java", 0);
+        }
+        for (int i = 0; i < 10; i++) {
+            heavyHitters.add("kafka", 30_000);
+        }
+
+        assertThat(heavyHitters.top(2, 30_000)).extracting(TrendingTerm::term).containsExactly("#java", "kafka");
+        assertThat(heavyHitters.top(2, WINDOW_MS + 5_000)).containsExactly(new TrendingTerm("kafka", 10));
+        assertThat(heavyHitters.top(2, 2 * WINDOW_MS)).isEmpty();
+    }
+
+    static double recall(List<TrendingTerm> estimated, List<TrendingTerm> actual) {
+        Set<String> actualTerms = actual.stream().map(TrendingTerm::term).collect(Collectors.toSet());
+        long hits = estimated.stream().map(TrendingTerm::term).filter(actualTerms::contains).count();
+        return (double) hits / actual.size();
+    }
+}
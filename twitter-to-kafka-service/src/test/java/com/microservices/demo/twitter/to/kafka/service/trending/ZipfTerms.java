@@ -0,0 +1,44 @@
+package com.microservices.demo.twitter.to.kafka.service.trending;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Draws terms from a Zipf-distributed vocabulary, which is how term frequencies in tweets behave.
+ */
+public class ZipfTerms {
+
+    private final String[] vocabulary;
+
+    private final double[] cumulative;
+
+    private final SplittableRandom random;
+
+    public ZipfTerms(int vocabularySize, double exponent, long seed) {
+        vocabulary = new String[vocabularySize];
+        cumulative = new double[vocabularySize];
+        double sum = 0;
+        for (int i = 0; i < vocabularySize; i++) {
+            vocabulary[i] = "term" + i;
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < vocabularySize; i++) {
+            cumulative[i] /= sum;
+        }
+        random = new SplittableRandom(seed);
+    }
+
+    public String next() {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return vocabulary[index >= 0 ? index : Math.min(-index - 1, vocabulary.length - 1)];
+    }
+
+    public String[] next(int count) {
+        String[] terms = new String[count];
+        for (int i = 0; i < count; i++) {
+            terms[i] = next();
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+#
+# Compares time-to-first-record-produced of the plain jar against the aot-cds build.
+#
+# Needs the Kafka cluster and schema registry from docker-compose (common.yml:kafka_cluster.yml) and both builds:
+#   mvn -pl twitter-to-kafka-service package             -> target/<jar>
+#   mvn -pl twitter-to-kafka-service package -P aot-cds  -> target/cds/<jar> + target/cds/application.jsa
+# The aot-cds package rebuilds target/<jar> with the AOT classes in it, which the plain run ignores.
+#
+# Usage: ./startup-benchmark.sh [runs]
+
+set -euo pipefail
+
+RUNS=${1:-5}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+BASE_DIR=$(cd "$(dirname "$0")" && pwd)
+JAR=twitter-to-kafka-service-0.0.1-SNAPSHOT.jar
+# Mock tweets are on by default; a short sleep keeps the first tweet from waiting out the 10 s default interval
+APP_ARGS=(--twitter-to-kafka-service.mock-sleep-ms=10)
+
+# Prints "<spring started ms> <first record ms>" for one run, both measured from JVM start.
+run_once() {
+  local work_dir=$1
+  shift
+  local log
+  log=$(mktemp)
+  (cd "$work_dir" && exec java "$@" -jar "$JAR" "${APP_ARGS[@]}") >"$log" 2>&1 &
+  local pid=$!
+  local waited=0
+  until grep -q "First record produced" "$log"; do
+    if ! kill -0 "$pid" 2>/dev/null || [ "$waited" -ge $((TIMEOUT_SECONDS * 10)) ]; then
+      kill "$pid" 2>/dev/null || true
+      echo "no record produced, see $log" >&2
+      return 1
+    fi
+    sleep 0.1
+    waited=$((waited + 1))
+  done
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  local started first
+  started=$(sed -n 's/.*Started .* in \([0-9.]*\) seconds (process running for \([0-9.]*\)).*/\2/p' "$log" |
+    awk '{ printf "%d", $1 * 1000 }')
+  first=$(sed -n 's/.*First record produced \([0-9]*\) ms after JVM start.*/\1/p' "$log")
+  rm -f "$log"
+  echo "$started $first"
+}
+
+benchmark() {
+  local name=$1
+  shift
+  local total_started=0 total_first=0
+  for ((i = 1; i <= RUNS; i++)); do
+    read -r started first < <(run_once "$@")
+    printf '%-8s run %d: started %6d ms, first record %6d ms\n' "$name" "$i" "$started" "$first"
+    total_started=$((total_started + started))
+    total_first=$((total_first + first))
+  done
+  printf '%-8s mean:  started %6d ms, first record %6d ms\n' "$name" $((total_started / RUNS)) $((total_first / RUNS))
+}
+
+benchmark plain "$BASE_DIR/target"
+benchmark aot-cds "$BASE_DIR/target/cds" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true